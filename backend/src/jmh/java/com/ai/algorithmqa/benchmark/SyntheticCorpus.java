@@ -0,0 +1,97 @@
+package com.ai.algorithmqa.benchmark;
+
+import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * 基准用的离线语料：固定种子生成向量、关键词与中文句子，不依赖 MySQL 与 embedding 服务，
+ * 同一参数多次运行得到完全相同的数据，优化前后的结果可以直接对比。
+ */
+public final class SyntheticCorpus {
+
+    public static final String[] KEYWORDS = {
+            "分治", "递归", "动态规划", "贪心", "回溯", "分支限界", "图论", "最短路径", "最小生成树", "网络流",
+            "排序", "二分查找", "哈希", "堆", "并查集", "字符串匹配", "线性规划", "近似算法", "随机化", "NP完全"
+    };
+
+    private static final String[] TERMS = {
+            "子问题", "最优子结构", "状态转移", "时间复杂度", "空间复杂度", "递推式", "主定理", "剪枝", "松弛",
+            "邻接表", "优先队列", "归并", "划分", "基准元素", "记忆化", "背包", "区间", "拓扑序", "增广路", "割"
+    };
+
+    private SyntheticCorpus() {
+    }
+
+    public static Random random() {
+        return new Random(20240601L);
+    }
+
+    /**
+     * 各分量服从标准正态分布的向量（未归一化）
+     */
+    public static float[] vector(Random random, int dimension) {
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        return vector;
+    }
+
+    public static List<Double> boxedVector(Random random, int dimension) {
+        List<Double> vector = new ArrayList<>(dimension);
+        for (int i = 0; i < dimension; i++) {
+            vector.add(random.nextGaussian());
+        }
+        return vector;
+    }
+
+    /**
+     * 由若干术语拼成的一句中文，以句号结尾
+     */
+    public static String sentence(Random random, int terms) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < terms; i++) {
+            if (i > 0) {
+                builder.append(random.nextBoolean() ? "与" : "通过");
+            }
+            builder.append(TERMS[random.nextInt(TERMS.length)]);
+        }
+        return builder.append("决定了算法的效率。").toString();
+    }
+
+    public static String paragraph(Random random, int sentences) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < sentences; i++) {
+            builder.append(sentence(random, 3 + random.nextInt(4)));
+            if (i % 3 == 2) {
+                // 带序号的步骤，检验切分时不会在 "1." 处断开
+                builder.append(i + 1).append(". 更新答案并继续。");
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * 逗号分隔的 1~3 个关键词
+     */
+    public static String keywords(Random random) {
+        int count = 1 + random.nextInt(3);
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(',');
+            }
+            builder.append(KEYWORDS[random.nextInt(KEYWORDS.length)]);
+        }
+        return builder.toString();
+    }
+
+    public static KnowledgeIngestRequest.AlgorithmSection section(Random random, int sentences) {
+        return new KnowledgeIngestRequest.AlgorithmSection("算法" + random.nextInt(1000),
+                paragraph(random, sentences), paragraph(random, sentences), "时间复杂度 O(n log n)。空间复杂度 O(n)。",
+                null, null, null);
+    }
+}
@@ -0,0 +1,54 @@
+package com.ai.algorithmqa.retrieval;
+
+import com.ai.algorithmqa.benchmark.SyntheticCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * embedding 列的二进制编解码（三种精度），旧版 JSON 格式的对照见 {@link EmbeddingJsonBenchmark}。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmbeddingCodecBenchmark {
+
+    @Param({"1536"})
+    private int dimension;
+
+    @Param({"FLOAT32", "FLOAT16", "INT8"})
+    private EmbeddingCodec.Encoding encoding;
+
+    private float[] vector;
+    private byte[] encoded;
+
+    @Setup
+    public void setUp() {
+        vector = SyntheticCorpus.vector(SyntheticCorpus.random(), dimension);
+        VectorMath.normalizeInPlace(vector, 0, dimension);
+        encoded = EmbeddingCodec.encode(vector, encoding);
+    }
+
+    @Benchmark
+    public byte[] encode() {
+        return EmbeddingCodec.encode(vector, encoding);
+    }
+
+    @Benchmark
+    public float[] decode() {
+        return EmbeddingCodec.decode(encoded);
+    }
+}
@@ -0,0 +1,57 @@
+package com.ai.algorithmqa.retrieval;
+
+import com.ai.algorithmqa.benchmark.SyntheticCorpus;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 旧版 embedding_json 列的 Jackson 读写，作为 {@link EmbeddingCodecBenchmark} 的对照。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EmbeddingJsonBenchmark {
+
+    @Param({"1536"})
+    private int dimension;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private float[] vector;
+    private String json;
+
+    @Setup
+    public void setUp() throws JsonProcessingException {
+        vector = SyntheticCorpus.vector(SyntheticCorpus.random(), dimension);
+        VectorMath.normalizeInPlace(vector, 0, dimension);
+        json = objectMapper.writeValueAsString(vector);
+    }
+
+    @Benchmark
+    public String toJson() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(vector);
+    }
+
+    /**
+     * 与 KnowledgeServiceImpl 读取未迁移旧数据的路径相同：JSON 文本直接反序列化为 float[]
+     */
+    @Benchmark
+    public float[] parseEmbedding() throws JsonProcessingException {
+        return objectMapper.readValue(json, float[].class);
+    }
+}
@@ -0,0 +1,106 @@
+package com.ai.algorithmqa.retrieval;
+
+import com.ai.algorithmqa.benchmark.SyntheticCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 完整的 {@link VectorIndex#search} 排序：向量 Top-K、BM25 与倒数排名融合，可选关键词过滤。
+ * 默认只跑 exact 与 int8；HNSW 建图较慢，需要时追加 -p engine=hnsw。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@State(Scope.Benchmark)
+public class VectorIndexSearchBenchmark {
+
+    private static final int QUERY_COUNT = 64;
+    private static final int PAGE_SIZE = 1000;
+
+    @Param({"1000", "10000", "100000"})
+    private int corpusSize;
+
+    @Param({"256"})
+    private int dimension;
+
+    @Param({"exact", "int8"})
+    private String engine;
+
+    /**
+     * none 不过滤；keyword 按单个关键词过滤，约保留 1/10 的片段
+     */
+    @Param({"none", "keyword"})
+    private String filter;
+
+    @Param({"4"})
+    private int topK;
+
+    private VectorIndex index;
+    private float[][] queries;
+    private String[] queryTexts;
+    private List<String> filters;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        Random random = SyntheticCorpus.random();
+        index = new VectorIndex(engine(engine));
+        List<VectorIndex.Entry> page = new ArrayList<>(PAGE_SIZE);
+        for (int row = 0; row < corpusSize; row++) {
+            page.add(new VectorIndex.Entry(row + 1L, row / 8 + 1L, SyntheticCorpus.sentence(random, 4),
+                    SyntheticCorpus.keywords(random), SyntheticCorpus.vector(random, dimension)));
+            if (page.size() == PAGE_SIZE) {
+                index.addAll(page);
+                page.clear();
+            }
+        }
+        index.addAll(page);
+        index.markLoaded();
+
+        queries = new float[QUERY_COUNT][];
+        queryTexts = new String[QUERY_COUNT];
+        for (int i = 0; i < QUERY_COUNT; i++) {
+            queries[i] = SyntheticCorpus.vector(random, dimension);
+            VectorMath.normalizeInPlace(queries[i], 0, dimension);
+            queryTexts[i] = SyntheticCorpus.sentence(random, 2);
+        }
+        filters = "keyword".equals(filter) ? List.of(SyntheticCorpus.KEYWORDS[2]) : null;
+    }
+
+    private static VectorSearchEngine engine(String name) {
+        return switch (name) {
+            case ExactSearchEngine.NAME -> new ExactSearchEngine();
+            case ScalarQuantizedEngine.NAME -> new ScalarQuantizedEngine(4);
+            case HnswSearchEngine.NAME -> new HnswSearchEngine(16, 100, 64);
+            default -> throw new IllegalArgumentException("未知的检索引擎: " + name);
+        };
+    }
+
+    @Benchmark
+    public List<VectorIndex.Hit> hybridSearch() {
+        int i = next++ & (QUERY_COUNT - 1);
+        return index.search(queries[i], queryTexts[i], filters, topK);
+    }
+
+    @Benchmark
+    public List<VectorIndex.Hit> vectorSearch() {
+        int i = next++ & (QUERY_COUNT - 1);
+        return index.search(queries[i], null, filters, topK);
+    }
+}
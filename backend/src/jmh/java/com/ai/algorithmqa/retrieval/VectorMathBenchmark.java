@@ -0,0 +1,75 @@
+package com.ai.algorithmqa.retrieval;
+
+import com.ai.algorithmqa.benchmark.SyntheticCorpus;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 单次相似度计算：装箱 List&lt;Double&gt; 上的余弦（早期实现，作为对照）与归一化 float[] 上的点积。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class VectorMathBenchmark {
+
+    @Param({"1536"})
+    private int dimension;
+
+    private List<Double> boxedQuery;
+    private List<Double> boxedRow;
+    private float[] query;
+    private float[] row;
+
+    @Setup
+    public void setUp() {
+        Random random = SyntheticCorpus.random();
+        boxedQuery = SyntheticCorpus.boxedVector(random, dimension);
+        boxedRow = SyntheticCorpus.boxedVector(random, dimension);
+        query = VectorMath.toNormalizedArray(boxedQuery);
+        row = VectorMath.toNormalizedArray(boxedRow);
+    }
+
+    @Benchmark
+    public double cosineOverBoxedLists() {
+        double dot = 0;
+        double normA = 0;
+        double normB = 0;
+        for (int i = 0; i < boxedQuery.size(); i++) {
+            double a = boxedQuery.get(i);
+            double b = boxedRow.get(i);
+            dot += a * b;
+            normA += a * a;
+            normB += b * b;
+        }
+        return dot / (Math.sqrt(normA) * Math.sqrt(normB));
+    }
+
+    @Benchmark
+    public float dotOverNormalizedArrays() {
+        return VectorMath.dot(query, row, 0);
+    }
+
+    /**
+     * embedding 服务返回的 List&lt;Double&gt; 转成归一化 float[]，每次查询发生一次
+     */
+    @Benchmark
+    public float[] toNormalizedArray() {
+        return VectorMath.toNormalizedArray(boxedQuery);
+    }
+}
@@ -0,0 +1,49 @@
+package com.ai.algorithmqa.service.impl;
+
+import com.ai.algorithmqa.benchmark.SyntheticCorpus;
+import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
+import com.ai.algorithmqa.domain.entity.KnowledgeChunk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 导入时按正则把算法描述切成片段（{@link KnowledgeAssembler#splitIntoChunks}）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ChunkSplitBenchmark {
+
+    /**
+     * 核心思想与步骤各含的句子数
+     */
+    @Param({"10", "100"})
+    private int sentences;
+
+    private KnowledgeIngestRequest.AlgorithmSection section;
+
+    @Setup
+    public void setUp() {
+        section = SyntheticCorpus.section(SyntheticCorpus.random(), sentences);
+    }
+
+    @Benchmark
+    public List<KnowledgeChunk> splitIntoChunks() {
+        return KnowledgeAssembler.splitIntoChunks(section, "分治,递归");
+    }
+}
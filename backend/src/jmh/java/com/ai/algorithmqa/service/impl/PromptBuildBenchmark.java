@@ -0,0 +1,56 @@
+package com.ai.algorithmqa.service.impl;
+
+import com.ai.algorithmqa.benchmark.SyntheticCorpus;
+import com.ai.algorithmqa.domain.dto.ReferenceChunk;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 问答时拼接 Prompt（{@link QaServiceImpl#buildPrompt}）。
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class PromptBuildBenchmark {
+
+    /**
+     * 注入 Prompt 的片段数
+     */
+    @Param({"4", "16"})
+    private int references;
+
+    private String question;
+    private List<ReferenceChunk> chunks;
+
+    @Setup
+    public void setUp() {
+        Random random = SyntheticCorpus.random();
+        question = "请解释" + SyntheticCorpus.sentence(random, 3);
+        chunks = new ArrayList<>(references);
+        for (int i = 0; i < references; i++) {
+            chunks.add(new ReferenceChunk((long) i, "主题" + i, SyntheticCorpus.paragraph(random, 2), 0.9));
+        }
+    }
+
+    @Benchmark
+    public String buildPrompt() {
+        return QaServiceImpl.buildPrompt(question, chunks);
+    }
+}
@@ -0,0 +1,267 @@
+package com.ai.algorithmqa.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 本机运行的 DashScope 替身，供压测使用：实现文本生成（同步与 SSE 增量输出）和文本 embedding 两个接口，
+ * 响应格式与后端解析的字段一致（output.text / output.finish_reason / usage.output_tokens / output.embeddings）。
+ * <p>
+ * 首 token 延迟、输出速率、embedding 延迟与错误注入比例均可配置；每个请求一个虚拟线程，
+ * 用 sleep 模拟远端耗时，几千并发也不占用平台线程。不校验 API Key。
+ * 既可以独立运行（{@link #main}），也可以由 {@link LoadGenerator} 在同一进程内启动。
+ */
+public class FakeDashScopeServer implements AutoCloseable {
+
+    public static final String GENERATION_PATH = "/api/v1/services/aigc/text-generation/generation";
+    public static final String EMBEDDING_PATH = "/api/v1/services/embeddings/text-embedding/text-embedding";
+
+    private static final String[] TOKENS = {
+            "分治", "算法", "将", "问题", "拆分", "为", "若干", "规模", "较小", "的", "子问题", "，",
+            "递归", "求解", "后", "合并", "结果", "。", "时间复杂度", "通常", "由", "主定理", "给出", "。"
+    };
+
+    /**
+     * 替身的行为参数
+     *
+     * @param port                 监听端口，0 表示随机
+     * @param firstTokenLatency    生成接口收到请求到输出第一个 token 的耗时
+     * @param tokensPerSecond      之后的输出速率
+     * @param answerTokens         每个回答的 token 数
+     * @param embeddingLatency     embedding 接口的固定耗时
+     * @param embeddingDimension   返回向量的维度
+     * @param errorRate            以该比例直接返回 HTTP 500（模拟限流/故障）
+     * @param streamAbortRate      以该比例在流式输出中途断开连接
+     */
+    public record Settings(int port, Duration firstTokenLatency, double tokensPerSecond, int answerTokens,
+                           Duration embeddingLatency, int embeddingDimension, double errorRate,
+                           double streamAbortRate) {
+
+        public static Settings defaults() {
+            return new Settings(18080, Duration.ofMillis(400), 40, 120, Duration.ofMillis(80), 1536, 0, 0);
+        }
+
+        /**
+         * 用 --key=value 形式的命令行参数覆盖默认值，未识别的参数原样忽略。
+         */
+        public static Settings fromArgs(Map<String, String> args) {
+            Settings d = defaults();
+            return new Settings(
+                    Integer.parseInt(args.getOrDefault("fake-port", String.valueOf(d.port()))),
+                    Duration.ofMillis(Long.parseLong(args.getOrDefault("first-token-ms",
+                            String.valueOf(d.firstTokenLatency().toMillis())))),
+                    Double.parseDouble(args.getOrDefault("tokens-per-second", String.valueOf(d.tokensPerSecond()))),
+                    Integer.parseInt(args.getOrDefault("answer-tokens", String.valueOf(d.answerTokens()))),
+                    Duration.ofMillis(Long.parseLong(args.getOrDefault("embedding-ms",
+                            String.valueOf(d.embeddingLatency().toMillis())))),
+                    Integer.parseInt(args.getOrDefault("embedding-dim", String.valueOf(d.embeddingDimension()))),
+                    Double.parseDouble(args.getOrDefault("error-rate", String.valueOf(d.errorRate()))),
+                    Double.parseDouble(args.getOrDefault("stream-abort-rate", String.valueOf(d.streamAbortRate()))));
+        }
+    }
+
+    private final Settings settings;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final LongAdder generations = new LongAdder();
+    private final LongAdder embeddings = new LongAdder();
+    private final LongAdder injectedErrors = new LongAdder();
+    private HttpServer server;
+
+    public FakeDashScopeServer(Settings settings) {
+        this.settings = settings;
+    }
+
+    public FakeDashScopeServer start() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", settings.port()), 1024);
+        server.setExecutor(executor);
+        server.createContext(GENERATION_PATH, this::handleGeneration);
+        server.createContext(EMBEDDING_PATH, this::handleEmbedding);
+        server.start();
+        return this;
+    }
+
+    public int port() {
+        return server.getAddress().getPort();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + port();
+    }
+
+    public String stats() {
+        return "generation=" + generations.sum() + ", embedding=" + embeddings.sum()
+                + ", injectedErrors=" + injectedErrors.sum();
+    }
+
+    @Override
+    public void close() {
+        if (server != null) {
+            server.stop(0);
+        }
+        executor.close();
+    }
+
+    /**
+     * 正常结束时关闭 exchange；注入的流式中断直接抛出异常且不关闭，由 HttpServer 断开底层连接，
+     * 客户端读到的是不完整的分块响应，与真实的网络中断一致。
+     */
+    private void handleGeneration(HttpExchange exchange) throws IOException {
+        generations.increment();
+        try {
+            JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+            if (injectError(exchange)) {
+                exchange.close();
+                return;
+            }
+            boolean stream = "enable".equalsIgnoreCase(exchange.getRequestHeaders().getFirst("X-DashScope-SSE"))
+                    || body.path("parameters").path("incremental_output").asBoolean(false);
+            sleep(settings.firstTokenLatency());
+            if (stream) {
+                if (!streamAnswer(exchange)) {
+                    throw new IOException("注入的流式中断");
+                }
+            } else {
+                // 同步接口一次性返回，耗时等于完整生成时间
+                sleep(generationTime(settings.answerTokens() - 1));
+                ObjectNode response = objectMapper.createObjectNode();
+                response.putObject("output").put("text", answer(0, settings.answerTokens()))
+                        .put("finish_reason", "stop");
+                response.putObject("usage").put("output_tokens", settings.answerTokens());
+                writeJson(exchange, 200, response);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        exchange.close();
+    }
+
+    /**
+     * @return false 表示按 streamAbortRate 在中途放弃
+     */
+    private boolean streamAnswer(HttpExchange exchange) throws IOException, InterruptedException {
+        exchange.getResponseHeaders().set("Content-Type", "text/event-stream;charset=UTF-8");
+        exchange.sendResponseHeaders(200, 0);
+        OutputStream out = exchange.getResponseBody();
+        int total = settings.answerTokens();
+        int abortAt = ThreadLocalRandom.current().nextDouble() < settings.streamAbortRate()
+                ? ThreadLocalRandom.current().nextInt(Math.max(1, total))
+                : -1;
+        long intervalNanos = settings.tokensPerSecond() > 0 ? (long) (1_000_000_000L / settings.tokensPerSecond()) : 0;
+        for (int i = 0; i < total; i++) {
+            if (i == abortAt) {
+                injectedErrors.increment();
+                return false;
+            }
+            if (i > 0 && intervalNanos > 0) {
+                Thread.sleep(Duration.ofNanos(intervalNanos));
+            }
+            ObjectNode event = objectMapper.createObjectNode();
+            event.putObject("output").put("text", answer(i, 1))
+                    .put("finish_reason", i == total - 1 ? "stop" : "null");
+            event.putObject("usage").put("output_tokens", i + 1);
+            out.write(("id:" + (i + 1) + "\nevent:result\ndata:" + objectMapper.writeValueAsString(event) + "\n\n")
+                    .getBytes(StandardCharsets.UTF_8));
+            out.flush();
+        }
+        return true;
+    }
+
+    private void handleEmbedding(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            embeddings.increment();
+            JsonNode body = objectMapper.readTree(exchange.getRequestBody());
+            if (injectError(exchange)) {
+                return;
+            }
+            sleep(settings.embeddingLatency());
+            ObjectNode response = objectMapper.createObjectNode();
+            ArrayNode items = response.putObject("output").putArray("embeddings");
+            JsonNode texts = body.path("input").path("texts");
+            for (int i = 0; i < texts.size(); i++) {
+                ObjectNode item = items.addObject();
+                item.put("text_index", i);
+                ArrayNode vector = item.putArray("embedding");
+                // 同一文本得到同一向量，检索结果可复现
+                Random random = new Random(texts.get(i).asText().hashCode());
+                for (int d = 0; d < settings.embeddingDimension(); d++) {
+                    vector.add(random.nextGaussian());
+                }
+            }
+            writeJson(exchange, 200, response);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private boolean injectError(HttpExchange exchange) throws IOException {
+        if (settings.errorRate() <= 0 || ThreadLocalRandom.current().nextDouble() >= settings.errorRate()) {
+            return false;
+        }
+        injectedErrors.increment();
+        ObjectNode error = objectMapper.createObjectNode()
+                .put("code", "InternalError")
+                .put("message", "injected by FakeDashScopeServer");
+        writeJson(exchange, 500, error);
+        return true;
+    }
+
+    private void writeJson(HttpExchange exchange, int status, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private Duration generationTime(int tokens) {
+        if (settings.tokensPerSecond() <= 0 || tokens <= 0) {
+            return Duration.ZERO;
+        }
+        return Duration.ofNanos((long) (tokens * 1_000_000_000L / settings.tokensPerSecond()));
+    }
+
+    private static String answer(int from, int count) {
+        StringBuilder builder = new StringBuilder();
+        for (int i = from; i < from + count; i++) {
+            builder.append(TOKENS[i % TOKENS.length]);
+        }
+        return builder.toString();
+    }
+
+    private static void sleep(Duration duration) throws InterruptedException {
+        if (!duration.isZero() && !duration.isNegative()) {
+            Thread.sleep(duration);
+        }
+    }
+
+    /**
+     * 独立运行：--fake-port=18080 --first-token-ms=400 --tokens-per-second=40 --answer-tokens=120
+     * --embedding-ms=80 --embedding-dim=1536 --error-rate=0 --stream-abort-rate=0
+     */
+    public static void main(String[] args) throws Exception {
+        Settings settings = Settings.fromArgs(LoadGenerator.parseArgs(args));
+        FakeDashScopeServer server = new FakeDashScopeServer(settings).start();
+        System.out.println("FakeDashScopeServer 已启动 " + server.baseUrl() + " " + settings);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            System.out.println("FakeDashScopeServer 停止 " + server.stats());
+            server.close();
+        }));
+        Thread.currentThread().join();
+    }
+}
@@ -0,0 +1,276 @@
+package com.ai.algorithmqa.loadtest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 问答接口的闭环压测：固定数量的虚拟线程各自循环发送请求，每个请求完成后立即发下一个，
+ * 预热结束后开始计时，结束时输出吞吐与 p50/p99/p999 延迟。
+ * <p>
+ * 同步模式测 POST /api/qa 的完整耗时；流式模式测 POST /api/qa/stream 的首个 content 事件耗时与读完整个流的耗时。
+ * 后端以 loadtest 配置启动时，大模型与 embedding 调用都指向本机的 {@link FakeDashScopeServer}，
+ * 传入 --fake-port 时替身在本进程内启动，整个压测不需要外网。
+ * <p>
+ * 参数（--key=value）：base-url、mode=sync|stream|both、concurrency、duration、warmup、top-k、filters（逗号分隔），
+ * 以及 {@link FakeDashScopeServer.Settings#fromArgs} 的替身参数。时长可写 60s / 2m / 500ms，纯数字按秒。
+ */
+public class LoadGenerator {
+
+    /**
+     * 问题轮流使用，彼此措辞差异较大，即使开着语义回答缓存也不会大面积命中
+     */
+    private static final List<String> QUESTIONS = List.of(
+            "快速排序的平均时间复杂度是多少，最坏情况如何避免？",
+            "Dijkstra 算法为什么不能处理负权边？",
+            "动态规划和分治法的区别是什么？",
+            "如何用并查集判断无向图中是否存在环？",
+            "KMP 算法中的 next 数组是怎么计算的？",
+            "红黑树插入节点后如何通过旋转恢复平衡？",
+            "拓扑排序有哪些实现方式，分别适用于什么场景？",
+            "背包问题的一维数组优化为什么要倒序遍历？",
+            "堆排序为什么是不稳定的排序算法？",
+            "Floyd 算法的状态转移方程怎么理解？",
+            "二分查找在有重复元素时如何找到左边界？",
+            "最小生成树的 Prim 算法和 Kruskal 算法各自的复杂度是多少？");
+
+    private final HttpClient httpClient;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String baseUrl;
+    private final int topK;
+    private final List<String> filters;
+    private final AtomicInteger questionCursor = new AtomicInteger();
+
+    public LoadGenerator(String baseUrl, int topK, List<String> filters) {
+        this.baseUrl = baseUrl.endsWith("/") ? baseUrl.substring(0, baseUrl.length() - 1) : baseUrl;
+        this.topK = topK;
+        this.filters = filters;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+    }
+
+    /**
+     * 单轮压测的结果。延迟单位为纳秒，只包含计时窗口内完成的请求。
+     *
+     * @param firstTokenNanos 流式请求的首个 content 事件耗时，同步模式为空
+     */
+    public record Report(String mode, int concurrency, Duration elapsed, long[] latencyNanos,
+                         long[] firstTokenNanos, long errors) {
+
+        public double throughput() {
+            return latencyNanos.length / (elapsed.toNanos() / 1_000_000_000.0);
+        }
+
+        public String format() {
+            StringBuilder builder = new StringBuilder();
+            builder.append(String.format("[%s] 并发=%d 时长=%.1fs 成功=%d 失败=%d 吞吐=%.2f req/s%n",
+                    mode, concurrency, elapsed.toMillis() / 1000.0, latencyNanos.length, errors, throughput()));
+            builder.append("  总耗时    ").append(percentiles(latencyNanos)).append(System.lineSeparator());
+            if (firstTokenNanos != null) {
+                builder.append("  首个内容  ").append(percentiles(firstTokenNanos)).append(System.lineSeparator());
+            }
+            return builder.toString();
+        }
+
+        private static String percentiles(long[] sorted) {
+            if (sorted.length == 0) {
+                return "无数据";
+            }
+            return String.format("p50=%.1fms p99=%.1fms p999=%.1fms max=%.1fms",
+                    millis(percentile(sorted, 0.50)), millis(percentile(sorted, 0.99)),
+                    millis(percentile(sorted, 0.999)), millis(sorted[sorted.length - 1]));
+        }
+
+        private static double millis(long nanos) {
+            return nanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * 最近秩法：样本不足时 p999 即最大值，不做插值
+     */
+    static long percentile(long[] sorted, double quantile) {
+        int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length, rank) - 1)];
+    }
+
+    public Report run(boolean stream, int concurrency, Duration warmup, Duration duration) throws InterruptedException {
+        long warmupEnd = System.nanoTime() + warmup.toNanos();
+        long end = warmupEnd + duration.toNanos();
+        ConcurrentLinkedQueue<long[]> samples = new ConcurrentLinkedQueue<>();
+        LongAdder errors = new LongAdder();
+        try (ExecutorService workers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < concurrency; i++) {
+                workers.submit(() -> {
+                    while (System.nanoTime() < end) {
+                        long start = System.nanoTime();
+                        // [总耗时, 首个内容耗时]；null 表示失败
+                        long[] sample = stream ? streamOnce(start) : syncOnce(start);
+                        if (start < warmupEnd || System.nanoTime() > end) {
+                            continue;
+                        }
+                        if (sample == null) {
+                            errors.increment();
+                        } else {
+                            samples.add(sample);
+                        }
+                    }
+                });
+            }
+        }
+        long[] latencies = samples.stream().mapToLong(s -> s[0]).sorted().toArray();
+        long[] firstTokens = stream ? samples.stream().mapToLong(s -> s[1]).sorted().toArray() : null;
+        return new Report(stream ? "stream" : "sync", concurrency, duration, latencies, firstTokens, errors.sum());
+    }
+
+    private long[] syncOnce(long start) {
+        try {
+            HttpResponse<String> response = httpClient.send(request("/api/qa"), HttpResponse.BodyHandlers.ofString());
+            if (response.statusCode() != 200
+                    || !objectMapper.readTree(response.body()).path("success").asBoolean(false)) {
+                return null;
+            }
+            return new long[]{System.nanoTime() - start, 0};
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    /**
+     * 逐行读取 SSE，首个带 content 的 data 行记为首个内容；没有收到任何内容或读取中断都算失败。
+     */
+    private long[] streamOnce(long start) {
+        try {
+            HttpResponse<InputStream> response = httpClient.send(request("/api/qa/stream"),
+                    HttpResponse.BodyHandlers.ofInputStream());
+            try (BufferedReader reader = new BufferedReader(
+                    new InputStreamReader(response.body(), StandardCharsets.UTF_8))) {
+                if (response.statusCode() != 200) {
+                    return null;
+                }
+                long firstContent = -1;
+                String line;
+                while ((line = reader.readLine()) != null) {
+                    if (firstContent < 0 && line.startsWith("data:") && line.contains("\"content\"")) {
+                        firstContent = System.nanoTime() - start;
+                    }
+                }
+                return firstContent < 0 ? null : new long[]{System.nanoTime() - start, firstContent};
+            }
+        } catch (IOException e) {
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    private HttpRequest request(String path) throws IOException {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("question", QUESTIONS.get(Math.floorMod(questionCursor.getAndIncrement(), QUESTIONS.size())));
+        body.put("contextFilters", filters);
+        body.put("topK", topK);
+        body.put("useKnowledgeBase", true);
+        return HttpRequest.newBuilder(URI.create(baseUrl + path))
+                .timeout(Duration.ofMinutes(5))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(objectMapper.writeValueAsBytes(body)))
+                .build();
+    }
+
+    /**
+     * 解析 --key=value 形式的参数，不带值的 --flag 视为 true
+     */
+    public static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> parsed = new LinkedHashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--")) {
+                throw new IllegalArgumentException("无法识别的参数: " + arg);
+            }
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                parsed.put(arg.substring(2), "true");
+            } else {
+                parsed.put(arg.substring(2, eq), arg.substring(eq + 1));
+            }
+        }
+        return parsed;
+    }
+
+    static Duration parseDuration(String value) {
+        String v = value.trim().toLowerCase();
+        if (v.endsWith("ms")) {
+            return Duration.ofMillis(Long.parseLong(v.substring(0, v.length() - 2)));
+        }
+        if (v.endsWith("s")) {
+            return Duration.ofSeconds(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        if (v.endsWith("m")) {
+            return Duration.ofMinutes(Long.parseLong(v.substring(0, v.length() - 1)));
+        }
+        return Duration.ofSeconds(Long.parseLong(v));
+    }
+
+    /**
+     * 示例：--base-url=http://localhost:8080 --mode=both --concurrency=32 --duration=60s --warmup=10s --fake-port=18080
+     */
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parseArgs(args);
+        String mode = options.getOrDefault("mode", "both");
+        int concurrency = Integer.parseInt(options.getOrDefault("concurrency", "16"));
+        Duration duration = parseDuration(options.getOrDefault("duration", "60s"));
+        Duration warmup = parseDuration(options.getOrDefault("warmup", "10s"));
+        List<String> filters = options.containsKey("filters")
+                ? Arrays.stream(options.get("filters").split(",")).map(String::trim).filter(s -> !s.isEmpty()).toList()
+                : List.of();
+        LoadGenerator generator = new LoadGenerator(options.getOrDefault("base-url", "http://localhost:8080"),
+                Integer.parseInt(options.getOrDefault("top-k", "4")), filters);
+
+        FakeDashScopeServer fake = null;
+        if (options.containsKey("fake-port")) {
+            fake = new FakeDashScopeServer(FakeDashScopeServer.Settings.fromArgs(options)).start();
+            System.out.println("FakeDashScopeServer 已启动 " + fake.baseUrl());
+        }
+        try {
+            List<Report> reports = new ArrayList<>();
+            if (!"stream".equals(mode)) {
+                reports.add(generator.run(false, concurrency, warmup, duration));
+            }
+            if (!"sync".equals(mode)) {
+                reports.add(generator.run(true, concurrency, warmup, duration));
+            }
+            reports.forEach(report -> System.out.print(report.format()));
+            if (fake != null) {
+                System.out.println("FakeDashScopeServer " + fake.stats());
+            }
+        } finally {
+            if (fake != null) {
+                fake.close();
+            }
+        }
+    }
+}
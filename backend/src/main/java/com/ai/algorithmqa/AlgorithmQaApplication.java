@@ -1,12 +1,25 @@
 package com.ai.algorithmqa;
 
+import com.ai.algorithmqa.config.AnswerCacheProperties;
+import com.ai.algorithmqa.config.ClickStatsProperties;
 import com.ai.algorithmqa.config.DashScopeProperties;
+import com.ai.algorithmqa.config.IngestProperties;
+import com.ai.algorithmqa.config.QaLogWriterProperties;
+import com.ai.algorithmqa.config.QaStreamProperties;
+import com.ai.algorithmqa.config.QuestionHashBackfillProperties;
+import com.ai.algorithmqa.config.RestClientProperties;
+import com.ai.algorithmqa.config.RetrievalProperties;
+import com.ai.algorithmqa.config.TopNProperties;
+import com.ai.algorithmqa.config.VisualizationCacheProperties;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
 
 @SpringBootApplication
-@EnableConfigurationProperties(DashScopeProperties.class)
+@EnableConfigurationProperties({ DashScopeProperties.class, RetrievalProperties.class, AnswerCacheProperties.class,
+        QaStreamProperties.class, RestClientProperties.class, QaLogWriterProperties.class,
+        ClickStatsProperties.class, TopNProperties.class, IngestProperties.class,
+        VisualizationCacheProperties.class, QuestionHashBackfillProperties.class })
 public class AlgorithmQaApplication {
 
     public static void main(String[] args) {
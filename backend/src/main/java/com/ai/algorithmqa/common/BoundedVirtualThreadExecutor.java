@@ -0,0 +1,108 @@
+package com.ai.algorithmqa.common;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Duration;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 每个任务一个虚拟线程的执行器，用信号量限制同时执行的任务数。
+ * <p>
+ * 适合长时间阻塞在网络读上的任务（如大模型流式输出）：阻塞只挂起虚拟线程，不占用平台线程，
+ * 也不会像 ForkJoinPool.commonPool 那样被占满后拖累其他并行任务。
+ * 并发已满时最多等待 acquireTimeout，仍拿不到许可则抛出 {@link RejectedExecutionException}，由调用方快速失败。
+ */
+@Slf4j
+public class BoundedVirtualThreadExecutor implements Executor, MeterBinder, AutoCloseable {
+
+    private final String name;
+    private final int maxConcurrency;
+    private final Duration acquireTimeout;
+    private final Semaphore permits;
+    private final ExecutorService delegate;
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private Counter rejected;
+    private Timer duration;
+
+    public BoundedVirtualThreadExecutor(String name, int maxConcurrency, Duration acquireTimeout) {
+        this.name = name;
+        this.maxConcurrency = Math.max(1, maxConcurrency);
+        this.acquireTimeout = acquireTimeout;
+        this.permits = new Semaphore(this.maxConcurrency);
+        this.delegate = Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name(name + "-", 0).factory());
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        boolean acquired;
+        try {
+            acquired = permits.tryAcquire(acquireTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RejectedExecutionException("等待执行许可时被中断", e);
+        }
+        if (!acquired) {
+            if (rejected != null) {
+                rejected.increment();
+            }
+            log.warn("{} 并发已达上限 {}，拒绝新任务", name, maxConcurrency);
+            throw new RejectedExecutionException("当前请求过多，请稍后重试");
+        }
+        inFlight.incrementAndGet();
+        long start = System.nanoTime();
+        try {
+            delegate.execute(() -> {
+                try {
+                    task.run();
+                } finally {
+                    release(start);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            release(start);
+            throw e;
+        }
+    }
+
+    private void release(long start) {
+        inFlight.decrementAndGet();
+        permits.release();
+        if (duration != null) {
+            duration.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("executor.virtual.in.flight", inFlight, AtomicInteger::get)
+                .tag("name", name).register(registry);
+        Gauge.builder("executor.virtual.max.concurrency", () -> maxConcurrency)
+                .tag("name", name).register(registry);
+        rejected = Counter.builder("executor.virtual.rejected").tag("name", name).register(registry);
+        duration = Timer.builder("executor.virtual.task.duration").tag("name", name).register(registry);
+    }
+
+    /**
+     * 停止接收新任务；已在执行的流式任务随各自的 SseEmitter 超时或完成自然结束。
+     */
+    @Override
+    public void close() {
+        delegate.shutdown();
+    }
+}
@@ -0,0 +1,47 @@
+package com.ai.algorithmqa.common;
+
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.util.function.Supplier;
+
+/**
+ * HTTP 条件请求：按 If-None-Match 与当前 ETag 比对，命中时返回 304，否则带 ETag 返回 200。
+ * 响应统一带 Cache-Control: no-cache，浏览器与 nginx 可以缓存但每次使用前都要带 ETag 回源校验。
+ */
+public final class ConditionalResponses {
+
+    private ConditionalResponses() {
+    }
+
+    /**
+     * @param etag 必须在生成响应体之前读取，保证响应体不会比 ETag 旧
+     * @param body 只在需要返回 200 时调用
+     */
+    public static <T> ResponseEntity<T> withEtag(String ifNoneMatch, String etag, Supplier<T> body) {
+        if (etagMatches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(body.get());
+    }
+
+    /**
+     * If-None-Match 可能是逗号分隔的多个 ETag、弱 ETag（W/ 前缀，经 gzip 的代理会改写成弱 ETag）或 *。
+     */
+    public static boolean etagMatches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank() || etag == null) {
+            return false;
+        }
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if (tag.startsWith("W/")) {
+                tag = tag.substring(2);
+            }
+            if (tag.equals("*") || tag.equals(etag)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
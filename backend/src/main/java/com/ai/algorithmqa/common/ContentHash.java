@@ -0,0 +1,33 @@
+package com.ai.algorithmqa.common;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * 内容哈希：对象按字段名排序序列化成紧凑 JSON 后取 SHA-256（64 位十六进制）。
+ * 同样的导入内容无论来自 YAML 还是接口都得到同一个哈希，用于判断主题内容是否变化。
+ */
+public final class ContentHash {
+
+    private static final ObjectMapper CANONICAL = JsonMapper.builder()
+            .enable(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY)
+            .build();
+
+    private ContentHash() {
+    }
+
+    public static String of(Object value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(CANONICAL.writeValueAsBytes(value));
+            return HexFormat.of().formatHex(digest);
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new IllegalStateException("计算内容哈希失败", e);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.ai.algorithmqa.common;
+
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.util.Locale;
+import java.util.regex.Pattern;
+
+/**
+ * 问题指纹：先做规范化（NFKC 全角/半角统一、转小写、去掉标点与符号、合并空白），再取 64 位哈希。
+ * “什么是分治？”“什么是分治”“ 什么是 分治 ! ”得到同一个指纹，qa_log 按指纹列聚合即可走索引。
+ */
+public final class QuestionFingerprint {
+
+    private static final Pattern PUNCTUATION = Pattern.compile("[\\p{P}\\p{S}]+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private QuestionFingerprint() {
+    }
+
+    public static String normalize(String question) {
+        if (question == null) {
+            return "";
+        }
+        String folded = Normalizer.normalize(question, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        folded = PUNCTUATION.matcher(folded).replaceAll(" ");
+        return WHITESPACE.matcher(folded).replaceAll(" ").trim();
+    }
+
+    /**
+     * 规范化文本的 64 位哈希：FNV-1a 后再做一次 splitmix64 混合，使低位也分布均匀。
+     */
+    public static long hash(String question) {
+        long h = FNV_OFFSET;
+        for (byte b : normalize(question).getBytes(StandardCharsets.UTF_8)) {
+            h ^= b & 0xff;
+            h *= FNV_PRIME;
+        }
+        h ^= h >>> 30;
+        h *= 0xbf58476d1ce4e5b9L;
+        h ^= h >>> 27;
+        h *= 0x94d049bb133111ebL;
+        return h ^ (h >>> 31);
+    }
+}
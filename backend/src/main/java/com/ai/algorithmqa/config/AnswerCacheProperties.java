@@ -0,0 +1,21 @@
+package com.ai.algorithmqa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 语义回答缓存配置：问题向量与已缓存问题的余弦相似度不低于 similarityThreshold，
+ * 且过滤条件、TopK、是否使用知识库均相同时，直接复用已生成的回答。
+ */
+@ConfigurationProperties(prefix = "qa.answer-cache")
+public record AnswerCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("0.95") double similarityThreshold,
+        @DefaultValue("1000") int maxEntries,
+        @DefaultValue("6h") Duration ttl,
+        // 流式回放时每个 SSE 事件携带的字符数
+        @DefaultValue("64") int replayChunkChars
+) {
+}
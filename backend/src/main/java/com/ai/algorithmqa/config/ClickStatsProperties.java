@@ -0,0 +1,20 @@
+package com.ai.algorithmqa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 点击统计配置：点击先在内存中按主题、按分钟计数，每 flushInterval 以增量 upsert 到 topic_click_rollup；
+ * rawLogEnabled=true 时同时保留原始点击事件，进入容量为 rawQueueCapacity 的队列随刷新批量写入 search_click_log。
+ * batchSize 为单条多行 SQL 的最大行数。
+ */
+@ConfigurationProperties(prefix = "stats.click")
+public record ClickStatsProperties(
+        @DefaultValue("5s") Duration flushInterval,
+        @DefaultValue("500") int batchSize,
+        @DefaultValue("false") boolean rawLogEnabled,
+        @DefaultValue("10000") int rawQueueCapacity
+) {
+}
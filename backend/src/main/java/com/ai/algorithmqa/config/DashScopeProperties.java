@@ -1,8 +1,11 @@
 package com.ai.algorithmqa.config;
 
 import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
 import org.springframework.validation.annotation.Validated;
 
+import java.time.Duration;
+
 @Validated
 @ConfigurationProperties(prefix = "dashscope")
 // 定义DashScope的配置属性，使用record关键字创建不可变的数据类
@@ -11,8 +14,26 @@ public record DashScopeProperties(
         String model,
         String endpoint,
         String embeddingModel,
-        String embeddingEndpoint
+        String embeddingEndpoint,
+        // 单次 embedding 请求最多携带的文本数（text-embedding-v1/v2 上限 25，v3 上限 10）
+        @DefaultValue("25") int embeddingBatchSize,
+        @DefaultValue Http http
 ) {
-}
-
 
+    /**
+     * 共享 OkHttpClient 的参数：连接池保留 maxIdleConnections 条空闲连接 keepAlive 时长；
+     * readTimeout 用于 embedding 等一次性响应，streamReadTimeout 是流式输出两次数据之间允许的最长间隔；
+     * http2=true 时经 TLS ALPN 协商 HTTP/2，多个请求复用同一条连接。
+     * 调用都走同步 execute()，OkHttp 调度器的并发上限对其不生效，并发由调用方的有界执行器控制。
+     */
+    public record Http(
+            @DefaultValue("5s") Duration connectTimeout,
+            @DefaultValue("10s") Duration writeTimeout,
+            @DefaultValue("60s") Duration readTimeout,
+            @DefaultValue("300s") Duration streamReadTimeout,
+            @DefaultValue("32") int maxIdleConnections,
+            @DefaultValue("5m") Duration keepAlive,
+            @DefaultValue("true") boolean http2
+    ) {
+    }
+}
@@ -1,56 +1,135 @@
 package com.ai.algorithmqa.config;
 
+import com.ai.algorithmqa.common.ContentHash;
 import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
+import com.ai.algorithmqa.domain.entity.KnowledgeTopic;
 import com.ai.algorithmqa.mapper.KnowledgeTopicMapper;
 import com.ai.algorithmqa.service.KnowledgeService;
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
-import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 
+/**
+ * 示例知识库的增量导入：应用就绪后在后台虚拟线程中逐个读取 data/core_topics.yaml 中的主题（token 流式解析，
+ * 不把整个文件读进内存），每攒一批按标题一次查出已有主题的内容哈希：
+ * <ul>
+ *     <li>不存在：导入；</li>
+ *     <li>哈希相同：跳过；</li>
+ *     <li>哈希不同：原地更新（保留动画 URL 等用户数据）并重建检索片段；</li>
+ *     <li>哈希为空（升级前导入的历史数据）：只记录当前哈希，保持原先“已存在即跳过”的行为。</li>
+ * </ul>
+ * 启动耗时与数据量无关，导入期间检索照常可用。
+ */
 @Slf4j
 @Component
 @RequiredArgsConstructor
 public class DataBootstrap {
 
+    private static final String RESOURCE = "data/core_topics.yaml";
+    private static final int LOOKUP_BATCH = 200;
+
     private final KnowledgeTopicMapper topicMapper;
     private final KnowledgeService knowledgeService;
     private final ObjectMapper yamlMapper = new ObjectMapper(new YAMLFactory());
 
-    @PostConstruct
-    public void init() throws IOException {
-        ClassPathResource resource = new ClassPathResource("data/core_topics.yaml");
+    static final class Counts {
+        int imported;
+        int updated;
+        int adopted;
+        int unchanged;
+        int failed;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        Thread.ofVirtual().name("data-bootstrap").start(this::load);
+    }
+
+    void load() {
+        ClassPathResource resource = new ClassPathResource(RESOURCE);
         if (!resource.exists()) {
-            log.warn("未找到示例知识库数据 data/core_topics.yaml");
+            log.warn("未找到示例知识库数据 {}", RESOURCE);
             return;
         }
-        try (InputStream stream = resource.getInputStream()) {
-            List<KnowledgeIngestRequest> topics = yamlMapper.readValue(stream, new TypeReference<>() {
-            });
-            int importedCount = 0;
-            for (KnowledgeIngestRequest request : topics) {
-                // 检查是否已存在同名主题
-                com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<com.ai.algorithmqa.domain.entity.KnowledgeTopic> query = new com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper<com.ai.algorithmqa.domain.entity.KnowledgeTopic>()
-                        .eq(com.ai.algorithmqa.domain.entity.KnowledgeTopic::getTitle, request.title());
-
-                Long count = topicMapper.selectCount(query);
-                if (count != null && count > 0) {
-                    log.info("主题 [{}] 已存在，跳过导入以保留用户数据（如动画URL）", request.title());
+        long start = System.currentTimeMillis();
+        Counts counts = new Counts();
+        Set<String> seenTitles = new HashSet<>();
+        try (InputStream stream = resource.getInputStream(); JsonParser parser = yamlMapper.createParser(stream)) {
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                log.warn("示例知识库数据 {} 顶层不是列表，忽略", RESOURCE);
+                return;
+            }
+            List<KnowledgeIngestRequest> batch = new ArrayList<>(LOOKUP_BATCH);
+            while (parser.nextToken() == JsonToken.START_OBJECT) {
+                KnowledgeIngestRequest request = yamlMapper.readValue(parser, KnowledgeIngestRequest.class);
+                if (request.title() == null || !seenTitles.add(request.title())) {
+                    log.warn("示例主题缺少标题或标题重复，跳过 title={}", request.title());
                     continue;
                 }
+                batch.add(request);
+                if (batch.size() >= LOOKUP_BATCH) {
+                    sync(batch, counts);
+                    batch.clear();
+                }
+            }
+            if (!batch.isEmpty()) {
+                sync(batch, counts);
+            }
+        } catch (IOException | RuntimeException e) {
+            log.error("示例知识库导入中断 file={}", RESOURCE, e);
+        }
+        log.info("示例知识库同步完成 新增={}, 更新={}, 未变化={}, 记录哈希={}, 失败={}, 耗时={}ms",
+                counts.imported, counts.updated, counts.unchanged, counts.adopted, counts.failed,
+                System.currentTimeMillis() - start);
+    }
+
+    void sync(List<KnowledgeIngestRequest> batch, Counts counts) {
+        Map<String, KnowledgeTopic> existing = new HashMap<>();
+        List<KnowledgeTopic> rows = topicMapper.selectList(Wrappers.<KnowledgeTopic>lambdaQuery()
+                .select(KnowledgeTopic::getId, KnowledgeTopic::getTitle, KnowledgeTopic::getContentHash)
+                .in(KnowledgeTopic::getTitle, batch.stream().map(KnowledgeIngestRequest::title).toList()));
+        rows.forEach(row -> existing.putIfAbsent(row.getTitle(), row));
 
-                knowledgeService.ingest(request);
-                importedCount++;
+        for (KnowledgeIngestRequest request : batch) {
+            KnowledgeTopic current = existing.get(request.title());
+            String hash = ContentHash.of(request);
+            try {
+                if (current == null) {
+                    knowledgeService.ingest(request);
+                    counts.imported++;
+                } else if (current.getContentHash() == null) {
+                    topicMapper.update(null, Wrappers.<KnowledgeTopic>lambdaUpdate()
+                            .set(KnowledgeTopic::getContentHash, hash)
+                            .eq(KnowledgeTopic::getId, current.getId()));
+                    counts.adopted++;
+                } else if (Objects.equals(current.getContentHash(), hash)) {
+                    counts.unchanged++;
+                } else {
+                    knowledgeService.replace(current.getId(), request);
+                    counts.updated++;
+                }
+            } catch (Exception e) {
+                counts.failed++;
+                log.warn("示例主题 [{}] 同步失败: {}", request.title(), e.getMessage());
             }
-            log.info("已自动导入 {} 条示例知识点", importedCount);
         }
     }
 }
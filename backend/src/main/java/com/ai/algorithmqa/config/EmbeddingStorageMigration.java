@@ -0,0 +1,67 @@
+package com.ai.algorithmqa.config;
+
+import com.ai.algorithmqa.domain.entity.KnowledgeChunk;
+import com.ai.algorithmqa.mapper.KnowledgeChunkMapper;
+import com.ai.algorithmqa.retrieval.VectorMath;
+import com.baomidou.mybatisplus.core.toolkit.Wrappers;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 一次性迁移：把 knowledge_chunk.embedding_json 中的旧数据改写到二进制列 embedding，并清空 JSON 列。
+ * 按主键分批处理，可重复执行；全部迁移完成后 embedding_json 列即可手工删除。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmbeddingStorageMigration {
+
+    private static final int BATCH_SIZE = 200;
+
+    private final KnowledgeChunkMapper chunkMapper;
+    private final RetrievalProperties properties;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrate() {
+        if (!properties.migrateLegacyEmbeddings()) {
+            return;
+        }
+        long lastId = 0L;
+        int migrated = 0;
+        int failed = 0;
+        while (true) {
+            List<KnowledgeChunk> batch = chunkMapper.selectList(Wrappers.lambdaQuery(KnowledgeChunk.class)
+                    .select(KnowledgeChunk::getId, KnowledgeChunk::getEmbeddingJson)
+                    .isNull(KnowledgeChunk::getEmbedding)
+                    .isNotNull(KnowledgeChunk::getEmbeddingJson)
+                    .gt(KnowledgeChunk::getId, lastId)
+                    .orderByAsc(KnowledgeChunk::getId)
+                    .last("limit " + BATCH_SIZE));
+            if (batch.isEmpty()) {
+                break;
+            }
+            for (KnowledgeChunk chunk : batch) {
+                try {
+                    float[] vector = objectMapper.readValue(chunk.getEmbeddingJson(), float[].class);
+                    VectorMath.normalizeInPlace(vector, 0, vector.length);
+                    chunkMapper.migrateEmbedding(chunk.getId(), vector);
+                    migrated++;
+                } catch (Exception e) {
+                    failed++;
+                    log.warn("迁移 embedding 失败 chunkId={}: {}", chunk.getId(), e.getMessage());
+                }
+            }
+            lastId = batch.get(batch.size() - 1).getId();
+        }
+        if (migrated > 0 || failed > 0) {
+            log.info("embedding 存储迁移完成 migrated={}, failed={}", migrated, failed);
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package com.ai.algorithmqa.config;
+
+import com.ai.algorithmqa.common.BoundedVirtualThreadExecutor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * 阻塞型后台任务的执行器：流式问答（embedding、检索、大模型流式读取、日志落库）跑在独立的虚拟线程上；
+ * 检索内部并行的阶段（查询 embedding、主题标题查询）每个阶段一个虚拟线程，超时后按中断取消。
+ */
+@Slf4j
+@Configuration
+public class ExecutorConfig {
+
+    @Bean
+    public BoundedVirtualThreadExecutor qaStreamExecutor(QaStreamProperties properties) {
+        log.info("流式问答执行器：虚拟线程，最大并发 {}", properties.maxConcurrent());
+        return new BoundedVirtualThreadExecutor("qa-stream", properties.maxConcurrent(), properties.acquireTimeout());
+    }
+
+    @Bean
+    public ExecutorService retrievalStageExecutor() {
+        return Executors.newThreadPerTaskExecutor(Thread.ofVirtual().name("retrieval-stage-", 0).factory());
+    }
+}
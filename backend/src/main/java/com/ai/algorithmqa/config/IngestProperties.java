@@ -0,0 +1,21 @@
+package com.ai.algorithmqa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 批量导入流水线配置：parseParallelism 个线程并行解析切分主题，embeddingConcurrency 个线程并行请求 embedding
+ * （每次合并 embeddingTopicsPerRequest 个主题的片段），单个写线程每 writeBatchTopics 个主题做一次事务、
+ * 每张表一条多行 INSERT。阶段之间用容量为 queueCapacity 的阻塞队列衔接，下游慢时上游自动等待。
+ * 内存中保留最近 retainedJobs 个任务的进度。
+ */
+@ConfigurationProperties(prefix = "knowledge.ingest")
+public record IngestProperties(
+        @DefaultValue("4") int parseParallelism,
+        @DefaultValue("4") int embeddingConcurrency,
+        @DefaultValue("4") int embeddingTopicsPerRequest,
+        @DefaultValue("50") int writeBatchTopics,
+        @DefaultValue("64") int queueCapacity,
+        @DefaultValue("20") int retainedJobs
+) {
+}
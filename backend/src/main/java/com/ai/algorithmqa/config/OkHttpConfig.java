@@ -0,0 +1,66 @@
+package com.ai.algorithmqa.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpConnectionPoolMetrics;
+import io.micrometer.core.instrument.binder.okhttp3.OkHttpMetricsEventListener;
+import lombok.extern.slf4j.Slf4j;
+import okhttp3.ConnectionPool;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * DashScope 调用共用的 OkHttpClient：整个应用只有一个连接池和调度器，流式问答与 embedding 复用同一批连接，
+ * 避免每次请求重新建池、重新 TLS 握手。单次调用需要不同超时时用 {@code client.newBuilder()} 派生，
+ * 派生出的客户端仍共享连接池。
+ */
+@Slf4j
+@Configuration
+public class OkHttpConfig {
+
+    @Bean
+    public ConnectionPool dashScopeConnectionPool(DashScopeProperties properties) {
+        DashScopeProperties.Http http = properties.http();
+        return new ConnectionPool(http.maxIdleConnections(), http.keepAlive().toMillis(), TimeUnit.MILLISECONDS);
+    }
+
+    @Bean
+    public OkHttpClient dashScopeHttpClient(DashScopeProperties properties, ConnectionPool dashScopeConnectionPool,
+                                            MeterRegistry meterRegistry) {
+        DashScopeProperties.Http http = properties.http();
+        List<Protocol> protocols = http.http2()
+                ? List.of(Protocol.HTTP_2, Protocol.HTTP_1_1)
+                : List.of(Protocol.HTTP_1_1);
+        log.info("DashScope HTTP 客户端: 协议={}, 空闲连接上限={}, keepAlive={}", protocols,
+                http.maxIdleConnections(), http.keepAlive());
+        return new OkHttpClient.Builder()
+                .connectionPool(dashScopeConnectionPool)
+                .protocols(protocols)
+                .connectTimeout(http.connectTimeout())
+                .writeTimeout(http.writeTimeout())
+                .readTimeout(http.readTimeout())
+                .retryOnConnectionFailure(true)
+                // 按 host 统计请求数与耗时，URI 只保留路径，避免查询参数导致标签膨胀
+                .eventListener(OkHttpMetricsEventListener.builder(meterRegistry, "dashscope.http.client.requests")
+                        .uriMapper(request -> request.url().encodedPath())
+                        .tags(Tags.of("client", "okhttp"))
+                        .build())
+                .build();
+    }
+
+    /**
+     * 连接池指标：okhttp.pool.connection.count{state=active|idle} 与 okhttp.pool.connection.limit，
+     * 压测时 idle 持续大于 0 说明连接在被复用。
+     */
+    @Bean
+    public OkHttpConnectionPoolMetrics dashScopeConnectionPoolMetrics(ConnectionPool dashScopeConnectionPool,
+                                                                      DashScopeProperties properties) {
+        return new OkHttpConnectionPoolMetrics(dashScopeConnectionPool, "okhttp.pool",
+                Tags.of("client", "dashscope"), properties.http().maxIdleConnections());
+    }
+}
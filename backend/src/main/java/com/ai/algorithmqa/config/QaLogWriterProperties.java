@@ -0,0 +1,26 @@
+package com.ai.algorithmqa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 问答日志异步写入配置：日志先进入容量为 queueCapacity 的内存队列，后台线程每攒够 batchSize 条
+ * 或等待满 flushInterval 就用一条多行 INSERT 写入。队列满时 overflow=DROP 直接丢弃并计数，
+ * overflow=BLOCK 让请求线程最多等待 blockTimeout，仍无空位再丢弃。
+ */
+@ConfigurationProperties(prefix = "qa.log-writer")
+public record QaLogWriterProperties(
+        @DefaultValue("10000") int queueCapacity,
+        @DefaultValue("200") int batchSize,
+        @DefaultValue("500ms") Duration flushInterval,
+        @DefaultValue("DROP") Overflow overflow,
+        @DefaultValue("100ms") Duration blockTimeout
+) {
+
+    public enum Overflow {
+        DROP,
+        BLOCK
+    }
+}
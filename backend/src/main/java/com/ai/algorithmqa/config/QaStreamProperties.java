@@ -0,0 +1,17 @@
+package com.ai.algorithmqa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 流式问答执行配置：maxConcurrent 为同时进行中的流数量上限，
+ * 已满时新请求最多等待 acquireTimeout，超时返回 503。
+ */
+@ConfigurationProperties(prefix = "qa.stream")
+public record QaStreamProperties(
+        @DefaultValue("200") int maxConcurrent,
+        @DefaultValue("2s") Duration acquireTimeout
+) {
+}
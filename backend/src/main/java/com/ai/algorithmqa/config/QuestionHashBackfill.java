@@ -0,0 +1,54 @@
+package com.ai.algorithmqa.config;
+
+import com.ai.algorithmqa.common.QuestionFingerprint;
+import com.ai.algorithmqa.domain.entity.QaLog;
+import com.ai.algorithmqa.mapper.QaLogMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 一次性回填：为 question_hash 为空的历史 qa_log 计算问题指纹。
+ * 按主键分批读取，每批一条 UPDATE ... CASE 写回，可重复执行；新日志在写入时已带指纹。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QuestionHashBackfill {
+
+    private static final int BATCH_SIZE = 500;
+
+    private final QaLogMapper qaLogMapper;
+    private final QuestionHashBackfillProperties properties;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!properties.backfillQuestionHash()) {
+            return;
+        }
+        long lastId = 0L;
+        int updated = 0;
+        try {
+            while (true) {
+                List<QaLog> batch = qaLogMapper.selectWithoutHash(lastId, BATCH_SIZE);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                batch.forEach(entry -> entry.setQuestionHash(QuestionFingerprint.hash(entry.getQuestion())));
+                qaLogMapper.updateQuestionHashes(batch);
+                updated += batch.size();
+                lastId = batch.get(batch.size() - 1).getId();
+            }
+        } catch (Exception e) {
+            log.warn("问题指纹回填中断 updated={}, lastId={}: {}", updated, lastId, e.getMessage());
+            return;
+        }
+        if (updated > 0) {
+            log.info("问题指纹回填完成 updated={}", updated);
+        }
+    }
+}
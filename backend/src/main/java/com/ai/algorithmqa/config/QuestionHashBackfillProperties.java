@@ -0,0 +1,13 @@
+package com.ai.algorithmqa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 问题指纹回填配置：backfillQuestionHash=true 时启动后为 question_hash 为空的历史 qa_log 补算指纹。
+ */
+@ConfigurationProperties(prefix = "qa.stats")
+public record QuestionHashBackfillProperties(
+        @DefaultValue("true") boolean backfillQuestionHash
+) {
+}
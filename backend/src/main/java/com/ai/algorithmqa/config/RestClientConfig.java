@@ -1,21 +1,80 @@
 package com.ai.algorithmqa.config;
 
+import io.micrometer.core.instrument.binder.httpcomponents.hc5.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.MediaType;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.web.client.RestTemplate;
 
-import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
 
+/**
+ * 同步调用（DashScope chat 等）使用的 RestTemplate，底层为 Apache HttpClient 5 连接池：
+ * 请求之间复用 keep-alive 连接，每个连接的收发缓冲区随连接一起复用，不再像 HttpURLConnection 那样逐次分配。
+ * 连接池占用通过 httpcomponents.httpclient.pool.* 指标暴露在 actuator 上。
+ */
+@Slf4j
 @Configuration
 public class RestClientConfig {
 
+    /**
+     * 连接池随 {@link #restHttpClient} 一起关闭（HttpClient 持有并负责关闭它），这里不单独注册销毁方法。
+     */
+    @Bean(destroyMethod = "")
+    public PoolingHttpClientConnectionManager restClientConnectionManager(RestClientProperties properties) {
+        log.info("RestTemplate 连接池: maxTotal={}, maxPerRoute={}, idleEviction={}", properties.maxTotal(),
+                properties.maxPerRoute(), properties.idleEviction());
+        return PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(properties.maxTotal())
+                .setMaxConnPerRoute(properties.maxPerRoute())
+                .setDefaultConnectionConfig(ConnectionConfig.custom()
+                        .setConnectTimeout(Timeout.of(properties.connectTimeout()))
+                        .setSocketTimeout(Timeout.of(properties.readTimeout()))
+                        .setTimeToLive(TimeValue.of(properties.timeToLive()))
+                        .setValidateAfterInactivity(TimeValue.of(properties.validateAfterInactivity()))
+                        .build())
+                .build();
+    }
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient restHttpClient(PoolingHttpClientConnectionManager restClientConnectionManager,
+                                              RestClientProperties properties) {
+        return HttpClients.custom()
+                .setConnectionManager(restClientConnectionManager)
+                // 后台线程定期关闭过期与空闲过久的连接，避免复用到已被服务端断开的连接
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(properties.idleEviction()))
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(properties.connectionRequestTimeout()))
+                        .build())
+                .build();
+    }
+
+    /**
+     * 连接池指标：httpcomponents.httpclient.pool.total.{max,connections,pending} 与 route.max。
+     */
     @Bean
-    public RestTemplate restTemplate(RestTemplateBuilder builder, DashScopeProperties properties) {
+    public PoolingHttpClientConnectionManagerMetricsBinder restClientPoolMetrics(
+            PoolingHttpClientConnectionManager restClientConnectionManager) {
+        return new PoolingHttpClientConnectionManagerMetricsBinder(restClientConnectionManager, "rest-template");
+    }
+
+    @Bean
+    public RestTemplate restTemplate(RestTemplateBuilder builder, DashScopeProperties properties,
+                                     CloseableHttpClient restHttpClient) {
         List<ClientHttpRequestInterceptor> interceptors = new ArrayList<>();
         interceptors.add((request, body, execution) -> {
             if (properties.apiKey() != null && !properties.apiKey().isBlank()) {
@@ -26,11 +85,10 @@ public class RestClientConfig {
             return execution.execute(request, body);
         });
 
+        // 超时已在连接池的 ConnectionConfig 中设置，这里不再通过 builder 设置
         return builder
-                .setConnectTimeout(Duration.ofSeconds(5))
-                .setReadTimeout(Duration.ofSeconds(60))
+                .requestFactory(() -> new HttpComponentsClientHttpRequestFactory(restHttpClient))
                 .additionalInterceptors(interceptors)
                 .build();
     }
 }
-
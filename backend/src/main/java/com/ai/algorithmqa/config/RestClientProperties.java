@@ -0,0 +1,24 @@
+package com.ai.algorithmqa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * RestTemplate 底层连接池（Apache HttpClient 5）配置：maxTotal / maxPerRoute 为连接总数与单个目标主机的上限，
+ * connectionRequestTimeout 为从池中借连接的最长等待；空闲超过 idleEviction 的连接由后台线程关闭，
+ * 存活超过 timeToLive 的连接不再复用；validateAfterInactivity 为复用前做存活检查的空闲阈值。
+ */
+@ConfigurationProperties(prefix = "rest-client")
+public record RestClientProperties(
+        @DefaultValue("100") int maxTotal,
+        @DefaultValue("50") int maxPerRoute,
+        @DefaultValue("5s") Duration connectTimeout,
+        @DefaultValue("60s") Duration readTimeout,
+        @DefaultValue("2s") Duration connectionRequestTimeout,
+        @DefaultValue("30s") Duration idleEviction,
+        @DefaultValue("5m") Duration timeToLive,
+        @DefaultValue("2s") Duration validateAfterInactivity
+) {
+}
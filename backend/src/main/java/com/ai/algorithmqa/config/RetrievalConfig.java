@@ -0,0 +1,90 @@
+package com.ai.algorithmqa.config;
+
+import com.ai.algorithmqa.domain.entity.KnowledgeChunk;
+import com.ai.algorithmqa.mapper.KnowledgeChunkMapper;
+import com.ai.algorithmqa.mapper.handler.EmbeddingTypeHandler;
+import com.ai.algorithmqa.retrieval.EmbeddingCodec;
+import com.ai.algorithmqa.retrieval.ExactSearchEngine;
+import com.ai.algorithmqa.retrieval.HnswSearchEngine;
+import com.ai.algorithmqa.retrieval.ProductQuantizedEngine;
+import com.ai.algorithmqa.retrieval.QueryEmbeddingCache;
+import com.ai.algorithmqa.retrieval.ScalarQuantizedEngine;
+import com.ai.algorithmqa.retrieval.VectorIndex;
+import com.ai.algorithmqa.retrieval.VectorSearchEngine;
+import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * 按 retrieval.engine / retrieval.quantization 选择向量检索引擎并创建常驻内存索引，创建查询 embedding 缓存，
+ * 同时设置 embedding 列的写入编码。
+ */
+@Slf4j
+@Configuration
+public class RetrievalConfig {
+
+    private static final String QUANTIZATION_NONE = "none";
+
+    public RetrievalConfig(RetrievalProperties properties) {
+        EmbeddingCodec.Encoding encoding = EmbeddingCodec.Encoding.fromConfig(properties.storageEncoding());
+        EmbeddingTypeHandler.setWriteEncoding(encoding);
+        log.info("embedding 存储编码: {}", encoding);
+    }
+
+    @Bean
+    public VectorIndex vectorIndex(RetrievalProperties properties, KnowledgeChunkMapper chunkMapper) {
+        String engineName = normalize(properties.engine(), ExactSearchEngine.NAME);
+        RetrievalProperties.Quantization quantization = properties.quantization();
+        String mode = normalize(quantization.mode(), QUANTIZATION_NONE);
+        if (!QUANTIZATION_NONE.equals(mode) && !ExactSearchEngine.NAME.equals(engineName)) {
+            throw new IllegalStateException("retrieval.quantization.mode=" + mode + " 只能与 exact 引擎组合，当前为 " + engineName);
+        }
+        VectorSearchEngine engine = switch (QUANTIZATION_NONE.equals(mode) ? engineName : mode) {
+            case ExactSearchEngine.NAME -> new ExactSearchEngine();
+            case HnswSearchEngine.NAME -> new HnswSearchEngine(
+                    properties.hnsw().m(), properties.hnsw().efConstruction(), properties.hnsw().efSearch());
+            case ScalarQuantizedEngine.NAME -> new ScalarQuantizedEngine(quantization.rescoreFactor());
+            case ProductQuantizedEngine.NAME -> new ProductQuantizedEngine(quantization.pqSubspaces(),
+                    quantization.pqTrainingSample(), quantization.pqIterations(), quantization.rescoreFactor());
+            default -> throw new IllegalStateException("不支持的检索引擎 retrieval.engine=" + properties.engine()
+                    + ", retrieval.quantization.mode=" + quantization.mode());
+        };
+        boolean retainVectors = !engine.needsRescoring() || quantization.retainFullPrecision();
+        RetrievalProperties.Hybrid hybrid = properties.hybrid();
+        VectorIndex.Lexical lexical = new VectorIndex.Lexical(hybrid.enabled(), hybrid.rrfK(),
+                hybrid.bm25K1(), hybrid.bm25B());
+        log.info("知识检索引擎: {}，堆内保留全精度向量: {}，BM25 混合检索: {}", engine.name(), retainVectors, hybrid.enabled());
+        VectorIndex.FullPrecisionSource source = retainVectors ? null : chunkIds -> {
+            Map<Long, float[]> vectors = new HashMap<>();
+            chunkMapper.selectList(new LambdaQueryWrapper<KnowledgeChunk>()
+                            .select(KnowledgeChunk::getId, KnowledgeChunk::getEmbedding)
+                            .in(KnowledgeChunk::getId, chunkIds))
+                    .forEach(chunk -> {
+                        if (chunk.getEmbedding() != null) {
+                            vectors.put(chunk.getId(), chunk.getEmbedding());
+                        }
+                    });
+            return vectors;
+        };
+        return new VectorIndex(engine, retainVectors, source, lexical);
+    }
+
+    @Bean
+    public QueryEmbeddingCache queryEmbeddingCache(RetrievalProperties properties, DashScopeProperties dashScopeProperties) {
+        RetrievalProperties.QueryCache cache = properties.queryCache();
+        Path warmFile = cache.warmFile() == null || cache.warmFile().isBlank() ? null : Path.of(cache.warmFile());
+        log.info("查询 embedding 缓存: maxSize={}, ttl={}, warmFile={}", cache.maxSize(), cache.ttl(), warmFile);
+        return new QueryEmbeddingCache(cache.maxSize().toBytes(), cache.ttl().toMillis(), warmFile,
+                dashScopeProperties.embeddingModel(), System::currentTimeMillis);
+    }
+
+    private static String normalize(String value, String defaultValue) {
+        return value == null || value.isBlank() ? defaultValue : value.trim().toLowerCase(Locale.ROOT);
+    }
+}
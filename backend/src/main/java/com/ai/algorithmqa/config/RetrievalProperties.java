@@ -0,0 +1,84 @@
+package com.ai.algorithmqa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+
+/**
+ * 检索相关配置：默认 TopK、向量检索引擎（exact 暴力点积 / hnsw 近似近邻）及 HNSW 参数，
+ * embedding 二进制列的写入编码（float32 / float16 / int8），常驻索引的量化方式，查询 embedding 缓存，
+ * BM25 词法检索与向量检索的融合，以及检索各阶段的超时。
+ */
+@ConfigurationProperties(prefix = "retrieval")
+public record RetrievalProperties(
+        @DefaultValue("4") int topK,
+        @DefaultValue("exact") String engine,
+        @DefaultValue Hnsw hnsw,
+        @DefaultValue("float32") String storageEncoding,
+        @DefaultValue("true") boolean migrateLegacyEmbeddings,
+        @DefaultValue Quantization quantization,
+        @DefaultValue QueryCache queryCache,
+        @DefaultValue Hybrid hybrid,
+        @DefaultValue Stages stages
+) {
+
+    /**
+     * HNSW 参数：m 为每层邻居上限（第 0 层为 2m），efConstruction/efSearch 为建图/查询时的候选队列长度。
+     */
+    public record Hnsw(
+            @DefaultValue("16") int m,
+            @DefaultValue("200") int efConstruction,
+            @DefaultValue("64") int efSearch
+    ) {
+    }
+
+    /**
+     * 索引内向量的量化：mode 为 none / int8 / pq。量化得分是近似值，
+     * 先取 rescoreFactor × K 个候选再用全精度向量重排；retainFullPrecision=false 时堆内不保留 float 矩阵，
+     * 重排回表读取 embedding 列。pq* 为乘积量化的子空间数（0 为自动）、码本训练样本量与 k-means 迭代次数。
+     */
+    public record Quantization(
+            @DefaultValue("none") String mode,
+            @DefaultValue("4") int rescoreFactor,
+            @DefaultValue("false") boolean retainFullPrecision,
+            @DefaultValue("0") int pqSubspaces,
+            @DefaultValue("4096") int pqTrainingSample,
+            @DefaultValue("8") int pqIterations
+    ) {
+    }
+
+    /**
+     * 查询 embedding 缓存：maxSize 为按字节计的容量上限（0 关闭），ttl 为条目有效期，
+     * warmFile 非空时关闭应用时持久化、启动时恢复。
+     */
+    public record QueryCache(
+            @DefaultValue("32MB") DataSize maxSize,
+            @DefaultValue("24h") Duration ttl,
+            @DefaultValue("") String warmFile
+    ) {
+    }
+
+    /**
+     * 混合检索：enabled 时向量与 BM25 两路按倒数排名融合（rrfK 为平滑常数），
+     * 关闭时 BM25 只在没有可用查询向量时兜底；k1/b 为 BM25 参数。
+     */
+    public record Hybrid(
+            @DefaultValue("true") boolean enabled,
+            @DefaultValue("60") int rrfK,
+            @DefaultValue("1.2") double bm25K1,
+            @DefaultValue("0.75") double bm25B
+    ) {
+    }
+
+    /**
+     * 检索阶段超时：查询 embedding（远程调用）超时后放弃向量检索、只用 BM25；
+     * 主题标题查询超时后标题显示为“未知主题”，不影响片段本身。
+     */
+    public record Stages(
+            @DefaultValue("3s") Duration embedTimeout,
+            @DefaultValue("2s") Duration topicLookupTimeout
+    ) {
+    }
+}
@@ -0,0 +1,20 @@
+package com.ai.algorithmqa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+import java.time.Duration;
+
+/**
+ * 仪表板 Top-N 配置：capacity 为每个 Space-Saving 摘要跟踪的键数（越大越准，Top-10 取 1000 足够）；
+ * 摘要每 checkpointInterval 写入 checkpointFile（为空则不持久化），启动时恢复；
+ * 没有检查点时若 seedFromDatabase=true，用数据库的全量统计做一次性初始化。
+ */
+@ConfigurationProperties(prefix = "stats.top-n")
+public record TopNProperties(
+        @DefaultValue("1000") int capacity,
+        @DefaultValue("data/stats-top-n.json") String checkpointFile,
+        @DefaultValue("1m") Duration checkpointInterval,
+        @DefaultValue("true") boolean seedFromDatabase
+) {
+}
@@ -0,0 +1,14 @@
+package com.ai.algorithmqa.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.bind.DefaultValue;
+
+/**
+ * 可视化数据缓存配置：每个主题缓存一份已序列化、已 gzip 的响应体，最多 maxEntries 个主题，按 LRU 淘汰。
+ */
+@ConfigurationProperties(prefix = "knowledge.visualization-cache")
+public record VisualizationCacheProperties(
+        @DefaultValue("true") boolean enabled,
+        @DefaultValue("2000") int maxEntries
+) {
+}
@@ -1,6 +1,7 @@
 package com.ai.algorithmqa.controller;
 
 import com.ai.algorithmqa.common.ApiResponse;
+import com.ai.algorithmqa.common.ConditionalResponses;
 import com.ai.algorithmqa.domain.dto.AlgorithmCreateRequest;
 import com.ai.algorithmqa.domain.dto.AlgorithmUpdateRequest;
 import com.ai.algorithmqa.domain.entity.AlgorithmDetail;
@@ -8,9 +9,13 @@ import com.ai.algorithmqa.domain.entity.KnowledgeTopic;
 import com.ai.algorithmqa.mapper.AlgorithmDetailMapper;
 import com.ai.algorithmqa.mapper.KnowledgeTopicMapper;
 import com.ai.algorithmqa.service.FileStorageService;
+import com.ai.algorithmqa.service.cache.CorpusVersion;
+import com.ai.algorithmqa.service.cache.VisualizationCache;
 import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -27,6 +32,8 @@ public class AdminAlgorithmController {
     private final AlgorithmDetailMapper algorithmDetailMapper;
     private final KnowledgeTopicMapper topicMapper;
     private final FileStorageService fileStorageService;
+    private final VisualizationCache visualizationCache;
+    private final CorpusVersion corpusVersion;
 
     @GetMapping
     public ApiResponse<List<AlgorithmDetail>> listAll() {
@@ -56,6 +63,8 @@ public class AdminAlgorithmController {
         detail.setMermaidCode(request.mermaidCode());
 
         algorithmDetailMapper.insert(detail);
+        visualizationCache.invalidate(detail.getTopicId());
+        corpusVersion.bump();
         return ApiResponse.ok(detail);
     }
 
@@ -86,6 +95,8 @@ public class AdminAlgorithmController {
             detail.setAnimationUrl(request.animationUrl());
 
         algorithmDetailMapper.updateById(detail);
+        visualizationCache.invalidate(detail.getTopicId());
+        corpusVersion.bump();
         return ApiResponse.ok(detail);
     }
 
@@ -107,6 +118,8 @@ public class AdminAlgorithmController {
         }
 
         algorithmDetailMapper.deleteById(id);
+        visualizationCache.invalidate(detail.getTopicId());
+        corpusVersion.bump();
         return ApiResponse.ok(null);
     }
 
@@ -146,6 +159,8 @@ public class AdminAlgorithmController {
             detail.setAnimationUrl(url);
             int rows = algorithmDetailMapper.updateById(detail);
             log.info("更新算法动画 URL: id={}, url={}, rows={}", id, url, rows);
+            visualizationCache.invalidate(detail.getTopicId());
+            corpusVersion.bump();
 
             return ApiResponse.ok(url);
         } catch (Exception e) {
@@ -154,9 +169,14 @@ public class AdminAlgorithmController {
         }
     }
 
+    /**
+     * 主题列表，ETag 取知识库内容版本号，内容未变时返回 304。
+     */
     @GetMapping("/topics")
-    public ApiResponse<List<KnowledgeTopic>> listTopics() {
-        return ApiResponse.ok(topicMapper.selectList(null));
+    public ResponseEntity<ApiResponse<List<KnowledgeTopic>>> listTopics(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        return ConditionalResponses.withEtag(ifNoneMatch, corpusVersion.etag(),
+                () -> ApiResponse.ok(topicMapper.selectList(null)));
     }
 
     private String extractObjectNameFromUrl(String url) {
@@ -0,0 +1,46 @@
+package com.ai.algorithmqa.controller;
+
+import com.ai.algorithmqa.common.ApiResponse;
+import com.ai.algorithmqa.domain.dto.RetrievalRecallReport;
+import com.ai.algorithmqa.service.KnowledgeService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 检索引擎的管理端诊断接口。评估会反复扫描全量语料，量化模式下还要先回表装载全精度向量，
+ * 因此只放在管理端路径下，并限制抽样数量与参数范围。
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/retrieval")
+@RequiredArgsConstructor
+public class AdminRetrievalController {
+
+    private static final int MAX_SAMPLES = 1000;
+    private static final int MAX_TOP_K = 100;
+    private static final int MAX_EF_SEARCH = 1000;
+
+    private final KnowledgeService knowledgeService;
+
+    /**
+     * 评估当前检索引擎（exact/hnsw/量化）相对精确检索的 recall@K 与平均耗时。
+     *
+     * @param samples  抽样查询数量，限制在 1~1000
+     * @param topK     评估的 K，限制在 1~100
+     * @param efSearch 临时覆盖 HNSW 的 efSearch，便于比较不同参数，限制在 1~1000
+     */
+    @GetMapping("/recall")
+    public ApiResponse<RetrievalRecallReport> recall(@RequestParam(defaultValue = "100") int samples,
+            @RequestParam(defaultValue = "10") int topK,
+            @RequestParam(required = false) Integer efSearch) {
+        int boundedSamples = Math.max(1, Math.min(samples, MAX_SAMPLES));
+        int boundedTopK = Math.max(1, Math.min(topK, MAX_TOP_K));
+        Integer boundedEf = efSearch == null ? null : Math.max(1, Math.min(efSearch, MAX_EF_SEARCH));
+        log.info("评估检索召回率 samples={}, topK={}, efSearch={}", boundedSamples, boundedTopK, boundedEf);
+        return ApiResponse.ok(knowledgeService.evaluateRetrieval(boundedSamples, boundedTopK, boundedEf));
+    }
+}
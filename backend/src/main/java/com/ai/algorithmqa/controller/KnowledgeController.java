@@ -1,13 +1,23 @@
 package com.ai.algorithmqa.controller;
 
 import com.ai.algorithmqa.common.ApiResponse;
-import com.ai.algorithmqa.domain.dto.AlgorithmVisualizationResponse;
+import com.ai.algorithmqa.common.ConditionalResponses;
+import com.ai.algorithmqa.domain.dto.FilterSuggestion;
+import com.ai.algorithmqa.domain.dto.IngestJobStatus;
 import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
 import com.ai.algorithmqa.domain.dto.ReferenceChunk;
+import com.ai.algorithmqa.service.BulkIngestService;
 import com.ai.algorithmqa.service.KnowledgeService;
+import com.ai.algorithmqa.service.cache.CorpusVersion;
+import com.ai.algorithmqa.service.cache.VisualizationCache;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import java.util.List;
@@ -22,6 +32,9 @@ import java.util.List;
 public class KnowledgeController {
 
     private final KnowledgeService knowledgeService;
+    private final BulkIngestService bulkIngestService;
+    private final VisualizationCache visualizationCache;
+    private final CorpusVersion corpusVersion;
 
     /**
      * 导入一条课程知识结构：主题 + 多个算法片段。
@@ -35,30 +48,92 @@ public class KnowledgeController {
         return ApiResponse.ok(null);
     }
 
+    /**
+     * 批量导入：立即返回任务状态，导入在后台流水线中进行，进度通过任务 ID 查询。
+     */
+    @PostMapping("/ingest/bulk")
+    public ApiResponse<IngestJobStatus> ingestBulk(@Valid @RequestBody List<KnowledgeIngestRequest> requests) {
+        log.info("收到批量知识导入请求，topics={}", requests.size());
+        return ApiResponse.ok(bulkIngestService.submit(requests));
+    }
+
+    @GetMapping("/ingest/jobs/{jobId}")
+    public ApiResponse<IngestJobStatus> ingestJob(@PathVariable String jobId) {
+        IngestJobStatus status = bulkIngestService.status(jobId);
+        return status != null ? ApiResponse.ok(status) : ApiResponse.fail("导入任务不存在或已过期: " + jobId);
+    }
+
     /**
      * 调试/可视化检索效果，方便确认知识库构建正确。
      *
      * @param query   学生问题或关键词
      * @param filters 额外的主题/标签过滤
-     * @param topK    需要的片段数量
+     * @param topK    需要的片段数量，限制在 1~50
      */
     @GetMapping("/search")
     public ApiResponse<List<ReferenceChunk>> search(@RequestParam String query,
             @RequestParam(required = false) List<String> filters,
             @RequestParam(defaultValue = "4") int topK) {
         log.debug("知识检索 query={}, filters={}, topK={}", query, filters, topK);
-        return ApiResponse.ok(knowledgeService.search(query, filters, topK));
+        return ApiResponse.ok(knowledgeService.search(query, filters, Math.max(1, Math.min(topK, 50))));
     }
 
+    /**
+     * 主题可视化数据：直接写出缓存中预先序列化、预先 gzip 的响应体。
+     * 带 ETag，客户端携带 If-None-Match 且内容未变时返回 304；客户端不接受 gzip 时返回未压缩 JSON。
+     */
     @GetMapping("/topics/{topicId}/visualizations")
-    public ApiResponse<AlgorithmVisualizationResponse> visualization(@PathVariable Long topicId) {
-        log.info("获取可视化数据 topicId={}", topicId);
-        return ApiResponse.ok(knowledgeService.findVisualizationByTopic(topicId));
+    public ResponseEntity<byte[]> visualization(@PathVariable Long topicId,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch,
+            @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+        log.debug("获取可视化数据 topicId={}", topicId);
+        VisualizationCache.Payload payload = visualizationCache.get(topicId,
+                () -> knowledgeService.findVisualizationByTopic(topicId));
+        boolean notModified = ConditionalResponses.etagMatches(ifNoneMatch, payload.etag());
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(notModified ? HttpStatus.NOT_MODIFIED : HttpStatus.OK)
+                .eTag(payload.etag())
+                .cacheControl(CacheControl.noCache())
+                .varyBy(HttpHeaders.ACCEPT_ENCODING);
+        if (notModified) {
+            return response.build();
+        }
+        response.contentType(MediaType.APPLICATION_JSON);
+        if (acceptsGzip(acceptEncoding)) {
+            return response.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(payload.gzip());
+        }
+        return response.body(payload.json());
     }
 
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            if (tokens[0].trim().equalsIgnoreCase("gzip")) {
+                return tokens.length < 2 || !tokens[1].trim().replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    /**
+     * 可用筛选标签，ETag 取知识库内容版本号，内容未变时返回 304。
+     */
     @GetMapping("/filters")
-    public ApiResponse<List<String>> getFilters() {
+    public ResponseEntity<ApiResponse<List<String>>> getFilters(
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         log.debug("获取可用筛选标签");
-        return ApiResponse.ok(knowledgeService.getAvailableFilters());
+        return ConditionalResponses.withEtag(ifNoneMatch, corpusVersion.etag(),
+                () -> ApiResponse.ok(knowledgeService.getAvailableFilters()));
+    }
+
+    /**
+     * 筛选标签自动补全：按前缀（忽略大小写）在内存词表中查找，附带每个标签的主题数。
+     */
+    @GetMapping("/filters/suggest")
+    public ApiResponse<List<FilterSuggestion>> suggestFilters(@RequestParam(defaultValue = "") String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ApiResponse.ok(knowledgeService.suggestFilters(prefix, Math.max(1, Math.min(limit, 100))));
     }
 }
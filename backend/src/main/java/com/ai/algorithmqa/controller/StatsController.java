@@ -32,12 +32,12 @@ public class StatsController {
     }
 
     /**
-     * 获取统计仪表板数据
+     * 获取统计仪表板数据，window 可选 hour / day / week / all
      */
     @GetMapping("/dashboard")
-    public ApiResponse<Map<String, Object>> getDashboardStats() {
-        log.info("获取统计仪表板数据");
-        return ApiResponse.ok(statsService.getDashboardStats());
+    public ApiResponse<Map<String, Object>> getDashboardStats(@RequestParam(required = false) String window) {
+        log.info("获取统计仪表板数据 window={}", window);
+        return ApiResponse.ok(statsService.getDashboardStats(window));
     }
 
     /**
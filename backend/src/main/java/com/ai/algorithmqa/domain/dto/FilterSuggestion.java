@@ -0,0 +1,10 @@
+package com.ai.algorithmqa.domain.dto;
+
+/**
+ * 筛选标签自动补全结果
+ *
+ * @param keyword    标签
+ * @param topicCount 带有该标签的主题数
+ */
+public record FilterSuggestion(String keyword, int topicCount) {
+}
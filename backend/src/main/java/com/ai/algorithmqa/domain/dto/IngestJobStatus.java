@@ -0,0 +1,24 @@
+package com.ai.algorithmqa.domain.dto;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 批量导入任务进度：各阶段已完成的主题数，以及失败主题的错误信息（最多保留前若干条）。
+ *
+ * @param state RUNNING / COMPLETED / FAILED
+ */
+public record IngestJobStatus(
+        String jobId,
+        String state,
+        int totalTopics,
+        int parsedTopics,
+        int embeddedTopics,
+        int writtenTopics,
+        int writtenChunks,
+        int failedTopics,
+        List<String> errors,
+        LocalDateTime startedAt,
+        LocalDateTime finishedAt,
+        long elapsedMs) {
+}
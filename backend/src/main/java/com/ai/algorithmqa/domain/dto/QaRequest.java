@@ -1,5 +1,7 @@
 package com.ai.algorithmqa.domain.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.Size;
 
@@ -12,6 +14,8 @@ public record QaRequest(
 
         List<String> contextFilters,
 
+        @Min(value = 1, message = "topK 不能小于 1")
+        @Max(value = 50, message = "topK 不能超过 50")
         Integer topK,
 
         boolean useKnowledgeBase
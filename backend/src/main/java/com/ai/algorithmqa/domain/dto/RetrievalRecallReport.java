@@ -0,0 +1,20 @@
+package com.ai.algorithmqa.domain.dto;
+
+/**
+ * 检索引擎召回率报告：当前引擎（含量化重排）相对全精度精确扫描的 recall@K、平均单次查询耗时（微秒），
+ * 以及索引常驻内存（indexBytes）与同等语料全精度 float 矩阵大小（fullPrecisionBytes）的对比。
+ */
+public record RetrievalRecallReport(
+        String engine,
+        int corpusSize,
+        int dimension,
+        int sampleSize,
+        int topK,
+        int efSearch,
+        double recall,
+        double avgEngineMicros,
+        double avgExactMicros,
+        long indexBytes,
+        long fullPrecisionBytes
+) {
+}
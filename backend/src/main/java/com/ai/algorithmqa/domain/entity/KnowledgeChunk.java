@@ -1,5 +1,6 @@
 package com.ai.algorithmqa.domain.entity;
 
+import com.ai.algorithmqa.mapper.handler.EmbeddingTypeHandler;
 import com.baomidou.mybatisplus.annotation.IdType;
 import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
@@ -7,7 +8,7 @@ import com.baomidou.mybatisplus.annotation.TableName;
 import lombok.Data;
 
 @Data
-@TableName("knowledge_chunk")
+@TableName(value = "knowledge_chunk", autoResultMap = true)
 public class KnowledgeChunk {
 
     @TableId(type = IdType.AUTO)
@@ -20,11 +21,16 @@ public class KnowledgeChunk {
     private String keywords;
 
     /**
-     * Persisted as JSON array string for lightweight semantic search.
+     * 旧版 JSON 数组格式的向量，只在该行尚未迁移到 {@link #embedding} 时读取
      */
     private String embeddingJson;
 
+    /**
+     * 按小端序打包的 float BLOB，编解码见 {@link com.ai.algorithmqa.retrieval.EmbeddingCodec}
+     */
+    @TableField(typeHandler = EmbeddingTypeHandler.class)
+    private float[] embedding;
+
     @TableField(exist = false)
     private double score;
 }
-
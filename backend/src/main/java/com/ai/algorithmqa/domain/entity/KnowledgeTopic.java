@@ -26,6 +26,11 @@ public class KnowledgeTopic {
 
     private String tags;
 
+    /**
+     * 导入内容的 SHA-256（{@link com.ai.algorithmqa.common.ContentHash}），示例数据增量导入时比对
+     */
+    private String contentHash;
+
     private LocalDateTime createdAt;
 
     private LocalDateTime updatedAt;
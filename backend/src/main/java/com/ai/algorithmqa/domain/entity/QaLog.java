@@ -16,6 +16,11 @@ public class QaLog {
 
     private String question;
 
+    /**
+     * 规范化问题的 64 位指纹，见 QuestionFingerprint
+     */
+    private Long questionHash;
+
     private String answer;
 
     private String referenceSummary;
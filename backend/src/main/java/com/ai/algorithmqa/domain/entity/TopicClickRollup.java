@@ -0,0 +1,34 @@
+package com.ai.algorithmqa.domain.entity;
+
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Data;
+
+import java.time.LocalDateTime;
+
+/**
+ * 按主题、按分钟聚合的点击数
+ */
+@Data
+@TableName("topic_click_rollup")
+public class TopicClickRollup {
+
+    /**
+     * 主题ID
+     */
+    private Long topicId;
+
+    /**
+     * 统计分钟（截断到分钟）
+     */
+    private LocalDateTime bucketMinute;
+
+    /**
+     * 主题标题（冗余存储，便于统计）
+     */
+    private String topicTitle;
+
+    /**
+     * 该分钟内的点击次数
+     */
+    private Long clickCount;
+}
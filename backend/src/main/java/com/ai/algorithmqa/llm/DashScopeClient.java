@@ -1,6 +1,7 @@
 package com.ai.algorithmqa.llm;
 
 import com.ai.algorithmqa.config.DashScopeProperties;
+import com.ai.algorithmqa.service.metrics.QaMetrics;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
@@ -23,11 +24,14 @@ import java.util.Map;
 public class DashScopeClient {
 
     private final RestTemplate restTemplate;
+    private final okhttp3.OkHttpClient httpClient;
     private final DashScopeProperties properties;
+    private final QaMetrics qaMetrics;
     private final ObjectMapper objectMapper = new ObjectMapper();
 
     public LlmAnswer chat(String prompt) {
         Instant start = Instant.now();
+        long startNanos = System.nanoTime();
 
         if (properties.apiKey() == null || properties.apiKey().isBlank()) {
             String mock = """
@@ -35,6 +39,7 @@ public class DashScopeClient {
                     你可以在 application.yml 或环境变量 DASHSCOPE_API_KEY 中配置后获得真实回答。
                     下面是基于知识库模板给出的示例回答：
                     """ + prompt;
+            qaMetrics.recordLlmCall("sync", "mock", System.nanoTime() - startNanos);
             return new LlmAnswer(mock, "mock-model", Duration.between(start, Instant.now()).toMillis());
         }
 
@@ -55,14 +60,23 @@ public class DashScopeClient {
                 content = root.toPrettyString();
             }
             long latency = Duration.between(start, Instant.now()).toMillis();
+            qaMetrics.recordLlmCall("sync", "success", System.nanoTime() - startNanos);
             return new LlmAnswer(content, properties.model(), latency);
         } catch (Exception e) {
+            qaMetrics.recordLlmCall("sync", "error", System.nanoTime() - startNanos);
             log.error("DashScope 调用失败", e);
             throw new RuntimeException("调用阿里云大模型失败：" + e.getMessage(), e);
         }
     }
 
+    /**
+     * 流式调用，增量内容直接推送给 emitter。同时记录首 token 延迟、流式总时长，
+     * 以及按服务端 usage.output_tokens 计算的输出速率。
+     *
+     * @return 完整回答；调用失败时返回 null（错误已通过 emitter 通知前端）
+     */
     public String streamChat(String prompt, org.springframework.web.servlet.mvc.method.annotation.SseEmitter emitter) {
+        long startNanos = System.nanoTime();
         if (properties.apiKey() == null || properties.apiKey().isBlank()) {
             try {
                 String mock = """
@@ -72,6 +86,7 @@ public class DashScopeClient {
                         """ + prompt;
                 emitter.send(mock);
                 emitter.complete();
+                qaMetrics.recordLlmCall("stream", "mock", System.nanoTime() - startNanos);
                 return mock;
             } catch (Exception e) {
                 emitter.completeWithError(e);
@@ -80,15 +95,17 @@ public class DashScopeClient {
         }
 
         StringBuilder fullContent = new StringBuilder();
+        long firstTokenNanos = -1;
+        long outputTokens = 0;
         try {
             Map<String, Object> body = Map.of(
                     "model", properties.model(),
                     "input", Map.of("prompt", prompt),
                     "parameters", Map.of("incremental_output", true));
 
-            okhttp3.OkHttpClient client = new okhttp3.OkHttpClient.Builder()
-                    .connectTimeout(java.time.Duration.ofSeconds(30))
-                    .readTimeout(java.time.Duration.ofSeconds(300))
+            // 派生客户端只改读超时，连接池与调度器仍与其他 DashScope 调用共享
+            okhttp3.OkHttpClient client = httpClient.newBuilder()
+                    .readTimeout(properties.http().streamReadTimeout())
                     .build();
 
             String jsonBody = objectMapper.writeValueAsString(body);
@@ -114,8 +131,13 @@ public class DashScopeClient {
                             continue;
 
                         JsonNode node = objectMapper.readTree(data);
+                        // 增量输出模式下 usage.output_tokens 为累计值，取最后一次即可
+                        outputTokens = node.path("usage").path("output_tokens").asLong(outputTokens);
                         String content = node.path("output").path("text").asText();
                         if (content != null && !content.isEmpty()) {
+                            if (firstTokenNanos < 0) {
+                                firstTokenNanos = System.nanoTime() - startNanos;
+                            }
                             // 使用 JSON 包装 content 以保留换行符等格式
                             emitter.send(Map.of("content", content));
                             fullContent.append(content);
@@ -129,9 +151,15 @@ public class DashScopeClient {
                 emitter.complete();
             }
         } catch (Exception e) {
+            qaMetrics.recordLlmCall("stream", "error", System.nanoTime() - startNanos);
             log.error("DashScope 流式调用失败", e);
             emitter.completeWithError(e);
+            // 回答不完整，返回 null 以免被当作完整回答缓存
+            return null;
         }
+        long totalNanos = System.nanoTime() - startNanos;
+        qaMetrics.recordLlmCall("stream", "success", totalNanos);
+        qaMetrics.recordLlmStream(firstTokenNanos, totalNanos, outputTokens);
         return fullContent.toString();
     }
 }
@@ -2,9 +2,28 @@ package com.ai.algorithmqa.mapper;
 
 import com.ai.algorithmqa.domain.entity.AlgorithmDetail;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface AlgorithmDetailMapper extends BaseMapper<AlgorithmDetail> {
-}
 
+    /**
+     * 多行 INSERT 批量写入算法详情
+     *
+     * @param details 详情列表，不能为空
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO algorithm_detail (topic_id, name, core_idea, step_breakdown, time_complexity, space_complexity, " +
+            "code_snippet, visualization_hint, mermaid_code) VALUES " +
+            "<foreach collection='details' item='item' separator=','>" +
+            "(#{item.topicId}, #{item.name}, #{item.coreIdea}, #{item.stepBreakdown}, #{item.timeComplexity}, " +
+            "#{item.spaceComplexity}, #{item.codeSnippet}, #{item.visualizationHint}, #{item.mermaidCode})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("details") List<AlgorithmDetail> details);
+}
@@ -2,9 +2,43 @@ package com.ai.algorithmqa.mapper;
 
 import com.ai.algorithmqa.domain.entity.KnowledgeChunk;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.List;
 
 @Mapper
 public interface KnowledgeChunkMapper extends BaseMapper<KnowledgeChunk> {
-}
 
+    /**
+     * 将一行的 embedding 改写为二进制列，并清空旧的 JSON 列
+     *
+     * @param id        片段 ID
+     * @param embedding 向量
+     * @return 影响行数
+     */
+    @Update("UPDATE knowledge_chunk " +
+            "SET embedding = #{embedding,typeHandler=com.ai.algorithmqa.mapper.handler.EmbeddingTypeHandler}, " +
+            "embedding_json = NULL " +
+            "WHERE id = #{id}")
+    int migrateEmbedding(@Param("id") Long id, @Param("embedding") float[] embedding);
+
+    /**
+     * 多行 INSERT 批量写入片段（embedding 以二进制列写入），自增主键按顺序回填到每个对象的 id
+     *
+     * @param chunks 片段列表，不能为空
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO knowledge_chunk (topic_id, content, keywords, embedding) VALUES " +
+            "<foreach collection='chunks' item='item' separator=','>" +
+            "(#{item.topicId}, #{item.content}, #{item.keywords}, " +
+            "#{item.embedding,typeHandler=com.ai.algorithmqa.mapper.handler.EmbeddingTypeHandler})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insertBatch(@Param("chunks") List<KnowledgeChunk> chunks);
+}
@@ -2,9 +2,52 @@ package com.ai.algorithmqa.mapper;
 
 import com.ai.algorithmqa.domain.entity.KnowledgeTopic;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
 
 @Mapper
 public interface KnowledgeTopicMapper extends BaseMapper<KnowledgeTopic> {
-}
 
+    /**
+     * 多行 INSERT 批量写入主题，自增主键按顺序回填到每个对象的 id
+     *
+     * @param topics 主题列表，不能为空
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO knowledge_topic (title, category, overview, keywords, difficulty_level, tags, content_hash, " +
+            "created_at, updated_at) VALUES " +
+            "<foreach collection='topics' item='item' separator=','>" +
+            "(#{item.title}, #{item.category}, #{item.overview}, #{item.keywords}, #{item.difficultyLevel}, #{item.tags}, " +
+            "#{item.contentHash}, #{item.createdAt}, #{item.updatedAt})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insertBatch(@Param("topics") List<KnowledgeTopic> topics);
+
+    /**
+     * 只读取主题 ID 与关键词，用于构建筛选词表（不加载 overview 等大字段）
+     *
+     * @return 仅填充 id、keywords 的主题列表
+     */
+    @Select("SELECT id, keywords FROM knowledge_topic")
+    List<KnowledgeTopic> selectKeywords();
+
+    /**
+     * 按 ID 读取主题关键词，用于增量刷新筛选词表
+     *
+     * @param ids 主题 ID，不能为空
+     * @return 仅填充 id、keywords 的主题列表，已删除的主题不返回
+     */
+    @Select("<script>" +
+            "SELECT id, keywords FROM knowledge_topic WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    List<KnowledgeTopic> selectKeywordsByIds(@Param("ids") Collection<Long> ids);
+}
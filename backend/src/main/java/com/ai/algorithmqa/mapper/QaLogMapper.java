@@ -2,21 +2,68 @@ package com.ai.algorithmqa.mapper;
 
 import com.ai.algorithmqa.domain.entity.QaLog;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
 
 @Mapper
 public interface QaLogMapper extends BaseMapper<QaLog> {
 
     /**
-     * 查询搜索次数最多的问题
+     * 查询搜索次数最多的问题：先在 question_hash 索引上分组计数，再为每个指纹取最近一条原文展示
      * 
      * @param limit 返回数量
      * @return 统计结果列表
      */
-    @org.apache.ibatis.annotations.Select("SELECT question, COUNT(*) as count " +
+    @org.apache.ibatis.annotations.Select("SELECT (SELECT q.question FROM qa_log q " +
+            "WHERE q.question_hash = t.question_hash ORDER BY q.id DESC LIMIT 1) as question, t.count " +
+            "FROM (SELECT question_hash, COUNT(*) as count " +
             "FROM qa_log " +
-            "GROUP BY question " +
+            "WHERE question_hash IS NOT NULL " +
+            "GROUP BY question_hash " +
             "ORDER BY count DESC " +
-            "LIMIT #{limit}")
+            "LIMIT #{limit}) t " +
+            "ORDER BY t.count DESC")
     java.util.List<java.util.Map<String, Object>> selectTopQuestions(int limit);
+
+    /**
+     * 按主键顺序取一批尚未计算指纹的日志
+     *
+     * @param afterId 上一批最后一条的主键
+     * @param limit   批大小
+     * @return id 与 question
+     */
+    @org.apache.ibatis.annotations.Select("SELECT id, question FROM qa_log " +
+            "WHERE question_hash IS NULL AND id > #{afterId} " +
+            "ORDER BY id LIMIT #{limit}")
+    java.util.List<QaLog> selectWithoutHash(@Param("afterId") long afterId, @Param("limit") int limit);
+
+    /**
+     * 批量回填指纹：一条 UPDATE ... CASE id 语句更新整批
+     *
+     * @param logs 带 id 与 questionHash 的日志，不能为空
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE qa_log SET question_hash = CASE id " +
+            "<foreach collection='logs' item='item'>WHEN #{item.id} THEN #{item.questionHash} </foreach>" +
+            "END WHERE id IN " +
+            "<foreach collection='logs' item='item' open='(' separator=',' close=')'>#{item.id}</foreach>" +
+            "</script>")
+    int updateQuestionHashes(@Param("logs") java.util.List<QaLog> logs);
+
+    /**
+     * 多行 INSERT 批量写入问答日志
+     *
+     * @param logs 日志列表，不能为空
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO qa_log (question, question_hash, answer, reference_summary, latency_ms, model, created_at) VALUES " +
+            "<foreach collection='logs' item='item' separator=','>" +
+            "(#{item.question}, #{item.questionHash}, #{item.answer}, #{item.referenceSummary}, #{item.latencyMs}, #{item.model}, #{item.createdAt})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("logs") java.util.List<QaLog> logs);
 }
@@ -2,7 +2,9 @@ package com.ai.algorithmqa.mapper;
 
 import com.ai.algorithmqa.domain.entity.SearchClickLog;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 import org.apache.ibatis.annotations.Select;
 
 import java.util.List;
@@ -26,4 +28,18 @@ public interface SearchClickLogMapper extends BaseMapper<SearchClickLog> {
             "ORDER BY count DESC " +
             "LIMIT #{limit}")
     List<Map<String, Object>> selectTopClicks(int limit);
+
+    /**
+     * 多行 INSERT 批量写入原始点击事件
+     *
+     * @param logs 点击列表，不能为空
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO search_click_log (topic_id, topic_title, created_at) VALUES " +
+            "<foreach collection='logs' item='item' separator=','>" +
+            "(#{item.topicId}, #{item.topicTitle}, #{item.createdAt})" +
+            "</foreach>" +
+            "</script>")
+    int insertBatch(@Param("logs") List<SearchClickLog> logs);
 }
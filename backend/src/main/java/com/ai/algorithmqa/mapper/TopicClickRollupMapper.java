@@ -0,0 +1,46 @@
+package com.ai.algorithmqa.mapper;
+
+import com.ai.algorithmqa.domain.entity.TopicClickRollup;
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 主题点击分钟聚合 Mapper
+ */
+@Mapper
+public interface TopicClickRollupMapper extends BaseMapper<TopicClickRollup> {
+
+    /**
+     * 把一批增量累加到 (topic_id, bucket_minute) 行上，行不存在时插入
+     *
+     * @param rows 增量列表，不能为空
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO topic_click_rollup (topic_id, bucket_minute, topic_title, click_count) VALUES " +
+            "<foreach collection='rows' item='item' separator=','>" +
+            "(#{item.topicId}, #{item.bucketMinute}, #{item.topicTitle}, #{item.clickCount})" +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE click_count = click_count + VALUES(click_count), topic_title = VALUES(topic_title)" +
+            "</script>")
+    int upsertBatch(@Param("rows") List<TopicClickRollup> rows);
+
+    /**
+     * 查询点击次数最多的算法主题
+     *
+     * @param limit 返回数量
+     * @return 统计结果列表
+     */
+    @Select("SELECT MAX(topic_title) as title, SUM(click_count) as count " +
+            "FROM topic_click_rollup " +
+            "GROUP BY topic_id " +
+            "ORDER BY count DESC " +
+            "LIMIT #{limit}")
+    List<Map<String, Object>> selectTopClicks(int limit);
+}
@@ -0,0 +1,52 @@
+package com.ai.algorithmqa.mapper.handler;
+
+import com.ai.algorithmqa.retrieval.EmbeddingCodec;
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+import org.apache.ibatis.type.MappedJdbcTypes;
+import org.apache.ibatis.type.MappedTypes;
+
+import java.sql.CallableStatement;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * float[] ⇄ BLOB 的类型处理器，二进制格式见 {@link EmbeddingCodec}。
+ * 读取时根据头部编码自动解码，写入编码由 retrieval.storage-encoding 在启动时设置。
+ */
+@MappedTypes(float[].class)
+@MappedJdbcTypes(JdbcType.BLOB)
+public class EmbeddingTypeHandler extends BaseTypeHandler<float[]> {
+
+    private static volatile EmbeddingCodec.Encoding writeEncoding = EmbeddingCodec.Encoding.FLOAT32;
+
+    public static void setWriteEncoding(EmbeddingCodec.Encoding encoding) {
+        writeEncoding = encoding;
+    }
+
+    public static EmbeddingCodec.Encoding getWriteEncoding() {
+        return writeEncoding;
+    }
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, float[] parameter, JdbcType jdbcType)
+            throws SQLException {
+        ps.setBytes(i, EmbeddingCodec.encode(parameter, writeEncoding));
+    }
+
+    @Override
+    public float[] getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return EmbeddingCodec.decode(rs.getBytes(columnName));
+    }
+
+    @Override
+    public float[] getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return EmbeddingCodec.decode(rs.getBytes(columnIndex));
+    }
+
+    @Override
+    public float[] getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return EmbeddingCodec.decode(cs.getBytes(columnIndex));
+    }
+}
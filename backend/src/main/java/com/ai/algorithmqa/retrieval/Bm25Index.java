@@ -0,0 +1,228 @@
+package com.ai.algorithmqa.retrieval;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * 内存倒排索引 + BM25 打分，文档编号与 {@link VectorIndex} 的行号一致。
+ * 文档按行号追加；删除时立即从倒排表与文档数、平均长度中扣除，行号在压缩（{@link #compact}）时随索引重新编号。
+ * <p>
+ * 每个词的倒排表是两段原始 int 数组（行号、词频），查询时按词累加得分（term-at-a-time），
+ * 只触达包含查询词的行，代价与命中的倒排表长度成正比而非语料规模。
+ * 调用方（VectorIndex）负责加锁。
+ */
+public class Bm25Index {
+
+    private final float k1;
+    private final float b;
+    private final Map<String, Postings> postings = new HashMap<>();
+    private int[] documentLengths = new int[256];
+    private int documentCount;
+    private int liveDocuments;
+    private long totalLength;
+
+    /**
+     * 累加器（三个长度为文档数的数组）借出/归还复用：请求跑在一次性的虚拟线程上，ThreadLocal 起不到复用作用。
+     * 池容量取 CPU 核数，打分是纯计算，多出的累加器归还时直接丢弃。
+     */
+    private final BlockingQueue<Accumulator> accumulators =
+            new ArrayBlockingQueue<>(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+    public Bm25Index(double k1, double b) {
+        this.k1 = (float) k1;
+        this.b = (float) b;
+    }
+
+    /**
+     * 追加一篇文档，row 必须等于当前文档数（与向量索引同步递增）。
+     */
+    public void add(int row, String text) {
+        if (row != documentCount) {
+            throw new IllegalStateException("BM25 文档编号必须连续追加 row=" + row + ", expected=" + documentCount);
+        }
+        if (row >= documentLengths.length) {
+            documentLengths = Arrays.copyOf(documentLengths, Math.max(row + 1, documentLengths.length * 2));
+        }
+        Map<String, Integer> frequencies = new LinkedHashMap<>();
+        List<String> tokens = TextTokenizer.tokenize(text);
+        for (String token : tokens) {
+            frequencies.merge(token, 1, Integer::sum);
+        }
+        frequencies.forEach((term, tf) -> postings.computeIfAbsent(term, t -> new Postings()).add(row, tf));
+        documentLengths[row] = tokens.size();
+        totalLength += tokens.size();
+        documentCount++;
+        liveDocuments++;
+    }
+
+    /**
+     * 删除一篇文档，text 须与写入时相同（用于找回它出现过的词）。倒排表按行号递增，二分定位后移除。
+     */
+    public void remove(int row, String text) {
+        if (row >= documentCount || documentLengths[row] < 0) {
+            return;
+        }
+        for (String term : new LinkedHashSet<>(TextTokenizer.tokenize(text))) {
+            Postings list = postings.get(term);
+            if (list != null && list.remove(row) && list.size == 0) {
+                postings.remove(term);
+            }
+        }
+        totalLength -= documentLengths[row];
+        // -1 标记已删除，避免重复扣减
+        documentLengths[row] = -1;
+        liveDocuments--;
+    }
+
+    /**
+     * 与向量索引同步压缩行号：newRowOf[row] 为新行号，已删除的行为 -1，liveCount 为压缩后的行数。
+     */
+    public void compact(int[] newRowOf, int liveCount) {
+        int[] lengths = new int[Math.max(liveCount, 256)];
+        for (int row = 0; row < documentCount; row++) {
+            int mapped = newRowOf[row];
+            if (mapped >= 0) {
+                lengths[mapped] = documentLengths[row];
+            }
+        }
+        for (Postings list : postings.values()) {
+            for (int i = 0; i < list.size; i++) {
+                list.rows[i] = newRowOf[list.rows[i]];
+            }
+        }
+        documentLengths = lengths;
+        documentCount = liveCount;
+        liveDocuments = liveCount;
+    }
+
+    /**
+     * 对查询文本做 BM25 打分，满足 filter 的最高分若干行写入 out；查询分词为空时不产生结果。
+     */
+    public void search(String query, IntPredicate filter, TopK out) {
+        if (liveDocuments == 0) {
+            return;
+        }
+        Map<String, Integer> queryTerms = new LinkedHashMap<>();
+        for (String token : TextTokenizer.tokenize(query)) {
+            queryTerms.merge(token, 1, Integer::sum);
+        }
+        if (queryTerms.isEmpty()) {
+            return;
+        }
+        Accumulator acc = accumulators.poll();
+        if (acc == null) {
+            acc = new Accumulator();
+        }
+        try {
+            score(queryTerms, acc);
+            for (int i = 0; i < acc.touchedCount; i++) {
+                int row = acc.touched[i];
+                if (filter.test(row)) {
+                    out.offer(row, acc.scores[row]);
+                }
+            }
+        } finally {
+            accumulators.offer(acc);
+        }
+    }
+
+    private void score(Map<String, Integer> queryTerms, Accumulator acc) {
+        float averageLength = Math.max(1f, totalLength / (float) liveDocuments);
+        acc.reset(documentCount);
+        for (Map.Entry<String, Integer> term : queryTerms.entrySet()) {
+            Postings list = postings.get(term.getKey());
+            if (list == null) {
+                continue;
+            }
+            float idf = (float) Math.log(1 + (liveDocuments - list.size + 0.5) / (list.size + 0.5));
+            float weight = idf * term.getValue();
+            for (int i = 0; i < list.size; i++) {
+                int row = list.rows[i];
+                int tf = list.frequencies[i];
+                float norm = k1 * (1 - b + b * documentLengths[row] / averageLength);
+                acc.add(row, weight * tf * (k1 + 1) / (tf + norm));
+            }
+        }
+    }
+
+    /**
+     * @return 未删除的文档数
+     */
+    public int documentCount() {
+        return liveDocuments;
+    }
+
+    public int termCount() {
+        return postings.size();
+    }
+
+    private static final class Postings {
+        private int[] rows = new int[4];
+        private int[] frequencies = new int[4];
+        private int size;
+
+        void add(int row, int tf) {
+            if (size == rows.length) {
+                rows = Arrays.copyOf(rows, size * 2);
+                frequencies = Arrays.copyOf(frequencies, size * 2);
+            }
+            rows[size] = row;
+            frequencies[size] = tf;
+            size++;
+        }
+
+        /**
+         * @return 该行在表中时返回 true
+         */
+        boolean remove(int row) {
+            int i = Arrays.binarySearch(rows, 0, size, row);
+            if (i < 0) {
+                return false;
+            }
+            System.arraycopy(rows, i + 1, rows, i, size - i - 1);
+            System.arraycopy(frequencies, i + 1, frequencies, i, size - i - 1);
+            size--;
+            return true;
+        }
+    }
+
+    /**
+     * 按行累加得分的稠密数组 + 已触达行列表，每次查询只清理触达过的行。
+     */
+    private static final class Accumulator {
+        private float[] scores = new float[0];
+        private boolean[] seen = new boolean[0];
+        private int[] touched = new int[0];
+        private int touchedCount;
+
+        void reset(int capacity) {
+            for (int i = 0; i < touchedCount; i++) {
+                scores[touched[i]] = 0f;
+                seen[touched[i]] = false;
+            }
+            touchedCount = 0;
+            if (scores.length < capacity) {
+                // 索引只追加，按 1.5 倍扩容，避免每加入几篇文档就重新分配
+                int length = Math.max(capacity, scores.length + (scores.length >> 1));
+                scores = new float[length];
+                seen = new boolean[length];
+                touched = new int[length];
+            }
+        }
+
+        void add(int row, float score) {
+            if (!seen[row]) {
+                seen[row] = true;
+                touched[touchedCount++] = row;
+            }
+            scores[row] += score;
+        }
+    }
+}
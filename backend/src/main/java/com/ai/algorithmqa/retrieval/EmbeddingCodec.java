@@ -0,0 +1,168 @@
+package com.ai.algorithmqa.retrieval;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Locale;
+
+/**
+ * embedding 的二进制打包格式（小端序）：
+ * <pre>
+ * [1 字节编码][4 字节维度][载荷]
+ *   FLOAT32：dim × 4 字节 IEEE754 单精度
+ *   FLOAT16：dim × 2 字节 IEEE754 半精度
+ *   INT8   ：4 字节 float 缩放因子 + dim × 1 字节有符号整数（对称量化，x ≈ q × scale）
+ * </pre>
+ * 1536 维向量在 JSON 中约 30KB，FLOAT32 约 6KB，FLOAT16 约 3KB，INT8 约 1.5KB。
+ */
+public final class EmbeddingCodec {
+
+    private static final int HEADER_BYTES = 5;
+
+    private EmbeddingCodec() {
+    }
+
+    public enum Encoding {
+        FLOAT32((byte) 1),
+        FLOAT16((byte) 2),
+        INT8((byte) 3);
+
+        private final byte tag;
+
+        Encoding(byte tag) {
+            this.tag = tag;
+        }
+
+        public static Encoding fromTag(byte tag) {
+            for (Encoding encoding : values()) {
+                if (encoding.tag == tag) {
+                    return encoding;
+                }
+            }
+            throw new IllegalArgumentException("未知的 embedding 编码: " + tag);
+        }
+
+        /**
+         * 解析配置值（float32 / float16 / int8，大小写不敏感）。
+         */
+        public static Encoding fromConfig(String value) {
+            if (value == null || value.isBlank()) {
+                return FLOAT32;
+            }
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        }
+    }
+
+    public static byte[] encode(float[] vector, Encoding encoding) {
+        int dimension = vector.length;
+        int payload = switch (encoding) {
+            case FLOAT32 -> dimension * 4;
+            case FLOAT16 -> dimension * 2;
+            case INT8 -> 4 + dimension;
+        };
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(encoding.tag).putInt(dimension);
+        switch (encoding) {
+            case FLOAT32 -> {
+                for (float v : vector) {
+                    buffer.putFloat(v);
+                }
+            }
+            case FLOAT16 -> {
+                for (float v : vector) {
+                    buffer.putShort(floatToHalf(v));
+                }
+            }
+            case INT8 -> {
+                float maxAbs = 0f;
+                for (float v : vector) {
+                    maxAbs = Math.max(maxAbs, Math.abs(v));
+                }
+                float scale = maxAbs == 0f ? 1f : maxAbs / 127f;
+                buffer.putFloat(scale);
+                for (float v : vector) {
+                    buffer.put((byte) Math.max(-127, Math.min(127, Math.round(v / scale))));
+                }
+            }
+        }
+        return buffer.array();
+    }
+
+    public static float[] decode(byte[] bytes) {
+        if (bytes == null || bytes.length < HEADER_BYTES) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        Encoding encoding = Encoding.fromTag(buffer.get());
+        int dimension = buffer.getInt();
+        float[] vector = new float[dimension];
+        switch (encoding) {
+            case FLOAT32 -> buffer.asFloatBuffer().get(vector);
+            case FLOAT16 -> {
+                for (int i = 0; i < dimension; i++) {
+                    vector[i] = halfToFloat(buffer.getShort());
+                }
+            }
+            case INT8 -> {
+                float scale = buffer.getFloat();
+                for (int i = 0; i < dimension; i++) {
+                    vector[i] = buffer.get() * scale;
+                }
+            }
+        }
+        return vector;
+    }
+
+    /**
+     * float32 → IEEE754 half，舍入到最近偶数，溢出为无穷，过小的值变为非规格化数或 0。
+     */
+    static short floatToHalf(float value) {
+        int bits = Float.floatToIntBits(value);
+        int sign = (bits >>> 16) & 0x8000;
+        int exponent = ((bits >>> 23) & 0xff) - 127 + 15;
+        int mantissa = bits & 0x7fffff;
+        if (((bits >>> 23) & 0xff) == 0xff) {
+            return (short) (sign | 0x7c00 | (mantissa != 0 ? 0x200 : 0));
+        }
+        if (exponent >= 0x1f) {
+            return (short) (sign | 0x7c00);
+        }
+        if (exponent <= 0) {
+            if (exponent < -10) {
+                return (short) sign;
+            }
+            mantissa |= 0x800000;
+            int shift = 14 - exponent;
+            int half = mantissa >> shift;
+            int remainder = mantissa & ((1 << shift) - 1);
+            int halfway = 1 << (shift - 1);
+            if (remainder > halfway || (remainder == halfway && (half & 1) != 0)) {
+                half++;
+            }
+            return (short) (sign | half);
+        }
+        int half = (exponent << 10) | (mantissa >> 13);
+        int remainder = mantissa & 0x1fff;
+        if (remainder > 0x1000 || (remainder == 0x1000 && (half & 1) != 0)) {
+            half++;
+        }
+        return (short) (sign | half);
+    }
+
+    static float halfToFloat(short half) {
+        int bits = half & 0xffff;
+        int sign = (bits & 0x8000) << 16;
+        int exponent = (bits >>> 10) & 0x1f;
+        int mantissa = bits & 0x3ff;
+        if (exponent == 0x1f) {
+            return Float.intBitsToFloat(sign | 0x7f800000 | (mantissa << 13));
+        }
+        if (exponent == 0) {
+            if (mantissa == 0) {
+                return Float.intBitsToFloat(sign);
+            }
+            float value = mantissa / 1024f / 16384f;
+            return sign == 0 ? value : -value;
+        }
+        return Float.intBitsToFloat(sign | ((exponent - 15 + 127) << 23) | (mantissa << 13));
+    }
+}
@@ -0,0 +1,49 @@
+package com.ai.algorithmqa.retrieval;
+
+import java.util.function.IntPredicate;
+
+/**
+ * 精确检索：顺序扫描整个矩阵做点积，结果即为真实 Top-K，也是评估近似引擎召回率的基准。
+ */
+public class ExactSearchEngine implements VectorSearchEngine {
+
+    public static final String NAME = "exact";
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void onAppend(VectorIndex index, int row, float[] normalizedVector) {
+        // 暴力扫描无需额外结构
+    }
+
+    @Override
+    public void onCompacted(VectorIndex index, int[] oldRows, int liveCount) {
+        // 直接读索引的矩阵，无需搬移
+    }
+
+    @Override
+    public void search(VectorIndex index, float[] query, int k, IntPredicate filter, TopK out) {
+        float[] matrix = index.matrix();
+        int dimension = index.dim();
+        int rows = index.rows();
+        for (int row = 0; row < rows; row++) {
+            if (index.hasVector(row) && filter.test(row)) {
+                out.offer(row, VectorMath.dot(query, matrix, row * dimension));
+            }
+        }
+    }
+
+    @Override
+    public void search(VectorIndex index, float[] query, int k, RowBitmap rows, IntPredicate filter, TopK out) {
+        float[] matrix = index.matrix();
+        int dimension = index.dim();
+        rows.forEach(row -> {
+            if (index.hasVector(row) && filter.test(row)) {
+                out.offer(row, VectorMath.dot(query, matrix, row * dimension));
+            }
+        });
+    }
+}
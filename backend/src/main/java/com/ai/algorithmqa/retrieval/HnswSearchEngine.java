@@ -0,0 +1,452 @@
+package com.ai.algorithmqa.retrieval;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.IntPredicate;
+
+/**
+ * 基于 HNSW（Hierarchical Navigable Small World）的近似近邻检索引擎。
+ * <p>
+ * 每个向量行是图中的一个节点：按指数分布随机分配层级，上层稀疏用于快速定位入口，
+ * 第 0 层稠密用于精细搜索。邻居选择采用论文中的启发式（保留“彼此不遮挡”的邻居），
+ * 查询代价约为 O(efSearch · log N) 次点积，与语料规模近似对数相关。
+ * 过滤条件只作用于结果收集，图遍历本身不受影响，保证连通性；候选行很少时改为直接扫描候选行。
+ */
+public class HnswSearchEngine implements VectorSearchEngine {
+
+    public static final String NAME = "hnsw";
+
+    private static final int MAX_LEVEL = 16;
+
+    private final int m;
+    private final int maxM0;
+    private final int efConstruction;
+    private final int efSearch;
+    private final double levelMultiplier;
+    // 固定种子，保证同一份语料多次加载得到相同的图，便于复现召回率
+    private final Random random = new Random(42);
+    /**
+     * 访问标记数组（每个 int[N]）借出/归还复用。请求跑在一次性的虚拟线程上，ThreadLocal 每次都会新建；
+     * 池容量取 CPU 核数，检索是纯计算，同时在用的数组不会长期多于核数，多出的归还时直接丢弃。
+     */
+    private final BlockingQueue<VisitedSet> visitedSets =
+            new ArrayBlockingQueue<>(Math.max(1, Runtime.getRuntime().availableProcessors()));
+
+    /**
+     * neighbors[row][level] 为该层的邻居表，下标 0 存放邻居数量。
+     */
+    private int[][][] neighbors = new int[0][][];
+    private int entryPoint = -1;
+    private int maxLevel = -1;
+    private int nodeCount;
+    private long linkBytes;
+
+    public HnswSearchEngine(int m, int efConstruction, int efSearch) {
+        if (m < 2) {
+            throw new IllegalArgumentException("HNSW 参数 m 至少为 2");
+        }
+        this.m = m;
+        this.maxM0 = m * 2;
+        this.efConstruction = Math.max(efConstruction, m);
+        this.efSearch = Math.max(1, efSearch);
+        this.levelMultiplier = 1.0 / Math.log(m);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void onAppend(VectorIndex index, int row, float[] vector) {
+        if (row >= neighbors.length) {
+            neighbors = Arrays.copyOf(neighbors, Math.max(row + 1, neighbors.length * 2));
+        }
+
+        int level = randomLevel();
+        neighbors[row] = new int[level + 1][];
+        for (int l = 0; l <= level; l++) {
+            neighbors[row][l] = new int[(l == 0 ? maxM0 : m) + 1];
+            linkBytes += 4L * neighbors[row][l].length;
+        }
+        nodeCount++;
+        if (entryPoint < 0) {
+            entryPoint = row;
+            maxLevel = level;
+            return;
+        }
+
+        int ep = entryPoint;
+        for (int l = maxLevel; l > level; l--) {
+            ep = greedyClosest(index, vector, ep, l);
+        }
+        for (int l = Math.min(level, maxLevel); l >= 0; l--) {
+            ScoredHeap found = searchLayer(index, vector, ep, efConstruction, l, r -> true);
+            int[] candidates = new int[found.size()];
+            float[] scores = new float[found.size()];
+            // 小顶堆依次弹出得分升序，倒序写入得到降序
+            for (int i = candidates.length - 1; i >= 0; i--) {
+                scores[i] = found.peekScore();
+                candidates[i] = found.pop();
+            }
+            ep = candidates[0];
+            int[] selected = selectNeighbors(index, candidates, scores, candidates.length, m);
+            int[] links = neighbors[row][l];
+            System.arraycopy(selected, 0, links, 1, selected.length);
+            links[0] = selected.length;
+            for (int neighbor : selected) {
+                link(index, neighbor, row, l);
+            }
+        }
+        if (level > maxLevel) {
+            maxLevel = level;
+            entryPoint = row;
+        }
+    }
+
+    /**
+     * 删除的节点仍留在图中会占用 ef 名额、降低召回，摘除节点又会破坏连通性，因此压缩后按新行号整图重建。
+     * 代价与全量加载相同，由索引在删除行累积到一定比例后才触发，摊到每次删除上是常数。
+     */
+    @Override
+    public void onCompacted(VectorIndex index, int[] oldRows, int liveCount) {
+        neighbors = new int[liveCount][][];
+        entryPoint = -1;
+        maxLevel = -1;
+        nodeCount = 0;
+        linkBytes = 0;
+        float[] matrix = index.matrix();
+        int dimension = index.dim();
+        for (int row = 0; row < liveCount; row++) {
+            if (index.hasVector(row)) {
+                onAppend(index, row, Arrays.copyOfRange(matrix, row * dimension, (row + 1) * dimension));
+            }
+        }
+    }
+
+    @Override
+    public void search(VectorIndex index, float[] query, int k, IntPredicate filter, TopK out) {
+        search(index, query, k, efSearch, filter, out);
+    }
+
+    /**
+     * 候选行足够少时直接精确扫描：过滤很严时图遍历的大部分点积都落在被过滤掉的节点上，
+     * 还可能因满足条件的节点不连通而凑不满 K 个；候选行数不超过一次图搜索的大致代价（ef × 2m）时改为扫描。
+     */
+    @Override
+    public void search(VectorIndex index, float[] query, int k, RowBitmap rows, IntPredicate filter, TopK out) {
+        if (rows.cardinality() > (long) Math.max(efSearch, k) * maxM0) {
+            search(index, query, k, efSearch, filter, out);
+            return;
+        }
+        float[] matrix = index.matrix();
+        int dimension = index.dim();
+        rows.forEach(row -> {
+            if (index.hasVector(row) && filter.test(row)) {
+                out.offer(row, VectorMath.dot(query, matrix, row * dimension));
+            }
+        });
+    }
+
+    /**
+     * 指定 efSearch 的查询，供召回率评估时扫描不同参数。
+     */
+    public void search(VectorIndex index, float[] query, int k, int ef, IntPredicate filter, TopK out) {
+        if (entryPoint < 0) {
+            return;
+        }
+        int ep = entryPoint;
+        for (int l = maxLevel; l > 0; l--) {
+            ep = greedyClosest(index, query, ep, l);
+        }
+        ScoredHeap results = searchLayer(index, query, ep, Math.max(ef, k), 0, filter);
+        while (results.size() > 0) {
+            float score = results.peekScore();
+            out.offer(results.pop(), score);
+        }
+    }
+
+    private int randomLevel() {
+        double r = -Math.log(1.0 - random.nextDouble()) * levelMultiplier;
+        return Math.min((int) r, MAX_LEVEL);
+    }
+
+    /**
+     * 上层贪心下降：不断移动到更近的邻居，直到无法改进。
+     */
+    private int greedyClosest(VectorIndex index, float[] query, int ep, int level) {
+        float[] matrix = index.matrix();
+        int dimension = index.dim();
+        int current = ep;
+        float best = VectorMath.dot(query, matrix, current * dimension);
+        boolean improved = true;
+        while (improved) {
+            improved = false;
+            int[] links = neighbors[current][level];
+            for (int i = 1; i <= links[0]; i++) {
+                int candidate = links[i];
+                float score = VectorMath.dot(query, matrix, candidate * dimension);
+                if (score > best) {
+                    best = score;
+                    current = candidate;
+                    improved = true;
+                }
+            }
+        }
+        return current;
+    }
+
+    /**
+     * 单层 best-first 搜索，返回最多 ef 个满足 filter 的结果（小顶堆，堆顶为最差结果）。
+     */
+    private ScoredHeap searchLayer(VectorIndex index, float[] query, int ep, int ef, int level, IntPredicate filter) {
+        float[] matrix = index.matrix();
+        int dimension = index.dim();
+        VisitedSet visited = visitedSets.poll();
+        if (visited == null) {
+            visited = new VisitedSet();
+        }
+        try {
+            return searchLayer(matrix, dimension, query, ep, ef, level, filter, visited);
+        } finally {
+            visitedSets.offer(visited);
+        }
+    }
+
+    private ScoredHeap searchLayer(float[] matrix, int dimension, float[] query, int ep, int ef, int level,
+            IntPredicate filter, VisitedSet visited) {
+        visited.reset(neighbors.length);
+
+        ScoredHeap candidates = new ScoredHeap(true, ef * 2);
+        ScoredHeap results = new ScoredHeap(false, ef + 1);
+        float epScore = VectorMath.dot(query, matrix, ep * dimension);
+        visited.mark(ep);
+        candidates.push(ep, epScore);
+        if (filter.test(ep)) {
+            results.push(ep, epScore);
+        }
+
+        while (candidates.size() > 0) {
+            float candidateScore = candidates.peekScore();
+            if (results.size() >= ef && candidateScore < results.peekScore()) {
+                break;
+            }
+            int current = candidates.pop();
+            int[] links = neighbors[current][level];
+            for (int i = 1; i <= links[0]; i++) {
+                int neighbor = links[i];
+                if (!visited.mark(neighbor)) {
+                    continue;
+                }
+                float score = VectorMath.dot(query, matrix, neighbor * dimension);
+                if (results.size() < ef || score > results.peekScore()) {
+                    candidates.push(neighbor, score);
+                    if (filter.test(neighbor)) {
+                        results.push(neighbor, score);
+                        if (results.size() > ef) {
+                            results.pop();
+                        }
+                    }
+                }
+            }
+        }
+        return results;
+    }
+
+    /**
+     * 启发式邻居选择：候选按与基点的相似度降序给出，只有当候选与基点的相似度
+     * 高于它与所有已选邻居的相似度时才保留；名额不足时再用被剪掉的候选补齐。
+     */
+    private int[] selectNeighbors(VectorIndex index, int[] candidates, float[] scores, int count, int maxCount) {
+        if (count <= maxCount) {
+            return Arrays.copyOf(candidates, count);
+        }
+        float[] matrix = index.matrix();
+        int dimension = index.dim();
+        int[] selected = new int[maxCount];
+        int selectedCount = 0;
+        int[] pruned = new int[count];
+        int prunedCount = 0;
+        for (int i = 0; i < count && selectedCount < maxCount; i++) {
+            int candidate = candidates[i];
+            boolean keep = true;
+            for (int j = 0; j < selectedCount; j++) {
+                if (VectorMath.dotRows(matrix, candidate * dimension, selected[j] * dimension, dimension) > scores[i]) {
+                    keep = false;
+                    break;
+                }
+            }
+            if (keep) {
+                selected[selectedCount++] = candidate;
+            } else {
+                pruned[prunedCount++] = candidate;
+            }
+        }
+        for (int i = 0; i < prunedCount && selectedCount < maxCount; i++) {
+            selected[selectedCount++] = pruned[i];
+        }
+        return Arrays.copyOf(selected, selectedCount);
+    }
+
+    /**
+     * 为 node 增加一条指向 target 的反向边，邻居表满时重新做启发式裁剪。
+     */
+    private void link(VectorIndex index, int node, int target, int level) {
+        int[] links = neighbors[node][level];
+        int capacity = links.length - 1;
+        if (links[0] < capacity) {
+            links[++links[0]] = target;
+            return;
+        }
+        float[] matrix = index.matrix();
+        int dimension = index.dim();
+        int count = links[0] + 1;
+        int[] candidates = new int[count];
+        float[] scores = new float[count];
+        System.arraycopy(links, 1, candidates, 0, links[0]);
+        candidates[count - 1] = target;
+        for (int i = 0; i < count; i++) {
+            scores[i] = VectorMath.dotRows(matrix, node * dimension, candidates[i] * dimension, dimension);
+        }
+        sortDescending(candidates, scores);
+        int[] selected = selectNeighbors(index, candidates, scores, count, capacity);
+        System.arraycopy(selected, 0, links, 1, selected.length);
+        links[0] = selected.length;
+    }
+
+    private static void sortDescending(int[] nodes, float[] scores) {
+        for (int i = 1; i < nodes.length; i++) {
+            int node = nodes[i];
+            float score = scores[i];
+            int j = i - 1;
+            while (j >= 0 && scores[j] < score) {
+                nodes[j + 1] = nodes[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+            nodes[j + 1] = node;
+            scores[j + 1] = score;
+        }
+    }
+
+    @Override
+    public long memoryBytes() {
+        return linkBytes;
+    }
+
+    public int nodeCount() {
+        return nodeCount;
+    }
+
+    public int maxLevel() {
+        return maxLevel;
+    }
+
+    public int efSearch() {
+        return efSearch;
+    }
+
+    /**
+     * 以代数（epoch）标记的访问集合，每次查询只需递增代数即可复用数组。
+     */
+    private static final class VisitedSet {
+        private int[] marks = new int[0];
+        private int epoch;
+
+        void reset(int capacity) {
+            if (marks.length < capacity) {
+                marks = new int[capacity];
+                epoch = 0;
+            }
+            if (++epoch == Integer.MAX_VALUE) {
+                Arrays.fill(marks, 0);
+                epoch = 1;
+            }
+        }
+
+        /**
+         * @return 首次访问返回 true
+         */
+        boolean mark(int node) {
+            if (marks[node] == epoch) {
+                return false;
+            }
+            marks[node] = epoch;
+            return true;
+        }
+    }
+
+    /**
+     * 原始类型的二叉堆，max=true 时堆顶为最高分，否则为最低分。
+     */
+    private static final class ScoredHeap {
+        private final boolean max;
+        private int[] nodes;
+        private float[] scores;
+        private int size;
+
+        ScoredHeap(boolean max, int capacity) {
+            this.max = max;
+            this.nodes = new int[Math.max(4, capacity)];
+            this.scores = new float[Math.max(4, capacity)];
+        }
+
+        int size() {
+            return size;
+        }
+
+        float peekScore() {
+            return scores[0];
+        }
+
+        void push(int node, float score) {
+            if (size == nodes.length) {
+                nodes = Arrays.copyOf(nodes, size * 2);
+                scores = Arrays.copyOf(scores, size * 2);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(score, scores[parent])) {
+                    break;
+                }
+                nodes[i] = nodes[parent];
+                scores[i] = scores[parent];
+                i = parent;
+            }
+            nodes[i] = node;
+            scores[i] = score;
+        }
+
+        int pop() {
+            int top = nodes[0];
+            int lastNode = nodes[--size];
+            float lastScore = scores[size];
+            int i = 0;
+            while (true) {
+                int child = 2 * i + 1;
+                if (child >= size) {
+                    break;
+                }
+                if (child + 1 < size && before(scores[child + 1], scores[child])) {
+                    child++;
+                }
+                if (!before(scores[child], lastScore)) {
+                    break;
+                }
+                nodes[i] = nodes[child];
+                scores[i] = scores[child];
+                i = child;
+            }
+            nodes[i] = lastNode;
+            scores[i] = lastScore;
+            return top;
+        }
+
+        private boolean before(float a, float b) {
+            return max ? a > b : a < b;
+        }
+    }
+}
@@ -0,0 +1,303 @@
+package com.ai.algorithmqa.retrieval;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.function.IntPredicate;
+
+/**
+ * 乘积量化（PQ）扫描：把向量切成 M 个子空间，每个子空间用 k-means 训练至多 256 个质心，
+ * 每行只保存 M 个字节的质心编号（1536 维、M=192 时每行 192 字节，约为 float32 的 1/32）。
+ * <p>
+ * 查询时先为每个子空间算出 query 子向量与全部质心的点积表，行得分即 M 次查表求和（ADC），
+ * 得分为近似值，取 rescoreFactor × K 个候选交给索引用全精度向量重排。
+ * 码本在全量加载完成或待编码行数达到训练样本量时训练一次；训练前写入的行暂存全精度向量并精确打分。
+ */
+public class ProductQuantizedEngine implements VectorSearchEngine {
+
+    public static final String NAME = "pq";
+
+    private static final int MAX_CENTROIDS = 256;
+    private static final int PREFERRED_SUB_DIMENSION = 8;
+
+    private final int configuredSubspaces;
+    private final int trainingSample;
+    private final int iterations;
+    private final int rescoreFactor;
+    // 固定种子，保证同一份语料多次加载得到相同的码本
+    private final Random random = new Random(42);
+
+    private int dimension = -1;
+    private int subspaces;
+    private int subDimension;
+    private int centroidCount;
+    /**
+     * codebooks[m] 为第 m 个子空间的质心，按 centroid × subDimension 连续存放。
+     */
+    private float[][] codebooks;
+    private byte[] codes = new byte[0];
+    private final Map<Integer, float[]> pending = new LinkedHashMap<>();
+
+    /**
+     * @param subspaces 子空间数，须整除向量维度；0 或不能整除时按每个子空间 8 维左右自动选择
+     */
+    public ProductQuantizedEngine(int subspaces, int trainingSample, int iterations, int rescoreFactor) {
+        this.configuredSubspaces = subspaces;
+        this.trainingSample = Math.max(MAX_CENTROIDS, trainingSample);
+        this.iterations = Math.max(1, iterations);
+        this.rescoreFactor = Math.max(1, rescoreFactor);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void onAppend(VectorIndex index, int row, float[] normalizedVector) {
+        if (dimension < 0) {
+            dimension = normalizedVector.length;
+            subspaces = chooseSubspaces(dimension, configuredSubspaces);
+            subDimension = dimension / subspaces;
+        }
+        if ((row + 1) * subspaces > codes.length) {
+            codes = Arrays.copyOf(codes, Math.max((row + 1) * subspaces, codes.length * 2));
+        }
+        if (codebooks == null) {
+            pending.put(row, normalizedVector);
+            if (pending.size() >= trainingSample) {
+                train();
+            }
+            return;
+        }
+        encode(row, normalizedVector);
+    }
+
+    /**
+     * 按新行号前移 PQ 码并重映射训练前暂存的向量；码本与行号无关，保持不变。
+     */
+    @Override
+    public void onCompacted(VectorIndex index, int[] oldRows, int liveCount) {
+        if (dimension < 0) {
+            return;
+        }
+        Map<Integer, float[]> remapped = new LinkedHashMap<>();
+        for (int row = 0; row < liveCount; row++) {
+            int old = oldRows[row];
+            if (!index.hasVector(row)) {
+                continue;
+            }
+            float[] raw = pending.get(old);
+            if (raw != null) {
+                remapped.put(row, raw);
+            } else if (old != row) {
+                System.arraycopy(codes, old * subspaces, codes, row * subspaces, subspaces);
+            }
+        }
+        pending.clear();
+        pending.putAll(remapped);
+        codes = Arrays.copyOf(codes, liveCount * subspaces);
+    }
+
+    @Override
+    public void onLoaded(VectorIndex index) {
+        if (codebooks == null && pending.size() >= 2) {
+            train();
+        }
+    }
+
+    @Override
+    public void search(VectorIndex index, float[] query, int k, IntPredicate filter, TopK out) {
+        int rows = index.rows();
+        float[] table = codebooks == null ? null : lookupTable(query);
+        for (int row = 0; row < rows; row++) {
+            if (index.hasVector(row) && filter.test(row)) {
+                offer(query, table, row, out);
+            }
+        }
+    }
+
+    @Override
+    public void search(VectorIndex index, float[] query, int k, RowBitmap rows, IntPredicate filter, TopK out) {
+        float[] table = codebooks == null ? null : lookupTable(query);
+        rows.forEach(row -> {
+            if (index.hasVector(row) && filter.test(row)) {
+                offer(query, table, row, out);
+            }
+        });
+    }
+
+    private void offer(float[] query, float[] table, int row, TopK out) {
+        float[] raw = pending.get(row);
+        if (raw != null) {
+            out.offer(row, VectorMath.dot(query, raw, 0));
+        } else if (table != null) {
+            out.offer(row, adc(table, row));
+        }
+    }
+
+    /**
+     * table[m × centroidCount + c] 为 query 第 m 段与该段第 c 个质心的点积。
+     */
+    private float[] lookupTable(float[] query) {
+        float[] table = new float[subspaces * centroidCount];
+        for (int m = 0; m < subspaces; m++) {
+            float[] codebook = codebooks[m];
+            int queryOffset = m * subDimension;
+            for (int c = 0; c < centroidCount; c++) {
+                float sum = 0f;
+                int centroidOffset = c * subDimension;
+                for (int d = 0; d < subDimension; d++) {
+                    sum += query[queryOffset + d] * codebook[centroidOffset + d];
+                }
+                table[m * centroidCount + c] = sum;
+            }
+        }
+        return table;
+    }
+
+    private float adc(float[] table, int row) {
+        float sum = 0f;
+        int offset = row * subspaces;
+        for (int m = 0; m < subspaces; m++) {
+            sum += table[m * centroidCount + (codes[offset + m] & 0xff)];
+        }
+        return sum;
+    }
+
+    private void encode(int row, float[] vector) {
+        int offset = row * subspaces;
+        for (int m = 0; m < subspaces; m++) {
+            codes[offset + m] = (byte) nearest(codebooks[m], vector, m * subDimension);
+        }
+    }
+
+    private int nearest(float[] codebook, float[] vector, int vectorOffset) {
+        int best = 0;
+        float bestDistance = Float.MAX_VALUE;
+        for (int c = 0; c < centroidCount; c++) {
+            float distance = 0f;
+            int centroidOffset = c * subDimension;
+            for (int d = 0; d < subDimension; d++) {
+                float diff = vector[vectorOffset + d] - codebook[centroidOffset + d];
+                distance += diff * diff;
+            }
+            if (distance < bestDistance) {
+                bestDistance = distance;
+                best = c;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * 用暂存行（超过样本量时随机抽样）逐子空间跑 k-means，训练完成后编码全部暂存行并释放其全精度向量。
+     */
+    private void train() {
+        List<float[]> sample = new ArrayList<>(pending.values());
+        if (sample.size() > trainingSample) {
+            for (int i = 0; i < trainingSample; i++) {
+                int j = i + random.nextInt(sample.size() - i);
+                float[] swap = sample.get(i);
+                sample.set(i, sample.get(j));
+                sample.set(j, swap);
+            }
+            sample = sample.subList(0, trainingSample);
+        }
+        centroidCount = Math.min(MAX_CENTROIDS, sample.size());
+        codebooks = new float[subspaces][];
+        for (int m = 0; m < subspaces; m++) {
+            codebooks[m] = kMeans(sample, m * subDimension);
+        }
+        pending.forEach(this::encode);
+        pending.clear();
+    }
+
+    private float[] kMeans(List<float[]> sample, int vectorOffset) {
+        int n = sample.size();
+        float[] centroids = new float[centroidCount * subDimension];
+        // 以随机不重复的样本初始化质心
+        int[] order = new int[n];
+        for (int i = 0; i < n; i++) {
+            order[i] = i;
+        }
+        for (int c = 0; c < centroidCount; c++) {
+            int j = c + random.nextInt(n - c);
+            int swap = order[c];
+            order[c] = order[j];
+            order[j] = swap;
+            System.arraycopy(sample.get(order[c]), vectorOffset, centroids, c * subDimension, subDimension);
+        }
+        int[] assignment = new int[n];
+        float[] sums = new float[centroidCount * subDimension];
+        int[] counts = new int[centroidCount];
+        for (int iteration = 0; iteration < iterations; iteration++) {
+            for (int i = 0; i < n; i++) {
+                assignment[i] = nearest(centroids, sample.get(i), vectorOffset);
+            }
+            Arrays.fill(sums, 0f);
+            Arrays.fill(counts, 0);
+            for (int i = 0; i < n; i++) {
+                float[] vector = sample.get(i);
+                int base = assignment[i] * subDimension;
+                for (int d = 0; d < subDimension; d++) {
+                    sums[base + d] += vector[vectorOffset + d];
+                }
+                counts[assignment[i]]++;
+            }
+            for (int c = 0; c < centroidCount; c++) {
+                if (counts[c] == 0) {
+                    // 空簇重新指向一个随机样本，避免质心浪费
+                    System.arraycopy(sample.get(random.nextInt(n)), vectorOffset, centroids, c * subDimension, subDimension);
+                    continue;
+                }
+                for (int d = 0; d < subDimension; d++) {
+                    centroids[c * subDimension + d] = sums[c * subDimension + d] / counts[c];
+                }
+            }
+        }
+        return centroids;
+    }
+
+    static int chooseSubspaces(int dimension, int configured) {
+        if (configured > 0 && configured <= dimension && dimension % configured == 0) {
+            return configured;
+        }
+        for (int subDimension = PREFERRED_SUB_DIMENSION; subDimension > 1; subDimension--) {
+            if (dimension % subDimension == 0) {
+                return dimension / subDimension;
+            }
+        }
+        return dimension;
+    }
+
+    @Override
+    public int candidates(int k) {
+        return k * rescoreFactor;
+    }
+
+    @Override
+    public boolean needsRescoring() {
+        return true;
+    }
+
+    @Override
+    public long memoryBytes() {
+        long bytes = codes.length + (long) pending.size() * Math.max(dimension, 0) * Float.BYTES;
+        if (codebooks != null) {
+            bytes += (long) subspaces * centroidCount * subDimension * Float.BYTES;
+        }
+        return bytes;
+    }
+
+    public boolean isTrained() {
+        return codebooks != null;
+    }
+
+    public int subspaces() {
+        return subspaces;
+    }
+}
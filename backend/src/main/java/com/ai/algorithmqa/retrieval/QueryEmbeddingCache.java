@@ -0,0 +1,239 @@
+package com.ai.algorithmqa.retrieval;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * 查询文本 → 归一化 float[] 的 embedding 缓存，挡在远程 embedding 调用之前。
+ * <p>
+ * 键为规范化后的问题（NFKC、去首尾空白、合并连续空白、转小写），同一问题的不同写法共享一条缓存；
+ * 容量按字节计（键字符 + 向量 + 固定开销），超出上限时按 LRU 淘汰，超过 TTL 的条目读取时失效。
+ * 可选的持久化温层：关闭时把未过期条目写入文件，下次启动按原写入时间恢复，重启后热门问题无需重新调用远程服务。
+ * 文件头记录 namespace（embedding 模型名），模型变更后旧文件自动作废。
+ */
+@Slf4j
+public class QueryEmbeddingCache implements MeterBinder, AutoCloseable {
+
+    private static final int FILE_MAGIC = 0x51454331;
+    private static final int ENTRY_OVERHEAD_BYTES = 96;
+
+    private final long maxBytes;
+    private final long ttlMillis;
+    private final Path warmFile;
+    private final String namespace;
+    private final LongSupplier clock;
+    private final LinkedHashMap<String, CachedVector> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private long currentBytes;
+
+    private record CachedVector(float[] vector, long createdAt) {
+    }
+
+    /**
+     * @param warmFile 持久化文件，为 null 时不启用温层
+     * @param clock    毫秒时钟，测试可注入
+     */
+    public QueryEmbeddingCache(long maxBytes, long ttlMillis, Path warmFile, String namespace, LongSupplier clock) {
+        this.maxBytes = maxBytes;
+        this.ttlMillis = ttlMillis;
+        this.warmFile = warmFile;
+        this.namespace = namespace == null ? "" : namespace;
+        this.clock = clock;
+        loadWarmTier();
+    }
+
+    /**
+     * 问题文本的规范化：全角/半角统一、空白合并、大小写统一。
+     */
+    public static String normalizeKey(String text) {
+        if (text == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).trim();
+        return normalized.replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * @return 命中时返回缓存向量（调用方不得修改），未命中或已过期返回 null
+     */
+    public synchronized float[] get(String text) {
+        String key = normalizeKey(text);
+        CachedVector cached = entries.get(key);
+        if (cached != null && isExpired(cached, clock.getAsLong())) {
+            remove(key);
+            cached = null;
+        }
+        if (cached == null) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return cached.vector();
+    }
+
+    public void put(String text, float[] vector) {
+        put(normalizeKey(text), vector, clock.getAsLong());
+    }
+
+    private synchronized void put(String key, float[] vector, long createdAt) {
+        if (key.isEmpty() || vector == null) {
+            return;
+        }
+        long bytes = entryBytes(key, vector);
+        if (bytes > maxBytes) {
+            return;
+        }
+        CachedVector previous = entries.put(key, new CachedVector(vector, createdAt));
+        if (previous != null) {
+            currentBytes -= entryBytes(key, previous.vector());
+        }
+        currentBytes += bytes;
+        evictIfNeeded();
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<String, CachedVector>> iterator = entries.entrySet().iterator();
+        while (currentBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, CachedVector> eldest = iterator.next();
+            currentBytes -= entryBytes(eldest.getKey(), eldest.getValue().vector());
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+
+    private void remove(String key) {
+        CachedVector removed = entries.remove(key);
+        if (removed != null) {
+            currentBytes -= entryBytes(key, removed.vector());
+        }
+    }
+
+    private boolean isExpired(CachedVector cached, long now) {
+        return ttlMillis > 0 && now - cached.createdAt() > ttlMillis;
+    }
+
+    private static long entryBytes(String key, float[] vector) {
+        return ENTRY_OVERHEAD_BYTES + 2L * key.length() + 4L * vector.length;
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public synchronized long bytes() {
+        return currentBytes;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("retrieval.query.embedding.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("retrieval.query.embedding.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").register(registry);
+        FunctionCounter.builder("retrieval.query.embedding.cache.evictions", evictions, LongAdder::sum)
+                .register(registry);
+        Gauge.builder("retrieval.query.embedding.cache.size", this, QueryEmbeddingCache::size).register(registry);
+        Gauge.builder("retrieval.query.embedding.cache.bytes", this, QueryEmbeddingCache::bytes)
+                .baseUnit("bytes").register(registry);
+    }
+
+    /**
+     * 关闭时写出温层：先写临时文件再原子替换，写入中途宕机不会留下半个文件。
+     */
+    @Override
+    public void close() {
+        if (warmFile == null) {
+            return;
+        }
+        List<Map.Entry<String, CachedVector>> snapshot;
+        long now = clock.getAsLong();
+        synchronized (this) {
+            snapshot = new ArrayList<>(entries.entrySet());
+        }
+        try {
+            Path parent = warmFile.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = warmFile.resolveSibling(warmFile.getFileName() + ".tmp");
+            int written = 0;
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(FILE_MAGIC);
+                out.writeUTF(namespace);
+                List<Map.Entry<String, CachedVector>> live = snapshot.stream()
+                        .filter(e -> !isExpired(e.getValue(), now))
+                        .toList();
+                out.writeInt(live.size());
+                // 按 LRU 顺序（最久未用在前）写出，加载时依次插入即可还原访问顺序
+                for (Map.Entry<String, CachedVector> entry : live) {
+                    float[] vector = entry.getValue().vector();
+                    out.writeUTF(entry.getKey());
+                    out.writeLong(entry.getValue().createdAt());
+                    out.writeInt(vector.length);
+                    for (float v : vector) {
+                        out.writeFloat(v);
+                    }
+                    written++;
+                }
+            }
+            Files.move(tmp, warmFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.info("查询 embedding 缓存已写入温层 file={}, entries={}", warmFile, written);
+        } catch (IOException e) {
+            log.warn("写入查询 embedding 缓存温层失败 file={}: {}", warmFile, e.getMessage());
+        }
+    }
+
+    private void loadWarmTier() {
+        if (warmFile == null || !Files.isRegularFile(warmFile)) {
+            return;
+        }
+        long now = clock.getAsLong();
+        int loaded = 0;
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(warmFile)))) {
+            if (in.readInt() != FILE_MAGIC || !namespace.equals(in.readUTF())) {
+                log.info("查询 embedding 缓存温层格式或模型不匹配，忽略 file={}", warmFile);
+                return;
+            }
+            int count = in.readInt();
+            for (int i = 0; i < count; i++) {
+                String key = in.readUTF();
+                long createdAt = in.readLong();
+                float[] vector = new float[in.readInt()];
+                for (int d = 0; d < vector.length; d++) {
+                    vector[d] = in.readFloat();
+                }
+                if (ttlMillis <= 0 || now - createdAt <= ttlMillis) {
+                    put(key, vector, createdAt);
+                    loaded++;
+                }
+            }
+            log.info("查询 embedding 缓存温层已加载 file={}, entries={}", warmFile, loaded);
+        } catch (IOException e) {
+            log.warn("读取查询 embedding 缓存温层失败，已加载 {} 条 file={}: {}", loaded, warmFile, e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.ai.algorithmqa.retrieval;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+/**
+ * 行号集合的压缩位图（Roaring 思路）：按行号高 16 位分桶，每桶覆盖 65536 个行号，
+ * 桶内元素不超过 4096 个时用有序 char 数组（每个行号 2 字节），超过后换成 1024 个 long 的位图（每桶固定 8KB）。
+ * 稀疏关键词的占用与命中行数成正比，稠密关键词每行约 1 bit；并集按桶合并，位图桶之间按字做 OR。
+ * 非线程安全，由 {@link VectorIndex} 的读写锁保护。
+ */
+public final class RowBitmap {
+
+    private static final int ARRAY_LIMIT = 4096;
+    private static final int BITMAP_WORDS = 1024;
+
+    private char[] keys = new char[4];
+    private Container[] containers = new Container[4];
+    private int size;
+
+    public void add(int row) {
+        char key = (char) (row >>> 16);
+        int i = indexOf(key);
+        if (i < 0) {
+            i = -i - 1;
+            insert(i, key, new ArrayContainer());
+        }
+        containers[i] = containers[i].add((char) row);
+    }
+
+    /**
+     * 删除一个行号；桶清空时一并移除，位图桶降到 {@value #ARRAY_LIMIT} 个元素时换回数组。
+     */
+    public void remove(int row) {
+        int i = indexOf((char) (row >>> 16));
+        if (i < 0) {
+            return;
+        }
+        Container container = containers[i].remove((char) row);
+        if (container.cardinality() == 0) {
+            System.arraycopy(keys, i + 1, keys, i, size - i - 1);
+            System.arraycopy(containers, i + 1, containers, i, size - i - 1);
+            containers[--size] = null;
+        } else {
+            containers[i] = container;
+        }
+    }
+
+    /**
+     * 按映射表重新编号：newRowOf[row] 为新行号，-1 表示丢弃；映射须保持行号的相对顺序。
+     */
+    public RowBitmap remap(int[] newRowOf) {
+        RowBitmap result = new RowBitmap();
+        forEach(row -> {
+            int mapped = row < newRowOf.length ? newRowOf[row] : -1;
+            if (mapped >= 0) {
+                result.add(mapped);
+            }
+        });
+        return result;
+    }
+
+    public boolean contains(int row) {
+        int i = indexOf((char) (row >>> 16));
+        return i >= 0 && containers[i].contains((char) row);
+    }
+
+    public int cardinality() {
+        int total = 0;
+        for (int i = 0; i < size; i++) {
+            total += containers[i].cardinality();
+        }
+        return total;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * 按行号升序遍历
+     */
+    public void forEach(IntConsumer action) {
+        for (int i = 0; i < size; i++) {
+            containers[i].forEach(keys[i] << 16, action);
+        }
+    }
+
+    public long memoryBytes() {
+        long bytes = 2L * keys.length + 8L * containers.length;
+        for (int i = 0; i < size; i++) {
+            bytes += containers[i].memoryBytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * 多个位图的并集，输入不会被修改。
+     */
+    public static RowBitmap union(Collection<RowBitmap> bitmaps) {
+        RowBitmap result = new RowBitmap();
+        for (RowBitmap bitmap : bitmaps) {
+            result.orInPlace(bitmap);
+        }
+        return result;
+    }
+
+    private void orInPlace(RowBitmap other) {
+        for (int j = 0; j < other.size; j++) {
+            int i = indexOf(other.keys[j]);
+            if (i < 0) {
+                insert(-i - 1, other.keys[j], other.containers[j].copy());
+            } else {
+                containers[i] = containers[i].or(other.containers[j]);
+            }
+        }
+    }
+
+    private int indexOf(char key) {
+        // 行号递增写入，绝大多数情况落在最后一个桶
+        if (size > 0 && keys[size - 1] == key) {
+            return size - 1;
+        }
+        return Arrays.binarySearch(keys, 0, size, key);
+    }
+
+    private void insert(int index, char key, Container container) {
+        if (size == keys.length) {
+            keys = Arrays.copyOf(keys, size * 2);
+            containers = Arrays.copyOf(containers, size * 2);
+        }
+        System.arraycopy(keys, index, keys, index + 1, size - index);
+        System.arraycopy(containers, index, containers, index + 1, size - index);
+        keys[index] = key;
+        containers[index] = container;
+        size++;
+    }
+
+    private interface Container {
+        /**
+         * @return 写入后的容器，元素过多时可能换成另一种实现
+         */
+        Container add(char value);
+
+        /**
+         * @return 删除后的容器，元素变少时可能换成另一种实现
+         */
+        Container remove(char value);
+
+        boolean contains(char value);
+
+        int cardinality();
+
+        void forEach(int high, IntConsumer action);
+
+        /**
+         * @return 并集，可能复用 this，但不会修改 other
+         */
+        Container or(Container other);
+
+        Container copy();
+
+        long memoryBytes();
+    }
+
+    private static final class ArrayContainer implements Container {
+        private char[] values = new char[4];
+        private int cardinality;
+
+        @Override
+        public Container add(char value) {
+            if (cardinality > 0 && values[cardinality - 1] < value) {
+                return append(value);
+            }
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                return this;
+            }
+            if (cardinality >= ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            i = -i - 1;
+            ensureCapacity(cardinality + 1);
+            System.arraycopy(values, i, values, i + 1, cardinality - i);
+            values[i] = value;
+            cardinality++;
+            return this;
+        }
+
+        private Container append(char value) {
+            if (cardinality >= ARRAY_LIMIT) {
+                return toBitmap().add(value);
+            }
+            ensureCapacity(cardinality + 1);
+            values[cardinality++] = value;
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            int i = Arrays.binarySearch(values, 0, cardinality, value);
+            if (i >= 0) {
+                System.arraycopy(values, i + 1, values, i, cardinality - i - 1);
+                cardinality--;
+                // 元素降到容量的四分之一以下时收缩，避免从位图换回后一直占着满容量的数组
+                if (values.length > 4 && cardinality < values.length / 4) {
+                    values = Arrays.copyOf(values, Math.max(4, values.length / 2));
+                }
+            }
+            return this;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(high | values[i]);
+            }
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                return bitmap.copy().or(this);
+            }
+            ArrayContainer array = (ArrayContainer) other;
+            char[] merged = new char[cardinality + array.cardinality];
+            int i = 0;
+            int j = 0;
+            int n = 0;
+            while (i < cardinality && j < array.cardinality) {
+                char a = values[i];
+                char b = array.values[j];
+                if (a == b) {
+                    merged[n++] = a;
+                    i++;
+                    j++;
+                } else if (a < b) {
+                    merged[n++] = a;
+                    i++;
+                } else {
+                    merged[n++] = b;
+                    j++;
+                }
+            }
+            while (i < cardinality) {
+                merged[n++] = values[i++];
+            }
+            while (j < array.cardinality) {
+                merged[n++] = array.values[j++];
+            }
+            ArrayContainer result = new ArrayContainer();
+            result.values = merged;
+            result.cardinality = n;
+            return n > ARRAY_LIMIT ? result.toBitmap() : result;
+        }
+
+        @Override
+        public Container copy() {
+            ArrayContainer copy = new ArrayContainer();
+            copy.values = Arrays.copyOf(values, Math.max(4, cardinality));
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        public long memoryBytes() {
+            return 16L + 2L * values.length;
+        }
+
+        private void ensureCapacity(int required) {
+            if (required > values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(required, values.length * 2)));
+            }
+        }
+
+        private BitmapContainer toBitmap() {
+            BitmapContainer bitmap = new BitmapContainer();
+            for (int i = 0; i < cardinality; i++) {
+                bitmap.add(values[i]);
+            }
+            return bitmap;
+        }
+    }
+
+    private static final class BitmapContainer implements Container {
+        private final long[] words = new long[BITMAP_WORDS];
+        private int cardinality;
+
+        @Override
+        public Container add(char value) {
+            long mask = 1L << value;
+            int word = value >>> 6;
+            if ((words[word] & mask) == 0) {
+                words[word] |= mask;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        public Container remove(char value) {
+            long mask = 1L << value;
+            int word = value >>> 6;
+            if ((words[word] & mask) != 0) {
+                words[word] &= ~mask;
+                cardinality--;
+            }
+            if (cardinality > ARRAY_LIMIT) {
+                return this;
+            }
+            ArrayContainer array = new ArrayContainer();
+            forEach(0, v -> array.add((char) v));
+            return array;
+        }
+
+        @Override
+        public boolean contains(char value) {
+            return (words[value >>> 6] & (1L << value)) != 0;
+        }
+
+        @Override
+        public int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        public void forEach(int high, IntConsumer action) {
+            for (int w = 0; w < BITMAP_WORDS; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    action.accept(high | (w << 6) | Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+        }
+
+        @Override
+        public Container or(Container other) {
+            if (other instanceof BitmapContainer bitmap) {
+                int total = 0;
+                for (int w = 0; w < BITMAP_WORDS; w++) {
+                    words[w] |= bitmap.words[w];
+                    total += Long.bitCount(words[w]);
+                }
+                cardinality = total;
+            } else {
+                other.forEach(0, value -> add((char) value));
+            }
+            return this;
+        }
+
+        @Override
+        public Container copy() {
+            BitmapContainer copy = new BitmapContainer();
+            System.arraycopy(words, 0, copy.words, 0, BITMAP_WORDS);
+            copy.cardinality = cardinality;
+            return copy;
+        }
+
+        @Override
+        public long memoryBytes() {
+            return 16L + 8L * BITMAP_WORDS;
+        }
+    }
+}
@@ -0,0 +1,123 @@
+package com.ai.algorithmqa.retrieval;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * int8 标量量化扫描：每行按自身最大绝对值做对称量化（x ≈ code × scale），
+ * 内存约为 float32 矩阵的 1/4。查询向量保持 float，与量化码直接做非对称点积（ADC），
+ * 得分为近似值，取 rescoreFactor × K 个候选交给索引用全精度向量重排。
+ */
+public class ScalarQuantizedEngine implements VectorSearchEngine {
+
+    public static final String NAME = "int8";
+
+    private final int rescoreFactor;
+
+    private byte[] codes = new byte[0];
+    private float[] scales = new float[0];
+    private int dimension = -1;
+
+    public ScalarQuantizedEngine(int rescoreFactor) {
+        this.rescoreFactor = Math.max(1, rescoreFactor);
+    }
+
+    @Override
+    public String name() {
+        return NAME;
+    }
+
+    @Override
+    public void onAppend(VectorIndex index, int row, float[] normalizedVector) {
+        if (dimension < 0) {
+            dimension = normalizedVector.length;
+        }
+        if (row >= scales.length) {
+            int capacity = Math.max(row + 1, scales.length * 2);
+            scales = Arrays.copyOf(scales, capacity);
+            codes = Arrays.copyOf(codes, capacity * dimension);
+        }
+        float maxAbs = 0f;
+        for (float v : normalizedVector) {
+            maxAbs = Math.max(maxAbs, Math.abs(v));
+        }
+        float scale = maxAbs == 0f ? 1f : maxAbs / 127f;
+        scales[row] = scale;
+        int offset = row * dimension;
+        for (int i = 0; i < dimension; i++) {
+            codes[offset + i] = (byte) Math.max(-127, Math.min(127, Math.round(normalizedVector[i] / scale)));
+        }
+    }
+
+    /**
+     * 按新行号前移量化码与缩放系数（新行号不大于旧行号，顺序搬移不会覆盖未读的数据），再收缩到存活行数。
+     */
+    @Override
+    public void onCompacted(VectorIndex index, int[] oldRows, int liveCount) {
+        if (dimension < 0) {
+            return;
+        }
+        for (int row = 0; row < liveCount; row++) {
+            int old = oldRows[row];
+            if (old != row && index.hasVector(row)) {
+                scales[row] = scales[old];
+                System.arraycopy(codes, old * dimension, codes, row * dimension, dimension);
+            }
+        }
+        scales = Arrays.copyOf(scales, liveCount);
+        codes = Arrays.copyOf(codes, liveCount * dimension);
+    }
+
+    @Override
+    public void search(VectorIndex index, float[] query, int k, IntPredicate filter, TopK out) {
+        int rows = index.rows();
+        for (int row = 0; row < rows; row++) {
+            if (index.hasVector(row) && filter.test(row)) {
+                out.offer(row, scales[row] * dot(query, row * dimension));
+            }
+        }
+    }
+
+    @Override
+    public void search(VectorIndex index, float[] query, int k, RowBitmap rows, IntPredicate filter, TopK out) {
+        rows.forEach(row -> {
+            if (index.hasVector(row) && filter.test(row)) {
+                out.offer(row, scales[row] * dot(query, row * dimension));
+            }
+        });
+    }
+
+    private float dot(float[] query, int offset) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        int bound = dimension & ~3;
+        for (; i < bound; i += 4) {
+            s0 += query[i] * codes[offset + i];
+            s1 += query[i + 1] * codes[offset + i + 1];
+            s2 += query[i + 2] * codes[offset + i + 2];
+            s3 += query[i + 3] * codes[offset + i + 3];
+        }
+        for (; i < dimension; i++) {
+            s0 += query[i] * codes[offset + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+
+    @Override
+    public int candidates(int k) {
+        return k * rescoreFactor;
+    }
+
+    @Override
+    public boolean needsRescoring() {
+        return true;
+    }
+
+    @Override
+    public long memoryBytes() {
+        return codes.length + (long) scales.length * Float.BYTES;
+    }
+}
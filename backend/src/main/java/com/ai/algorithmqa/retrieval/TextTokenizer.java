@@ -0,0 +1,69 @@
+package com.ai.algorithmqa.retrieval;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 面向中英文混排课程文本的分词：NFKC 归一化并转小写后，
+ * 连续的字母/数字作为一个词；连续的中日韩字符切成重叠的二元组（“分治算法” → 分治 / 治算 / 算法），
+ * 孤立的单个汉字保留为单字词；标点与空白只作分隔。不依赖词典，对未登录词同样有效。
+ */
+public final class TextTokenizer {
+
+    private TextTokenizer() {
+    }
+
+    public static List<String> tokenize(String text) {
+        List<String> tokens = new ArrayList<>();
+        if (text == null || text.isEmpty()) {
+            return tokens;
+        }
+        String normalized = Normalizer.normalize(text, Normalizer.Form.NFKC).toLowerCase(Locale.ROOT);
+        int length = normalized.length();
+        int i = 0;
+        while (i < length) {
+            int cp = normalized.codePointAt(i);
+            if (isCjk(cp)) {
+                int start = i;
+                while (i < length && isCjk(normalized.codePointAt(i))) {
+                    i += Character.charCount(normalized.codePointAt(i));
+                }
+                addBigrams(normalized.substring(start, i), tokens);
+            } else if (Character.isLetterOrDigit(cp)) {
+                int start = i;
+                while (i < length) {
+                    int c = normalized.codePointAt(i);
+                    if (!Character.isLetterOrDigit(c) || isCjk(c)) {
+                        break;
+                    }
+                    i += Character.charCount(c);
+                }
+                tokens.add(normalized.substring(start, i));
+            } else {
+                i += Character.charCount(cp);
+            }
+        }
+        return tokens;
+    }
+
+    private static void addBigrams(String run, List<String> tokens) {
+        int[] codePoints = run.codePoints().toArray();
+        if (codePoints.length == 1) {
+            tokens.add(run);
+            return;
+        }
+        for (int j = 0; j + 1 < codePoints.length; j++) {
+            tokens.add(new String(codePoints, j, 2));
+        }
+    }
+
+    private static boolean isCjk(int codePoint) {
+        Character.UnicodeScript script = Character.UnicodeScript.of(codePoint);
+        return script == Character.UnicodeScript.HAN
+                || script == Character.UnicodeScript.HIRAGANA
+                || script == Character.UnicodeScript.KATAKANA
+                || script == Character.UnicodeScript.HANGUL;
+    }
+}
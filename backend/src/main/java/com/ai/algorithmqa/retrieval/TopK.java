@@ -0,0 +1,52 @@
+package com.ai.algorithmqa.retrieval;
+
+/**
+ * 定长 Top-K 收集器：按得分降序维护 K 个行号，插入为 O(K)，K 很小时比堆更省分配。
+ */
+public final class TopK {
+
+    private final int[] rows;
+    private final float[] scores;
+    private int size;
+
+    public TopK(int k) {
+        this.rows = new int[Math.max(1, k)];
+        this.scores = new float[Math.max(1, k)];
+    }
+
+    /**
+     * 尝试放入一个候选；得分不足以进入前 K 时直接丢弃。
+     */
+    public void offer(int row, float score) {
+        if (size == rows.length && score <= scores[size - 1]) {
+            return;
+        }
+        int pos = size < rows.length ? size++ : size - 1;
+        while (pos > 0 && scores[pos - 1] < score) {
+            rows[pos] = rows[pos - 1];
+            scores[pos] = scores[pos - 1];
+            pos--;
+        }
+        rows[pos] = row;
+        scores[pos] = score;
+    }
+
+    /**
+     * 当前第 K 名的得分，未满时返回负无穷。
+     */
+    public float threshold() {
+        return size < rows.length ? Float.NEGATIVE_INFINITY : scores[size - 1];
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int row(int i) {
+        return rows[i];
+    }
+
+    public float score(int i) {
+        return scores[i];
+    }
+}
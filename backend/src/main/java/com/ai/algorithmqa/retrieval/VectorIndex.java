@@ -0,0 +1,796 @@
+package com.ai.algorithmqa.retrieval;
+
+import com.ai.algorithmqa.domain.dto.RetrievalRecallReport;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.IntPredicate;
+
+/**
+ * 常驻内存的知识片段向量索引。
+ * <p>
+ * 所有片段的 embedding 在写入时做一次 L2 归一化，按行连续存放在一个 float[] 矩阵中，
+ * 检索时交给 {@link VectorSearchEngine}（精确扫描、HNSW 或量化扫描）求 Top-K，不再逐行解析 JSON 或装箱计算。
+ * 量化引擎给出的是近似得分，索引会多取候选再用全精度向量重排；关闭 retainVectors 时堆内只保留量化码，
+ * 重排所需的全精度向量通过 {@link FullPrecisionSource} 回表读取。
+ * 片段文本同时写入行号对齐的 {@link Bm25Index}，检索时向量排名与 BM25 排名按倒数排名融合（RRF）。
+ * 每个关键词维护一份命中行的压缩位图（{@link RowBitmap}），带关键词过滤的检索先合并位图得到候选行，
+ * 引擎只对候选行打分，过滤越严格检索越快。
+ * 写入持有写锁，检索持有读锁，多个检索可以并发执行。
+ * 删除时行先打墓碑标记并立即从 BM25 与关键词位图中摘除；墓碑累积到总行数的一定比例后压缩：
+ * 丢弃已删除的行、按原顺序重新编号，引擎随之搬移量化码或重建 HNSW 图。
+ */
+public class VectorIndex {
+
+    private static final int INITIAL_CAPACITY = 256;
+    private static final int SOURCE_PAGE_SIZE = 500;
+    private static final int MIN_FUSION_DEPTH = 20;
+    /**
+     * 墓碑行达到总行数的该比例（且不少于 {@link #COMPACT_MIN_REMOVED} 行）时压缩索引
+     */
+    private static final double COMPACT_REMOVED_RATIO = 0.25;
+    private static final int COMPACT_MIN_REMOVED = 256;
+    /**
+     * 单次检索返回数量的上限：Top-K 堆按 K 分配数组且插入为 O(K)，接口层之外再兜底一次
+     */
+    public static final int MAX_TOP_K = 100;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Integer> rowByChunkId = new HashMap<>();
+    private final Map<String, RowBitmap> rowsByKeyword = new HashMap<>();
+    private final VectorSearchEngine engine;
+    private final boolean retainVectors;
+    private final FullPrecisionSource fullPrecisionSource;
+    private final Lexical lexical;
+    private final Bm25Index lexicalIndex;
+
+    private int dimension = -1;
+    private int size;
+    private int rowsWithoutVector;
+    private int removedRows;
+    /**
+     * 压缩次数，行号在每次压缩后失效，跨越多次持锁的读者（召回评估）据此判断快照是否还能用
+     */
+    private int compactions;
+    private float[] matrix = new float[0];
+    private boolean[] hasVector = new boolean[INITIAL_CAPACITY];
+    private boolean[] removed = new boolean[INITIAL_CAPACITY];
+    private long[] chunkIds = new long[INITIAL_CAPACITY];
+    private long[] topicIds = new long[INITIAL_CAPACITY];
+    private String[] contents = new String[INITIAL_CAPACITY];
+
+    private volatile boolean loaded;
+
+    /**
+     * 按 chunkId 批量读取全精度向量（未归一化亦可），查不到的 id 不返回即可。
+     */
+    @FunctionalInterface
+    public interface FullPrecisionSource {
+        Map<Long, float[]> load(Collection<Long> chunkIds);
+    }
+
+    /**
+     * 词法检索参数：hybrid 为 false 时只在没有可比查询向量时使用 BM25；
+     * rrfK 为倒数排名融合的平滑常数，k1/b 为 BM25 参数。
+     */
+    public record Lexical(boolean hybrid, int rrfK, double k1, double b) {
+        public static final Lexical DEFAULTS = new Lexical(true, 60, 1.2, 0.75);
+    }
+
+    public VectorIndex(VectorSearchEngine engine) {
+        this(engine, true, null, Lexical.DEFAULTS);
+    }
+
+    public VectorIndex(VectorSearchEngine engine, boolean retainVectors, FullPrecisionSource fullPrecisionSource) {
+        this(engine, retainVectors, fullPrecisionSource, Lexical.DEFAULTS);
+    }
+
+    /**
+     * @param retainVectors       是否在堆内保留全精度矩阵；为 false 时引擎必须自带（量化后的）向量
+     * @param fullPrecisionSource 不保留矩阵时用于候选重排与召回率评估
+     * @param lexical             BM25 与融合参数
+     */
+    public VectorIndex(VectorSearchEngine engine, boolean retainVectors, FullPrecisionSource fullPrecisionSource,
+            Lexical lexical) {
+        if (!retainVectors && (fullPrecisionSource == null || !engine.needsRescoring())) {
+            throw new IllegalArgumentException("只有量化引擎且提供了回表来源时才能不保留全精度向量");
+        }
+        this.engine = engine;
+        this.retainVectors = retainVectors;
+        this.fullPrecisionSource = fullPrecisionSource;
+        this.lexical = lexical;
+        this.lexicalIndex = new Bm25Index(lexical.k1(), lexical.b());
+    }
+
+    /**
+     * 待写入索引的一条片段，vector 为原始（未归一化）向量，可为 null。
+     */
+    public record Entry(long chunkId, long topicId, String content, String keywords, float[] vector) {
+    }
+
+    /**
+     * 检索命中结果。
+     */
+    public record Hit(long chunkId, long topicId, String content, double score) {
+    }
+
+    /**
+     * 批量写入片段，已存在的 chunkId 会被忽略，因此全量加载与增量写入可以安全交错。
+     *
+     * @return 实际新增的行数
+     */
+    public int addAll(List<Entry> entries) {
+        lock.writeLock().lock();
+        try {
+            int added = 0;
+            for (Entry entry : entries) {
+                if (rowByChunkId.containsKey(entry.chunkId())) {
+                    continue;
+                }
+                append(entry);
+                added++;
+            }
+            return added;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 删除某个主题的全部片段：打墓碑标记，并从 BM25 倒排与关键词位图中摘除。
+     * 全量加载完成前被删片段的 chunkId 仍占位，并发的全量加载若读到旧数据也会被 {@link #addAll} 忽略，
+     * 因此只在加载完成后才压缩；重新导入的片段使用新的 chunkId。
+     *
+     * @return 删除的行数
+     */
+    public int removeTopic(long topicId) {
+        lock.writeLock().lock();
+        try {
+            int[] rows = new int[16];
+            int count = 0;
+            for (int row = 0; row < size; row++) {
+                if (topicIds[row] == topicId && !removed[row]) {
+                    removed[row] = true;
+                    lexicalIndex.remove(row, contents[row]);
+                    if (count == rows.length) {
+                        rows = Arrays.copyOf(rows, count * 2);
+                    }
+                    rows[count++] = row;
+                }
+            }
+            if (count > 0) {
+                int[] dropped = Arrays.copyOf(rows, count);
+                rowsByKeyword.values().removeIf(bitmap -> {
+                    for (int row : dropped) {
+                        bitmap.remove(row);
+                    }
+                    return bitmap.isEmpty();
+                });
+            }
+            removedRows += count;
+            if (loaded && removedRows >= Math.max(COMPACT_MIN_REMOVED, (int) (size * COMPACT_REMOVED_RATIO))) {
+                compact();
+            }
+            return count;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * 丢弃已删除的行并按原顺序重新编号，调用方持有写锁。
+     */
+    private void compact() {
+        int[] newRowOf = new int[size];
+        int[] oldRows = new int[size - removedRows];
+        int live = 0;
+        for (int row = 0; row < size; row++) {
+            if (removed[row]) {
+                newRowOf[row] = -1;
+            } else {
+                newRowOf[row] = live;
+                oldRows[live++] = row;
+            }
+        }
+        int capacity = Math.max(INITIAL_CAPACITY, live);
+        boolean[] newHasVector = new boolean[capacity];
+        long[] newChunkIds = new long[capacity];
+        long[] newTopicIds = new long[capacity];
+        String[] newContents = new String[capacity];
+        float[] newMatrix = retainVectors && dimension > 0 ? new float[capacity * dimension] : matrix;
+        rowByChunkId.clear();
+        rowsWithoutVector = 0;
+        for (int row = 0; row < live; row++) {
+            int old = oldRows[row];
+            newHasVector[row] = hasVector[old];
+            newChunkIds[row] = chunkIds[old];
+            newTopicIds[row] = topicIds[old];
+            newContents[row] = contents[old];
+            rowByChunkId.put(newChunkIds[row], row);
+            if (!newHasVector[row]) {
+                rowsWithoutVector++;
+            } else if (newMatrix != matrix) {
+                System.arraycopy(matrix, old * dimension, newMatrix, row * dimension, dimension);
+            }
+        }
+        hasVector = newHasVector;
+        removed = new boolean[capacity];
+        chunkIds = newChunkIds;
+        topicIds = newTopicIds;
+        contents = newContents;
+        matrix = newMatrix;
+        size = live;
+        removedRows = 0;
+        rowsByKeyword.replaceAll((keyword, bitmap) -> bitmap.remap(newRowOf));
+        lexicalIndex.compact(newRowOf, live);
+        engine.onCompacted(this, oldRows, live);
+        compactions++;
+    }
+
+    private void append(Entry entry) {
+        float[] vector = entry.vector();
+        if (dimension < 0 && vector != null && vector.length > 0) {
+            dimension = vector.length;
+            if (retainVectors) {
+                matrix = new float[chunkIds.length * dimension];
+            }
+        }
+        ensureCapacity(size + 1);
+        int row = size++;
+        chunkIds[row] = entry.chunkId();
+        topicIds[row] = entry.topicId();
+        contents[row] = entry.content();
+        indexKeywords(row, entry.keywords());
+        // 维度与索引不一致的向量（如伪向量）不进入矩阵，只能通过 BM25 被检索到
+        hasVector[row] = vector != null && vector.length == dimension;
+        rowByChunkId.put(entry.chunkId(), row);
+        lexicalIndex.add(row, entry.content());
+        if (hasVector[row]) {
+            float[] normalized = Arrays.copyOf(vector, dimension);
+            VectorMath.normalizeInPlace(normalized, 0, dimension);
+            if (retainVectors) {
+                System.arraycopy(normalized, 0, matrix, row * dimension, dimension);
+            }
+            engine.onAppend(this, row, normalized);
+        } else {
+            rowsWithoutVector++;
+        }
+    }
+
+    private void indexKeywords(int row, String rowKeywords) {
+        if (rowKeywords == null) {
+            return;
+        }
+        for (String keyword : rowKeywords.toLowerCase(Locale.ROOT).split(",")) {
+            String key = keyword.trim();
+            if (!key.isEmpty()) {
+                rowsByKeyword.computeIfAbsent(key, k -> new RowBitmap()).add(row);
+            }
+        }
+    }
+
+    private void ensureCapacity(int required) {
+        if (required <= chunkIds.length) {
+            return;
+        }
+        int capacity = Math.max(required, chunkIds.length * 2);
+        hasVector = Arrays.copyOf(hasVector, capacity);
+        removed = Arrays.copyOf(removed, capacity);
+        chunkIds = Arrays.copyOf(chunkIds, capacity);
+        topicIds = Arrays.copyOf(topicIds, capacity);
+        contents = Arrays.copyOf(contents, capacity);
+        if (retainVectors && dimension > 0) {
+            matrix = Arrays.copyOf(matrix, capacity * dimension);
+        }
+    }
+
+    /**
+     * 在全量语料上求 Top-K：向量检索与 BM25 各取若干名，再按倒数排名融合。
+     * 只有一路有结果时直接返回该路（得分为余弦相似度或 BM25 分）；两路融合时得分为归一化到 (0, 1] 的 RRF 分。
+     *
+     * @param query     已归一化的查询向量；为 null 或维度不匹配时只走 BM25
+     * @param queryText 原始查询文本，用于 BM25；为 null 时只走向量
+     * @param filters   关键词过滤（任一关键词包含某个过滤词即可，不区分大小写）
+     * @param topK      返回数量，超出 1~{@value #MAX_TOP_K} 时截断
+     */
+    public List<Hit> search(float[] query, String queryText, List<String> filters, int topK) {
+        topK = clampTopK(topK);
+        int depth = fusionDepth(topK);
+        VectorRanking vector = VectorRanking.NONE;
+        List<Hit> lexicalHits = List.of();
+        lock.readLock().lock();
+        try {
+            Scope scope = scope(filters);
+            if (scope == null) {
+                return List.of();
+            }
+            boolean vectorComparable = query != null && query.length == dimension;
+            if (vectorComparable) {
+                vector = vectorRanking(query, scope, depth);
+            }
+            if (queryText != null && (lexical.hybrid() || !vectorComparable)) {
+                lexicalHits = lexicalRanking(queryText, scope, depth);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return fuse(completeRescore(query, vector, depth), lexicalHits, topK);
+    }
+
+    /**
+     * 只做 BM25 检索，返回融合所需深度的排名（开启混合检索时不少于 {@value #MIN_FUSION_DEPTH} 条），前 topK 条即纯词法结果。
+     * 与 {@link #searchVector} 分别调用后交给 {@link #fuse}，结果与 {@link #search} 相同：
+     * 调用方可以在等待查询向量期间先拿词法结果做别的事，向量到达后不必重算 BM25。
+     */
+    public List<Hit> searchLexical(String queryText, List<String> filters, int topK) {
+        if (queryText == null) {
+            return List.of();
+        }
+        lock.readLock().lock();
+        try {
+            Scope scope = scope(filters);
+            return scope == null ? List.of() : lexicalRanking(queryText, scope, fusionDepth(clampTopK(topK)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * 只做向量检索（含重排），返回融合所需深度的排名；向量为 null 或维度不匹配时返回空列表。
+     */
+    public List<Hit> searchVector(float[] query, List<String> filters, int topK) {
+        int depth = fusionDepth(clampTopK(topK));
+        VectorRanking vector = VectorRanking.NONE;
+        lock.readLock().lock();
+        try {
+            Scope scope = query != null && query.length == dimension ? scope(filters) : null;
+            if (scope != null) {
+                vector = vectorRanking(query, scope, depth);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return completeRescore(query, vector, depth);
+    }
+
+    /**
+     * 合并两路排名并取前 topK。只有一路有结果（或关闭了混合检索）时直接截取向量或词法一路，
+     * 得分为余弦相似度或 BM25 分；两路融合时得分为归一化到 (0, 1] 的 RRF 分。
+     */
+    public List<Hit> fuse(List<Hit> vectorHits, List<Hit> lexicalHits, int topK) {
+        topK = clampTopK(topK);
+        if (vectorHits.isEmpty()) {
+            return truncate(lexicalHits, topK);
+        }
+        if (lexicalHits.isEmpty() || !lexical.hybrid()) {
+            return truncate(vectorHits, topK);
+        }
+        return reciprocalRankFusion(vectorHits, lexicalHits, topK);
+    }
+
+    private static int clampTopK(int topK) {
+        return Math.max(1, Math.min(topK, MAX_TOP_K));
+    }
+
+    private int fusionDepth(int topK) {
+        return lexical.hybrid() ? Math.max(topK, MIN_FUSION_DEPTH) : topK;
+    }
+
+    /**
+     * 过滤条件解析后的可检索行：allowed 为 null 表示不限关键词，filter 同时排除已删除行。
+     */
+    private record Scope(RowBitmap allowed, IntPredicate filter) {
+    }
+
+    /**
+     * 调用方持有读锁。
+     *
+     * @return 过滤后没有任何可检索行时返回 null
+     */
+    private Scope scope(List<String> filters) {
+        List<String> lowerFilters = normalizeFilters(filters);
+        RowBitmap allowed = lowerFilters.isEmpty() ? null : rowsMatching(lowerFilters);
+        if (allowed != null && allowed.isEmpty()) {
+            return null;
+        }
+        IntPredicate filter = allowed == null
+                ? row -> !removed[row]
+                : row -> !removed[row] && allowed.contains(row);
+        return new Scope(allowed, filter);
+    }
+
+    /**
+     * 向量一路的候选；pendingRescore 表示堆内没有全精度向量，需要在锁外回表重排。
+     */
+    private record VectorRanking(List<Hit> hits, boolean pendingRescore) {
+        static final VectorRanking NONE = new VectorRanking(List.of(), false);
+    }
+
+    /**
+     * 调用方持有读锁，query 维度已校验。
+     */
+    private VectorRanking vectorRanking(float[] query, Scope scope, int depth) {
+        TopK candidates = new TopK(engine.candidates(depth));
+        if (scope.allowed() == null) {
+            engine.search(this, query, depth, scope.filter(), candidates);
+        } else {
+            engine.search(this, query, depth, scope.allowed(), scope.filter(), candidates);
+        }
+        if (!engine.needsRescoring()) {
+            return new VectorRanking(toHits(candidates), false);
+        }
+        if (!retainVectors) {
+            return new VectorRanking(toHits(candidates), true);
+        }
+        TopK rescored = new TopK(depth);
+        for (int i = 0; i < candidates.size(); i++) {
+            int row = candidates.row(i);
+            rescored.offer(row, VectorMath.dot(query, matrix, row * dimension));
+        }
+        return new VectorRanking(toHits(rescored), false);
+    }
+
+    /**
+     * 回表读取候选的全精度向量在锁外进行，避免数据库往返期间阻塞写入。
+     */
+    private List<Hit> completeRescore(float[] query, VectorRanking ranking, int depth) {
+        if (!ranking.pendingRescore()) {
+            return ranking.hits();
+        }
+        List<Hit> hits = new ArrayList<>(rescore(query, ranking.hits()));
+        hits.sort(Comparator.comparingDouble(Hit::score).reversed());
+        return truncate(hits, depth);
+    }
+
+    /**
+     * 调用方持有读锁。
+     */
+    private List<Hit> lexicalRanking(String queryText, Scope scope, int depth) {
+        TopK top = new TopK(depth);
+        lexicalIndex.search(queryText, scope.filter(), top);
+        return toHits(top);
+    }
+
+    /**
+     * 倒数排名融合：score = Σ 1 / (rrfK + rank)，rank 从 1 开始；再除以两路都排第一时的满分归一化。
+     * 只看名次不看原始分值，余弦与 BM25 的量纲差异不影响融合。
+     */
+    private List<Hit> reciprocalRankFusion(List<Hit> vectorHits, List<Hit> lexicalHits, int topK) {
+        int k = Math.max(1, lexical.rrfK());
+        Map<Long, Hit> byChunk = new HashMap<>();
+        Map<Long, Double> fused = new HashMap<>();
+        for (List<Hit> ranking : List.of(vectorHits, lexicalHits)) {
+            for (int rank = 0; rank < ranking.size(); rank++) {
+                Hit hit = ranking.get(rank);
+                byChunk.putIfAbsent(hit.chunkId(), hit);
+                fused.merge(hit.chunkId(), 1.0 / (k + rank + 1), Double::sum);
+            }
+        }
+        double maxScore = 2.0 / (k + 1);
+        return fused.entrySet().stream()
+                .sorted(Map.Entry.<Long, Double>comparingByValue().reversed())
+                .limit(topK)
+                .map(e -> {
+                    Hit hit = byChunk.get(e.getKey());
+                    return new Hit(hit.chunkId(), hit.topicId(), hit.content(), e.getValue() / maxScore);
+                })
+                .toList();
+    }
+
+    private static List<Hit> truncate(List<Hit> hits, int topK) {
+        return hits.size() > topK ? new ArrayList<>(hits.subList(0, topK)) : hits;
+    }
+
+    private List<Hit> rescore(float[] query, List<Hit> candidates) {
+        Map<Long, float[]> vectors = fullPrecisionSource.load(candidates.stream().map(Hit::chunkId).toList());
+        List<Hit> rescored = new ArrayList<>(candidates.size());
+        for (Hit candidate : candidates) {
+            float[] vector = vectors.get(candidate.chunkId());
+            if (vector == null || vector.length != query.length) {
+                // 回表缺失时保留近似得分
+                rescored.add(candidate);
+                continue;
+            }
+            float[] normalized = Arrays.copyOf(vector, vector.length);
+            VectorMath.normalizeInPlace(normalized, 0, normalized.length);
+            rescored.add(new Hit(candidate.chunkId(), candidate.topicId(), candidate.content(),
+                    VectorMath.dot(query, normalized, 0)));
+        }
+        return rescored;
+    }
+
+    private List<Hit> toHits(TopK top) {
+        List<Hit> hits = new ArrayList<>(top.size());
+        for (int i = 0; i < top.size(); i++) {
+            int row = top.row(i);
+            hits.add(new Hit(chunkIds[row], topicIds[row], contents[row], top.score(i)));
+        }
+        return hits;
+    }
+
+    /**
+     * 评估当前引擎（含重排）相对全精度精确扫描的 recall@K，并给出索引的内存占用。
+     * 查询向量取随机两行向量的中点（再归一化），模拟落在语料分布内但不与任何片段重合的问题。
+     * 不保留全精度矩阵时会分页回表临时装载一份作为基准，仅用于管理端评估。
+     * 读锁按样本获取，评估期间导入提交的追加与删除不会被整轮评估阻塞；只评估开始时已有的行，
+     * 评估中途被删除的行同时从基准与引擎结果中排除；中途发生压缩时行号失效，提前结束并只报告已完成的样本。
+     *
+     * @param topK     超出 1~{@value #MAX_TOP_K} 时截断
+     * @param efSearch 仅对 HNSW 生效，为 null 时使用配置值
+     */
+    public RetrievalRecallReport evaluateRecall(int sampleSize, int topK, Integer efSearch) {
+        int k = clampTopK(topK);
+        int generation;
+        lock.readLock().lock();
+        try {
+            generation = compactions;
+        } finally {
+            lock.readLock().unlock();
+        }
+        float[] truth = retainVectors ? null : loadFullPrecisionMatrix();
+        int rows;
+        int dim;
+        int corpusSize;
+        int effectiveEf;
+        long indexBytes;
+        long fullPrecisionBytes;
+        int[] vectorRowIds;
+        int vectorRowCount = 0;
+        lock.readLock().lock();
+        try {
+            dim = dimension;
+            corpusSize = size;
+            // 回表装载期间发生过压缩时基准矩阵的行号已失效，不评估
+            rows = retainVectors ? size
+                    : compactions != generation ? 0 : Math.min(size, truth.length / Math.max(dimension, 1));
+            effectiveEf = engine instanceof HnswSearchEngine hnsw
+                    ? (efSearch != null ? efSearch : hnsw.efSearch())
+                    : 0;
+            long vectorRows = size - rowsWithoutVector;
+            fullPrecisionBytes = vectorRows * Math.max(dimension, 0) * Float.BYTES;
+            indexBytes = engine.memoryBytes() + (retainVectors ? fullPrecisionBytes : 0);
+            vectorRowIds = new int[rows];
+            for (int row = 0; row < rows; row++) {
+                if (hasVector[row] && !removed[row]) {
+                    vectorRowIds[vectorRowCount++] = row;
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (vectorRowCount < 2 || sampleSize <= 0) {
+            return new RetrievalRecallReport(engine.name(), corpusSize, dim, 0, k, effectiveEf, 0, 0, 0,
+                    indexBytes, fullPrecisionBytes);
+        }
+        Random random = new Random(7);
+        IntPredicate all = row -> row < rows && !removed[row];
+        long engineNanos = 0;
+        long exactNanos = 0;
+        long matched = 0;
+        long expected = 0;
+        float[] query = new float[dim];
+        int completed = 0;
+        for (int s = 0; s < sampleSize; s++) {
+            lock.readLock().lock();
+            try {
+                if (compactions != generation) {
+                    break;
+                }
+                float[] reference = retainVectors ? matrix : truth;
+                int a = vectorRowIds[random.nextInt(vectorRowCount)] * dim;
+                int b = vectorRowIds[random.nextInt(vectorRowCount)] * dim;
+                for (int i = 0; i < dim; i++) {
+                    query[i] = reference[a + i] + reference[b + i];
+                }
+                VectorMath.normalizeInPlace(query, 0, dim);
+
+                TopK exact = new TopK(k);
+                long start = System.nanoTime();
+                for (int i = 0; i < vectorRowCount; i++) {
+                    int row = vectorRowIds[i];
+                    if (!removed[row]) {
+                        exact.offer(row, VectorMath.dot(query, reference, row * dim));
+                    }
+                }
+                exactNanos += System.nanoTime() - start;
+
+                start = System.nanoTime();
+                TopK approx = approximateTopK(query, k, effectiveEf, all, reference);
+                engineNanos += System.nanoTime() - start;
+
+                for (int i = 0; i < exact.size(); i++) {
+                    for (int j = 0; j < approx.size(); j++) {
+                        if (exact.row(i) == approx.row(j)) {
+                            matched++;
+                            break;
+                        }
+                    }
+                }
+                expected += exact.size();
+                completed++;
+            } finally {
+                lock.readLock().unlock();
+            }
+        }
+        return new RetrievalRecallReport(engine.name(), corpusSize, dim, completed, k, effectiveEf,
+                expected == 0 ? 0 : matched / (double) expected,
+                completed == 0 ? 0 : engineNanos / 1000.0 / completed,
+                completed == 0 ? 0 : exactNanos / 1000.0 / completed,
+                indexBytes, fullPrecisionBytes);
+    }
+
+    /**
+     * 与线上检索相同的两段式：引擎取候选，需要时用全精度向量重排。
+     * 评估时重排直接读基准矩阵，不计入回表耗时。
+     */
+    private TopK approximateTopK(float[] query, int topK, int ef, IntPredicate filter, float[] reference) {
+        TopK candidates = new TopK(engine.candidates(topK));
+        if (engine instanceof HnswSearchEngine hnsw) {
+            hnsw.search(this, query, topK, ef, filter, candidates);
+        } else {
+            engine.search(this, query, topK, filter, candidates);
+        }
+        if (!engine.needsRescoring()) {
+            return candidates;
+        }
+        TopK top = new TopK(topK);
+        for (int i = 0; i < candidates.size(); i++) {
+            int row = candidates.row(i);
+            top.offer(row, VectorMath.dot(query, reference, row * dimension));
+        }
+        return top;
+    }
+
+    /**
+     * 分页回表装载全部行的全精度向量（归一化后按行号排列），仅在不保留矩阵时用于评估基准。
+     * 装载期间新写入的行不参与本次评估；装载期间发生的压缩由调用方按压缩次数识别。
+     */
+    private float[] loadFullPrecisionMatrix() {
+        long[] ids;
+        int dim;
+        lock.readLock().lock();
+        try {
+            ids = Arrays.copyOf(chunkIds, size);
+            dim = dimension;
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (dim <= 0) {
+            return new float[0];
+        }
+        float[] reference = new float[ids.length * dim];
+        for (int from = 0; from < ids.length; from += SOURCE_PAGE_SIZE) {
+            int to = Math.min(ids.length, from + SOURCE_PAGE_SIZE);
+            List<Long> page = new ArrayList<>(to - from);
+            for (int row = from; row < to; row++) {
+                page.add(ids[row]);
+            }
+            Map<Long, float[]> vectors = fullPrecisionSource.load(page);
+            for (int row = from; row < to; row++) {
+                float[] vector = vectors.get(ids[row]);
+                if (vector != null && vector.length == dim) {
+                    System.arraycopy(vector, 0, reference, row * dim, dim);
+                    VectorMath.normalizeInPlace(reference, row * dim, dim);
+                }
+            }
+        }
+        return reference;
+    }
+
+    private static List<String> normalizeFilters(List<String> filters) {
+        if (filters == null || filters.isEmpty()) {
+            return List.of();
+        }
+        return filters.stream()
+                .filter(f -> f != null && !f.isBlank())
+                .map(f -> f.toLowerCase(Locale.ROOT))
+                .toList();
+    }
+
+    /**
+     * 过滤词按子串匹配关键词，只扫描关键词表（规模远小于行数），再合并命中关键词的行位图。
+     */
+    private RowBitmap rowsMatching(List<String> lowerFilters) {
+        List<RowBitmap> matched = new ArrayList<>();
+        for (Map.Entry<String, RowBitmap> entry : rowsByKeyword.entrySet()) {
+            for (String filter : lowerFilters) {
+                if (entry.getKey().contains(filter)) {
+                    matched.add(entry.getValue());
+                    break;
+                }
+            }
+        }
+        return RowBitmap.union(matched);
+    }
+
+    /**
+     * @return 关键词位图的内存占用估算
+     */
+    public long keywordIndexBytes() {
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (RowBitmap bitmap : rowsByKeyword.values()) {
+                bytes += bitmap.memoryBytes();
+            }
+            return bytes;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /**
+     * 标记全量加载完成，并通知引擎（如 PQ 用已加载的向量训练码本）。
+     */
+    public void markLoaded() {
+        lock.writeLock().lock();
+        try {
+            engine.onLoaded(this);
+            this.loaded = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * @return 有效（未删除）的片段数
+     */
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size - removedRows;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public String engineName() {
+        return engine.name();
+    }
+
+    public int dimension() {
+        lock.readLock().lock();
+        try {
+            return dimension;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // 以下访问器仅供同包的检索引擎在持锁回调中使用
+
+    /**
+     * 全精度矩阵；retainVectors=false 时为空数组，量化引擎不得依赖它。
+     */
+    float[] matrix() {
+        return matrix;
+    }
+
+    int dim() {
+        return dimension;
+    }
+
+    int rows() {
+        return size;
+    }
+
+    int removedRows() {
+        return removedRows;
+    }
+
+    boolean hasVector(int row) {
+        return hasVector[row];
+    }
+}
@@ -0,0 +1,80 @@
+package com.ai.algorithmqa.retrieval;
+
+import java.util.List;
+
+/**
+ * 向量计算工具：统一使用原始 float[]，避免装箱与重复分配。
+ */
+public final class VectorMath {
+
+    private VectorMath() {
+    }
+
+    /**
+     * 将 embedding 服务返回的 List&lt;Double&gt; 转成 L2 归一化后的 float[]。
+     */
+    public static float[] toNormalizedArray(List<Double> vector) {
+        if (vector == null || vector.isEmpty()) {
+            return null;
+        }
+        float[] result = new float[vector.size()];
+        for (int i = 0; i < result.length; i++) {
+            result[i] = vector.get(i).floatValue();
+        }
+        normalizeInPlace(result, 0, result.length);
+        return result;
+    }
+
+    /**
+     * 对 data[offset, offset + length) 做原地 L2 归一化，零向量保持不变。
+     */
+    public static void normalizeInPlace(float[] data, int offset, int length) {
+        double norm = 0.0;
+        for (int i = offset; i < offset + length; i++) {
+            norm += data[i] * data[i];
+        }
+        if (norm == 0.0) {
+            return;
+        }
+        float inv = (float) (1.0 / Math.sqrt(norm));
+        for (int i = offset; i < offset + length; i++) {
+            data[i] *= inv;
+        }
+    }
+
+    /**
+     * 查询向量与矩阵中某一行的点积；两者均已归一化时即为余弦相似度。
+     */
+    public static float dot(float[] query, float[] matrix, int rowOffset) {
+        return dot(query, 0, matrix, rowOffset, query.length);
+    }
+
+    /**
+     * 矩阵内两行的点积，供建图时计算节点间相似度。
+     */
+    public static float dotRows(float[] matrix, int offsetA, int offsetB, int dimension) {
+        return dot(matrix, offsetA, matrix, offsetB, dimension);
+    }
+
+    /**
+     * 四路累加的点积：打断单个累加器的依赖链，让 JIT 可以流水线/向量化执行。
+     */
+    private static float dot(float[] a, int offsetA, float[] b, int offsetB, int length) {
+        float s0 = 0f;
+        float s1 = 0f;
+        float s2 = 0f;
+        float s3 = 0f;
+        int i = 0;
+        int bound = length & ~3;
+        for (; i < bound; i += 4) {
+            s0 += a[offsetA + i] * b[offsetB + i];
+            s1 += a[offsetA + i + 1] * b[offsetB + i + 1];
+            s2 += a[offsetA + i + 2] * b[offsetB + i + 2];
+            s3 += a[offsetA + i + 3] * b[offsetB + i + 3];
+        }
+        for (; i < length; i++) {
+            s0 += a[offsetA + i] * b[offsetB + i];
+        }
+        return (s0 + s1) + (s2 + s3);
+    }
+}
@@ -0,0 +1,76 @@
+package com.ai.algorithmqa.retrieval;
+
+import java.util.function.IntPredicate;
+
+/**
+ * 向量检索引擎：在 {@link VectorIndex} 的归一化向量之上实现 Top-K 查找。
+ * 回调均在索引的读写锁保护下执行，实现类无需自行加锁。
+ */
+public interface VectorSearchEngine {
+
+    /**
+     * 引擎名称，对应配置 retrieval.engine / retrieval.quantization.mode。
+     */
+    String name();
+
+    /**
+     * 新行写入索引（仅对带向量的行回调），调用方持有写锁。
+     *
+     * @param normalizedVector 该行归一化后的向量；索引不保留全精度矩阵时这是引擎唯一能看到它的机会
+     */
+    void onAppend(VectorIndex index, int row, float[] normalizedVector);
+
+    /**
+     * 索引压缩（丢弃已删除的行并重新编号）后回调，调用方持有写锁。
+     * 存活行保持原有顺序：新行号 i 对应旧行号 oldRows[i]，oldRows 严格递增；
+     * 回调时索引的矩阵与 {@link VectorIndex#hasVector} 已按新行号排列，引擎据此搬移或重建自身结构。
+     *
+     * @param liveCount 压缩后的行数，oldRows 只有前 liveCount 项有效
+     */
+    void onCompacted(VectorIndex index, int[] oldRows, int liveCount);
+
+    /**
+     * 全量加载完成后回调一次，调用方持有写锁。
+     */
+    default void onLoaded(VectorIndex index) {
+    }
+
+    /**
+     * 查找与 query 点积最大的若干行，结果写入 out，调用方持有读锁。
+     *
+     * @param filter 行过滤条件，不满足的行不得进入结果
+     */
+    void search(VectorIndex index, float[] query, int k, IntPredicate filter, TopK out);
+
+    /**
+     * 已由关键词位图圈定候选行时的查找，扫描类引擎只需遍历 rows 而不是整个索引；
+     * 默认退化为按 filter 过滤的全量查找。
+     *
+     * @param rows   候选行，filter 已包含“属于 rows”的判断
+     * @param filter 其余过滤条件（如墓碑），同样必须满足
+     */
+    default void search(VectorIndex index, float[] query, int k, RowBitmap rows, IntPredicate filter, TopK out) {
+        search(index, query, k, filter, out);
+    }
+
+    /**
+     * 为得到最终 K 个结果需要引擎返回的候选数；近似打分的引擎会多取一些留给全精度重排。
+     */
+    default int candidates(int k) {
+        return k;
+    }
+
+    /**
+     * 引擎给出的得分是否为近似值、需要用全精度向量重排。
+     */
+    default boolean needsRescoring() {
+        return false;
+    }
+
+    /**
+     * 引擎自身结构（图、码本、量化码）占用的堆内存估算，不含索引的全精度矩阵。
+     */
+    default long memoryBytes() {
+        return 0;
+    }
+}
@@ -0,0 +1,28 @@
+package com.ai.algorithmqa.service;
+
+import com.ai.algorithmqa.domain.dto.IngestJobStatus;
+import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
+
+import java.util.List;
+
+/**
+ * 批量导入：一次提交大量主题，后台流水线执行，通过任务 ID 查询进度。
+ */
+public interface BulkIngestService {
+
+    /**
+     * 提交批量导入任务，立即返回
+     *
+     * @param requests 主题列表
+     * @return 任务初始状态
+     */
+    IngestJobStatus submit(List<KnowledgeIngestRequest> requests);
+
+    /**
+     * 查询任务进度
+     *
+     * @param jobId 任务 ID
+     * @return 任务状态，不存在时返回 null
+     */
+    IngestJobStatus status(String jobId);
+}
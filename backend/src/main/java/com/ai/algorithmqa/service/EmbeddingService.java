@@ -11,5 +11,16 @@ public interface EmbeddingService {
      * 将自然语言文本编码为向量表示。
      */
     List<Double> embed(String text);
+
+    /**
+     * 批量编码，返回结果与 texts 一一对应；实现方负责按服务端上限拆分请求。
+     */
+    List<List<Double>> embedBatch(List<String> texts);
+
+    /**
+     * 同 {@link #embedBatch}，但远程调用失败或响应缺项时抛出 {@link IllegalStateException}，不退回伪向量
+     * （未配置远程服务、整个应用都使用本地向量时除外）。供批量导入使用，避免服务故障期间把伪向量永久写入库中。
+     */
+    List<List<Double>> embedBatchStrict(List<String> texts);
 }
 
@@ -1,8 +1,10 @@
 package com.ai.algorithmqa.service;
 
 import com.ai.algorithmqa.domain.dto.AlgorithmVisualizationResponse;
+import com.ai.algorithmqa.domain.dto.FilterSuggestion;
 import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
 import com.ai.algorithmqa.domain.dto.ReferenceChunk;
+import com.ai.algorithmqa.domain.dto.RetrievalRecallReport;
 
 import java.util.List;
 
@@ -16,11 +18,40 @@ public interface KnowledgeService {
      */
     void ingest(KnowledgeIngestRequest request);
 
+    /**
+     * 用新内容覆盖已有主题：主题与同名算法原地更新（保留动画 URL 等用户数据），
+     * 不再出现的算法删除，检索片段全部重新切分和生成 embedding。
+     */
+    void replace(Long topicId, KnowledgeIngestRequest request);
+
     /**
      * 根据问题/关键词检索知识片段，返回给 RAG 流程使用。
      */
     List<ReferenceChunk> search(String query, List<String> filters, int topK);
 
+    /**
+     * 同 {@link #search(String, List, int)}，但直接使用调用方已通过 {@link #embedQuery} 取得的问题向量，
+     * 不再重复 embedding。
+     *
+     * @param queryVector 为 null 表示 embedding 不可用，只做 BM25 检索
+     */
+    List<ReferenceChunk> search(String query, float[] queryVector, List<String> filters, int topK);
+
+    /**
+     * 生成与索引可比的归一化问题向量（优先读查询缓存），供语义回答缓存等按问题相似度匹配。
+     * 等待时间受 retrieval.stages.embed-timeout 限制。
+     *
+     * @return embedding 超时、失败或不可用（如服务降级为伪向量）时返回 null
+     */
+    float[] embedQuery(String query);
+
+    /**
+     * 评估当前检索引擎相对精确检索的召回率与耗时，用于调节 HNSW 参数。
+     *
+     * @param efSearch 为 null 时使用配置值
+     */
+    RetrievalRecallReport evaluateRetrieval(int sampleSize, int topK, Integer efSearch);
+
     /**
      * 获取指定主题下的算法可视化信息，供前端展示。
      */
@@ -30,4 +61,9 @@ public interface KnowledgeService {
      * 获取所有可用的筛选标签（基于知识库中的关键词）。
      */
     List<String> getAvailableFilters();
+
+    /**
+     * 按前缀补全筛选标签，附带每个标签的主题数。
+     */
+    List<FilterSuggestion> suggestFilters(String prefix, int limit);
 }
@@ -18,7 +18,8 @@ public interface StatsService {
     /**
      * 获取统计仪表板数据
      * 
+     * @param window 时间窗口 hour / day / week / all，为空时取 all
      * @return 包含 topQuestions 和 topClicks 的统计数据
      */
-    Map<String, Object> getDashboardStats();
+    Map<String, Object> getDashboardStats(String window);
 }
@@ -0,0 +1,63 @@
+package com.ai.algorithmqa.service.cache;
+
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 知识库内容版本号：任何知识变更（导入提交、管理端修改算法）都加一，
+ * 只读接口（筛选标签、主题列表）以它生成强 ETag，内容未变时直接返回 304，不查询也不序列化。
+ * <p>
+ * ETag 带上本进程的启动时刻，重启后版本号从零开始也不会与重启前的 ETag 相同。
+ * 在事务中变更时版本号在提交后才推进，避免客户端拿到新 ETag 却读到提交前的旧数据。
+ */
+@Component
+public class CorpusVersion implements MeterBinder {
+
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final AtomicLong version = new AtomicLong();
+
+    public long current() {
+        return version.get();
+    }
+
+    /**
+     * 当前版本对应的强 ETag（含引号）
+     */
+    public String etag() {
+        return "\"" + epoch + "-" + version.get() + "\"";
+    }
+
+    /**
+     * 标记内容已变化；在事务中调用时于提交后生效。
+     */
+    public void bump() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    version.incrementAndGet();
+                }
+            });
+        } else {
+            version.incrementAndGet();
+        }
+    }
+
+    @EventListener
+    public void onKnowledgeChanged(KnowledgeChangedEvent event) {
+        version.incrementAndGet();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("knowledge.corpus.version", version, AtomicLong::get).register(registry);
+    }
+}
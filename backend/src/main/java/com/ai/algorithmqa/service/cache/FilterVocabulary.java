@@ -0,0 +1,190 @@
+package com.ai.algorithmqa.service.cache;
+
+import com.ai.algorithmqa.domain.dto.FilterSuggestion;
+import com.ai.algorithmqa.domain.entity.KnowledgeTopic;
+import com.ai.algorithmqa.mapper.KnowledgeTopicMapper;
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 筛选标签词表：常驻内存的有序关键词集合（{@link ConcurrentSkipListMap}，键为小写关键词），
+ * 每个关键词记录带有它的主题数，支持按前缀自动补全，不再每次查询都加载全部主题再拆分、去重、排序。
+ * <p>
+ * 首次使用时只读取主题的 id 与 keywords 两列建表；之后收到 {@link KnowledgeChangedEvent} 只把主题记为待刷新，
+ * 下次读取时一条 IN 查询取回这些主题的最新关键词，按差异增减计数。读操作无锁，写操作串行；写锁用 {@link ReentrantLock} 而非 synchronized，
+ * 持锁查库时虚拟线程可以让出载体线程。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FilterVocabulary {
+
+    private static final int REFRESH_BATCH = 500;
+    private static final String UPPER_BOUND = String.valueOf(Character.MAX_VALUE);
+
+    private final KnowledgeTopicMapper topicMapper;
+
+    private final ConcurrentSkipListMap<String, Term> terms = new ConcurrentSkipListMap<>();
+    private final Map<Long, Set<String>> keywordsByTopic = new HashMap<>();
+    private final Set<Long> dirtyTopics = ConcurrentHashMap.newKeySet();
+    private final ReentrantLock writeLock = new ReentrantLock();
+    private volatile boolean loaded;
+
+    /**
+     * 词表中的一个关键词，display 为首次出现时的原始写法
+     */
+    private record Term(String display, int topicCount) {
+    }
+
+    /**
+     * @return 全部关键词，按字典序（忽略大小写）排列
+     */
+    public List<String> all() {
+        ensureFresh();
+        return terms.values().stream().map(Term::display).toList();
+    }
+
+    /**
+     * 按前缀（忽略大小写）补全，结果按字典序排列；前缀为空时返回最前面的 limit 个。
+     */
+    public List<FilterSuggestion> suggest(String prefix, int limit) {
+        ensureFresh();
+        String key = prefix == null ? "" : normalize(prefix);
+        NavigableMap<String, Term> range = key.isEmpty() ? terms : terms.subMap(key, true, key + UPPER_BOUND, false);
+        List<FilterSuggestion> result = new ArrayList<>();
+        for (Term term : range.values()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            result.add(new FilterSuggestion(term.display(), term.topicCount()));
+        }
+        return result;
+    }
+
+    @EventListener
+    public void onKnowledgeChanged(KnowledgeChangedEvent event) {
+        // 未加载时同样记录：全量加载可能读到了提交前的数据，加载完成后再补刷一次
+        if (event.topicId() != null) {
+            dirtyTopics.add(event.topicId());
+        }
+    }
+
+    public int size() {
+        ensureFresh();
+        return terms.size();
+    }
+
+    private void ensureFresh() {
+        if (!loaded) {
+            loadAll();
+        }
+        if (!dirtyTopics.isEmpty()) {
+            refreshDirty();
+        }
+    }
+
+    private void loadAll() {
+        writeLock.lock();
+        try {
+            if (loaded) {
+                return;
+            }
+            List<KnowledgeTopic> topics = topicMapper.selectKeywords();
+            for (KnowledgeTopic topic : topics) {
+                apply(topic.getId(), parse(topic.getKeywords()));
+            }
+            loaded = true;
+            log.info("筛选词表已加载 topics={}, keywords={}", topics.size(), terms.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    private void refreshDirty() {
+        writeLock.lock();
+        try {
+            List<Long> ids = new ArrayList<>(dirtyTopics);
+            if (ids.isEmpty()) {
+                return;
+            }
+            dirtyTopics.removeAll(ids);
+            for (int from = 0; from < ids.size(); from += REFRESH_BATCH) {
+                List<Long> page = ids.subList(from, Math.min(ids.size(), from + REFRESH_BATCH));
+                Map<Long, String> latest = new HashMap<>();
+                for (KnowledgeTopic topic : topicMapper.selectKeywordsByIds(page)) {
+                    latest.put(topic.getId(), topic.getKeywords());
+                }
+                for (Long id : page) {
+                    // 查不到说明主题已删除，其关键词全部减掉
+                    apply(id, latest.containsKey(id) ? parse(latest.get(id)) : Map.of());
+                }
+            }
+            log.debug("筛选词表增量刷新 topics={}, keywords={}", ids.size(), terms.size());
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * 把某主题的关键词替换为 keywords（小写键 → 原始写法），按差异调整计数。
+     */
+    private void apply(Long topicId, Map<String, String> keywords) {
+        Set<String> previous = keywordsByTopic.getOrDefault(topicId, Set.of());
+        for (String key : previous) {
+            if (!keywords.containsKey(key)) {
+                Term term = terms.get(key);
+                if (term == null) {
+                    continue;
+                }
+                if (term.topicCount() <= 1) {
+                    terms.remove(key);
+                } else {
+                    terms.put(key, new Term(term.display(), term.topicCount() - 1));
+                }
+            }
+        }
+        for (Map.Entry<String, String> entry : keywords.entrySet()) {
+            if (!previous.contains(entry.getKey())) {
+                terms.merge(entry.getKey(), new Term(entry.getValue(), 1),
+                        (old, added) -> new Term(old.display(), old.topicCount() + 1));
+            }
+        }
+        if (keywords.isEmpty()) {
+            keywordsByTopic.remove(topicId);
+        } else {
+            keywordsByTopic.put(topicId, Set.copyOf(keywords.keySet()));
+        }
+    }
+
+    private static Map<String, String> parse(String keywords) {
+        if (keywords == null || keywords.isBlank()) {
+            return Map.of();
+        }
+        Map<String, String> parsed = new HashMap<>();
+        for (String keyword : keywords.split(",")) {
+            String trimmed = keyword.trim();
+            if (!trimmed.isEmpty()) {
+                parsed.putIfAbsent(normalize(trimmed), trimmed);
+            }
+        }
+        return parsed;
+    }
+
+    private static String normalize(String keyword) {
+        return keyword.trim().toLowerCase(Locale.ROOT);
+    }
+}
@@ -0,0 +1,176 @@
+package com.ai.algorithmqa.service.cache;
+
+import com.ai.algorithmqa.config.AnswerCacheProperties;
+import com.ai.algorithmqa.domain.dto.QaRequest;
+import com.ai.algorithmqa.domain.dto.QaResponse;
+import com.ai.algorithmqa.retrieval.VectorMath;
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 语义回答缓存：以问题的归一化 embedding 为键，换一种问法（“解释分治思想” / “什么是分治”）也能命中。
+ * <p>
+ * 条目按作用域（是否使用知识库 + 过滤条件 + TopK）分桶，查找时只在同一桶内线性比较点积，
+ * 取相似度最高且不低于阈值的一条；总条目数超过上限时按 LRU 淘汰，超过 TTL 的条目不再命中。
+ * 语料变化（{@link KnowledgeChangedEvent}）时整体清空并推进代数，清空前已开始生成的回答不会再被写入。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SemanticAnswerCache implements MeterBinder {
+
+    private final AnswerCacheProperties properties;
+
+    private final LinkedHashMap<Long, CachedAnswer> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final Map<String, List<CachedAnswer>> byScope = new HashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long nextId;
+    private long generation;
+
+    private record CachedAnswer(long id, String scope, float[] vector, QaResponse response, long createdAt) {
+    }
+
+    /**
+     * 命中结果。
+     *
+     * @param similarity 与缓存问题的余弦相似度
+     */
+    public record Hit(QaResponse response, double similarity) {
+    }
+
+    /**
+     * 关闭时调用方无需为查找准备问题向量
+     */
+    public boolean enabled() {
+        return properties.enabled();
+    }
+
+    /**
+     * 同一作用域内查找最相似的已缓存回答。
+     *
+     * @param vector 归一化的问题向量
+     * @return 未命中返回 null
+     */
+    public synchronized Hit lookup(QaRequest request, float[] vector) {
+        if (!properties.enabled() || vector == null) {
+            return null;
+        }
+        long now = System.currentTimeMillis();
+        CachedAnswer best = null;
+        float bestScore = Float.NEGATIVE_INFINITY;
+        List<CachedAnswer> candidates = byScope.getOrDefault(scopeOf(request), List.of());
+        for (CachedAnswer candidate : candidates) {
+            if (candidate.vector().length != vector.length || isExpired(candidate, now)) {
+                continue;
+            }
+            float score = VectorMath.dot(vector, candidate.vector(), 0);
+            if (score > bestScore) {
+                bestScore = score;
+                best = candidate;
+            }
+        }
+        if (best == null || bestScore < properties.similarityThreshold()) {
+            misses.increment();
+            return null;
+        }
+        // 触发一次访问以更新 LRU 顺序
+        entries.get(best.id());
+        hits.increment();
+        return new Hit(best.response(), bestScore);
+    }
+
+    /**
+     * 当前代数，生成回答前读取，写入时原样传回。
+     */
+    public synchronized long generation() {
+        return generation;
+    }
+
+    /**
+     * 写入一条回答；若期间语料已变化（代数不同）则丢弃。
+     */
+    public synchronized void put(QaRequest request, float[] vector, QaResponse response, long expectedGeneration) {
+        if (!properties.enabled() || vector == null || response == null || expectedGeneration != generation
+                || response.answer() == null || response.answer().isBlank()) {
+            return;
+        }
+        CachedAnswer cached = new CachedAnswer(nextId++, scopeOf(request), vector, response, System.currentTimeMillis());
+        entries.put(cached.id(), cached);
+        byScope.computeIfAbsent(cached.scope(), k -> new ArrayList<>()).add(cached);
+        Iterator<CachedAnswer> iterator = entries.values().iterator();
+        while (entries.size() > Math.max(1, properties.maxEntries()) && iterator.hasNext()) {
+            CachedAnswer eldest = iterator.next();
+            iterator.remove();
+            removeFromScope(eldest);
+        }
+    }
+
+    @EventListener
+    public synchronized void onKnowledgeChanged(KnowledgeChangedEvent event) {
+        int cleared = entries.size();
+        entries.clear();
+        byScope.clear();
+        generation++;
+        log.info("知识库已变化 topicId={}，清空语义回答缓存 entries={}", event.topicId(), cleared);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private void removeFromScope(CachedAnswer cached) {
+        List<CachedAnswer> bucket = byScope.get(cached.scope());
+        if (bucket != null) {
+            bucket.remove(cached);
+            if (bucket.isEmpty()) {
+                byScope.remove(cached.scope());
+            }
+        }
+    }
+
+    private boolean isExpired(CachedAnswer cached, long now) {
+        return !properties.ttl().isZero() && now - cached.createdAt() > properties.ttl().toMillis();
+    }
+
+    /**
+     * 作用域：是否使用知识库、TopK、过滤条件（忽略大小写与顺序）。
+     */
+    private static String scopeOf(QaRequest request) {
+        List<String> filters = request.contextFilters() == null ? List.of() : request.contextFilters().stream()
+                .filter(Objects::nonNull)
+                .map(f -> f.trim().toLowerCase(Locale.ROOT))
+                .filter(f -> !f.isEmpty())
+                .sorted()
+                .distinct()
+                .toList();
+        return request.useKnowledgeBase() + "|" + (request.topK() != null ? request.topK() : 4) + "|"
+                + String.join(",", filters);
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("qa.answer.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("qa.answer.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").register(registry);
+        Gauge.builder("qa.answer.cache.size", this, SemanticAnswerCache::size).register(registry);
+    }
+}
@@ -0,0 +1,175 @@
+package com.ai.algorithmqa.service.cache;
+
+import com.ai.algorithmqa.common.ApiResponse;
+import com.ai.algorithmqa.config.VisualizationCacheProperties;
+import com.ai.algorithmqa.domain.dto.AlgorithmVisualizationResponse;
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * 主题可视化数据的响应体缓存：每个主题缓存一份已序列化的 {@code ApiResponse<AlgorithmVisualizationResponse>}
+ * JSON、它的 gzip 压缩结果与 ETag，命中时直接写出字节，不查 MySQL、不经过 Jackson。
+ * <p>
+ * 管理端修改算法详情或语料变化（{@link KnowledgeChangedEvent}）时按主题失效；失效会推进代数，
+ * 失效前已开始加载的旧数据不会再被写入。在事务中失效时，提交后会再失效一次，避免提交前读到的旧数据被缓存。
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class VisualizationCache implements MeterBinder {
+
+    private final VisualizationCacheProperties properties;
+    private final ObjectMapper objectMapper;
+
+    private final LinkedHashMap<Long, Payload> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private long generation;
+    private long cachedBytes;
+
+    /**
+     * 预先编码好的响应体
+     *
+     * @param json 未压缩的 JSON
+     * @param gzip gzip 压缩后的 JSON
+     * @param etag 强 ETag（含引号），由 JSON 内容哈希得到
+     */
+    public record Payload(byte[] json, byte[] gzip, String etag) {
+    }
+
+    /**
+     * 读取主题的响应体，未命中时调用 loader 加载并编码。
+     */
+    public Payload get(Long topicId, Supplier<AlgorithmVisualizationResponse> loader) {
+        long expectedGeneration;
+        synchronized (this) {
+            Payload cached = entries.get(topicId);
+            if (cached != null) {
+                hits.increment();
+                return cached;
+            }
+            misses.increment();
+            expectedGeneration = generation;
+        }
+        Payload payload = encode(ApiResponse.ok(loader.get()));
+        if (properties.enabled()) {
+            put(topicId, payload, expectedGeneration);
+        }
+        return payload;
+    }
+
+    private synchronized void put(Long topicId, Payload payload, long expectedGeneration) {
+        if (expectedGeneration != generation) {
+            return;
+        }
+        Payload previous = entries.put(topicId, payload);
+        cachedBytes += size(payload) - (previous == null ? 0 : size(previous));
+        Iterator<Payload> iterator = entries.values().iterator();
+        while (entries.size() > Math.max(1, properties.maxEntries()) && iterator.hasNext()) {
+            cachedBytes -= size(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * 失效某个主题；在事务中调用时提交后会再失效一次。
+     */
+    public void invalidate(Long topicId) {
+        evict(topicId);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    evict(topicId);
+                }
+            });
+        }
+    }
+
+    @EventListener
+    public void onKnowledgeChanged(KnowledgeChangedEvent event) {
+        if (event.topicId() != null) {
+            evict(event.topicId());
+        }
+    }
+
+    private synchronized void evict(Long topicId) {
+        Payload removed = entries.remove(topicId);
+        if (removed != null) {
+            cachedBytes -= size(removed);
+        }
+        generation++;
+        log.debug("可视化缓存失效 topicId={}", topicId);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private synchronized long cachedBytes() {
+        return cachedBytes;
+    }
+
+    private Payload encode(Object body) {
+        try {
+            byte[] json = objectMapper.writeValueAsBytes(body);
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(json.length / 4 + 64);
+            // 只在加载时压缩一次，压缩级别取最高
+            try (GZIPOutputStream gzip = new GZIPOutputStream(buffer) {
+                {
+                    def.setLevel(Deflater.BEST_COMPRESSION);
+                }
+            }) {
+                gzip.write(json);
+            }
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(json);
+            String etag = "\"" + HexFormat.of().formatHex(digest, 0, 16) + "\"";
+            return new Payload(json, buffer.toByteArray(), etag);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("序列化可视化数据失败", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static long size(Payload payload) {
+        return payload.json().length + payload.gzip().length;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("knowledge.visualization.cache.requests", hits, LongAdder::sum)
+                .tag("result", "hit").register(registry);
+        FunctionCounter.builder("knowledge.visualization.cache.requests", misses, LongAdder::sum)
+                .tag("result", "miss").register(registry);
+        Gauge.builder("knowledge.visualization.cache.size", this, VisualizationCache::size).register(registry);
+        Gauge.builder("knowledge.visualization.cache.bytes", this, VisualizationCache::cachedBytes)
+                .baseUnit("bytes").register(registry);
+    }
+}
@@ -0,0 +1,9 @@
+package com.ai.algorithmqa.service.event;
+
+/**
+ * 知识库语料发生变化（导入提交成功）后发布，依赖语料的缓存据此失效。
+ *
+ * @param topicId 变化的知识主题
+ */
+public record KnowledgeChangedEvent(Long topicId) {
+}
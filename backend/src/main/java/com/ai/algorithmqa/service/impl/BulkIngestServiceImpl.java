@@ -0,0 +1,401 @@
+package com.ai.algorithmqa.service.impl;
+
+import com.ai.algorithmqa.config.IngestProperties;
+import com.ai.algorithmqa.domain.dto.IngestJobStatus;
+import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
+import com.ai.algorithmqa.domain.entity.AlgorithmDetail;
+import com.ai.algorithmqa.domain.entity.KnowledgeChunk;
+import com.ai.algorithmqa.domain.entity.KnowledgeTopic;
+import com.ai.algorithmqa.mapper.AlgorithmDetailMapper;
+import com.ai.algorithmqa.mapper.KnowledgeChunkMapper;
+import com.ai.algorithmqa.mapper.KnowledgeTopicMapper;
+import com.ai.algorithmqa.retrieval.VectorIndex;
+import com.ai.algorithmqa.retrieval.VectorMath;
+import com.ai.algorithmqa.service.BulkIngestService;
+import com.ai.algorithmqa.service.EmbeddingService;
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 批量导入流水线：解析切分 → embedding → 写库，三段之间用有界阻塞队列衔接（下游跟不上时上游阻塞等待）。
+ * <ul>
+ *     <li>解析：parseParallelism 个线程并行把请求转换成 topic / detail / chunk 实体；</li>
+ *     <li>embedding：embeddingConcurrency 个线程并行，每次把若干主题的片段合成一次 {@link EmbeddingService#embedBatch}；</li>
+ *     <li>写库：单线程每攒够 writeBatchTopics 个主题开一个事务，每张表一条多行 INSERT，提交后追加进向量索引。</li>
+ * </ul>
+ * 一组写入失败时逐个主题重试，坏数据只让它自己失败。每个任务在独立的虚拟线程上运行，进度通过任务 ID 查询。
+ */
+@Slf4j
+@Service
+public class BulkIngestServiceImpl implements BulkIngestService {
+
+    private static final int MAX_ERRORS = 50;
+    private static final int CHUNK_INSERT_BATCH = 500;
+    private static final Prepared END = new Prepared(-1, null, null, List.of(), List.of(), null);
+
+    private final KnowledgeTopicMapper topicMapper;
+    private final AlgorithmDetailMapper detailMapper;
+    private final KnowledgeChunkMapper chunkMapper;
+    private final EmbeddingService embeddingService;
+    private final VectorIndex vectorIndex;
+    private final ApplicationEventPublisher eventPublisher;
+    private final IngestProperties properties;
+    private final TransactionTemplate transactionTemplate;
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    /**
+     * 一个主题在流水线中的中间结果
+     */
+    private record Prepared(int index, KnowledgeIngestRequest request, KnowledgeTopic topic,
+                            List<AlgorithmDetail> details, List<KnowledgeChunk> chunks, String error) {
+    }
+
+    public BulkIngestServiceImpl(KnowledgeTopicMapper topicMapper, AlgorithmDetailMapper detailMapper,
+                                 KnowledgeChunkMapper chunkMapper, EmbeddingService embeddingService,
+                                 VectorIndex vectorIndex, ApplicationEventPublisher eventPublisher,
+                                 IngestProperties properties, PlatformTransactionManager transactionManager) {
+        this.topicMapper = topicMapper;
+        this.detailMapper = detailMapper;
+        this.chunkMapper = chunkMapper;
+        this.embeddingService = embeddingService;
+        this.vectorIndex = vectorIndex;
+        this.eventPublisher = eventPublisher;
+        this.properties = properties;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Override
+    public IngestJobStatus submit(List<KnowledgeIngestRequest> requests) {
+        Job job = new Job(UUID.randomUUID().toString(), List.copyOf(requests));
+        synchronized (jobs) {
+            jobs.put(job.id, job);
+            evictFinishedJobs();
+        }
+        Thread.ofVirtual().name("ingest-job-" + job.id).start(job::run);
+        log.info("批量导入任务已提交 jobId={}, topics={}", job.id, requests.size());
+        return job.status();
+    }
+
+    @Override
+    public IngestJobStatus status(String jobId) {
+        Job job;
+        synchronized (jobs) {
+            job = jobs.get(jobId);
+        }
+        return job == null ? null : job.status();
+    }
+
+    private void evictFinishedJobs() {
+        Iterator<Job> iterator = jobs.values().iterator();
+        while (jobs.size() > Math.max(1, properties.retainedJobs()) && iterator.hasNext()) {
+            if (iterator.next().finishedAt != null) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private final class Job {
+        private final String id;
+        private final List<KnowledgeIngestRequest> requests;
+        private final AtomicInteger parsed = new AtomicInteger();
+        private final AtomicInteger embedded = new AtomicInteger();
+        private final AtomicInteger written = new AtomicInteger();
+        private final AtomicInteger writtenChunks = new AtomicInteger();
+        private final AtomicInteger failed = new AtomicInteger();
+        private final List<String> errors = Collections.synchronizedList(new ArrayList<>());
+        private final LocalDateTime startedAt = LocalDateTime.now();
+        private final long startNanos = System.nanoTime();
+        private volatile String state = "RUNNING";
+        private volatile LocalDateTime finishedAt;
+        private volatile long elapsedMs;
+
+        private Job(String id, List<KnowledgeIngestRequest> requests) {
+            this.id = id;
+            this.requests = requests;
+        }
+
+        private void run() {
+            int capacity = Math.max(1, properties.queueCapacity());
+            BlockingQueue<Prepared> parsedQueue = new ArrayBlockingQueue<>(capacity);
+            BlockingQueue<Prepared> embeddedQueue = new ArrayBlockingQueue<>(capacity);
+            int parsers = Math.max(1, properties.parseParallelism());
+            int embedders = Math.max(1, properties.embeddingConcurrency());
+            CountDownLatch parsersDone = new CountDownLatch(parsers);
+            CountDownLatch embeddersDone = new CountDownLatch(embedders);
+            AtomicInteger cursor = new AtomicInteger();
+            try (ExecutorService stages = Executors.newThreadPerTaskExecutor(
+                    Thread.ofVirtual().name("ingest-" + id + "-", 0).factory())) {
+                for (int i = 0; i < parsers; i++) {
+                    stages.submit(() -> parseStage(cursor, parsedQueue, parsersDone));
+                }
+                stages.submit(() -> closeWhenDone(parsersDone, parsedQueue, embedders));
+                for (int i = 0; i < embedders; i++) {
+                    stages.submit(() -> embeddingStage(parsedQueue, embeddedQueue, embeddersDone));
+                }
+                stages.submit(() -> closeWhenDone(embeddersDone, embeddedQueue, 1));
+                try {
+                    writeStage(embeddedQueue);
+                } catch (Throwable e) {
+                    // 写库阶段退出后没人再消费队列，上游阻塞在 put() 上，close() 会一直等；先中断各阶段再关闭
+                    stages.shutdownNow();
+                    throw e;
+                }
+                state = failed.get() == 0 ? "COMPLETED" : "COMPLETED_WITH_ERRORS";
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                state = "FAILED";
+                addError("任务被中断");
+            } catch (RuntimeException e) {
+                state = "FAILED";
+                addError("任务异常终止: " + e.getMessage());
+                log.error("批量导入任务异常终止 jobId={}", id, e);
+            } catch (Error e) {
+                state = "FAILED";
+                addError("任务异常终止: " + e);
+                throw e;
+            } finally {
+                elapsedMs = Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+                finishedAt = LocalDateTime.now();
+            }
+            log.info("批量导入任务结束 jobId={}, state={}, topics={}, chunks={}, failed={}, 耗时={}ms",
+                    id, state, written.get(), writtenChunks.get(), failed.get(), elapsedMs);
+        }
+
+        private void parseStage(AtomicInteger cursor, BlockingQueue<Prepared> out, CountDownLatch done) {
+            try {
+                int index;
+                while ((index = cursor.getAndIncrement()) < requests.size()) {
+                    out.put(prepare(index, requests.get(index)));
+                    parsed.incrementAndGet();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private Prepared prepare(int index, KnowledgeIngestRequest request) {
+            try {
+                KnowledgeTopic topic = KnowledgeAssembler.toTopic(request);
+                List<AlgorithmDetail> details = new ArrayList<>();
+                List<KnowledgeChunk> chunks = new ArrayList<>();
+                if (request.algorithms() != null) {
+                    for (KnowledgeIngestRequest.AlgorithmSection section : request.algorithms()) {
+                        details.add(KnowledgeAssembler.toDetail(section));
+                        chunks.addAll(KnowledgeAssembler.splitIntoChunks(section, topic.getKeywords()));
+                    }
+                }
+                return new Prepared(index, request, topic, details, chunks, null);
+            } catch (RuntimeException e) {
+                return new Prepared(index, request, null, List.of(), List.of(), "解析失败: " + e.getMessage());
+            }
+        }
+
+        /**
+         * 上游全部结束后向下游放入结束标记，每个下游消费者一个。
+         */
+        private void closeWhenDone(CountDownLatch upstreamDone, BlockingQueue<Prepared> queue, int consumers) {
+            try {
+                upstreamDone.await();
+                for (int i = 0; i < consumers; i++) {
+                    queue.put(END);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        private void embeddingStage(BlockingQueue<Prepared> in, BlockingQueue<Prepared> out, CountDownLatch done) {
+            int topicsPerRequest = Math.max(1, properties.embeddingTopicsPerRequest());
+            try {
+                boolean finished = false;
+                while (!finished) {
+                    List<Prepared> group = new ArrayList<>(topicsPerRequest);
+                    Prepared next = in.take();
+                    while (next != END) {
+                        group.add(next);
+                        if (group.size() >= topicsPerRequest || (next = in.poll()) == null) {
+                            break;
+                        }
+                    }
+                    finished = next == END;
+                    for (Prepared prepared : embed(group)) {
+                        out.put(prepared);
+                        embedded.incrementAndGet();
+                    }
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } finally {
+                done.countDown();
+            }
+        }
+
+        private List<Prepared> embed(List<Prepared> group) {
+            List<KnowledgeChunk> chunks = new ArrayList<>();
+            for (Prepared prepared : group) {
+                if (prepared.error() == null) {
+                    chunks.addAll(prepared.chunks());
+                }
+            }
+            if (chunks.isEmpty()) {
+                return group;
+            }
+            try {
+                List<List<Double>> vectors = embeddingService.embedBatchStrict(
+                        chunks.stream().map(KnowledgeChunk::getContent).toList());
+                for (int i = 0; i < chunks.size(); i++) {
+                    chunks.get(i).setEmbedding(VectorMath.toNormalizedArray(vectors.get(i)));
+                }
+                return group;
+            } catch (RuntimeException e) {
+                return group.stream()
+                        .map(p -> p.error() != null ? p : new Prepared(p.index(), p.request(), p.topic(), p.details(),
+                                p.chunks(), "embedding 失败: " + e.getMessage()))
+                        .toList();
+            }
+        }
+
+        private void writeStage(BlockingQueue<Prepared> in) throws InterruptedException {
+            int batchTopics = Math.max(1, properties.writeBatchTopics());
+            boolean finished = false;
+            while (!finished) {
+                List<Prepared> group = new ArrayList<>(batchTopics);
+                Prepared next = in.take();
+                while (next != END) {
+                    if (next.error() != null) {
+                        fail(next, next.error());
+                    } else {
+                        group.add(next);
+                    }
+                    if (group.size() >= batchTopics || (next = in.poll()) == null) {
+                        break;
+                    }
+                }
+                finished = next == END;
+                if (!group.isEmpty()) {
+                    writeGroup(group);
+                }
+            }
+        }
+
+        /**
+         * 只有事务本身失败才回滚重试；提交之后的索引追加与事件发布放在重试范围之外，否则会重复插入已提交的主题。
+         */
+        private void writeGroup(List<Prepared> group) {
+            List<VectorIndex.Entry> entries;
+            try {
+                entries = transactionTemplate.execute(status -> insert(group));
+            } catch (RuntimeException e) {
+                if (group.size() == 1) {
+                    fail(group.get(0), "写入失败: " + e.getMessage());
+                    return;
+                }
+                log.warn("批量导入一组 {} 个主题写入失败，逐个重试 jobId={}: {}", group.size(), id, e.getMessage());
+                for (Prepared prepared : group) {
+                    resetIds(prepared);
+                    writeGroup(List.of(prepared));
+                }
+                return;
+            }
+            publish(group, entries);
+        }
+
+        /**
+         * 每张表一条多行 INSERT；主题写入后用回填的自增主键补齐 detail / chunk 的 topicId。
+         */
+        private List<VectorIndex.Entry> insert(List<Prepared> group) {
+            topicMapper.insertBatch(group.stream().map(Prepared::topic).toList());
+            List<AlgorithmDetail> details = new ArrayList<>();
+            List<KnowledgeChunk> chunks = new ArrayList<>();
+            for (Prepared prepared : group) {
+                Long topicId = prepared.topic().getId();
+                prepared.details().forEach(detail -> detail.setTopicId(topicId));
+                prepared.chunks().forEach(chunk -> chunk.setTopicId(topicId));
+                details.addAll(prepared.details());
+                chunks.addAll(prepared.chunks());
+            }
+            if (!details.isEmpty()) {
+                detailMapper.insertBatch(details);
+            }
+            for (int from = 0; from < chunks.size(); from += CHUNK_INSERT_BATCH) {
+                chunkMapper.insertBatch(chunks.subList(from, Math.min(chunks.size(), from + CHUNK_INSERT_BATCH)));
+            }
+            List<VectorIndex.Entry> entries = new ArrayList<>(chunks.size());
+            for (KnowledgeChunk chunk : chunks) {
+                entries.add(new VectorIndex.Entry(chunk.getId(), chunk.getTopicId(), chunk.getContent(),
+                        chunk.getKeywords(), chunk.getEmbedding()));
+            }
+            return entries;
+        }
+
+        /**
+         * 事务已提交：追加进向量索引并逐个主题发布变更事件。数据已经落库，这里失败只记录错误，
+         * 不算主题失败也不重试；索引在重启后全量加载时补齐。
+         */
+        private void publish(List<Prepared> group, List<VectorIndex.Entry> entries) {
+            written.addAndGet(group.size());
+            writtenChunks.addAndGet(entries.size());
+            try {
+                vectorIndex.addAll(entries);
+                for (Prepared prepared : group) {
+                    eventPublisher.publishEvent(new KnowledgeChangedEvent(prepared.topic().getId()));
+                }
+            } catch (RuntimeException e) {
+                log.error("批量导入已提交 {} 个主题，但追加索引或发布变更事件失败 jobId={}", group.size(), id, e);
+                addError("已写入 " + group.size() + " 个主题，但追加索引或发布变更事件失败: " + e.getMessage());
+            }
+        }
+
+        private void resetIds(Prepared prepared) {
+            prepared.topic().setId(null);
+            prepared.details().forEach(detail -> detail.setId(null));
+            prepared.chunks().forEach(chunk -> chunk.setId(null));
+        }
+
+        private void fail(Prepared prepared, String error) {
+            failed.incrementAndGet();
+            addError("#" + prepared.index() + " " + prepared.request().title() + ": " + error);
+        }
+
+        private void addError(String error) {
+            synchronized (errors) {
+                if (errors.size() < MAX_ERRORS) {
+                    errors.add(error);
+                }
+            }
+        }
+
+        private IngestJobStatus status() {
+            long elapsed = finishedAt != null ? elapsedMs
+                    : Duration.ofNanos(System.nanoTime() - startNanos).toMillis();
+            List<String> errorSnapshot;
+            synchronized (errors) {
+                errorSnapshot = List.copyOf(errors);
+            }
+            return new IngestJobStatus(id, state, requests.size(), parsed.get(), embedded.get(), written.get(),
+                    writtenChunks.get(), failed.get(), errorSnapshot, startedAt, finishedAt, elapsed);
+        }
+    }
+}
@@ -2,16 +2,19 @@ package com.ai.algorithmqa.service.impl;
 
 import com.ai.algorithmqa.config.DashScopeProperties;
 import com.ai.algorithmqa.service.EmbeddingService;
+import com.ai.algorithmqa.service.metrics.QaMetrics;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.RequestBody;
+import okhttp3.Response;
 import org.springframework.stereotype.Service;
-import org.springframework.web.client.RestTemplate;
 
+import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.HashMap;
@@ -20,6 +23,8 @@ import java.util.Map;
 
 /**
  * 使用阿里云 DashScope Embedding 服务生成向量，若未配置 Key 或调用失败则退回本地伪向量。
+ * 请求走与流式问答共享的 OkHttpClient（见 {@code OkHttpConfig}），批量导入时复用连接。
+ * 每次 HTTP 请求的耗时与回退到伪向量的条数记入 {@link QaMetrics}。
  */
 @Slf4j
 @Service
@@ -27,9 +32,11 @@ import java.util.Map;
 public class DashScopeEmbeddingService implements EmbeddingService {
 
     private static final int FALLBACK_DIM = 24;
+    private static final MediaType JSON = MediaType.get("application/json");
 
-    private final RestTemplate restTemplate;
+    private final OkHttpClient httpClient;
     private final DashScopeProperties properties;
+    private final QaMetrics qaMetrics;
     private final ObjectMapper mapper = new ObjectMapper();
 
     /**
@@ -37,10 +44,45 @@ public class DashScopeEmbeddingService implements EmbeddingService {
      */
     @Override
     public List<Double> embed(String text) {
+        return embedBatch(List.of(text)).get(0);
+    }
+
+    /**
+     * 按 embeddingBatchSize 把文本装进 input.texts 数组，一次请求拿回一批向量；
+     * 某一批失败或响应缺项时只对该批（该项）走 fallback。
+     */
+    @Override
+    public List<List<Double>> embedBatch(List<String> texts) {
+        return embedBatch(texts, false);
+    }
+
+    /**
+     * 未配置 Key 时整个应用都使用伪向量，仍然返回伪向量以保持一致；配置了 Key 时任何一批失败都直接抛出。
+     */
+    @Override
+    public List<List<Double>> embedBatchStrict(List<String> texts) {
+        return embedBatch(texts, true);
+    }
+
+    private List<List<Double>> embedBatch(List<String> texts, boolean strict) {
+        if (texts.isEmpty()) {
+            return List.of();
+        }
         if (properties.apiKey() == null || properties.apiKey().isBlank()) {
-            return pseudoEmbedding(text);
+            qaMetrics.recordEmbeddingFallback("no_key", texts.size());
+            return texts.stream().map(this::pseudoEmbedding).toList();
+        }
+        int batchSize = Math.max(1, properties.embeddingBatchSize());
+        List<List<Double>> results = new ArrayList<>(texts.size());
+        for (int from = 0; from < texts.size(); from += batchSize) {
+            results.addAll(requestBatch(texts.subList(from, Math.min(texts.size(), from + batchSize)), strict));
         }
+        return results;
+    }
 
+    private List<List<Double>> requestBatch(List<String> texts, boolean strict) {
+        long start = System.nanoTime();
+        boolean requested = false;
         try {
             // 构建请求体： DashScope embedding API 期望的格式
             Map<String, Object> requestBody = new HashMap<>();
@@ -48,44 +90,76 @@ public class DashScopeEmbeddingService implements EmbeddingService {
 
             // input 字段需要是一个包含 "texts" 数组的对象
             Map<String, Object> inputMap = new HashMap<>();
-            inputMap.put("texts", List.of(text));
+            inputMap.put("texts", texts);
             requestBody.put("input", inputMap);
 
             // 序列化为 JSON 字符串
             String jsonBody = mapper.writeValueAsString(requestBody);
 
-            // 设置必需的 HTTP headers
-            HttpHeaders headers = new HttpHeaders();
-            headers.set("Authorization", "Bearer " + properties.apiKey());
-            headers.set("Content-Type", "application/json");
-
-            HttpEntity<String> entity = new HttpEntity<>(jsonBody, headers);
-
-            ResponseEntity<String> response = restTemplate.postForEntity(
-                    properties.embeddingEndpoint(),
-                    entity,
-                    String.class);
+            Request request = new Request.Builder()
+                    .url(properties.embeddingEndpoint())
+                    .post(RequestBody.create(jsonBody, JSON))
+                    .header("Authorization", "Bearer " + properties.apiKey())
+                    .build();
+            String responseBody;
+            try (Response response = httpClient.newCall(request).execute()) {
+                if (!response.isSuccessful()) {
+                    throw new IOException("HTTP " + response.code());
+                }
+                responseBody = response.body().string();
+            }
+            requested = true;
+            qaMetrics.recordEmbeddingRequest(true, System.nanoTime() - start);
 
-            JsonNode node = mapper.readTree(response.getBody());
+            JsonNode node = mapper.readTree(responseBody);
             JsonNode embeddings = node.path("output").path("embeddings");
 
-            // embeddings 是一个数组，我们需要第一个元素的 embedding 字段
-            if (embeddings.isArray() && embeddings.size() > 0) {
-                JsonNode vector = embeddings.get(0).path("embedding");
-                if (!vector.isMissingNode() && vector.isArray()) {
-                    List<Double> result = new ArrayList<>();
+            // embeddings 数组的每一项带 text_index，对应请求中 texts 的下标
+            List<List<Double>> results = new ArrayList<>(texts.size());
+            for (int i = 0; i < texts.size(); i++) {
+                results.add(null);
+            }
+            if (embeddings.isArray()) {
+                for (int i = 0; i < embeddings.size(); i++) {
+                    JsonNode item = embeddings.get(i);
+                    int textIndex = item.path("text_index").asInt(i);
+                    JsonNode vector = item.path("embedding");
+                    if (textIndex < 0 || textIndex >= texts.size() || !vector.isArray()) {
+                        continue;
+                    }
+                    List<Double> result = new ArrayList<>(vector.size());
                     vector.forEach(value -> result.add(value.asDouble()));
-                    log.info("调用 DashScope embedding 成功{}", result);
-                    return result;
-
+                    results.set(textIndex, result);
                 }
             }
 
-            log.warn("DashScope embedding 响应格式不正确，使用回退策略");
-            return pseudoEmbedding(text);
+            int missing = (int) results.stream().filter(result -> result == null).count();
+            if (missing > 0 && strict) {
+                throw new IllegalStateException("响应缺少 " + missing + "/" + texts.size() + " 条结果");
+            }
+            for (int i = 0; i < texts.size(); i++) {
+                if (results.get(i) == null) {
+                    results.set(i, pseudoEmbedding(texts.get(i)));
+                }
+            }
+            if (missing > 0) {
+                qaMetrics.recordEmbeddingFallback("missing", missing);
+                log.warn("DashScope embedding 响应缺少 {}/{} 条结果，缺失项使用回退策略", missing, texts.size());
+            } else {
+                log.debug("调用 DashScope embedding 成功 texts={}", texts.size());
+            }
+            return results;
         } catch (Exception e) {
-            log.warn("调用 DashScope embedding 失败，使用回退策略: {}", e.getMessage());
-            return pseudoEmbedding(text);
+            if (!requested) {
+                qaMetrics.recordEmbeddingRequest(false, System.nanoTime() - start);
+            }
+            if (strict) {
+                throw new IllegalStateException("调用 DashScope embedding 失败（texts=" + texts.size() + "）: "
+                        + e.getMessage(), e);
+            }
+            qaMetrics.recordEmbeddingFallback("error", texts.size());
+            log.warn("调用 DashScope embedding 失败（texts={}），使用回退策略: {}", texts.size(), e.getMessage());
+            return texts.stream().map(this::pseudoEmbedding).toList();
         }
     }
 
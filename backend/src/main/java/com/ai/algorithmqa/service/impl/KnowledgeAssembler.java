@@ -0,0 +1,72 @@
+package com.ai.algorithmqa.service.impl;
+
+import com.ai.algorithmqa.common.ContentHash;
+import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
+import com.ai.algorithmqa.domain.entity.AlgorithmDetail;
+import com.ai.algorithmqa.domain.entity.KnowledgeChunk;
+import com.ai.algorithmqa.domain.entity.KnowledgeTopic;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 把导入请求转换成 topic / detail / chunk 实体，单条导入与批量导入共用。
+ * 返回的实体尚未入库：topicId 在主题写入、拿到自增主键后再回填。
+ */
+final class KnowledgeAssembler {
+
+    private KnowledgeAssembler() {
+    }
+
+    static KnowledgeTopic toTopic(KnowledgeIngestRequest request) {
+        KnowledgeTopic topic = new KnowledgeTopic();
+        topic.setTitle(request.title());
+        topic.setCategory(request.category());
+        topic.setOverview(request.overview());
+        topic.setKeywords(String.join(",", request.keywords() == null ? List.of() : request.keywords()));
+        topic.setDifficultyLevel(request.difficultyLevel());
+        topic.setTags(topic.getKeywords());
+        topic.setContentHash(ContentHash.of(request));
+        topic.setCreatedAt(LocalDateTime.now());
+        topic.setUpdatedAt(LocalDateTime.now());
+        return topic;
+    }
+
+    static AlgorithmDetail toDetail(KnowledgeIngestRequest.AlgorithmSection section) {
+        AlgorithmDetail detail = new AlgorithmDetail();
+        detail.setName(section.name());
+        detail.setCoreIdea(section.coreIdea());
+        detail.setStepBreakdown(section.steps());
+        detail.setTimeComplexity(section.complexity());
+        detail.setSpaceComplexity(section.complexity());
+        detail.setCodeSnippet(section.codeSnippet());
+        detail.setVisualizationHint(section.visualizationHint());
+        detail.setMermaidCode(section.mermaidCode());
+        return detail;
+    }
+
+    /**
+     * 将单个算法描述切成若干语义片段，便于检索与 prompt 注入。
+     *
+     * @return 尚未生成 embedding、尚未入库的片段
+     */
+    static List<KnowledgeChunk> splitIntoChunks(KnowledgeIngestRequest.AlgorithmSection section, String keywords) {
+        String source = section.coreIdea() + "\n" + section.steps() + "\n" + section.complexity();
+        // 优化切分逻辑：
+        // 1. (?<!\d)\. -> 匹配前面不是数字的点号（避免切分 1. 2. 等序号）
+        // 2. [。！？] -> 匹配中文句号、感叹号、问号
+        String[] parts = source.split("(?<=。|！|？|(?<!\\d)\\.)");
+        List<KnowledgeChunk> chunks = new ArrayList<>();
+        for (String part : parts) {
+            if (part == null || part.isBlank()) {
+                continue;
+            }
+            KnowledgeChunk chunk = new KnowledgeChunk();
+            chunk.setContent(part.trim());
+            chunk.setKeywords(keywords);
+            chunks.add(chunk);
+        }
+        return chunks;
+    }
+}
@@ -1,231 +1,434 @@
 package com.ai.algorithmqa.service.impl;
 
+import com.ai.algorithmqa.config.RetrievalProperties;
 import com.ai.algorithmqa.domain.dto.AlgorithmVisualizationResponse;
+import com.ai.algorithmqa.domain.dto.FilterSuggestion;
 import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
 import com.ai.algorithmqa.domain.dto.ReferenceChunk;
+import com.ai.algorithmqa.domain.dto.RetrievalRecallReport;
 import com.ai.algorithmqa.domain.entity.AlgorithmDetail;
 import com.ai.algorithmqa.domain.entity.KnowledgeChunk;
 import com.ai.algorithmqa.domain.entity.KnowledgeTopic;
 import com.ai.algorithmqa.mapper.AlgorithmDetailMapper;
 import com.ai.algorithmqa.mapper.KnowledgeChunkMapper;
 import com.ai.algorithmqa.mapper.KnowledgeTopicMapper;
+import com.ai.algorithmqa.retrieval.QueryEmbeddingCache;
+import com.ai.algorithmqa.retrieval.VectorIndex;
+import com.ai.algorithmqa.retrieval.VectorMath;
 import com.ai.algorithmqa.service.EmbeddingService;
 import com.ai.algorithmqa.service.KnowledgeService;
-import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
+import com.ai.algorithmqa.service.cache.FilterVocabulary;
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import com.ai.algorithmqa.service.metrics.QaMetrics;
 import com.baomidou.mybatisplus.core.toolkit.Wrappers;
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
-import java.time.LocalDateTime;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
  * 负责知识库生命周期：导入/拆分/embedding/检索。
- * 这里使用 MySQL + 轻量 embedding 字段实现“关键词 + 粗语义”的混合检索。
+ * 这里使用 MySQL 持久化片段与二进制 embedding，检索走常驻内存的 {@link VectorIndex}。
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class KnowledgeServiceImpl implements KnowledgeService {
 
-    private static final int DEFAULT_TOP_K = 4;
+    private static final int INDEX_LOAD_PAGE_SIZE = 500;
 
     private final KnowledgeTopicMapper topicMapper;
     private final AlgorithmDetailMapper detailMapper;
     private final KnowledgeChunkMapper chunkMapper;
     private final EmbeddingService embeddingService;
+    private final VectorIndex vectorIndex;
+    private final RetrievalProperties retrievalProperties;
+    private final QueryEmbeddingCache queryEmbeddingCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final FilterVocabulary filterVocabulary;
+    private final ExecutorService retrievalStageExecutor;
+    private final QaMetrics qaMetrics;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantLock indexLoadLock = new ReentrantLock();
 
     /**
      * 将传入的课程数据写入 theme/detail/chunk 三张表；
-     * 过程中会自动拆分段落并生成 embedding JSON。
+     * 过程中会自动拆分段落并生成 embedding（以二进制列存储）。
      */
     @Override
     @Transactional
     public void ingest(KnowledgeIngestRequest request) {
         log.info("开始导入知识点 [{}]", request.title());
-        KnowledgeTopic topic = new KnowledgeTopic();
-        topic.setTitle(request.title());
-        topic.setCategory(request.category());
-        topic.setOverview(request.overview());
-        topic.setKeywords(String.join(",", request.keywords() == null ? List.of() : request.keywords()));
-        topic.setDifficultyLevel(request.difficultyLevel());
-        topic.setTags(topic.getKeywords());
-        topic.setCreatedAt(LocalDateTime.now());
-        topic.setUpdatedAt(LocalDateTime.now());
+        KnowledgeTopic topic = KnowledgeAssembler.toTopic(request);
         topicMapper.insert(topic);
 
-        int chunkCount = 0;
+        List<KnowledgeChunk> chunks = new ArrayList<>();
         if (request.algorithms() != null) {
             for (KnowledgeIngestRequest.AlgorithmSection section : request.algorithms()) {
-                AlgorithmDetail detail = new AlgorithmDetail();
+                AlgorithmDetail detail = KnowledgeAssembler.toDetail(section);
                 detail.setTopicId(topic.getId());
-                detail.setName(section.name());
-                detail.setCoreIdea(section.coreIdea());
-                detail.setStepBreakdown(section.steps());
-                detail.setTimeComplexity(section.complexity());
-                detail.setSpaceComplexity(section.complexity());
-                detail.setCodeSnippet(section.codeSnippet());
-                detail.setVisualizationHint(section.visualizationHint());
-                detail.setMermaidCode(section.mermaidCode());
                 detailMapper.insert(detail);
 
-                chunkCount += splitIntoChunks(topic.getId(), section, topic.getKeywords());
+                for (KnowledgeChunk chunk : KnowledgeAssembler.splitIntoChunks(section, topic.getKeywords())) {
+                    chunk.setTopicId(topic.getId());
+                    chunks.add(chunk);
+                }
             }
         }
-        log.info("导入知识点完成 topicId={}, chunkCount={}", topic.getId(), chunkCount);
+        List<VectorIndex.Entry> indexEntries = embedAndInsert(chunks);
+        publishToIndex(topic.getId(), indexEntries, false);
+        log.info("导入知识点完成 topicId={}, chunkCount={}", topic.getId(), indexEntries.size());
+    }
+
+    @Override
+    @Transactional
+    public void replace(Long topicId, KnowledgeIngestRequest request) {
+        log.info("开始更新知识点 topicId={} [{}]", topicId, request.title());
+        KnowledgeTopic topic = KnowledgeAssembler.toTopic(request);
+        topic.setId(topicId);
+        topic.setCreatedAt(null);
+        topicMapper.updateById(topic);
+
+        Map<String, AlgorithmDetail> existing = new HashMap<>();
+        for (AlgorithmDetail detail : detailMapper.selectList(
+                Wrappers.<AlgorithmDetail>lambdaQuery().eq(AlgorithmDetail::getTopicId, topicId))) {
+            existing.putIfAbsent(detail.getName(), detail);
+        }
+        List<AlgorithmDetail> added = new ArrayList<>();
+        List<KnowledgeChunk> chunks = new ArrayList<>();
+        if (request.algorithms() != null) {
+            for (KnowledgeIngestRequest.AlgorithmSection section : request.algorithms()) {
+                AlgorithmDetail detail = KnowledgeAssembler.toDetail(section);
+                detail.setTopicId(topicId);
+                AlgorithmDetail previous = existing.remove(section.name());
+                if (previous != null) {
+                    detail.setId(previous.getId());
+                    detail.setAnimationUrl(previous.getAnimationUrl());
+                    detailMapper.updateById(detail);
+                } else {
+                    added.add(detail);
+                }
+                for (KnowledgeChunk chunk : KnowledgeAssembler.splitIntoChunks(section, topic.getKeywords())) {
+                    chunk.setTopicId(topicId);
+                    chunks.add(chunk);
+                }
+            }
+        }
+        if (!added.isEmpty()) {
+            detailMapper.insertBatch(added);
+        }
+        if (!existing.isEmpty()) {
+            detailMapper.deleteBatchIds(existing.values().stream().map(AlgorithmDetail::getId).toList());
+        }
+        chunkMapper.delete(Wrappers.<KnowledgeChunk>lambdaQuery().eq(KnowledgeChunk::getTopicId, topicId));
+        List<VectorIndex.Entry> indexEntries = embedAndInsert(chunks);
+        publishToIndex(topicId, indexEntries, true);
+        log.info("更新知识点完成 topicId={}, chunkCount={}, 新增算法={}, 删除算法={}",
+                topicId, indexEntries.size(), added.size(), existing.size());
     }
 
     /**
-     * 将单个算法描述切成若干语义片段，便于检索与 prompt 注入。
+     * 新片段在事务提交后再追加进向量索引并发布 {@link KnowledgeChangedEvent}，避免回滚的数据被检索到或让缓存误失效。
      *
-     * @return 实际写入的片段数量
+     * @param replaceTopic 为 true 时先从索引中删除该主题的旧片段
      */
-    private int splitIntoChunks(Long topicId, KnowledgeIngestRequest.AlgorithmSection section, String keywords) {
-        String source = section.coreIdea() + "\n" + section.steps() + "\n" + section.complexity();
-        // 优化切分逻辑：
-        // 1. (?<!\d)\. -> 匹配前面不是数字的点号（避免切分 1. 2. 等序号）
-        // 2. [。！？] -> 匹配中文句号、感叹号、问号
-        String[] parts = source.split("(?<=。|！|？|(?<!\\d)\\.)");
-        int count = 0;
-        for (String part : parts) {
-            if (part == null || part.isBlank()) {
-                continue;
+    private void publishToIndex(Long topicId, List<VectorIndex.Entry> entries, boolean replaceTopic) {
+        Runnable publish = () -> {
+            if (replaceTopic) {
+                vectorIndex.removeTopic(topicId);
             }
-            KnowledgeChunk chunk = new KnowledgeChunk();
-            chunk.setTopicId(topicId);
-            chunk.setContent(part.trim());
-            chunk.setKeywords(keywords);
-            chunk.setEmbeddingJson(toJson(embeddingService.embed(part)));
-            chunkMapper.insert(chunk);
-            count++;
+            vectorIndex.addAll(entries);
+            eventPublisher.publishEvent(new KnowledgeChangedEvent(topicId));
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    publish.run();
+                }
+            });
+        } else {
+            publish.run();
         }
-        return count;
     }
 
-    private String toJson(List<Double> vector) {
-        try {
-            return objectMapper.writeValueAsString(vector);
-        } catch (JsonProcessingException e) {
-            throw new RuntimeException("Embedding 序列化失败", e);
+    /**
+     * 一次性批量生成整个知识点所有片段的 embedding（按服务端上限分批请求），再用一条多行 INSERT 入库。
+     *
+     * @return 实际写入的片段（附带归一化向量，供提交后写入索引）
+     */
+    private List<VectorIndex.Entry> embedAndInsert(List<KnowledgeChunk> chunks) {
+        if (chunks.isEmpty()) {
+            return List.of();
+        }
+        List<List<Double>> vectors = embeddingService.embedBatch(chunks.stream().map(KnowledgeChunk::getContent).toList());
+        for (int i = 0; i < chunks.size(); i++) {
+            chunks.get(i).setEmbedding(VectorMath.toNormalizedArray(vectors.get(i)));
+        }
+        chunkMapper.insertBatch(chunks);
+        List<VectorIndex.Entry> entries = new ArrayList<>(chunks.size());
+        for (KnowledgeChunk chunk : chunks) {
+            entries.add(new VectorIndex.Entry(chunk.getId(), chunk.getTopicId(), chunk.getContent(),
+                    chunk.getKeywords(), chunk.getEmbedding()));
         }
+        return entries;
     }
 
     /**
-     * 纯语义检索：不使用 SQL LIKE 过滤，直接对所有候选进行向量相似度计算
+     * 混合检索：常驻内存的向量索引对全量片段做点积 Top-K，同时用 BM25 倒排索引（中文二元分词）做词法检索，
+     * 两路按倒数排名融合；过滤条件在索引内完成，不再每次查询都从 MySQL 拉取候选。
+     * <p>
+     * 远程 embedding 与本地工作并行：查询向量在独立虚拟线程上获取，同时当前线程完成（首次）索引加载、
+     * BM25 检索，并按 BM25 命中的主题预取标题；向量到达后再融合排序，只补查预取中没有的主题。
+     * 通常检索耗时接近 max(embedding, 数据库) 而不是两者之和。embedding 超时或失败时取消并只用 BM25 结果；
+     * 本地阶段失败时取消仍在进行的 embedding 与预取。
      */
     @Override
     public List<ReferenceChunk> search(String query, List<String> filters, int topK) {
-        int limit = topK > 0 ? topK : DEFAULT_TOP_K;
-
-        LambdaQueryWrapper<KnowledgeChunk> wrapper = Wrappers.lambdaQuery();
-
-        // 只应用用户指定的过滤条件（如算法类别），不对 query 本身做 LIKE 过滤
-        if (filters != null && !filters.isEmpty()) {
-            filters.forEach(filter -> wrapper.or(w -> w.like(KnowledgeChunk::getKeywords, filter)));
-        }
+        return search(query, filters, topK, retrievalStageExecutor.submit(() -> fetchQueryVector(query)));
+    }
 
-        // 获取所有符合过滤条件的候选（如果没有过滤条件，则获取全部）
-        // 为了性能考虑，设置一个合理的上限
-        wrapper.last("limit 100");
-        List<KnowledgeChunk> candidates = chunkMapper.selectList(wrapper);
+    /**
+     * 向量来自 {@link #embedQuery}，已校验维度并写入查询缓存，按已缓存处理。
+     */
+    @Override
+    public List<ReferenceChunk> search(String query, float[] queryVector, List<String> filters, int topK) {
+        return search(query, filters, topK,
+                CompletableFuture.completedFuture(queryVector == null ? null : new QueryVector(queryVector, true)));
+    }
 
-        if (candidates.isEmpty()) {
-            log.info("知识检索无结果 query={}, filters={}", query, filters);
-            return List.of();
-        }
+    private List<ReferenceChunk> search(String query, List<String> filters, int topK, Future<QueryVector> embedding) {
+        int limit = topK > 0 ? topK : retrievalProperties.topK();
+        RetrievalProperties.Stages stages = retrievalProperties.stages();
+        long start = System.nanoTime();
+        int candidates = 0;
+        Future<Map<Long, KnowledgeTopic>> prefetch = null;
+        try {
+            ensureIndexLoaded();
+            // 词法排名只算一次：先用前 limit 条预取主题，向量到达后只补算向量一路再融合
+            List<VectorIndex.Hit> lexicalHits = vectorIndex.searchLexical(query, filters, limit);
+            Set<Long> lexicalTopics = topicIds(lexicalHits.subList(0, Math.min(limit, lexicalHits.size())));
+            if (!lexicalTopics.isEmpty()) {
+                prefetch = retrievalStageExecutor.submit(() -> loadTopics(lexicalTopics));
+            }
 
-        // 使用 embedding 计算语义相似度进行排序
-        List<Double> queryEmbedding = embeddingService.embed(query);
-        candidates.forEach(chunk -> {
-            try {
-                List<Double> chunkEmbedding = parseEmbedding(chunk.getEmbeddingJson());
-                double similarity = cosineSimilarity(queryEmbedding, chunkEmbedding);
-                chunk.setScore(similarity);
-            } catch (Exception e) {
-                log.warn("解析 embedding 失败，使用词频得分 chunkId={}", chunk.getId());
-                chunk.setScore(similarityScore(chunk.getContent(), query));
+            float[] queryVector = acceptQueryVector(query, await(embedding, stages.embedTimeout(), "embedding"));
+            List<VectorIndex.Hit> vectorHits = queryVector == null
+                    ? List.of()
+                    : vectorIndex.searchVector(queryVector, filters, limit);
+            List<VectorIndex.Hit> hits = vectorIndex.fuse(vectorHits, lexicalHits, limit);
+            candidates = hits.size();
+            if (hits.isEmpty()) {
+                log.info("知识检索无结果 query={}, filters={}", query, filters);
+                return List.of();
             }
-        });
 
-        Map<Long, KnowledgeTopic> topicMap = topicMapper.selectBatchIds(
-                candidates.stream().map(KnowledgeChunk::getTopicId).collect(Collectors.toSet())).stream()
-                .collect(Collectors.toMap(KnowledgeTopic::getId, t -> t));
+            Map<Long, KnowledgeTopic> topicMap = new HashMap<>();
+            if (prefetch != null) {
+                Map<Long, KnowledgeTopic> prefetched = await(prefetch, stages.topicLookupTimeout(), "topic_prefetch");
+                if (prefetched != null) {
+                    topicMap.putAll(prefetched);
+                }
+            }
+            Set<Long> missing = topicIds(hits);
+            missing.removeAll(topicMap.keySet());
+            if (!missing.isEmpty()) {
+                Map<Long, KnowledgeTopic> loaded = await(retrievalStageExecutor.submit(() -> loadTopics(missing)),
+                        stages.topicLookupTimeout(), "topic_lookup");
+                if (loaded != null) {
+                    topicMap.putAll(loaded);
+                }
+            }
+            return toReferences(hits, topicMap, limit);
+        } finally {
+            embedding.cancel(true);
+            if (prefetch != null) {
+                prefetch.cancel(true);
+            }
+            qaMetrics.recordRetrieval(System.nanoTime() - start, candidates);
+        }
+    }
 
-        List<ReferenceChunk> results = candidates.stream()
-                .sorted(Comparator.comparingDouble(KnowledgeChunk::getScore).reversed())
-                .limit(limit)
-                .map(chunk -> {
-                    KnowledgeTopic topic = topicMap.get(chunk.getTopicId());
+    private List<ReferenceChunk> toReferences(List<VectorIndex.Hit> hits, Map<Long, KnowledgeTopic> topicMap,
+            int limit) {
+        List<ReferenceChunk> results = hits.stream()
+                .map(hit -> {
+                    KnowledgeTopic topic = topicMap.get(hit.topicId());
                     return new ReferenceChunk(
-                            chunk.getTopicId(),
+                            hit.topicId(),
                             topic != null ? topic.getTitle() : "未知主题",
-                            chunk.getContent(),
-                            chunk.getScore());
+                            hit.content(),
+                            hit.score());
                 })
                 .collect(Collectors.toList());
-        log.debug("知识检索命中 {} 条（limit={}），使用纯语义相似度排序", results.size(), limit);
+        log.debug("知识检索命中 {} 条（limit={}，索引规模={}），向量与 BM25 融合排序",
+                results.size(), limit, vectorIndex.size());
         return results;
     }
 
+    private static Set<Long> topicIds(List<VectorIndex.Hit> hits) {
+        Set<Long> ids = new HashSet<>();
+        for (VectorIndex.Hit hit : hits) {
+            ids.add(hit.topicId());
+        }
+        return ids;
+    }
+
+    private Map<Long, KnowledgeTopic> loadTopics(Set<Long> topicIds) {
+        return topicMapper.selectBatchIds(topicIds).stream()
+                .collect(Collectors.toMap(KnowledgeTopic::getId, t -> t));
+    }
+
     /**
-     * 解析 JSON 格式的 embedding 向量
+     * 等待一个可降级的阶段：超时或失败时取消它并返回 null，由调用方走降级路径；
+     * 当前线程被中断时恢复中断标记并同样返回 null。
+     *
+     * @param name 阶段名，同时作为降级指标的 stage 标签
      */
-    private List<Double> parseEmbedding(String embeddingJson) {
+    private <T> T await(Future<T> stage, Duration timeout, String name) {
         try {
-            return objectMapper.readValue(embeddingJson,
-                    objectMapper.getTypeFactory().constructCollectionType(List.class, Double.class));
-        } catch (Exception e) {
-            throw new RuntimeException("Embedding 反序列化失败", e);
+            return stage.get(timeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            log.warn("检索阶段[{}]超过 {}ms，已取消并降级", name, timeout.toMillis());
+        } catch (ExecutionException e) {
+            log.warn("检索阶段[{}]失败，已降级: {}", name, e.getCause() == null ? e.getMessage() : e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
         }
+        stage.cancel(true);
+        qaMetrics.recordRetrievalDegraded(name);
+        return null;
     }
 
     /**
-     * 计算两个向量的余弦相似度
+     * 查询向量优先读缓存；只缓存与索引维度一致的向量，远程失败时的伪向量不会被缓存住。
+     * 与检索相同，embedding 与索引加载并行，超过 embedTimeout 取消并返回 null。
      */
-    private double cosineSimilarity(List<Double> vec1, List<Double> vec2) {
-        if (vec1.size() != vec2.size()) {
-            throw new IllegalArgumentException("向量维度不匹配");
+    @Override
+    public float[] embedQuery(String query) {
+        Future<QueryVector> embedding = retrievalStageExecutor.submit(() -> fetchQueryVector(query));
+        try {
+            ensureIndexLoaded();
+            return acceptQueryVector(query, await(embedding, retrievalProperties.stages().embedTimeout(), "embedding"));
+        } finally {
+            embedding.cancel(true);
         }
+    }
 
-        double dotProduct = 0.0;
-        double norm1 = 0.0;
-        double norm2 = 0.0;
+    private record QueryVector(float[] vector, boolean cached) {
+    }
 
-        for (int i = 0; i < vec1.size(); i++) {
-            dotProduct += vec1.get(i) * vec2.get(i);
-            norm1 += vec1.get(i) * vec1.get(i);
-            norm2 += vec2.get(i) * vec2.get(i);
+    /**
+     * 读缓存或调用 embedding 服务，不依赖索引是否已加载，可与索引加载并行。
+     */
+    private QueryVector fetchQueryVector(String query) {
+        float[] cached = queryEmbeddingCache.get(query);
+        if (cached != null) {
+            return new QueryVector(cached, true);
         }
+        return new QueryVector(VectorMath.toNormalizedArray(embeddingService.embed(query)), false);
+    }
 
-        if (norm1 == 0.0 || norm2 == 0.0) {
-            return 0.0;
+    /**
+     * 索引加载后校验维度，新取得的合格向量写入缓存。
+     */
+    private float[] acceptQueryVector(String query, QueryVector fetched) {
+        if (fetched == null || fetched.vector() == null || fetched.vector().length != vectorIndex.dimension()) {
+            return null;
         }
+        if (!fetched.cached()) {
+            queryEmbeddingCache.put(query, fetched.vector());
+        }
+        return fetched.vector();
+    }
 
-        return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+    @Override
+    public RetrievalRecallReport evaluateRetrieval(int sampleSize, int topK, Integer efSearch) {
+        ensureIndexLoaded();
+        RetrievalRecallReport report = vectorIndex.evaluateRecall(sampleSize, topK, efSearch);
+        log.info("检索召回率评估 engine={}, recall@{}={}, efSearch={}, 引擎耗时={}us, 精确耗时={}us, 索引内存={}B/全精度={}B",
+                report.engine(), report.topK(), report.recall(), report.efSearch(),
+                report.avgEngineMicros(), report.avgExactMicros(), report.indexBytes(), report.fullPrecisionBytes());
+        return report;
     }
 
     /**
-     * 基于词频的轻量得分函数，用于在没有真实向量数据库时的 fallback。
+     * 首次检索时按主键分页把全部片段装入向量索引；之后只靠 ingest 增量追加。
      */
-    private double similarityScore(String content, String query) {
-        String lowerContent = content.toLowerCase();
-        String lowerQuery = query.toLowerCase();
-        int matches = 0;
-        for (String token : lowerQuery.split(" ")) {
-            if (lowerContent.contains(token)) {
-                matches++;
+    private void ensureIndexLoaded() {
+        if (vectorIndex.isLoaded()) {
+            return;
+        }
+        // 用显式锁而不是 synchronized：加载期间要做数据库 IO，synchronized 会把虚拟线程钉在载体线程上
+        indexLoadLock.lock();
+        try {
+            if (vectorIndex.isLoaded()) {
+                return;
             }
+            long lastId = 0L;
+            int total = 0;
+            while (true) {
+                List<KnowledgeChunk> page = chunkMapper.selectList(Wrappers.lambdaQuery(KnowledgeChunk.class)
+                        .gt(KnowledgeChunk::getId, lastId)
+                        .orderByAsc(KnowledgeChunk::getId)
+                        .last("limit " + INDEX_LOAD_PAGE_SIZE));
+                if (page.isEmpty()) {
+                    break;
+                }
+                total += vectorIndex.addAll(page.stream().map(this::toIndexEntry).toList());
+                lastId = page.get(page.size() - 1).getId();
+            }
+            vectorIndex.markLoaded();
+            log.info("向量索引加载完成 chunks={}, dimension={}, keywordBitmapBytes={}",
+                    total, vectorIndex.dimension(), vectorIndex.keywordIndexBytes());
+        } finally {
+            indexLoadLock.unlock();
+        }
+    }
+
+    private VectorIndex.Entry toIndexEntry(KnowledgeChunk chunk) {
+        float[] vector = chunk.getEmbedding();
+        if (vector == null && chunk.getEmbeddingJson() != null) {
+            // 尚未迁移到二进制列的旧数据
+            try {
+                vector = parseEmbedding(chunk.getEmbeddingJson());
+            } catch (Exception e) {
+                log.warn("解析 embedding 失败，该片段将使用词频得分 chunkId={}", chunk.getId());
+            }
+        }
+        return new VectorIndex.Entry(chunk.getId(), chunk.getTopicId(), chunk.getContent(), chunk.getKeywords(),
+                vector);
+    }
+
+    /**
+     * 解析旧版 JSON 格式的 embedding 向量，直接反序列化为原始 float[]
+     */
+    private float[] parseEmbedding(String embeddingJson) {
+        try {
+            return objectMapper.readValue(embeddingJson, float[].class);
+        } catch (Exception e) {
+            throw new RuntimeException("Embedding 反序列化失败", e);
         }
-        return matches / (double) Math.max(1, lowerQuery.split(" ").length);
     }
 
     @Override
@@ -262,18 +465,11 @@ public class KnowledgeServiceImpl implements KnowledgeService {
 
     @Override
     public List<String> getAvailableFilters() {
-        List<KnowledgeTopic> topics = topicMapper.selectList(null);
-        return topics.stream()
-                .flatMap(topic -> {
-                    if (topic.getKeywords() == null || topic.getKeywords().isBlank()) {
-                        return java.util.stream.Stream.empty();
-                    }
-                    return java.util.Arrays.stream(topic.getKeywords().split(","));
-                })
-                .map(String::trim)
-                .filter(s -> !s.isEmpty())
-                .distinct()
-                .sorted()
-                .collect(Collectors.toList());
+        return filterVocabulary.all();
+    }
+
+    @Override
+    public List<FilterSuggestion> suggestFilters(String prefix, int limit) {
+        return filterVocabulary.suggest(prefix, limit);
     }
 }
@@ -1,20 +1,29 @@
 package com.ai.algorithmqa.service.impl;
 
+import com.ai.algorithmqa.common.BoundedVirtualThreadExecutor;
+import com.ai.algorithmqa.common.QuestionFingerprint;
+import com.ai.algorithmqa.config.AnswerCacheProperties;
 import com.ai.algorithmqa.domain.dto.QaRequest;
 import com.ai.algorithmqa.domain.dto.QaResponse;
 import com.ai.algorithmqa.domain.dto.ReferenceChunk;
 import com.ai.algorithmqa.domain.entity.QaLog;
 import com.ai.algorithmqa.llm.DashScopeClient;
 import com.ai.algorithmqa.llm.LlmAnswer;
-import com.ai.algorithmqa.mapper.QaLogMapper;
 import com.ai.algorithmqa.service.KnowledgeService;
 import com.ai.algorithmqa.service.QaService;
+import com.ai.algorithmqa.service.cache.SemanticAnswerCache;
+import com.ai.algorithmqa.service.log.QaLogWriter;
+import com.ai.algorithmqa.service.metrics.QaMetrics;
+import com.ai.algorithmqa.service.stats.HeavyHitters;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import java.io.IOException;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Collectors;
 
 /**
@@ -24,6 +33,7 @@ import java.util.stream.Collectors;
  * <li>基于片段和提问构造 Prompt，调用 DashScope（通义千问）；</li>
  * <li>记录问答日志，返回给前端。</li>
  * </ul>
+ * 每个请求的总耗时按 mode（sync/stream）与 outcome（success/cache_hit/error）记入 {@link QaMetrics}。
  */
 @Slf4j
 @Service
@@ -32,46 +42,97 @@ public class QaServiceImpl implements QaService {
 
         private final KnowledgeService knowledgeService;
         private final DashScopeClient dashScopeClient;
-        private final QaLogMapper qaLogMapper;
+        private final QaLogWriter qaLogWriter;
+        private final HeavyHitters heavyHitters;
+        private final SemanticAnswerCache semanticAnswerCache;
+        private final AnswerCacheProperties answerCacheProperties;
+        private final BoundedVirtualThreadExecutor qaStreamExecutor;
+        private final QaMetrics qaMetrics;
 
         /**
-         * 将用户问题转化为最终回答，并记录日志。
+         * 将用户问题转化为最终回答，并记录日志。语义相近的问题直接复用缓存的回答。
          */
         @Override
         public QaResponse answer(QaRequest request) {
                 log.debug("QA-Service 接到请求 question={}, useKB={}, topK={}, filters={}",
                                 request.question(), request.useKnowledgeBase(), request.topK(),
                                 request.contextFilters());
-                List<ReferenceChunk> references = request.useKnowledgeBase()
-                                ? knowledgeService.search(request.question(), request.contextFilters(),
-                                                request.topK() != null ? request.topK() : 4)
-                                : List.of();
-                log.debug("知识检索返回 {} 条片段", references.size());
+                long start = System.nanoTime();
+                try {
+                        float[] questionVector = embedForAnswerCache(request);
+                        long cacheGeneration = semanticAnswerCache.generation();
+                        SemanticAnswerCache.Hit cached = semanticAnswerCache.lookup(request, questionVector);
+                        if (cached != null) {
+                                QaResponse response = cached.response();
+                                long latency = (System.nanoTime() - start) / 1_000_000;
+                                log.info("语义回答缓存命中 similarity={}, 耗时={}ms", cached.similarity(), latency);
+                                saveLog(request.question(), response.answer(), response.references(), response.model(), latency);
+                                qaMetrics.recordQa("sync", "cache_hit", System.nanoTime() - start);
+                                return new QaResponse(response.answer(), response.references(), response.model(), latency);
+                        }
+
+                        List<ReferenceChunk> references = retrieve(request, questionVector);
+                        log.debug("知识检索返回 {} 条片段", references.size());
+
+                        String prompt = buildPrompt(request.question(), references);
+                        log.trace("构造 Prompt 完成，长度={} 字符", prompt.length());
+                        LlmAnswer answer = dashScopeClient.chat(prompt);
+                        log.info("DashScope 调用成功，模型={}，耗时={}ms", answer.model(), answer.latencyMs());
+
+                        saveLog(request.question(), answer.content(), references, answer.model(), answer.latencyMs());
+
+                        QaResponse response = new QaResponse(answer.content(), references, answer.model(), answer.latencyMs());
+                        semanticAnswerCache.put(request, questionVector, response, cacheGeneration);
+                        qaMetrics.recordQa("sync", "success", System.nanoTime() - start);
+                        return response;
+                } catch (RuntimeException e) {
+                        qaMetrics.recordQa("sync", "error", System.nanoTime() - start);
+                        throw e;
+                }
+        }
+
+        /**
+         * 只有开启语义回答缓存时才需要在检索之前取得问题向量；关闭时由检索自己获取，与索引和主题查询并行。
+         */
+        private float[] embedForAnswerCache(QaRequest request) {
+                return semanticAnswerCache.enabled() ? knowledgeService.embedQuery(request.question()) : null;
+        }
 
-                String prompt = buildPrompt(request.question(), references);
-                log.trace("构造 Prompt 完成，长度={} 字符", prompt.length());
-                LlmAnswer answer = dashScopeClient.chat(prompt);
-                log.info("DashScope 调用成功，模型={}，耗时={}ms", answer.model(), answer.latencyMs());
+        /**
+         * 已为回答缓存取得过问题向量时（为 null 表示 embedding 不可用）直接复用，同一问题不重复 embedding。
+         */
+        private List<ReferenceChunk> retrieve(QaRequest request, float[] questionVector) {
+                if (!request.useKnowledgeBase()) {
+                        return List.of();
+                }
+                int topK = request.topK() != null ? request.topK() : 4;
+                return semanticAnswerCache.enabled()
+                                ? knowledgeService.search(request.question(), questionVector,
+                                                request.contextFilters(), topK)
+                                : knowledgeService.search(request.question(), request.contextFilters(), topK);
+        }
 
+        private void saveLog(String question, String answer, List<ReferenceChunk> references, String model,
+                        Long latencyMs) {
                 QaLog logEntry = new QaLog();
-                logEntry.setQuestion(request.question());
-                logEntry.setAnswer(answer.content());
+                logEntry.setQuestion(question);
+                logEntry.setQuestionHash(QuestionFingerprint.hash(question));
+                logEntry.setAnswer(answer);
                 logEntry.setReferenceSummary(references.stream()
                                 .map(ref -> ref.topicTitle() + ":" + ref.snippet())
                                 .collect(Collectors.joining(" | ")));
-                logEntry.setLatencyMs(answer.latencyMs());
-                logEntry.setModel(answer.model());
+                logEntry.setLatencyMs(latencyMs);
+                logEntry.setModel(model);
                 logEntry.setCreatedAt(LocalDateTime.now());
-                qaLogMapper.insert(logEntry);
-                log.debug("问答日志写入完成 logId={}", logEntry.getId());
-
-                return new QaResponse(answer.content(), references, answer.model(), answer.latencyMs());
+                // 异步批量落库，不占用请求线程等待 MySQL
+                qaLogWriter.submit(logEntry);
+                heavyHitters.recordQuestion(question);
         }
 
         /**
          * 根据问题与检索片段构造课程定制 Prompt，确保输出结构化、可追溯。
          */
-        private String buildPrompt(String question, List<ReferenceChunk> references) {
+        static String buildPrompt(String question, List<ReferenceChunk> references) {
                 StringBuilder builder = new StringBuilder();
                 builder.append("你是一名《算法设计与分析》课程智能助教，需要给出条理清晰、严谨的回答。\n");
                 if (!references.isEmpty()) {
@@ -92,46 +153,57 @@ public class QaServiceImpl implements QaService {
         }
 
         @Override
-        public org.springframework.web.servlet.mvc.method.annotation.SseEmitter streamAnswer(QaRequest request) {
-                org.springframework.web.servlet.mvc.method.annotation.SseEmitter emitter = new org.springframework.web.servlet.mvc.method.annotation.SseEmitter(
-                                300000L); // 5 minutes timeout
+        public SseEmitter streamAnswer(QaRequest request) {
+                SseEmitter emitter = new SseEmitter(300000L); // 5 minutes timeout
 
-                java.util.concurrent.CompletableFuture.runAsync(() -> {
+                // 在独立的虚拟线程上执行，流式读取最长阻塞 5 分钟也不会占用公共线程池；并发已满时抛出拒绝异常（503）
+                qaStreamExecutor.execute(() -> {
+                        long start = System.nanoTime();
                         try {
                                 log.debug("QA-Service 流式请求 question={}, useKB={}, topK={}, filters={}",
                                                 request.question(), request.useKnowledgeBase(), request.topK(),
                                                 request.contextFilters());
+                                float[] questionVector = embedForAnswerCache(request);
+                                long cacheGeneration = semanticAnswerCache.generation();
+                                SemanticAnswerCache.Hit cached = semanticAnswerCache.lookup(request, questionVector);
+                                if (cached != null) {
+                                        replay(cached.response(), emitter);
+                                        long latency = (System.nanoTime() - start) / 1_000_000;
+                                        log.info("语义回答缓存命中（流式） similarity={}, 耗时={}ms", cached.similarity(), latency);
+                                        saveLog(request.question(), cached.response().answer(),
+                                                        cached.response().references(), cached.response().model(), latency);
+                                        qaMetrics.recordQa("stream", "cache_hit", System.nanoTime() - start);
+                                        return;
+                                }
 
-                                List<ReferenceChunk> references = request.useKnowledgeBase()
-                                                ? knowledgeService.search(request.question(), request.contextFilters(),
-                                                                request.topK() != null ? request.topK() : 4)
-                                                : List.of();
+                                List<ReferenceChunk> references = retrieve(request, questionVector);
 
                                 // 发送引用信息
                                 if (!references.isEmpty()) {
-                                        emitter.send(org.springframework.web.servlet.mvc.method.annotation.SseEmitter
-                                                        .event()
+                                        emitter.send(SseEmitter.event()
                                                         .name("reference")
                                                         .data(references));
                                 }
 
                                 String prompt = buildPrompt(request.question(), references);
 
-                                // 流式调用大模型，并获取完整回答
+                                // 流式调用大模型，并获取完整回答（中途失败时为 null）
                                 String fullAnswer = dashScopeClient.streamChat(prompt, emitter);
+                                long latency = (System.nanoTime() - start) / 1_000_000;
 
                                 // 记录完整问答日志
-                                QaLog logEntry = new QaLog();
-                                logEntry.setQuestion(request.question());
-                                logEntry.setAnswer(fullAnswer);
-                                logEntry.setReferenceSummary(references.stream()
-                                                .map(ref -> ref.topicTitle() + ":" + ref.snippet())
-                                                .collect(Collectors.joining(" | ")));
-                                logEntry.setModel("qwen-plus"); // 假设
-                                logEntry.setCreatedAt(LocalDateTime.now());
-                                qaLogMapper.insert(logEntry);
+                                saveLog(request.question(), fullAnswer == null ? "" : fullAnswer, references,
+                                                "qwen-plus", latency); // 假设
+                                if (fullAnswer != null) {
+                                        semanticAnswerCache.put(request, questionVector,
+                                                        new QaResponse(fullAnswer, references, "qwen-plus", latency),
+                                                        cacheGeneration);
+                                }
+                                qaMetrics.recordQa("stream", fullAnswer != null ? "success" : "error",
+                                                System.nanoTime() - start);
 
                         } catch (Exception e) {
+                                qaMetrics.recordQa("stream", "error", System.nanoTime() - start);
                                 log.error("流式问答处理失败", e);
                                 emitter.completeWithError(e);
                         }
@@ -139,4 +211,21 @@ public class QaServiceImpl implements QaService {
 
                 return emitter;
         }
+
+        /**
+         * 以与实时流相同的事件格式回放缓存的回答：先发引用，再按固定字符数分段发送正文。
+         */
+        private void replay(QaResponse response, SseEmitter emitter) throws IOException {
+                if (!response.references().isEmpty()) {
+                        emitter.send(SseEmitter.event()
+                                        .name("reference")
+                                        .data(response.references()));
+                }
+                String answer = response.answer();
+                int chunk = Math.max(1, answerCacheProperties.replayChunkChars());
+                for (int i = 0; i < answer.length(); i += chunk) {
+                        emitter.send(Map.of("content", answer.substring(i, Math.min(answer.length(), i + chunk))));
+                }
+                emitter.complete();
+        }
 }
@@ -1,54 +1,64 @@
 package com.ai.algorithmqa.service.impl;
 
-import com.ai.algorithmqa.domain.entity.SearchClickLog;
-import com.ai.algorithmqa.mapper.QaLogMapper;
-import com.ai.algorithmqa.mapper.SearchClickLogMapper;
 import com.ai.algorithmqa.service.StatsService;
+import com.ai.algorithmqa.service.stats.ClickAggregator;
+import com.ai.algorithmqa.service.stats.HeavyHitters;
+import com.ai.algorithmqa.service.stats.SpaceSaving;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
-import java.time.LocalDateTime;
 import java.util.HashMap;
 import java.util.List;
+import java.util.Locale;
 import java.util.Map;
 
 /**
- * 统计服务实现
+ * 统计服务实现：点击先进入 {@link ClickAggregator} 的内存计数并按分钟落库；
+ * 仪表板的热门问题与热门点击直接读 {@link HeavyHitters} 的内存摘要，不再扫描日志表。
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class StatsServiceImpl implements StatsService {
 
-    private final SearchClickLogMapper searchClickLogMapper;
-    private final QaLogMapper qaLogMapper;
+    private static final int TOP_N = 10;
+
+    private final ClickAggregator clickAggregator;
+    private final HeavyHitters heavyHitters;
 
     @Override
     public void logClick(Long topicId, String topicTitle) {
-        SearchClickLog logEntry = new SearchClickLog();
-        logEntry.setTopicId(topicId);
-        logEntry.setTopicTitle(topicTitle);
-        logEntry.setCreatedAt(LocalDateTime.now());
-        searchClickLogMapper.insert(logEntry);
+        clickAggregator.record(topicId, topicTitle);
+        heavyHitters.recordClick(topicTitle);
         log.debug("记录点击: topicId={}, topicTitle={}", topicId, topicTitle);
     }
 
     @Override
-    public Map<String, Object> getDashboardStats() {
+    public Map<String, Object> getDashboardStats(String window) {
+        HeavyHitters.Window range = HeavyHitters.Window.fromParam(window);
         Map<String, Object> stats = new HashMap<>();
+        stats.put("window", range.name().toLowerCase(Locale.ROOT));
 
         // 获取 Top 10 搜索问题
-        List<Map<String, Object>> topQuestions = qaLogMapper.selectTopQuestions(10);
+        List<Map<String, Object>> topQuestions = toRows(
+                heavyHitters.top(HeavyHitters.Dimension.QUESTIONS, range, TOP_N), "question");
         stats.put("topQuestions", topQuestions);
 
         // 获取 Top 10 点击算法
-        List<Map<String, Object>> topClicks = searchClickLogMapper.selectTopClicks(10);
+        List<Map<String, Object>> topClicks = toRows(
+                heavyHitters.top(HeavyHitters.Dimension.CLICKS, range, TOP_N), "title");
         stats.put("topClicks", topClicks);
 
-        log.info("获取统计数据: topQuestions={}, topClicks={}",
-                topQuestions.size(), topClicks.size());
+        log.info("获取统计数据: window={}, topQuestions={}, topClicks={}",
+                range, topQuestions.size(), topClicks.size());
 
         return stats;
     }
+
+    private static List<Map<String, Object>> toRows(List<SpaceSaving.Entry> entries, String keyName) {
+        return entries.stream()
+                .map(entry -> Map.<String, Object>of(keyName, entry.key(), "count", entry.count()))
+                .toList();
+    }
 }
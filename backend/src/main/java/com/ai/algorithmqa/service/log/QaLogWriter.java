@@ -0,0 +1,165 @@
+package com.ai.algorithmqa.service.log;
+
+import com.ai.algorithmqa.config.QaLogWriterProperties;
+import com.ai.algorithmqa.domain.entity.QaLog;
+import com.ai.algorithmqa.mapper.QaLogMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 问答日志的异步批量写入器：请求线程只把 {@link QaLog} 放进有界队列，
+ * 由单个后台线程攒批后调用 {@link QaLogMapper#insertBatch} 一次写入多行，回答返回前不再等待 MySQL。
+ * <p>
+ * 作为 {@link SmartLifecycle} 在数据源之后启动、之前停止：关闭应用时先停止接收，再把队列中剩余的日志全部写完。
+ * 写入失败只记录日志与计数，不重试，不影响问答本身。
+ */
+@Slf4j
+@Component
+public class QaLogWriter implements SmartLifecycle, MeterBinder {
+
+    private final QaLogMapper qaLogMapper;
+    private final QaLogWriterProperties properties;
+    private final BlockingQueue<QaLog> queue;
+    private final LongAdder written = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    private volatile boolean running;
+    private volatile Thread worker;
+    private Timer writeTimer;
+
+    public QaLogWriter(QaLogMapper qaLogMapper, QaLogWriterProperties properties) {
+        this.qaLogMapper = qaLogMapper;
+        this.properties = properties;
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, properties.queueCapacity()));
+    }
+
+    /**
+     * 提交一条日志；队列已满且按策略放弃时返回 false。
+     */
+    public boolean submit(QaLog entry) {
+        boolean accepted = queue.offer(entry);
+        if (!accepted && properties.overflow() == QaLogWriterProperties.Overflow.BLOCK) {
+            try {
+                accepted = queue.offer(entry, properties.blockTimeout().toMillis(), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (!accepted) {
+            dropped.increment();
+            log.warn("问答日志队列已满（容量 {}），丢弃一条日志", properties.queueCapacity());
+        }
+        return accepted;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        Thread thread = new Thread(this::drainLoop, "qa-log-writer");
+        thread.setDaemon(true);
+        worker = thread;
+        thread.start();
+        log.info("问答日志异步写入已启动 queueCapacity={}, batchSize={}, overflow={}",
+                properties.queueCapacity(), properties.batchSize(), properties.overflow());
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        Thread thread = worker;
+        if (thread != null) {
+            thread.interrupt();
+            try {
+                thread.join(TimeUnit.SECONDS.toMillis(10));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        // 工作线程退出后由当前线程把剩余日志写完
+        flushRemaining();
+        log.info("问答日志异步写入已停止 written={}, dropped={}, failed={}", written.sum(), dropped.sum(), failed.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void drainLoop() {
+        int batchSize = Math.max(1, properties.batchSize());
+        while (running) {
+            try {
+                QaLog first = queue.poll(properties.flushInterval().toMillis(), TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                // 每批新建列表：交给 mapper 后不再修改，异步实现或测试里捕获的参数都看到完整的一批
+                List<QaLog> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                write(batch);
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+    }
+
+    void flushRemaining() {
+        int batchSize = Math.max(1, properties.batchSize());
+        while (true) {
+            List<QaLog> batch = new ArrayList<>(batchSize);
+            if (queue.drainTo(batch, batchSize) == 0) {
+                return;
+            }
+            write(batch);
+        }
+    }
+
+    private void write(List<QaLog> batch) {
+        long start = System.nanoTime();
+        try {
+            qaLogMapper.insertBatch(batch);
+            written.add(batch.size());
+            log.debug("问答日志批量写入 rows={}", batch.size());
+        } catch (Exception e) {
+            failed.add(batch.size());
+            log.error("问答日志批量写入失败 rows={}: {}", batch.size(), e.getMessage());
+        } finally {
+            if (writeTimer != null) {
+                writeTimer.record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            }
+        }
+    }
+
+    public int queueDepth() {
+        return queue.size();
+    }
+
+    public long droppedCount() {
+        return dropped.sum();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("qa.log.queue.depth", queue, BlockingQueue::size).register(registry);
+        Gauge.builder("qa.log.queue.capacity", properties, QaLogWriterProperties::queueCapacity).register(registry);
+        FunctionCounter.builder("qa.log.rows", written, LongAdder::sum).tag("result", "written").register(registry);
+        FunctionCounter.builder("qa.log.rows", dropped, LongAdder::sum).tag("result", "dropped").register(registry);
+        FunctionCounter.builder("qa.log.rows", failed, LongAdder::sum).tag("result", "failed").register(registry);
+        writeTimer = Timer.builder("qa.log.write.latency").description("单次批量 INSERT 耗时").register(registry);
+    }
+}
@@ -0,0 +1,129 @@
+package com.ai.algorithmqa.service.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 问答热路径的指标：问答总耗时、检索耗时与候选数、查询 embedding 耗时与回退次数、
+ * 大模型调用耗时、首 token 延迟、流式总时长与输出速率。
+ * <p>
+ * 耗时类指标都发布百分位直方图（Prometheus 的 _bucket 序列），P95/P99 在 Prometheus 端用
+ * histogram_quantile 跨实例聚合；错误率由 outcome 标签区分，按 rate 相除即可。
+ * 方法只接收已测得的数值，不返回 Timer.Sample 之类的对象，调用方改动最小。
+ */
+@Component
+public class QaMetrics {
+
+    private static final Duration MIN_LATENCY = Duration.ofMillis(1);
+    private static final Duration MAX_REMOTE_LATENCY = Duration.ofSeconds(30);
+    private static final Duration MAX_STREAM_DURATION = Duration.ofMinutes(5);
+
+    private final Meter.MeterProvider<Timer> qaRequests;
+    private final Timer retrievalSearches;
+    private final DistributionSummary retrievalCandidates;
+    private final Meter.MeterProvider<Counter> retrievalDegraded;
+    private final Meter.MeterProvider<Timer> embeddingRequests;
+    private final Meter.MeterProvider<Counter> embeddingFallbacks;
+    private final Meter.MeterProvider<Timer> llmCalls;
+    private final Timer llmTimeToFirstToken;
+    private final DistributionSummary llmTokensPerSecond;
+
+    public QaMetrics(MeterRegistry registry) {
+        this.qaRequests = Timer.builder("qa.request.duration")
+                .description("问答请求总耗时（mode=sync/stream，outcome=success/cache_hit/error）")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_LATENCY)
+                .maximumExpectedValue(MAX_STREAM_DURATION)
+                .withRegistry(registry);
+        this.retrievalSearches = Timer.builder("retrieval.search.duration")
+                .description("知识检索耗时，含查询 embedding、索引检索与主题标题查询")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_LATENCY)
+                .maximumExpectedValue(MAX_REMOTE_LATENCY)
+                .register(registry);
+        this.retrievalCandidates = DistributionSummary.builder("retrieval.search.candidates")
+                .description("单次检索融合排序后的候选片段数")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(256.0)
+                .register(registry);
+        this.retrievalDegraded = Counter.builder("retrieval.stage.degraded")
+                .description("检索阶段超时或失败后降级的次数")
+                .withRegistry(registry);
+        this.embeddingRequests = Timer.builder("embedding.request.duration")
+                .description("DashScope embedding 单次 HTTP 请求耗时（outcome=success/error）")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_LATENCY)
+                .maximumExpectedValue(MAX_REMOTE_LATENCY)
+                .withRegistry(registry);
+        this.embeddingFallbacks = Counter.builder("embedding.fallback")
+                .description("使用本地伪向量的文本条数（reason=no_key/error/missing）")
+                .withRegistry(registry);
+        this.llmCalls = Timer.builder("llm.call.duration")
+                .description("大模型调用耗时，流式为从发出请求到读完最后一个事件（mode=sync/stream，outcome=success/error/mock）")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_LATENCY)
+                .maximumExpectedValue(MAX_STREAM_DURATION)
+                .withRegistry(registry);
+        this.llmTimeToFirstToken = Timer.builder("llm.stream.time.to.first.token")
+                .description("流式调用从发出请求到收到第一段内容的耗时")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(MIN_LATENCY)
+                .maximumExpectedValue(MAX_REMOTE_LATENCY)
+                .register(registry);
+        this.llmTokensPerSecond = DistributionSummary.builder("llm.stream.tokens.per.second")
+                .description("流式输出速率：输出 token 数 / 首 token 之后的生成时长")
+                .baseUnit("tokens/s")
+                .publishPercentileHistogram()
+                .minimumExpectedValue(1.0)
+                .maximumExpectedValue(500.0)
+                .register(registry);
+    }
+
+    public void recordQa(String mode, String outcome, long nanos) {
+        qaRequests.withTags("mode", mode, "outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRetrieval(long nanos, int candidates) {
+        retrievalSearches.record(nanos, TimeUnit.NANOSECONDS);
+        retrievalCandidates.record(candidates);
+    }
+
+    public void recordRetrievalDegraded(String stage) {
+        retrievalDegraded.withTag("stage", stage).increment();
+    }
+
+    public void recordEmbeddingRequest(boolean success, long nanos) {
+        embeddingRequests.withTag("outcome", success ? "success" : "error").record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordEmbeddingFallback(String reason, int texts) {
+        embeddingFallbacks.withTag("reason", reason).increment(texts);
+    }
+
+    public void recordLlmCall(String mode, String outcome, long nanos) {
+        llmCalls.withTags("mode", mode, "outcome", outcome).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * @param firstTokenNanos 首段内容到达的耗时，未收到任何内容时为负数
+     * @param outputTokens    服务端 usage.output_tokens，未返回时为 0
+     */
+    public void recordLlmStream(long firstTokenNanos, long totalNanos, long outputTokens) {
+        if (firstTokenNanos < 0) {
+            return;
+        }
+        llmTimeToFirstToken.record(firstTokenNanos, TimeUnit.NANOSECONDS);
+        long generationNanos = totalNanos - firstTokenNanos;
+        if (outputTokens > 0 && generationNanos > 0) {
+            llmTokensPerSecond.record(outputTokens * 1_000_000_000.0 / generationNanos);
+        }
+    }
+}
@@ -0,0 +1,226 @@
+package com.ai.algorithmqa.service.stats;
+
+import com.ai.algorithmqa.config.ClickStatsProperties;
+import com.ai.algorithmqa.domain.entity.SearchClickLog;
+import com.ai.algorithmqa.domain.entity.TopicClickRollup;
+import com.ai.algorithmqa.mapper.SearchClickLogMapper;
+import com.ai.algorithmqa.mapper.TopicClickRollupMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 点击计数的内存聚合层：每次点击只对 (主题, 分钟) 桶里的 {@link LongAdder} 加一，
+ * 后台线程定期把各桶自上次刷新以来的增量合成一条多行 upsert 写入 topic_click_rollup，
+ * 写库次数从“每次点击一次”降为“每个刷新周期一次”。
+ * <p>
+ * 桶内记录已写入的累计值而不是读后清零，因此刷新与计数并发时不会丢点击；写库失败时增量保留到下次重试。
+ * 已结束分钟的桶在增量写完后移除。开启原始事件记录时，点击同时进入有界队列，随刷新批量写入 search_click_log。
+ * 关闭应用时停止调度并做最后一次刷新。
+ */
+@Slf4j
+@Component
+public class ClickAggregator implements SmartLifecycle, MeterBinder {
+
+    private final TopicClickRollupMapper rollupMapper;
+    private final SearchClickLogMapper clickLogMapper;
+    private final ClickStatsProperties properties;
+    private final Clock clock;
+    private final Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+    private final BlockingQueue<SearchClickLog> rawEvents;
+    private final LongAdder recorded = new LongAdder();
+    private final LongAdder flushedClicks = new LongAdder();
+    private final LongAdder droppedRawEvents = new LongAdder();
+
+    private volatile ScheduledExecutorService scheduler;
+
+    private record BucketKey(long topicId, LocalDateTime minute) {
+    }
+
+    private static final class Bucket {
+        private final LongAdder count = new LongAdder();
+        private volatile String title;
+        // 只由刷新线程读写
+        private long flushed;
+
+        private Bucket(String title) {
+            this.title = title;
+        }
+    }
+
+    @Autowired
+    public ClickAggregator(TopicClickRollupMapper rollupMapper, SearchClickLogMapper clickLogMapper,
+                           ClickStatsProperties properties) {
+        this(rollupMapper, clickLogMapper, properties, Clock.systemDefaultZone());
+    }
+
+    ClickAggregator(TopicClickRollupMapper rollupMapper, SearchClickLogMapper clickLogMapper,
+                    ClickStatsProperties properties, Clock clock) {
+        this.rollupMapper = rollupMapper;
+        this.clickLogMapper = clickLogMapper;
+        this.properties = properties;
+        this.clock = clock;
+        this.rawEvents = new ArrayBlockingQueue<>(Math.max(1, properties.rawQueueCapacity()));
+    }
+
+    public void record(Long topicId, String topicTitle) {
+        if (topicId == null) {
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now(clock);
+        Bucket bucket = buckets.computeIfAbsent(new BucketKey(topicId, now.truncatedTo(ChronoUnit.MINUTES)),
+                key -> new Bucket(topicTitle));
+        bucket.count.increment();
+        if (topicTitle != null) {
+            bucket.title = topicTitle;
+        }
+        recorded.increment();
+
+        if (properties.rawLogEnabled()) {
+            SearchClickLog event = new SearchClickLog();
+            event.setTopicId(topicId);
+            event.setTopicTitle(topicTitle);
+            event.setCreatedAt(now);
+            if (!rawEvents.offer(event)) {
+                droppedRawEvents.increment();
+            }
+        }
+    }
+
+    /**
+     * 写出所有桶的增量；只应由调度线程或关闭流程调用。
+     */
+    synchronized void flush() {
+        flushRollups();
+        flushRawEvents();
+    }
+
+    private void flushRollups() {
+        LocalDateTime currentMinute = LocalDateTime.now(clock).truncatedTo(ChronoUnit.MINUTES);
+        List<Map.Entry<BucketKey, Bucket>> pending = new ArrayList<>();
+        List<Long> totals = new ArrayList<>();
+        List<TopicClickRollup> rows = new ArrayList<>();
+        for (Map.Entry<BucketKey, Bucket> entry : buckets.entrySet()) {
+            Bucket bucket = entry.getValue();
+            long total = bucket.count.sum();
+            long delta = total - bucket.flushed;
+            if (delta > 0) {
+                TopicClickRollup row = new TopicClickRollup();
+                row.setTopicId(entry.getKey().topicId());
+                row.setBucketMinute(entry.getKey().minute());
+                row.setTopicTitle(bucket.title == null ? "" : bucket.title);
+                row.setClickCount(delta);
+                rows.add(row);
+                pending.add(entry);
+                totals.add(total);
+            } else if (entry.getKey().minute().isBefore(currentMinute)) {
+                // 已结束且没有未写增量的分钟桶
+                buckets.remove(entry.getKey(), bucket);
+            }
+        }
+        if (rows.isEmpty()) {
+            return;
+        }
+        int batchSize = Math.max(1, properties.batchSize());
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            int to = Math.min(rows.size(), from + batchSize);
+            try {
+                rollupMapper.upsertBatch(rows.subList(from, to));
+            } catch (Exception e) {
+                log.error("点击聚合写入失败 rows={}，增量保留到下次刷新: {}", to - from, e.getMessage());
+                return;
+            }
+            for (int i = from; i < to; i++) {
+                pending.get(i).getValue().flushed = totals.get(i);
+                flushedClicks.add(rows.get(i).getClickCount());
+            }
+        }
+        log.debug("点击聚合刷新 rows={}", rows.size());
+    }
+
+    private void flushRawEvents() {
+        int batchSize = Math.max(1, properties.batchSize());
+        List<SearchClickLog> batch = new ArrayList<>(batchSize);
+        while (rawEvents.drainTo(batch, batchSize) > 0) {
+            try {
+                clickLogMapper.insertBatch(batch);
+            } catch (Exception e) {
+                log.error("原始点击事件写入失败 rows={}: {}", batch.size(), e.getMessage());
+            }
+            batch.clear();
+        }
+    }
+
+    @Override
+    public void start() {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "click-aggregator");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = properties.flushInterval().toMillis();
+        executor.scheduleWithFixedDelay(() -> {
+            try {
+                flush();
+            } catch (Exception e) {
+                log.error("点击聚合刷新异常", e);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+        scheduler = executor;
+        log.info("点击聚合已启动 flushInterval={}, rawLogEnabled={}", properties.flushInterval(),
+                properties.rawLogEnabled());
+    }
+
+    @Override
+    public void stop() {
+        ScheduledExecutorService executor = scheduler;
+        scheduler = null;
+        if (executor != null) {
+            executor.shutdown();
+            try {
+                executor.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        flush();
+        log.info("点击聚合已停止 recorded={}, flushed={}", recorded.sum(), flushedClicks.sum());
+    }
+
+    @Override
+    public boolean isRunning() {
+        return scheduler != null;
+    }
+
+    public int bucketCount() {
+        return buckets.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("stats.click.recorded", recorded, LongAdder::sum).register(registry);
+        FunctionCounter.builder("stats.click.flushed", flushedClicks, LongAdder::sum).register(registry);
+        FunctionCounter.builder("stats.click.raw.dropped", droppedRawEvents, LongAdder::sum).register(registry);
+        Gauge.builder("stats.click.buckets", buckets, Map::size).register(registry);
+        Gauge.builder("stats.click.raw.queue.depth", rawEvents, BlockingQueue::size).register(registry);
+    }
+}
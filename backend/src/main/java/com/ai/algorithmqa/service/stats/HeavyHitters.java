@@ -0,0 +1,344 @@
+package com.ai.algorithmqa.service.stats;
+
+import com.ai.algorithmqa.common.QuestionFingerprint;
+import com.ai.algorithmqa.config.TopNProperties;
+import com.ai.algorithmqa.mapper.QaLogMapper;
+import com.ai.algorithmqa.mapper.TopicClickRollupMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * 仪表板的热门问题 / 热门点击：问题与点击到达时增量更新内存中的 Space-Saving 摘要，
+ * 查询不再对 qa_log / search_click_log 做全表 GROUP BY，耗时与日志行数无关。
+ * <p>
+ * 每个维度维护一个全量摘要和最近一小时 / 一天 / 一周三个滑动窗口（{@link WindowedTopN}）。
+ * 摘要定期以 JSON 写入检查点文件，重启后恢复；首次启动没有检查点时，可用数据库的全量统计初始化全量摘要。
+ * <p>
+ * 热门问题按问题指纹（{@link QuestionFingerprint#hash}）计数，另为每个指纹记一条最近的原始问法用于展示，
+ * 与数据库初始化时“每个指纹取最近一条原文”的口径一致。
+ */
+@Slf4j
+@Component
+public class HeavyHitters implements SmartLifecycle {
+
+    /**
+     * 统计维度
+     */
+    public enum Dimension {
+        QUESTIONS,
+        CLICKS
+    }
+
+    /**
+     * 时间窗口，ALL 为启动以来（含检查点与初始化数据）的全量
+     */
+    public enum Window {
+        HOUR(Duration.ofMinutes(5), 12),
+        DAY(Duration.ofHours(1), 24),
+        WEEK(Duration.ofHours(6), 28),
+        ALL(null, 0);
+
+        private final Duration slot;
+        private final int slots;
+
+        Window(Duration slot, int slots) {
+            this.slot = slot;
+            this.slots = slots;
+        }
+
+        public static Window fromParam(String value) {
+            if (value == null || value.isBlank()) {
+                return ALL;
+            }
+            try {
+                return Window.valueOf(value.trim().toUpperCase(Locale.ROOT));
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("不支持的时间窗口: " + value + "，可选 hour / day / week / all");
+            }
+        }
+    }
+
+    private record DimensionSnapshot(List<SpaceSaving.Entry> all,
+                                     Map<Window, List<WindowedTopN.SlotSnapshot>> windows) {
+    }
+
+    /**
+     * @param questionLabels 问题指纹 → 最近一条原始问法
+     */
+    private record Checkpoint(long savedAt, Map<Dimension, DimensionSnapshot> dimensions,
+                              Map<String, String> questionLabels) {
+    }
+
+    private final class Tracker {
+        private final SpaceSaving all = new SpaceSaving(properties.capacity());
+        private final Map<Window, WindowedTopN> windows = new EnumMap<>(Window.class);
+
+        private Tracker() {
+            for (Window window : Window.values()) {
+                if (window.slot != null) {
+                    windows.put(window, new WindowedTopN(window.slot.toMillis(), window.slots, properties.capacity()));
+                }
+            }
+        }
+    }
+
+    private final TopNProperties properties;
+    private final QaLogMapper qaLogMapper;
+    private final TopicClickRollupMapper topicClickRollupMapper;
+    private final LongSupplier clock;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Map<Dimension, Tracker> trackers = new EnumMap<>(Dimension.class);
+    /**
+     * 问题指纹 → 最近一条原始问法。被所有摘要淘汰的指纹在超过上限时批量清理，大小与摘要容量同阶
+     */
+    private final Map<String, String> questionLabels = new HashMap<>();
+    private int questionLabelLimit;
+
+    private volatile ScheduledExecutorService scheduler;
+    private volatile boolean running;
+
+    @Autowired
+    public HeavyHitters(TopNProperties properties, QaLogMapper qaLogMapper,
+                        TopicClickRollupMapper topicClickRollupMapper) {
+        this(properties, qaLogMapper, topicClickRollupMapper, System::currentTimeMillis);
+    }
+
+    HeavyHitters(TopNProperties properties, QaLogMapper qaLogMapper,
+                 TopicClickRollupMapper topicClickRollupMapper, LongSupplier clock) {
+        this.properties = properties;
+        this.qaLogMapper = qaLogMapper;
+        this.topicClickRollupMapper = topicClickRollupMapper;
+        this.clock = clock;
+        for (Dimension dimension : Dimension.values()) {
+            trackers.put(dimension, new Tracker());
+        }
+        this.questionLabelLimit = 2 * properties.capacity();
+    }
+
+    /**
+     * 问题按指纹计数，标点、全半角、大小写不同的问法合并统计；展示时用该指纹最近一次的原始问法。
+     */
+    public void recordQuestion(String question) {
+        if (QuestionFingerprint.normalize(question).isEmpty()) {
+            return;
+        }
+        String key = questionKey(question);
+        synchronized (this) {
+            labelQuestion(key, question.strip());
+            record(Dimension.QUESTIONS, key);
+        }
+    }
+
+    public void recordClick(String topicTitle) {
+        if (topicTitle != null && !topicTitle.isBlank()) {
+            record(Dimension.CLICKS, topicTitle);
+        }
+    }
+
+    private synchronized void record(Dimension dimension, String key) {
+        Tracker tracker = trackers.get(dimension);
+        long now = clock.getAsLong();
+        tracker.all.offer(key);
+        tracker.windows.values().forEach(window -> window.record(key, now));
+    }
+
+    /**
+     * @return 估计次数最高的 n 项；问题维度的 key 为展示用的原始问法
+     */
+    public synchronized List<SpaceSaving.Entry> top(Dimension dimension, Window window, int n) {
+        Tracker tracker = trackers.get(dimension);
+        List<SpaceSaving.Entry> top = window == Window.ALL
+                ? tracker.all.top(n) : tracker.windows.get(window).top(n, clock.getAsLong());
+        if (dimension != Dimension.QUESTIONS) {
+            return top;
+        }
+        return top.stream()
+                .map(entry -> new SpaceSaving.Entry(questionLabels.getOrDefault(entry.key(), entry.key()),
+                        entry.count(), entry.error()))
+                .toList();
+    }
+
+    synchronized int questionLabelCount() {
+        return questionLabels.size();
+    }
+
+    private static String questionKey(String question) {
+        return Long.toString(QuestionFingerprint.hash(question));
+    }
+
+    private void labelQuestion(String key, String question) {
+        questionLabels.put(key, question);
+        if (questionLabels.size() > questionLabelLimit) {
+            pruneQuestionLabels();
+        }
+    }
+
+    /**
+     * 只保留仍被全量摘要或某个未过期窗口跟踪的指纹；上限随之放宽到存活数的两倍，清理的摊还开销为常数
+     */
+    private void pruneQuestionLabels() {
+        Tracker tracker = trackers.get(Dimension.QUESTIONS);
+        long now = clock.getAsLong();
+        Set<String> live = new HashSet<>();
+        tracker.all.entries().forEach(entry -> live.add(entry.key()));
+        tracker.windows.values().forEach(window -> window.snapshot(now)
+                .forEach(slot -> slot.entries().forEach(entry -> live.add(entry.key()))));
+        questionLabels.keySet().retainAll(live);
+        questionLabelLimit = Math.max(2 * properties.capacity(), 2 * questionLabels.size());
+    }
+
+    @Override
+    public void start() {
+        if (!restoreCheckpoint() && properties.seedFromDatabase()) {
+            seedFromDatabase();
+        }
+        Path file = checkpointFile();
+        if (file != null) {
+            ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "top-n-checkpoint");
+                thread.setDaemon(true);
+                return thread;
+            });
+            long interval = properties.checkpointInterval().toMillis();
+            executor.scheduleWithFixedDelay(this::checkpoint, interval, interval, TimeUnit.MILLISECONDS);
+            scheduler = executor;
+        }
+        running = true;
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        ScheduledExecutorService executor = scheduler;
+        scheduler = null;
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+        checkpoint();
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * 先写临时文件再原子替换，写入中途宕机不会留下半个文件。
+     */
+    void checkpoint() {
+        Path file = checkpointFile();
+        if (file == null) {
+            return;
+        }
+        Checkpoint checkpoint;
+        synchronized (this) {
+            long now = clock.getAsLong();
+            Map<Dimension, DimensionSnapshot> dimensions = new EnumMap<>(Dimension.class);
+            trackers.forEach((dimension, tracker) -> {
+                Map<Window, List<WindowedTopN.SlotSnapshot>> windows = new EnumMap<>(Window.class);
+                tracker.windows.forEach((window, topN) -> windows.put(window, topN.snapshot(now)));
+                dimensions.put(dimension, new DimensionSnapshot(tracker.all.entries(), windows));
+            });
+            checkpoint = new Checkpoint(now, dimensions, new HashMap<>(questionLabels));
+        }
+        try {
+            Path parent = file.toAbsolutePath().getParent();
+            if (parent != null) {
+                Files.createDirectories(parent);
+            }
+            Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), checkpoint);
+            Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            log.debug("Top-N 检查点已写入 file={}", file);
+        } catch (IOException e) {
+            log.warn("写入 Top-N 检查点失败 file={}: {}", file, e.getMessage());
+        }
+    }
+
+    private boolean restoreCheckpoint() {
+        Path file = checkpointFile();
+        if (file == null || !Files.isRegularFile(file)) {
+            return false;
+        }
+        try {
+            Checkpoint checkpoint = objectMapper.readValue(file.toFile(), Checkpoint.class);
+            synchronized (this) {
+                long now = clock.getAsLong();
+                checkpoint.dimensions().forEach((dimension, snapshot) -> {
+                    Tracker tracker = trackers.get(dimension);
+                    snapshot.all().forEach(entry -> tracker.all.offer(entry.key(), entry.count(), entry.error()));
+                    snapshot.windows().forEach((window, slots) -> {
+                        WindowedTopN topN = tracker.windows.get(window);
+                        if (topN != null) {
+                            topN.restore(slots, now);
+                        }
+                    });
+                });
+                if (checkpoint.questionLabels() != null) {
+                    questionLabels.putAll(checkpoint.questionLabels());
+                }
+                pruneQuestionLabels();
+            }
+            log.info("Top-N 已从检查点恢复 file={}", file);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            log.warn("读取 Top-N 检查点失败，忽略 file={}: {}", file, e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * 一次性用数据库全量统计初始化全量摘要；时间窗口从零开始累计。
+     * 数据库已按指纹分组并给出每组最近一条原文，这里据此建立指纹与展示问法。
+     */
+    private void seedFromDatabase() {
+        try {
+            List<Map<String, Object>> questions = qaLogMapper.selectTopQuestions(properties.capacity());
+            List<Map<String, Object>> clicks = topicClickRollupMapper.selectTopClicks(properties.capacity());
+            synchronized (this) {
+                questions.forEach(row -> {
+                    if (row.get("question") instanceof String question && !question.isBlank()) {
+                        String key = questionKey(question);
+                        questionLabels.put(key, question.strip());
+                        seed(Dimension.QUESTIONS, key, row.get("count"));
+                    }
+                });
+                clicks.forEach(row -> seed(Dimension.CLICKS, row.get("title"), row.get("count")));
+            }
+            log.info("Top-N 已用数据库统计初始化 questions={}, clicks={}", questions.size(), clicks.size());
+        } catch (Exception e) {
+            log.warn("用数据库统计初始化 Top-N 失败，从空摘要开始: {}", e.getMessage());
+        }
+    }
+
+    private void seed(Dimension dimension, Object key, Object count) {
+        if (key != null && count instanceof Number number) {
+            trackers.get(dimension).all.offer(key.toString(), number.longValue(), 0);
+        }
+    }
+
+    private Path checkpointFile() {
+        String file = properties.checkpointFile();
+        return file == null || file.isBlank() ? null : Path.of(file);
+    }
+}
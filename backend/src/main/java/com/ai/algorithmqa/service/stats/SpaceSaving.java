@@ -0,0 +1,113 @@
+package com.ai.algorithmqa.service.stats;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+/**
+ * Space-Saving 重频项（heavy hitters）摘要：最多跟踪 capacity 个键，内存与流长度无关。
+ * <p>
+ * 新键到来且已满时替换当前计数最小的键，并继承它的计数作为误差上界：
+ * 任一键的真实次数落在 [count - error, count] 内，真实次数超过 N / capacity 的键一定在摘要中。
+ * 计数按 (count, 插入序号) 排在 TreeSet 中，更新与淘汰均为 O(log capacity)。非线程安全，由调用方加锁。
+ */
+public class SpaceSaving {
+
+    private static final Comparator<Counter> ORDER = Comparator.<Counter>comparingLong(c -> c.count)
+            .thenComparingLong(c -> c.seq);
+
+    private final int capacity;
+    private final Map<String, Counter> counters = new HashMap<>();
+    private final TreeSet<Counter> ordered = new TreeSet<>(ORDER);
+    private long nextSeq;
+
+    /**
+     * 某个键的估计次数与误差上界
+     */
+    public record Entry(String key, long count, long error) {
+    }
+
+    private static final class Counter {
+        private final String key;
+        private long count;
+        private long error;
+        private long seq;
+
+        private Counter(String key) {
+            this.key = key;
+        }
+    }
+
+    public SpaceSaving(int capacity) {
+        this.capacity = Math.max(1, capacity);
+    }
+
+    public void offer(String key) {
+        offer(key, 1, 0);
+    }
+
+    /**
+     * 按权重累加；error 用于合并或恢复已有摘要时带上原误差。
+     */
+    public void offer(String key, long count, long error) {
+        if (key == null || count <= 0) {
+            return;
+        }
+        Counter counter = counters.get(key);
+        if (counter != null) {
+            ordered.remove(counter);
+        } else if (counters.size() < capacity) {
+            counter = new Counter(key);
+            counters.put(key, counter);
+        } else {
+            Counter min = ordered.pollFirst();
+            counters.remove(min.key);
+            counter = new Counter(key);
+            counter.count = min.count;
+            counter.error = min.count;
+            counters.put(key, counter);
+        }
+        counter.count += count;
+        counter.error += error;
+        counter.seq = nextSeq++;
+        ordered.add(counter);
+    }
+
+    /**
+     * 把本摘要的全部计数合并进 target
+     */
+    public void mergeInto(SpaceSaving target) {
+        for (Counter counter : ordered) {
+            target.offer(counter.key, counter.count, counter.error);
+        }
+    }
+
+    /**
+     * @return 估计次数最高的 n 个键，按次数降序
+     */
+    public List<Entry> top(int n) {
+        List<Entry> result = new ArrayList<>(Math.min(n, ordered.size()));
+        Iterator<Counter> iterator = ordered.descendingIterator();
+        while (iterator.hasNext() && result.size() < n) {
+            Counter counter = iterator.next();
+            result.add(new Entry(counter.key, counter.count, counter.error));
+        }
+        return result;
+    }
+
+    public List<Entry> entries() {
+        return top(ordered.size());
+    }
+
+    public int size() {
+        return counters.size();
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+}
@@ -0,0 +1,83 @@
+package com.ai.algorithmqa.service.stats;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * 滑动时间窗口内的 Top-N：窗口切成 slots 个长度为 slotMillis 的槽，每槽一个 {@link SpaceSaving}，
+ * 环形复用——写入时若槽已过期就换成新的摘要。查询时把仍在窗口内的槽合并成一个摘要再取 Top-N，
+ * 耗时只与 slots × capacity 有关。窗口边界以槽为粒度，最旧的槽逐槽整体滑出。非线程安全，由调用方加锁。
+ */
+public class WindowedTopN {
+
+    private final long slotMillis;
+    private final int capacity;
+    private final long[] slotStarts;
+    private final SpaceSaving[] summaries;
+
+    /**
+     * 用于检查点的槽快照
+     */
+    public record SlotSnapshot(long start, List<SpaceSaving.Entry> entries) {
+    }
+
+    public WindowedTopN(long slotMillis, int slots, int capacity) {
+        this.slotMillis = slotMillis;
+        this.capacity = capacity;
+        this.slotStarts = new long[slots];
+        this.summaries = new SpaceSaving[slots];
+        Arrays.fill(slotStarts, Long.MIN_VALUE);
+    }
+
+    public void record(String key, long now) {
+        slotFor(now).offer(key);
+    }
+
+    public List<SpaceSaving.Entry> top(int n, long now) {
+        SpaceSaving merged = new SpaceSaving(capacity);
+        long oldest = slotStart(now) - (long) (summaries.length - 1) * slotMillis;
+        for (int i = 0; i < summaries.length; i++) {
+            if (summaries[i] != null && slotStarts[i] >= oldest) {
+                summaries[i].mergeInto(merged);
+            }
+        }
+        return merged.top(n);
+    }
+
+    public List<SlotSnapshot> snapshot(long now) {
+        long oldest = slotStart(now) - (long) (summaries.length - 1) * slotMillis;
+        List<SlotSnapshot> slots = new ArrayList<>();
+        for (int i = 0; i < summaries.length; i++) {
+            if (summaries[i] != null && slotStarts[i] >= oldest) {
+                slots.add(new SlotSnapshot(slotStarts[i], summaries[i].entries()));
+            }
+        }
+        return slots;
+    }
+
+    public void restore(List<SlotSnapshot> slots, long now) {
+        long oldest = slotStart(now) - (long) (summaries.length - 1) * slotMillis;
+        for (SlotSnapshot slot : slots) {
+            if (slot.start() < oldest || slot.start() > now || slot.start() % slotMillis != 0) {
+                continue;
+            }
+            SpaceSaving summary = slotFor(slot.start());
+            slot.entries().forEach(entry -> summary.offer(entry.key(), entry.count(), entry.error()));
+        }
+    }
+
+    private SpaceSaving slotFor(long time) {
+        long start = slotStart(time);
+        int index = (int) Math.floorMod(start / slotMillis, (long) summaries.length);
+        if (summaries[index] == null || slotStarts[index] != start) {
+            summaries[index] = new SpaceSaving(capacity);
+            slotStarts[index] = start;
+        }
+        return summaries[index];
+    }
+
+    private long slotStart(long time) {
+        return Math.floorDiv(time, slotMillis) * slotMillis;
+    }
+}
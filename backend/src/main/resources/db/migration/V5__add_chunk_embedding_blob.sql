@@ -0,0 +1,3 @@
+-- knowledge_chunk 的 embedding 改为二进制存储（小端 float32/float16/int8，格式见 EmbeddingCodec）
+-- 旧数据由应用启动时的 EmbeddingStorageMigration 从 embedding_json 迁移，迁移完成后 embedding_json 会被置空
+ALTER TABLE knowledge_chunk ADD COLUMN embedding BLOB NULL AFTER embedding_json;
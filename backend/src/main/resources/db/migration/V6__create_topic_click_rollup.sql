@@ -0,0 +1,19 @@
+-- 点击按主题、按分钟聚合，由 ClickAggregator 定期以增量 upsert 写入，仪表板从这里读取
+CREATE TABLE IF NOT EXISTS topic_click_rollup (
+    topic_id BIGINT NOT NULL,
+    bucket_minute DATETIME NOT NULL,
+    topic_title VARCHAR(255) NOT NULL,
+    click_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (topic_id, bucket_minute),
+    INDEX idx_bucket_minute (bucket_minute)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='算法点击按分钟聚合';
+
+-- 把已有的原始点击日志汇总进聚合表
+INSERT INTO topic_click_rollup (topic_id, bucket_minute, topic_title, click_count)
+SELECT topic_id,
+       DATE_FORMAT(created_at, '%Y-%m-%d %H:%i:00'),
+       MAX(topic_title),
+       COUNT(*)
+FROM search_click_log
+GROUP BY topic_id, DATE_FORMAT(created_at, '%Y-%m-%d %H:%i:00')
+ON DUPLICATE KEY UPDATE click_count = VALUES(click_count);
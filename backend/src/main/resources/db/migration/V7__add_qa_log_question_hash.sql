@@ -0,0 +1,4 @@
+-- qa_log 增加规范化问题指纹（见 QuestionFingerprint），热门问题统计按指纹在索引上分组
+-- 历史数据由应用启动时的 QuestionHashBackfill 回填
+ALTER TABLE qa_log ADD COLUMN question_hash BIGINT NULL COMMENT '规范化问题的 64 位指纹' AFTER question;
+CREATE INDEX idx_question_hash ON qa_log (question_hash);
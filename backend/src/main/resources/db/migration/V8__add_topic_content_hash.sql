@@ -0,0 +1,4 @@
+-- knowledge_topic 增加导入内容哈希（见 ContentHash），DataBootstrap 据此跳过未变化的示例主题、只重导有变化的
+-- 历史数据为空，DataBootstrap 首次遇到时直接记录当前哈希而不重导
+ALTER TABLE knowledge_topic ADD COLUMN content_hash CHAR(64) NULL COMMENT '导入内容的 SHA-256，示例数据增量导入时比对' AFTER tags;
+CREATE INDEX idx_topic_title ON knowledge_topic (title);
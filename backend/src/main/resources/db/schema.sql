@@ -6,8 +6,10 @@ CREATE TABLE IF NOT EXISTS knowledge_topic (
     keywords VARCHAR(512),
     difficulty_level INT,
     tags VARCHAR(255),
+    content_hash CHAR(64) NULL COMMENT '导入内容的 SHA-256，示例数据增量导入时比对',
     created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
-    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP
+    updated_at DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    INDEX idx_topic_title (title)
 );
 
 CREATE TABLE IF NOT EXISTS algorithm_detail (
@@ -31,6 +33,7 @@ CREATE TABLE IF NOT EXISTS knowledge_chunk (
     content TEXT,
     keywords VARCHAR(255),
     embedding_json MEDIUMTEXT,
+    embedding BLOB,
     FULLTEXT KEY idx_chunk_content (content),
     CONSTRAINT fk_chunk_topic FOREIGN KEY (topic_id) REFERENCES knowledge_topic (id) ON DELETE CASCADE
 );
@@ -38,11 +41,13 @@ CREATE TABLE IF NOT EXISTS knowledge_chunk (
 CREATE TABLE IF NOT EXISTS qa_log (
     id BIGINT PRIMARY KEY AUTO_INCREMENT,
     question TEXT,
+    question_hash BIGINT NULL COMMENT '规范化问题的 64 位指纹',
     answer MEDIUMTEXT,
     reference_summary MEDIUMTEXT,
     latency_ms BIGINT,
     model VARCHAR(64),
-    created_at DATETIME DEFAULT CURRENT_TIMESTAMP
+    created_at DATETIME DEFAULT CURRENT_TIMESTAMP,
+    INDEX idx_question_hash (question_hash)
 );
 
 CREATE TABLE IF NOT EXISTS admin_user (
@@ -65,3 +70,12 @@ CREATE TABLE IF NOT EXISTS search_click_log (
                                                 INDEX idx_created_at (created_at)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='算法点击统计日志';
 
+-- 点击按主题、按分钟聚合，由 ClickAggregator 定期以增量 upsert 写入，仪表板从这里读取
+CREATE TABLE IF NOT EXISTS topic_click_rollup (
+    topic_id BIGINT NOT NULL,
+    bucket_minute DATETIME NOT NULL,
+    topic_title VARCHAR(255) NOT NULL,
+    click_count BIGINT NOT NULL DEFAULT 0,
+    PRIMARY KEY (topic_id, bucket_minute),
+    INDEX idx_bucket_minute (bucket_minute)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COMMENT='算法点击按分钟聚合';
@@ -0,0 +1,82 @@
+package com.ai.algorithmqa.common;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class BoundedVirtualThreadExecutorTest {
+
+    @Test
+    void saturatedExecutorShouldRejectAfterTimeoutAndReportInFlight() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (BoundedVirtualThreadExecutor executor =
+                     new BoundedVirtualThreadExecutor("test-stream", 2, Duration.ofMillis(50))) {
+            executor.bindTo(registry);
+            CountDownLatch started = new CountDownLatch(2);
+            CountDownLatch release = new CountDownLatch(1);
+            for (int i = 0; i < 2; i++) {
+                executor.execute(() -> {
+                    started.countDown();
+                    await(release);
+                });
+            }
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+
+            long start = System.nanoTime();
+            assertThatThrownBy(() -> executor.execute(() -> { }))
+                    .isInstanceOf(RejectedExecutionException.class);
+
+            assertThat(Duration.ofNanos(System.nanoTime() - start)).isGreaterThanOrEqualTo(Duration.ofMillis(50));
+            assertThat(executor.inFlight()).isEqualTo(2);
+            assertThat(registry.get("executor.virtual.in.flight").tag("name", "test-stream").gauge().value())
+                    .isEqualTo(2.0);
+            assertThat(registry.get("executor.virtual.max.concurrency").gauge().value()).isEqualTo(2.0);
+            assertThat(registry.get("executor.virtual.rejected").counter().count()).isEqualTo(1.0);
+            release.countDown();
+        }
+    }
+
+    @Test
+    void failingTasksShouldReturnTheirPermits() throws InterruptedException {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        try (BoundedVirtualThreadExecutor executor =
+                     new BoundedVirtualThreadExecutor("test-failing", 1, Duration.ofSeconds(5))) {
+            executor.bindTo(registry);
+            for (int i = 0; i < 3; i++) {
+                executor.execute(() -> {
+                    throw new IllegalStateException("上游断开");
+                });
+            }
+            // 许可只有一个：前面的任务抛异常后若未归还，这里会等满 5 秒后被拒绝
+            CountDownLatch ran = new CountDownLatch(1);
+            executor.execute(ran::countDown);
+
+            assertThat(ran.await(5, TimeUnit.SECONDS)).isTrue();
+            // 耗时在归还许可之后记录，等四个任务都记完再断言
+            Timer duration = registry.get("executor.virtual.task.duration").timer();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (duration.count() < 4 && System.nanoTime() < deadline) {
+                Thread.sleep(5);
+            }
+            assertThat(duration.count()).isEqualTo(4);
+            assertThat(executor.inFlight()).isZero();
+            assertThat(registry.get("executor.virtual.rejected").counter().count()).isZero();
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.ai.algorithmqa.common;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ConditionalResponsesTest {
+
+    private static final String ETAG = "\"abc-3\"";
+
+    @Test
+    void etagShouldMatchExactWeakListedAndWildcardForms() {
+        assertThat(ConditionalResponses.etagMatches("\"abc-3\"", ETAG)).isTrue();
+        assertThat(ConditionalResponses.etagMatches("W/\"abc-3\"", ETAG)).isTrue();
+        assertThat(ConditionalResponses.etagMatches("\"abc-1\", \"abc-2\",\"abc-3\"", ETAG)).isTrue();
+        assertThat(ConditionalResponses.etagMatches("\"abc-1\" , W/\"abc-3\"", ETAG)).isTrue();
+        assertThat(ConditionalResponses.etagMatches("*", ETAG)).isTrue();
+    }
+
+    @Test
+    void etagShouldNotMatchOtherOrMissingTags() {
+        assertThat(ConditionalResponses.etagMatches("\"abc-2\"", ETAG)).isFalse();
+        assertThat(ConditionalResponses.etagMatches("\"abc-1\", W/\"abc-2\"", ETAG)).isFalse();
+        assertThat(ConditionalResponses.etagMatches("abc-3", ETAG)).isFalse();
+        assertThat(ConditionalResponses.etagMatches(null, ETAG)).isFalse();
+        assertThat(ConditionalResponses.etagMatches(" ", ETAG)).isFalse();
+        assertThat(ConditionalResponses.etagMatches("*", null)).isFalse();
+    }
+
+    @Test
+    void notModifiedShouldSkipBuildingTheBody() {
+        ResponseEntity<String> notModified = ConditionalResponses.withEtag(ETAG, ETAG, () -> {
+            throw new AssertionError("304 不应生成响应体");
+        });
+        ResponseEntity<String> ok = ConditionalResponses.withEtag("\"abc-2\"", ETAG, () -> "body");
+
+        assertThat(notModified.getStatusCode()).isEqualTo(HttpStatus.NOT_MODIFIED);
+        assertThat(notModified.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(notModified.getBody()).isNull();
+        assertThat(ok.getStatusCode()).isEqualTo(HttpStatus.OK);
+        assertThat(ok.getHeaders().getETag()).isEqualTo(ETAG);
+        assertThat(ok.getHeaders().getCacheControl()).isEqualTo("no-cache");
+        assertThat(ok.getBody()).isEqualTo("body");
+    }
+}
@@ -0,0 +1,22 @@
+package com.ai.algorithmqa.common;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QuestionFingerprintTest {
+
+    @Test
+    void punctuationWidthAndCaseVariantsShouldShareFingerprint() {
+        assertThat(QuestionFingerprint.normalize(" 什么是 分治？ ")).isEqualTo("什么是 分治");
+        assertThat(QuestionFingerprint.hash("什么是分治？")).isEqualTo(QuestionFingerprint.hash("什么是分治"));
+        assertThat(QuestionFingerprint.hash("ＤＰ是什么!")).isEqualTo(QuestionFingerprint.hash("dp是什么"));
+        assertThat(QuestionFingerprint.hash("Binary  Search?")).isEqualTo(QuestionFingerprint.hash("binary search"));
+    }
+
+    @Test
+    void differentQuestionsShouldDiffer() {
+        assertThat(QuestionFingerprint.hash("什么是分治")).isNotEqualTo(QuestionFingerprint.hash("什么是贪心"));
+        assertThat(QuestionFingerprint.normalize(null)).isEmpty();
+    }
+}
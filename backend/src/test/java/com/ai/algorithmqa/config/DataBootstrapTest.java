@@ -0,0 +1,102 @@
+package com.ai.algorithmqa.config;
+
+import com.ai.algorithmqa.common.ContentHash;
+import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
+import com.ai.algorithmqa.domain.entity.KnowledgeTopic;
+import com.ai.algorithmqa.mapper.KnowledgeTopicMapper;
+import com.ai.algorithmqa.service.KnowledgeService;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.metadata.TableInfoHelper;
+import org.apache.ibatis.builder.MapperBuilderAssistant;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class DataBootstrapTest {
+
+    @Mock
+    private KnowledgeTopicMapper topicMapper;
+    @Mock
+    private KnowledgeService knowledgeService;
+
+    @BeforeAll
+    static void initTableInfo() {
+        // lambda 条件构造需要实体的列映射，单元测试里没有 MyBatis-Plus 自动配置，手动注册
+        TableInfoHelper.initTableInfo(new MapperBuilderAssistant(new MybatisConfiguration(), ""),
+                KnowledgeTopic.class);
+    }
+
+    @Test
+    void syncShouldImportAdoptSkipOrReplaceByContentHash() {
+        KnowledgeIngestRequest added = request("新主题", "新内容");
+        KnowledgeIngestRequest legacy = request("历史主题", "历史内容");
+        KnowledgeIngestRequest unchanged = request("未变主题", "原内容");
+        KnowledgeIngestRequest changed = request("修改主题", "改过的内容");
+        when(topicMapper.selectList(any())).thenReturn(List.of(
+                topic(2L, "历史主题", null),
+                topic(3L, "未变主题", ContentHash.of(unchanged)),
+                topic(4L, "修改主题", ContentHash.of(request("修改主题", "原内容")))));
+
+        DataBootstrap.Counts counts = new DataBootstrap.Counts();
+        new DataBootstrap(topicMapper, knowledgeService).sync(List.of(added, legacy, unchanged, changed), counts);
+
+        verify(knowledgeService).ingest(added);
+        verify(knowledgeService).replace(4L, changed);
+        ArgumentCaptor<Wrapper<KnowledgeTopic>> adopt = ArgumentCaptor.captor();
+        verify(topicMapper).update(isNull(), adopt.capture());
+        assertThat(adopt.getValue().getSqlSet()).contains("content_hash");
+        assertThat(adopt.getValue().getCustomSqlSegment()).contains("id");
+        verify(topicMapper).selectList(any());
+        verifyNoMoreInteractions(topicMapper, knowledgeService);
+        assertThat(counts.imported).isEqualTo(1);
+        assertThat(counts.adopted).isEqualTo(1);
+        assertThat(counts.unchanged).isEqualTo(1);
+        assertThat(counts.updated).isEqualTo(1);
+        assertThat(counts.failed).isZero();
+    }
+
+    @Test
+    void failingTopicShouldNotStopTheBatch() {
+        KnowledgeIngestRequest broken = request("坏主题", "内容");
+        KnowledgeIngestRequest fine = request("好主题", "内容");
+        when(topicMapper.selectList(any())).thenReturn(List.of());
+        doThrow(new IllegalStateException("Data too long")).when(knowledgeService).ingest(eq(broken));
+
+        DataBootstrap.Counts counts = new DataBootstrap.Counts();
+        new DataBootstrap(topicMapper, knowledgeService).sync(List.of(broken, fine), counts);
+
+        verify(knowledgeService).ingest(fine);
+        assertThat(counts.failed).isEqualTo(1);
+        assertThat(counts.imported).isEqualTo(1);
+    }
+
+    private static KnowledgeIngestRequest request(String title, String coreIdea) {
+        return new KnowledgeIngestRequest(title, "基础", "概述", List.of("分治"), 1, List.of(
+                new KnowledgeIngestRequest.AlgorithmSection(title + "算法", coreIdea, "步骤", "O(n)",
+                        null, null, null)));
+    }
+
+    private static KnowledgeTopic topic(Long id, String title, String contentHash) {
+        KnowledgeTopic topic = new KnowledgeTopic();
+        topic.setId(id);
+        topic.setTitle(title);
+        topic.setContentHash(contentHash);
+        return topic;
+    }
+}
@@ -0,0 +1,47 @@
+package com.ai.algorithmqa.controller;
+
+import com.ai.algorithmqa.service.KnowledgeService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.verify;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class AdminRetrievalControllerTest {
+
+    @Mock
+    private KnowledgeService knowledgeService;
+
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(new AdminRetrievalController(knowledgeService)).build();
+    }
+
+    @Test
+    void recallParametersShouldBeClamped() throws Exception {
+        mockMvc.perform(get("/api/admin/retrieval/recall")
+                        .param("samples", "100000000").param("topK", "2147483647").param("efSearch", "99999999"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/admin/retrieval/recall").param("samples", "-1").param("topK", "0"))
+                .andExpect(status().isOk());
+
+        verify(knowledgeService).evaluateRetrieval(1000, 100, 1000);
+        verify(knowledgeService).evaluateRetrieval(eq(1), eq(1), isNull());
+    }
+
+    @Test
+    void recallShouldNoLongerBeServedUnderKnowledgePath() throws Exception {
+        mockMvc.perform(get("/api/knowledge/retrieval/recall")).andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,87 @@
+package com.ai.algorithmqa.controller;
+
+import com.ai.algorithmqa.service.BulkIngestService;
+import com.ai.algorithmqa.service.KnowledgeService;
+import com.ai.algorithmqa.service.cache.CorpusVersion;
+import com.ai.algorithmqa.service.cache.VisualizationCache;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@ExtendWith(MockitoExtension.class)
+class KnowledgeControllerTest {
+
+    @Mock
+    private KnowledgeService knowledgeService;
+    @Mock
+    private BulkIngestService bulkIngestService;
+    @Mock
+    private VisualizationCache visualizationCache;
+
+    private final CorpusVersion corpusVersion = new CorpusVersion();
+    private MockMvc mockMvc;
+
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.standaloneSetup(
+                new KnowledgeController(knowledgeService, bulkIngestService, visualizationCache, corpusVersion))
+                .build();
+    }
+
+    @Test
+    void searchShouldClampTopK() throws Exception {
+        mockMvc.perform(get("/api/knowledge/search").param("query", "排序").param("topK", "2147483647"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/knowledge/search").param("query", "排序").param("topK", "-3"))
+                .andExpect(status().isOk());
+
+        verify(knowledgeService).search("排序", null, 50);
+        verify(knowledgeService).search("排序", null, 1);
+    }
+
+    @Test
+    void filtersShouldReturn304UntilCorpusVersionIsBumped() throws Exception {
+        when(knowledgeService.getAvailableFilters()).thenReturn(List.of("分治", "动态规划"));
+
+        String etag = mockMvc.perform(get("/api/knowledge/filters"))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.CACHE_CONTROL, "no-cache"))
+                .andExpect(jsonPath("$.data[0]").value("分治"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(etag).isEqualTo(corpusVersion.etag());
+
+        mockMvc.perform(get("/api/knowledge/filters").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string(HttpHeaders.ETAG, etag))
+                .andExpect(content().string(""));
+        mockMvc.perform(get("/api/knowledge/filters").header(HttpHeaders.IF_NONE_MATCH, "W/" + etag))
+                .andExpect(status().isNotModified());
+        verify(knowledgeService, times(1)).getAvailableFilters();
+
+        corpusVersion.bump();
+
+        String newEtag = mockMvc.perform(get("/api/knowledge/filters").header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[1]").value("动态规划"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        assertThat(newEtag).isNotEqualTo(etag).isEqualTo(corpusVersion.etag());
+        verify(knowledgeService, times(2)).getAvailableFilters();
+    }
+}
@@ -0,0 +1,73 @@
+package com.ai.algorithmqa.llm;
+
+import com.ai.algorithmqa.config.DashScopeProperties;
+import com.ai.algorithmqa.service.metrics.QaMetrics;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Duration;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DashScopeClientTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private static final DashScopeProperties PROPERTIES = new DashScopeProperties("sk-test", "qwen-plus",
+            "http://localhost/generation", "text-embedding-v1", "http://localhost/embeddings", 25,
+            new DashScopeProperties.Http(Duration.ofSeconds(1), Duration.ofSeconds(1), Duration.ofSeconds(1),
+                    Duration.ofSeconds(5), 4, Duration.ofMinutes(1), false));
+
+    /**
+     * 桩服务端直接返回给定状态码与 SSE 报文
+     */
+    private DashScopeClient client(int code, String body) {
+        OkHttpClient httpClient = new OkHttpClient.Builder()
+                .addInterceptor(chain -> new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(code)
+                        .message(code == 200 ? "OK" : "Internal Server Error")
+                        .body(ResponseBody.create(body, MediaType.get("text/event-stream")))
+                        .build())
+                .build();
+        return new DashScopeClient(null, httpClient, PROPERTIES, new QaMetrics(registry));
+    }
+
+    @Test
+    void successfulStreamShouldRecordCallTimeToFirstTokenAndRate() {
+        String events = """
+                id:1
+                data:{"output":{"text":"分治","finish_reason":"null"},"usage":{"output_tokens":2}}
+
+                id:2
+                data:{"output":{"text":"算法","finish_reason":"stop"},"usage":{"output_tokens":4}}
+
+                """;
+
+        String answer = client(200, events).streamChat("什么是分治", new SseEmitter());
+
+        assertThat(answer).isEqualTo("分治算法");
+        assertThat(registry.get("llm.call.duration").tags("mode", "stream", "outcome", "success").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("llm.stream.time.to.first.token").timer().count()).isEqualTo(1);
+        assertThat(registry.get("llm.stream.tokens.per.second").summary().count()).isEqualTo(1);
+    }
+
+    @Test
+    void failedStreamShouldRecordErrorWithoutTimeToFirstToken() {
+        String answer = client(500, "").streamChat("什么是分治", new SseEmitter());
+
+        assertThat(answer).isNull();
+        assertThat(registry.get("llm.call.duration").tags("mode", "stream", "outcome", "error").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.find("llm.call.duration").tags("outcome", "success").timer()).isNull();
+        assertThat(registry.get("llm.stream.time.to.first.token").timer().count()).isZero();
+    }
+}
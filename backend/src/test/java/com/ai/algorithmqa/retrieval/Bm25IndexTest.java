@@ -0,0 +1,97 @@
+package com.ai.algorithmqa.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class Bm25IndexTest {
+
+    @Test
+    void tokenizerShouldSplitCjkIntoBigramsAndKeepLatinWords() {
+        assertThat(TextTokenizer.tokenize("分治算法 Merge-Sort，O(n)"))
+                .containsExactly("分治", "治算", "算法", "merge", "sort", "o", "n");
+        assertThat(TextTokenizer.tokenize("树")).containsExactly("树");
+    }
+
+    @Test
+    void chineseQueryShouldRankDocumentsContainingItsBigramsFirst() {
+        Bm25Index index = new Bm25Index(1.2, 0.75);
+        index.add(0, "动态规划通过保存子问题的解避免重复计算");
+        index.add(1, "分治算法将问题拆成若干规模更小的子问题");
+        index.add(2, "贪心算法每一步都做出当前最优的选择");
+
+        TopK top = new TopK(3);
+        index.search("什么是分治", row -> true, top);
+
+        assertThat(top.size()).isEqualTo(1);
+        assertThat(top.row(0)).isEqualTo(1);
+    }
+
+    @Test
+    void rareTermsShouldOutweighCommonOnesAndFilterShouldApply() {
+        Bm25Index index = new Bm25Index(1.2, 0.75);
+        index.add(0, "算法 复杂度");
+        index.add(1, "算法 主定理");
+        index.add(2, "算法 递归");
+
+        TopK top = new TopK(3);
+        index.search("算法 主定理", row -> true, top);
+        assertThat(top.row(0)).isEqualTo(1);
+
+        TopK filtered = new TopK(3);
+        index.search("算法 主定理", row -> row != 1, filtered);
+        assertThat(filtered.size()).isEqualTo(2);
+        assertThat(filtered.score(0)).isLessThan(top.score(0));
+    }
+
+    @Test
+    void reusedAccumulatorShouldNotLeakScoresBetweenQueries() {
+        Bm25Index index = new Bm25Index(1.2, 0.75);
+        index.add(0, "快速排序 分区");
+        index.add(1, "归并排序 合并");
+
+        TopK first = new TopK(2);
+        index.search("快速排序", row -> true, first);
+        TopK unrelated = new TopK(2);
+        index.search("合并", row -> true, unrelated);
+        index.add(2, "堆排序 建堆");
+        TopK again = new TopK(3);
+        index.search("快速排序", row -> true, again);
+
+        assertThat(unrelated.size()).isEqualTo(1);
+        assertThat(unrelated.row(0)).isEqualTo(1);
+        assertThat(again.row(0)).isEqualTo(0);
+        assertThat(again.score(0)).isGreaterThan(0);
+    }
+
+    @Test
+    void removedDocumentsShouldScoreLikeAFreshIndexAndSurviveCompaction() {
+        Bm25Index index = new Bm25Index(1.2, 0.75);
+        index.add(0, "快速排序 分区 分区");
+        index.add(1, "归并排序 合并");
+        index.add(2, "堆排序 建堆 排序");
+        Bm25Index fresh = new Bm25Index(1.2, 0.75);
+        fresh.add(0, "快速排序 分区 分区");
+        fresh.add(1, "堆排序 建堆 排序");
+
+        index.remove(1, "归并排序 合并");
+        index.remove(1, "归并排序 合并");
+        TopK afterRemove = new TopK(3);
+        index.search("排序 合并", row -> true, afterRemove);
+        TopK expected = new TopK(3);
+        fresh.search("排序 合并", row -> true, expected);
+
+        assertThat(index.documentCount()).isEqualTo(2);
+        assertThat(afterRemove.size()).isEqualTo(expected.size());
+        assertThat(afterRemove.score(0)).isEqualTo(expected.score(0));
+
+        index.compact(new int[] { 0, -1, 1 }, 2);
+        TopK compacted = new TopK(3);
+        index.search("排序 合并", row -> true, compacted);
+        assertThat(compacted.size()).isEqualTo(expected.size());
+        for (int i = 0; i < expected.size(); i++) {
+            assertThat(compacted.row(i)).isEqualTo(expected.row(i));
+            assertThat(compacted.score(i)).isEqualTo(expected.score(i));
+        }
+    }
+}
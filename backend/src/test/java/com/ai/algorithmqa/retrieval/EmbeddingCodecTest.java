@@ -0,0 +1,54 @@
+package com.ai.algorithmqa.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class EmbeddingCodecTest {
+
+    @Test
+    void float32ShouldRoundTripExactly() {
+        float[] vector = randomUnitVector(1536);
+
+        byte[] bytes = EmbeddingCodec.encode(vector, EmbeddingCodec.Encoding.FLOAT32);
+
+        assertThat(bytes).hasSize(5 + 1536 * 4);
+        assertThat(EmbeddingCodec.decode(bytes)).containsExactly(vector);
+    }
+
+    @Test
+    void quantizedEncodingsShouldPreserveCosine() {
+        float[] vector = randomUnitVector(1536);
+
+        for (EmbeddingCodec.Encoding encoding : new EmbeddingCodec.Encoding[] {
+                EmbeddingCodec.Encoding.FLOAT16, EmbeddingCodec.Encoding.INT8 }) {
+            float[] decoded = EmbeddingCodec.decode(EmbeddingCodec.encode(vector, encoding));
+            double cosine = 0;
+            for (int i = 0; i < vector.length; i++) {
+                cosine += vector[i] * decoded[i];
+            }
+            assertThat(cosine).as(encoding.name()).isCloseTo(1.0, offset(1e-3));
+        }
+    }
+
+    @Test
+    void halfPrecisionShouldHandleSpecialValues() {
+        assertThat(EmbeddingCodec.halfToFloat(EmbeddingCodec.floatToHalf(65504f))).isEqualTo(65504f);
+        assertThat(EmbeddingCodec.halfToFloat(EmbeddingCodec.floatToHalf(1e6f))).isEqualTo(Float.POSITIVE_INFINITY);
+        assertThat(EmbeddingCodec.halfToFloat(EmbeddingCodec.floatToHalf(-2.5f))).isEqualTo(-2.5f);
+        assertThat(EmbeddingCodec.halfToFloat(EmbeddingCodec.floatToHalf(1e-9f))).isZero();
+    }
+
+    private static float[] randomUnitVector(int dimension) {
+        Random random = new Random(3);
+        float[] vector = new float[dimension];
+        for (int i = 0; i < dimension; i++) {
+            vector[i] = (float) random.nextGaussian();
+        }
+        VectorMath.normalizeInPlace(vector, 0, dimension);
+        return vector;
+    }
+}
@@ -0,0 +1,85 @@
+package com.ai.algorithmqa.retrieval;
+
+import com.ai.algorithmqa.domain.dto.RetrievalRecallReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class HnswSearchEngineTest {
+
+    @Test
+    void recallAgainstExactSearchShouldBeHigh() {
+        VectorIndex index = new VectorIndex(new HnswSearchEngine(16, 100, 64));
+        index.addAll(randomEntries(2000, 32));
+
+        RetrievalRecallReport report = index.evaluateRecall(50, 10, null);
+
+        assertThat(report.engine()).isEqualTo(HnswSearchEngine.NAME);
+        assertThat(report.corpusSize()).isEqualTo(2000);
+        assertThat(report.recall()).isGreaterThan(0.9);
+    }
+
+    @Test
+    void filteredSearchShouldOnlyReturnMatchingRows() {
+        VectorIndex index = new VectorIndex(new HnswSearchEngine(8, 50, 32));
+        index.addAll(randomEntries(500, 16));
+
+        List<VectorIndex.Hit> hits = index.search(VectorMath.toNormalizedArray(List.of(
+                1.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0, 0.0)),
+                null, List.of("k3"), 5);
+
+        assertThat(hits).hasSize(5);
+        assertThat(hits).allMatch(hit -> hit.chunkId() % 10 == 3);
+    }
+
+    @Test
+    void concurrentSearchesOnVirtualThreadsShouldMatchSequentialResults() throws Exception {
+        VectorIndex index = new VectorIndex(new HnswSearchEngine(8, 50, 32));
+        index.addAll(randomEntries(1000, 16));
+        Random random = new Random(7);
+        List<float[]> queries = new ArrayList<>();
+        for (int i = 0; i < 64; i++) {
+            float[] query = new float[16];
+            for (int d = 0; d < 16; d++) {
+                query[d] = (float) random.nextGaussian();
+            }
+            VectorMath.normalizeInPlace(query, 0, query.length);
+            queries.add(query);
+        }
+        List<List<VectorIndex.Hit>> expected = new ArrayList<>();
+        for (float[] query : queries) {
+            expected.add(index.search(query, null, List.of(), 10));
+        }
+
+        // 访问标记数组由池借出，并发查询之间不能互相污染
+        List<Future<List<VectorIndex.Hit>>> actual = new ArrayList<>();
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (float[] query : queries) {
+                actual.add(executor.submit(() -> index.search(query, null, List.of(), 10)));
+            }
+        }
+        for (int i = 0; i < queries.size(); i++) {
+            assertThat(actual.get(i).get()).isEqualTo(expected.get(i));
+        }
+    }
+
+    private static List<VectorIndex.Entry> randomEntries(int count, int dimension) {
+        Random random = new Random(1);
+        List<VectorIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            float[] vector = new float[dimension];
+            for (int d = 0; d < dimension; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+            entries.add(new VectorIndex.Entry(i, i % 7, "chunk-" + i, "k" + (i % 10), vector));
+        }
+        return entries;
+    }
+}
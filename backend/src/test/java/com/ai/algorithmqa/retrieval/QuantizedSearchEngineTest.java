@@ -0,0 +1,92 @@
+package com.ai.algorithmqa.retrieval;
+
+import com.ai.algorithmqa.domain.dto.RetrievalRecallReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class QuantizedSearchEngineTest {
+
+    private final Map<Long, float[]> store = new HashMap<>();
+
+    @Test
+    void int8WithRescoringShouldMatchExactSearch() {
+        VectorIndex index = new VectorIndex(new ScalarQuantizedEngine(4), false, this::load);
+        index.addAll(randomEntries(2000, 32));
+        index.markLoaded();
+
+        RetrievalRecallReport report = index.evaluateRecall(50, 10, null);
+
+        assertThat(report.engine()).isEqualTo(ScalarQuantizedEngine.NAME);
+        assertThat(report.recall()).isGreaterThan(0.95);
+        assertThat(report.indexBytes()).isLessThan(report.fullPrecisionBytes() / 3);
+    }
+
+    @Test
+    void productQuantizationShouldTrainOnLoadAndKeepRecallAfterRescoring() {
+        ProductQuantizedEngine engine = new ProductQuantizedEngine(0, 4096, 8, 10);
+        VectorIndex index = new VectorIndex(engine, false, this::load);
+        index.addAll(randomEntries(2000, 32));
+        assertThat(engine.isTrained()).isFalse();
+
+        index.markLoaded();
+        RetrievalRecallReport report = index.evaluateRecall(50, 10, null);
+
+        assertThat(engine.isTrained()).isTrue();
+        assertThat(engine.subspaces()).isEqualTo(4);
+        assertThat(report.recall()).isGreaterThan(0.9);
+        assertThat(report.indexBytes()).isLessThan(report.fullPrecisionBytes() / 4);
+    }
+
+    @Test
+    void rescoredHitsShouldCarryExactScoresAndRespectFilters() {
+        VectorIndex quantized = new VectorIndex(new ScalarQuantizedEngine(4), false, this::load);
+        VectorIndex exact = new VectorIndex(new ExactSearchEngine());
+        List<VectorIndex.Entry> entries = randomEntries(500, 16);
+        quantized.addAll(entries);
+        exact.addAll(entries);
+        float[] query = entries.get(42).vector().clone();
+        VectorMath.normalizeInPlace(query, 0, query.length);
+
+        List<VectorIndex.Hit> hits = quantized.search(query, null, List.of("k2"), 5);
+        List<VectorIndex.Hit> expected = exact.search(query, null, List.of("k2"), 5);
+
+        assertThat(hits).hasSize(5);
+        assertThat(hits.get(0).chunkId()).isEqualTo(42);
+        assertThat(hits).allMatch(hit -> hit.chunkId() % 10 == 2);
+        assertThat(hits.get(0).score()).isEqualTo(expected.get(0).score(), within(1e-5));
+    }
+
+    private Map<Long, float[]> load(Collection<Long> chunkIds) {
+        Map<Long, float[]> result = new HashMap<>();
+        for (Long id : chunkIds) {
+            float[] vector = store.get(id);
+            if (vector != null) {
+                result.put(id, vector);
+            }
+        }
+        return result;
+    }
+
+    private List<VectorIndex.Entry> randomEntries(int count, int dimension) {
+        Random random = new Random(1);
+        List<VectorIndex.Entry> entries = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            float[] vector = new float[dimension];
+            for (int d = 0; d < dimension; d++) {
+                vector[d] = (float) random.nextGaussian();
+            }
+            store.put((long) i, vector);
+            entries.add(new VectorIndex.Entry(i, i % 7, "chunk-" + i, "k" + (i % 10), vector));
+        }
+        return entries;
+    }
+}
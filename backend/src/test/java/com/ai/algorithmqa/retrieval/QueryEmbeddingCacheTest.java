@@ -0,0 +1,63 @@
+package com.ai.algorithmqa.retrieval;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class QueryEmbeddingCacheTest {
+
+    private final AtomicLong now = new AtomicLong(1_000L);
+
+    @Test
+    void normalizedQuestionsShouldShareOneEntry() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(1 << 20, 0, null, "m", now::get);
+        cache.put("  什么是  快速排序？", new float[]{1f, 0f});
+
+        assertThat(cache.get("什么是 快速排序?")).containsExactly(1f, 0f);
+        assertThat(cache.get("什么是归并排序")).isNull();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedWhenOverByteBudget() {
+        // 每条约 96 + 2 + 4 * 100 字节，预算只够两条
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(1100, 0, null, "m", now::get);
+        cache.put("a", new float[100]);
+        cache.put("b", new float[100]);
+        cache.get("a");
+        cache.put("c", new float[100]);
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.get("b")).isNull();
+        assertThat(cache.get("a")).isNotNull();
+        assertThat(cache.get("c")).isNotNull();
+    }
+
+    @Test
+    void expiredEntriesShouldMiss() {
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(1 << 20, 500, null, "m", now::get);
+        cache.put("q", new float[]{1f});
+        now.addAndGet(400);
+        assertThat(cache.get("q")).isNotNull();
+        now.addAndGet(200);
+        assertThat(cache.get("q")).isNull();
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    void warmTierShouldSurviveRestartForSameModelOnly(@TempDir Path dir) {
+        Path file = dir.resolve("query-cache.bin");
+        QueryEmbeddingCache cache = new QueryEmbeddingCache(1 << 20, 10_000, file, "model-a", now::get);
+        cache.put("q1", new float[]{0.6f, 0.8f});
+        cache.close();
+
+        QueryEmbeddingCache restored = new QueryEmbeddingCache(1 << 20, 10_000, file, "model-a", now::get);
+        assertThat(restored.get("q1")).containsExactly(0.6f, 0.8f);
+
+        QueryEmbeddingCache otherModel = new QueryEmbeddingCache(1 << 20, 10_000, file, "model-b", now::get);
+        assertThat(otherModel.size()).isZero();
+    }
+}
@@ -0,0 +1,79 @@
+package com.ai.algorithmqa.retrieval;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.TreeSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RowBitmapTest {
+
+    @Test
+    void shouldSwitchToBitmapContainerAndKeepRowsSorted() {
+        RowBitmap bitmap = new RowBitmap();
+        TreeSet<Integer> expected = new TreeSet<>();
+        for (int row = 0; row < 10_000; row += 2) {
+            bitmap.add(row);
+            expected.add(row);
+        }
+        bitmap.add(70_000);
+        bitmap.add(3);
+        bitmap.add(3);
+        expected.add(70_000);
+        expected.add(3);
+
+        List<Integer> rows = new ArrayList<>();
+        bitmap.forEach(rows::add);
+
+        assertThat(rows).containsExactlyElementsOf(expected);
+        assertThat(bitmap.cardinality()).isEqualTo(expected.size());
+        assertThat(bitmap.contains(3)).isTrue();
+        assertThat(bitmap.contains(5)).isFalse();
+        assertThat(bitmap.contains(70_001)).isFalse();
+    }
+
+    @Test
+    void unionShouldMergeContainersWithoutModifyingInputs() {
+        RowBitmap sparse = new RowBitmap();
+        sparse.add(1);
+        sparse.add(65_537);
+        RowBitmap dense = new RowBitmap();
+        for (int row = 0; row < 5_000; row++) {
+            dense.add(row);
+        }
+
+        RowBitmap union = RowBitmap.union(List.of(sparse, dense));
+
+        assertThat(union.cardinality()).isEqualTo(5_001);
+        assertThat(union.contains(65_537)).isTrue();
+        assertThat(sparse.cardinality()).isEqualTo(2);
+        assertThat(dense.cardinality()).isEqualTo(5_000);
+        assertThat(RowBitmap.union(List.of()).isEmpty()).isTrue();
+    }
+
+    @Test
+    void removeShouldShrinkContainersAndRemapShouldKeepOrder() {
+        RowBitmap bitmap = new RowBitmap();
+        for (int row = 0; row < 5_000; row++) {
+            bitmap.add(row);
+        }
+        bitmap.add(70_000);
+        for (int row = 10; row < 5_000; row++) {
+            bitmap.remove(row);
+        }
+        bitmap.remove(70_000);
+        bitmap.remove(123_456);
+
+        List<Integer> rows = new ArrayList<>();
+        bitmap.forEach(rows::add);
+        assertThat(rows).containsExactly(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+        assertThat(bitmap.memoryBytes()).isLessThan(1_000);
+
+        int[] newRowOf = { -1, 0, -1, 1, 2, 3, 4, 5, 6, 7 };
+        List<Integer> remapped = new ArrayList<>();
+        bitmap.remap(newRowOf).forEach(remapped::add);
+        assertThat(remapped).containsExactly(0, 1, 2, 3, 4, 5, 6, 7);
+    }
+}
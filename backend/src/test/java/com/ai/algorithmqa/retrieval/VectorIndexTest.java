@@ -0,0 +1,166 @@
+package com.ai.algorithmqa.retrieval;
+
+import com.ai.algorithmqa.domain.dto.RetrievalRecallReport;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class VectorIndexTest {
+
+    @Test
+    void searchShouldRankByCosineOverWholeCorpus() {
+        VectorIndex index = new VectorIndex(new ExactSearchEngine());
+        index.addAll(List.of(
+                new VectorIndex.Entry(1L, 10L, "归并排序", "分治,递归", new float[] { 1f, 0f, 0f }),
+                new VectorIndex.Entry(2L, 10L, "快速排序", "分治", new float[] { 0.6f, 0.8f, 0f }),
+                new VectorIndex.Entry(3L, 20L, "背包问题", "动态规划", new float[] { 0f, 0f, 5f })));
+
+        float[] query = VectorMath.toNormalizedArray(List.of(2.0, 0.0, 0.0));
+        List<VectorIndex.Hit> hits = index.search(query, null, null, 2);
+
+        assertThat(hits).extracting(VectorIndex.Hit::chunkId).containsExactly(1L, 2L);
+        assertThat(hits.get(0).score()).isCloseTo(1.0, offset(1e-6));
+        assertThat(hits.get(1).score()).isCloseTo(0.6, offset(1e-6));
+    }
+
+    @Test
+    void hugeTopKShouldBeCappedInsteadOfAllocatingK() {
+        VectorIndex index = new VectorIndex(new ExactSearchEngine());
+        index.addAll(IntStream.range(0, VectorIndex.MAX_TOP_K + 50)
+                .mapToObj(i -> new VectorIndex.Entry(i, i, "排序片段" + i, "排序", new float[] { 1f, i }))
+                .toList());
+
+        List<VectorIndex.Hit> hits = index.search(new float[] { 1f, 0f }, "排序", null, Integer.MAX_VALUE);
+
+        assertThat(hits).hasSize(VectorIndex.MAX_TOP_K);
+        assertThat(index.searchLexical("排序", null, Integer.MAX_VALUE)).hasSize(VectorIndex.MAX_TOP_K);
+        assertThat(index.search(new float[] { 1f, 0f }, null, null, 0)).hasSize(1);
+    }
+
+    @Test
+    void recallEvaluationShouldClampTopKAndSkipRemovedRows() {
+        VectorIndex index = new VectorIndex(new ExactSearchEngine());
+        index.addAll(IntStream.range(0, 40)
+                .mapToObj(i -> new VectorIndex.Entry(i, i % 4, "片段" + i, "排序",
+                        VectorMath.toNormalizedArray(List.of(Math.cos(i), Math.sin(i)))))
+                .toList());
+        index.removeTopic(0L);
+
+        RetrievalRecallReport report = index.evaluateRecall(20, Integer.MAX_VALUE, null);
+
+        assertThat(report.topK()).isEqualTo(VectorIndex.MAX_TOP_K);
+        assertThat(report.sampleSize()).isEqualTo(20);
+        assertThat(report.recall()).isEqualTo(1.0);
+    }
+
+    @Test
+    void filtersAndDuplicateIdsShouldBeHonoured() {
+        VectorIndex index = new VectorIndex(new ExactSearchEngine());
+        VectorIndex.Entry dp = new VectorIndex.Entry(3L, 20L, "背包问题", "动态规划", new float[] { 1f, 0f });
+        index.addAll(List.of(
+                new VectorIndex.Entry(1L, 10L, "归并排序", "分治", new float[] { 1f, 0f }),
+                dp));
+        assertThat(index.addAll(List.of(dp))).isZero();
+
+        List<VectorIndex.Hit> hits = index.search(new float[] { 1f, 0f }, null, List.of("动态"), 5);
+
+        assertThat(index.size()).isEqualTo(2);
+        assertThat(hits).extracting(VectorIndex.Hit::chunkId).containsExactly(3L);
+    }
+
+    @Test
+    void mismatchedQueryDimensionShouldFallBackToBm25() {
+        VectorIndex index = new VectorIndex(new ExactSearchEngine());
+        index.addAll(List.of(
+                new VectorIndex.Entry(1L, 10L, "归并排序采用分治策略", "分治", new float[] { 1f, 0f, 0f }),
+                new VectorIndex.Entry(2L, 10L, "快速排序的平均复杂度为 O(n log n)", "分治", new float[] { 0f, 1f, 0f })));
+
+        List<VectorIndex.Hit> hits = index.search(new float[] { 1f, 0f }, "快速排序怎么做", null, 1);
+
+        assertThat(hits).extracting(VectorIndex.Hit::chunkId).containsExactly(2L);
+    }
+
+    @Test
+    void hybridSearchShouldFuseVectorAndLexicalRankings() {
+        VectorIndex index = new VectorIndex(new ExactSearchEngine());
+        index.addAll(List.of(
+                new VectorIndex.Entry(1L, 10L, "归并排序", "分治", new float[] { 1f, 0f }),
+                new VectorIndex.Entry(2L, 10L, "主定理用于分析分治递归式", "分治", new float[] { 0.8f, 0.6f }),
+                new VectorIndex.Entry(3L, 20L, "背包问题", "动态规划", new float[] { 0f, 1f })));
+
+        List<VectorIndex.Hit> hits = index.search(new float[] { 1f, 0f }, "主定理", null, 3);
+
+        // 向量排名 1,2,3；词法只命中 2：融合后 2 同时在两路靠前，排第一且得分为满分附近
+        assertThat(hits).extracting(VectorIndex.Hit::chunkId).containsExactly(2L, 1L, 3L);
+        assertThat(hits.get(0).score()).isLessThanOrEqualTo(1.0).isGreaterThan(hits.get(1).score());
+    }
+
+    @Test
+    void separateRankingsFusedLaterShouldMatchCombinedSearch() {
+        VectorIndex index = new VectorIndex(new ExactSearchEngine());
+        index.addAll(List.of(
+                new VectorIndex.Entry(1L, 10L, "归并排序", "分治", new float[] { 1f, 0f }),
+                new VectorIndex.Entry(2L, 10L, "主定理用于分析分治递归式", "分治", new float[] { 0.8f, 0.6f }),
+                new VectorIndex.Entry(3L, 20L, "背包问题与主定理无关", "动态规划", new float[] { 0f, 1f })));
+        float[] query = { 1f, 0f };
+
+        List<VectorIndex.Hit> lexical = index.searchLexical("主定理", List.of("分治"), 2);
+        List<VectorIndex.Hit> fused = index.fuse(index.searchVector(query, List.of("分治"), 2), lexical, 2);
+
+        assertThat(fused).isEqualTo(index.search(query, "主定理", List.of("分治"), 2));
+        assertThat(index.fuse(List.of(), lexical, 2)).isEqualTo(index.search(null, "主定理", List.of("分治"), 2));
+    }
+
+    @Test
+    void removingTopicsShouldDropLexicalAndKeywordHitsImmediately() {
+        VectorIndex index = new VectorIndex(new ExactSearchEngine());
+        index.addAll(List.of(
+                new VectorIndex.Entry(1L, 10L, "归并排序", "分治", new float[] { 1f, 0f }),
+                new VectorIndex.Entry(2L, 20L, "快速排序", "分区", new float[] { 0f, 1f })));
+
+        index.removeTopic(10L);
+
+        assertThat(index.searchLexical("归并", null, 5)).isEmpty();
+        assertThat(index.search(new float[] { 1f, 0f }, null, List.of("分治"), 5)).isEmpty();
+        assertThat(index.keywordIndexBytes()).isLessThan(100);
+        assertThat(index.search(new float[] { 1f, 0f }, null, null, 5))
+                .extracting(VectorIndex.Hit::chunkId).containsExactly(2L);
+    }
+
+    @Test
+    void removingManyTopicsShouldCompactRowsForEveryEngine() {
+        List<VectorSearchEngine> engines = List.of(new ExactSearchEngine(), new HnswSearchEngine(8, 64, 64),
+                new ScalarQuantizedEngine(4), new ProductQuantizedEngine(2, 100, 5, 4));
+        for (VectorSearchEngine engine : engines) {
+            VectorIndex index = new VectorIndex(engine);
+            index.addAll(IntStream.range(0, 1_000)
+                    .mapToObj(i -> new VectorIndex.Entry(i, i % 2, "片段" + i, i % 2 == 0 ? "偶数" : "奇数",
+                            new float[] { (float) Math.cos(i * 0.005), (float) Math.sin(i * 0.005), 0.1f, 0.2f }))
+                    .toList());
+            index.markLoaded();
+
+            index.removeTopic(0L);
+
+            assertThat(index.rows()).as(engine.name()).isEqualTo(500);
+            assertThat(index.removedRows()).isZero();
+            assertThat(index.size()).isEqualTo(500);
+            float[] query = { (float) Math.cos(1.505), (float) Math.sin(1.505), 0.1f, 0.2f };
+            VectorMath.normalizeInPlace(query, 0, query.length);
+            List<VectorIndex.Hit> hits = index.search(query, null, null, 3);
+            assertThat(hits).as(engine.name()).isNotEmpty();
+            assertThat(hits.get(0).chunkId()).as(engine.name()).isEqualTo(301L);
+            assertThat(hits).allSatisfy(hit -> assertThat(hit.topicId()).isEqualTo(1L));
+            assertThat(index.search(query, null, List.of("偶数"), 3)).isEmpty();
+            assertThat(index.searchLexical("片段", List.of("奇数"), 3)).isNotEmpty()
+                    .allSatisfy(hit -> assertThat(hit.topicId()).isEqualTo(1L));
+
+            index.addAll(List.of(new VectorIndex.Entry(5_000L, 2L, "新片段", "偶数", query)));
+            assertThat(index.search(query, null, List.of("偶数"), 3))
+                    .extracting(VectorIndex.Hit::chunkId).containsExactly(5_000L);
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.ai.algorithmqa.service;
+
+import com.ai.algorithmqa.config.IngestProperties;
+import com.ai.algorithmqa.domain.dto.IngestJobStatus;
+import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
+import com.ai.algorithmqa.domain.entity.KnowledgeChunk;
+import com.ai.algorithmqa.domain.entity.KnowledgeTopic;
+import com.ai.algorithmqa.mapper.AlgorithmDetailMapper;
+import com.ai.algorithmqa.mapper.KnowledgeChunkMapper;
+import com.ai.algorithmqa.mapper.KnowledgeTopicMapper;
+import com.ai.algorithmqa.retrieval.ExactSearchEngine;
+import com.ai.algorithmqa.retrieval.VectorIndex;
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import com.ai.algorithmqa.service.impl.BulkIngestServiceImpl;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+class BulkIngestServiceImplTest {
+
+    @Mock
+    private KnowledgeTopicMapper topicMapper;
+    @Mock
+    private AlgorithmDetailMapper detailMapper;
+    @Mock
+    private KnowledgeChunkMapper chunkMapper;
+    @Mock
+    private EmbeddingService embeddingService;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private final VectorIndex vectorIndex = new VectorIndex(new ExactSearchEngine());
+    private final AtomicLong ids = new AtomicLong();
+    private final List<String> committedTitles = Collections.synchronizedList(new ArrayList<>());
+    private volatile long writeDelayMillis;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(topicMapper.insertBatch(any())).thenAnswer(invocation -> {
+            List<KnowledgeTopic> topics = invocation.getArgument(0);
+            if (topics.stream().anyMatch(topic -> topic.getTitle().contains("驱动缺失"))) {
+                throw new NoClassDefFoundError("com/mysql/cj/jdbc/ClientPreparedStatement");
+            }
+            if (topics.stream().anyMatch(topic -> topic.getTitle().contains("坏数据"))) {
+                throw new IllegalStateException("Data too long for column 'title'");
+            }
+            if (writeDelayMillis > 0) {
+                Thread.sleep(writeDelayMillis);
+            }
+            topics.forEach(topic -> {
+                topic.setId(ids.incrementAndGet());
+                committedTitles.add(topic.getTitle());
+            });
+            return topics.size();
+        });
+        lenient().when(chunkMapper.insertBatch(any())).thenAnswer(invocation -> {
+            List<KnowledgeChunk> chunks = invocation.getArgument(0);
+            chunks.forEach(chunk -> chunk.setId(ids.incrementAndGet()));
+            return chunks.size();
+        });
+        lenient().when(embeddingService.embedBatchStrict(any())).thenAnswer(invocation -> {
+            List<String> texts = invocation.getArgument(0);
+            if (texts.stream().anyMatch(text -> text.contains("断网"))) {
+                throw new IllegalStateException("调用 DashScope embedding 失败: timeout");
+            }
+            return texts.stream().map(text -> List.of(1.0, 0.0)).toList();
+        });
+    }
+
+    @Test
+    void everyTopicShouldPassEachStageOnceAndJobShouldTerminate() throws InterruptedException {
+        BulkIngestServiceImpl service = service(new IngestProperties(3, 2, 2, 4, 1, 20));
+        assertThat(awaitFinished(service, service.submit(List.of())).state()).isEqualTo("COMPLETED");
+
+        List<KnowledgeIngestRequest> requests = topics(25);
+        IngestJobStatus status = awaitFinished(service, service.submit(requests));
+
+        assertThat(status.state()).isEqualTo("COMPLETED");
+        assertThat(status.parsedTopics()).isEqualTo(25);
+        assertThat(status.embeddedTopics()).isEqualTo(25);
+        assertThat(status.writtenTopics()).isEqualTo(25);
+        assertThat(status.writtenChunks()).isEqualTo(75);
+        assertThat(committedTitles).containsExactlyInAnyOrderElementsOf(
+                requests.stream().map(KnowledgeIngestRequest::title).toList());
+        assertThat(vectorIndex.size()).isEqualTo(75);
+        verify(eventPublisher, times(25)).publishEvent(any(KnowledgeChangedEvent.class));
+    }
+
+    @Test
+    void failingTopicsShouldNotTakeDownTheirGroup() throws InterruptedException {
+        BulkIngestServiceImpl service = service(new IngestProperties(2, 2, 1, 10, 4, 20));
+        List<KnowledgeIngestRequest> requests = new ArrayList<>(topics(8));
+        requests.add(3, topic("坏数据"));
+        requests.add(6, topic("断网"));
+
+        IngestJobStatus status = awaitFinished(service, service.submit(requests));
+
+        assertThat(status.state()).isEqualTo("COMPLETED_WITH_ERRORS");
+        assertThat(status.failedTopics()).isEqualTo(2);
+        assertThat(status.writtenTopics()).isEqualTo(8);
+        assertThat(status.errors()).anySatisfy(error -> assertThat(error).contains("坏数据", "写入失败"));
+        assertThat(status.errors()).anySatisfy(error -> assertThat(error).contains("断网", "embedding 失败"));
+        // 组写入失败后逐个重试：其余主题各提交一次，不重复
+        assertThat(committedTitles).hasSize(8).doesNotHaveDuplicates();
+    }
+
+    @Test
+    void failureAfterCommitShouldNotReinsertCommittedTopics() throws InterruptedException {
+        BulkIngestServiceImpl service = service(new IngestProperties(1, 1, 5, 5, 8, 20));
+        doThrow(new IllegalStateException("listener failed")).when(eventPublisher).publishEvent(any(Object.class));
+
+        IngestJobStatus status = awaitFinished(service, service.submit(topics(5)));
+
+        verify(topicMapper, times(1)).insertBatch(any());
+        assertThat(committedTitles).hasSize(5);
+        assertThat(status.writtenTopics()).isEqualTo(5);
+        assertThat(status.failedTopics()).isZero();
+        assertThat(status.errors()).anySatisfy(error -> assertThat(error).contains("发布变更事件失败"));
+    }
+
+    @Test
+    void slowWriterShouldBackPressureUpstreamStages() throws InterruptedException {
+        int capacity = 2;
+        BulkIngestServiceImpl service = service(new IngestProperties(2, 1, 1, 1, capacity, 20));
+        writeDelayMillis = 15;
+
+        String jobId = service.submit(topics(30)).jobId();
+        int maxInFlight = 0;
+        IngestJobStatus status;
+        while ((status = service.status(jobId)).finishedAt() == null) {
+            maxInFlight = Math.max(maxInFlight, status.parsedTopics() - status.writtenTopics());
+            Thread.sleep(2);
+        }
+
+        // 已解析未写入的主题只能停在两个队列、embedding 线程手里和写线程当前的一组里
+        assertThat(maxInFlight).isLessThanOrEqualTo(2 * capacity + 1 + 1);
+        assertThat(status.state()).isEqualTo("COMPLETED");
+        assertThat(status.writtenTopics()).isEqualTo(30);
+    }
+
+    @Test
+    void writerDyingShouldStopBlockedUpstreamStagesAndFinishTheJob() throws InterruptedException {
+        BulkIngestServiceImpl service = service(new IngestProperties(2, 2, 1, 1, 1, 20));
+        List<KnowledgeIngestRequest> requests = new ArrayList<>(topics(40));
+        requests.add(0, topic("驱动缺失"));
+
+        IngestJobStatus status = awaitFinished(service, service.submit(requests));
+
+        assertThat(status.state()).isEqualTo("FAILED");
+        assertThat(status.errors()).anySatisfy(error -> assertThat(error).contains("任务异常终止"));
+        assertThat(status.writtenTopics()).isLessThan(40);
+    }
+
+    private BulkIngestServiceImpl service(IngestProperties properties) {
+        return new BulkIngestServiceImpl(topicMapper, detailMapper, chunkMapper, embeddingService, vectorIndex,
+                eventPublisher, properties, transactionManager);
+    }
+
+    private static IngestJobStatus awaitFinished(BulkIngestServiceImpl service, IngestJobStatus submitted)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + Duration.ofSeconds(10).toNanos();
+        IngestJobStatus status;
+        while ((status = service.status(submitted.jobId())).finishedAt() == null) {
+            assertThat(System.nanoTime()).as("导入任务未在 10 秒内结束").isLessThan(deadline);
+            Thread.sleep(10);
+        }
+        return status;
+    }
+
+    private static List<KnowledgeIngestRequest> topics(int count) {
+        return IntStream.range(0, count).mapToObj(i -> topic("主题" + i)).toList();
+    }
+
+    private static KnowledgeIngestRequest topic(String title) {
+        return new KnowledgeIngestRequest(title, "基础", "概述", List.of("分治"), 1, List.of(
+                new KnowledgeIngestRequest.AlgorithmSection(title + "算法", title + "的核心思想。", "逐步求解。",
+                        "时间复杂度为 O(n)。", null, null, null)));
+    }
+}
@@ -0,0 +1,140 @@
+package com.ai.algorithmqa.service;
+
+import com.ai.algorithmqa.config.DashScopeProperties;
+import com.ai.algorithmqa.service.impl.DashScopeEmbeddingService;
+import com.ai.algorithmqa.service.metrics.QaMetrics;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import okhttp3.MediaType;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+import okhttp3.Response;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DashScopeEmbeddingServiceTest {
+
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final List<List<String>> requestedBatches = Collections.synchronizedList(new ArrayList<>());
+
+    /**
+     * 桩服务端：每条文本 "片段N" 的向量为 [N]，embeddings 倒序返回，并丢掉 dropIndex 指定下标（批内）的结果
+     */
+    private OkHttpClient stubClient(int dropIndex) {
+        return new OkHttpClient.Builder()
+                .addInterceptor(chain -> {
+                    Buffer buffer = new Buffer();
+                    chain.request().body().writeTo(buffer);
+                    List<String> texts = new ArrayList<>();
+                    mapper.readTree(buffer.readUtf8()).path("input").path("texts")
+                            .forEach(text -> texts.add(text.asText()));
+                    requestedBatches.add(texts);
+                    StringBuilder embeddings = new StringBuilder();
+                    for (int i = texts.size() - 1; i >= 0; i--) {
+                        if (i == dropIndex) {
+                            continue;
+                        }
+                        if (!embeddings.isEmpty()) {
+                            embeddings.append(',');
+                        }
+                        embeddings.append("{\"text_index\":").append(i)
+                                .append(",\"embedding\":[").append(texts.get(i).substring(2)).append(".0]}");
+                    }
+                    String json = "{\"output\":{\"embeddings\":[" + embeddings + "]}}";
+                    return new Response.Builder()
+                            .request(chain.request())
+                            .protocol(Protocol.HTTP_1_1)
+                            .code(200)
+                            .message("OK")
+                            .body(ResponseBody.create(json, MediaType.get("application/json")))
+                            .build();
+                })
+                .build();
+    }
+
+    private DashScopeEmbeddingService service(OkHttpClient client) {
+        DashScopeProperties properties = new DashScopeProperties("sk-test", "qwen-plus", "http://localhost/chat",
+                "text-embedding-v1", "http://localhost/embeddings", 3, null);
+        return new DashScopeEmbeddingService(client, properties, new QaMetrics(registry));
+    }
+
+    private static List<String> texts(int count) {
+        return IntStream.range(0, count).mapToObj(i -> "片段" + i).toList();
+    }
+
+    @Test
+    void embedBatchShouldSplitByBatchSizeAndMapResultsByTextIndex() {
+        DashScopeEmbeddingService service = service(stubClient(-1));
+
+        List<List<Double>> vectors = service.embedBatch(texts(7));
+
+        assertThat(requestedBatches).containsExactly(
+                List.of("片段0", "片段1", "片段2"), List.of("片段3", "片段4", "片段5"), List.of("片段6"));
+        assertThat(vectors).hasSize(7);
+        for (int i = 0; i < 7; i++) {
+            assertThat(vectors.get(i)).containsExactly((double) i);
+        }
+        assertThat(registry.find("embedding.fallback").counter()).isNull();
+    }
+
+    @Test
+    void missingTextIndexShouldFallBackOnlyForThatSlot() {
+        DashScopeEmbeddingService service = service(stubClient(1));
+
+        List<List<Double>> vectors = service.embedBatch(texts(5));
+
+        assertThat(requestedBatches).hasSize(2);
+        assertThat(vectors.get(0)).containsExactly(0.0);
+        assertThat(vectors.get(2)).containsExactly(2.0);
+        assertThat(vectors.get(3)).containsExactly(3.0);
+        // 每批下标 1 缺失：第一批的片段1、第二批的片段4 走伪向量，其余位置不受影响
+        assertThat(vectors.get(1)).hasSize(24);
+        assertThat(vectors.get(4)).hasSize(24).isNotEqualTo(vectors.get(1));
+        assertThat(registry.get("embedding.fallback").tag("reason", "missing").counter().count()).isEqualTo(2.0);
+    }
+
+    @Test
+    void strictModeShouldRejectResponsesWithMissingSlots() {
+        DashScopeEmbeddingService service = service(stubClient(1));
+
+        assertThatThrownBy(() -> service.embedBatchStrict(texts(3)))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("响应缺少 1/3 条结果");
+    }
+
+    @Test
+    void requestsAndFallbacksShouldBeRecordedWithOutcomeAndReason() {
+        service(stubClient(-1)).embedBatch(texts(4));
+        OkHttpClient failing = new OkHttpClient.Builder()
+                .addInterceptor(chain -> new Response.Builder()
+                        .request(chain.request())
+                        .protocol(Protocol.HTTP_1_1)
+                        .code(503)
+                        .message("Service Unavailable")
+                        .body(ResponseBody.create("", MediaType.get("application/json")))
+                        .build())
+                .build();
+        service(failing).embedBatch(texts(2));
+        new DashScopeEmbeddingService(stubClient(-1), new DashScopeProperties(null, "qwen-plus", null,
+                "text-embedding-v1", null, 3, null), new QaMetrics(registry)).embedBatch(texts(3));
+
+        assertThat(registry.get("embedding.request.duration").tag("outcome", "success").timer().count())
+                .isEqualTo(2);
+        assertThat(registry.get("embedding.request.duration").tag("outcome", "error").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.get("embedding.fallback").tag("reason", "error").counter().count()).isEqualTo(2.0);
+        assertThat(registry.get("embedding.fallback").tag("reason", "no_key").counter().count()).isEqualTo(3.0);
+        assertThat(requestedBatches).hasSize(2);
+    }
+}
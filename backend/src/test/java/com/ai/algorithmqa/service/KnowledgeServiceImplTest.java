@@ -0,0 +1,191 @@
+package com.ai.algorithmqa.service;
+
+import com.ai.algorithmqa.config.RetrievalProperties;
+import com.ai.algorithmqa.domain.dto.KnowledgeIngestRequest;
+import com.ai.algorithmqa.domain.dto.ReferenceChunk;
+import com.ai.algorithmqa.domain.entity.AlgorithmDetail;
+import com.ai.algorithmqa.domain.entity.KnowledgeChunk;
+import com.ai.algorithmqa.domain.entity.KnowledgeTopic;
+import com.ai.algorithmqa.mapper.AlgorithmDetailMapper;
+import com.ai.algorithmqa.mapper.KnowledgeChunkMapper;
+import com.ai.algorithmqa.mapper.KnowledgeTopicMapper;
+import com.ai.algorithmqa.retrieval.ExactSearchEngine;
+import com.ai.algorithmqa.retrieval.QueryEmbeddingCache;
+import com.ai.algorithmqa.retrieval.VectorIndex;
+import com.ai.algorithmqa.service.cache.FilterVocabulary;
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import com.ai.algorithmqa.service.impl.KnowledgeServiceImpl;
+import com.ai.algorithmqa.service.metrics.QaMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class KnowledgeServiceImplTest {
+
+    @Mock
+    private KnowledgeTopicMapper topicMapper;
+    @Mock
+    private AlgorithmDetailMapper detailMapper;
+    @Mock
+    private KnowledgeChunkMapper chunkMapper;
+    @Mock
+    private EmbeddingService embeddingService;
+    @Mock
+    private QueryEmbeddingCache queryEmbeddingCache;
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+    @Mock
+    private FilterVocabulary filterVocabulary;
+    @Mock
+    private QaMetrics qaMetrics;
+
+    private final ExecutorService stageExecutor = Executors.newVirtualThreadPerTaskExecutor();
+    private VectorIndex vectorIndex;
+
+    @BeforeEach
+    void setUp() {
+        vectorIndex = spy(new VectorIndex(new ExactSearchEngine()));
+        vectorIndex.addAll(List.of(
+                new VectorIndex.Entry(1L, 10L, "归并排序", "分治", new float[] { 1f, 0f }),
+                new VectorIndex.Entry(2L, 20L, "主定理用于分析分治递归式", "分治", new float[] { 0f, 1f }),
+                new VectorIndex.Entry(3L, 30L, "背包问题", "动态规划", new float[] { 0.9f, 0.1f })));
+        vectorIndex.markLoaded();
+        lenient().when(topicMapper.selectBatchIds(any())).thenAnswer(invocation -> {
+            Collection<Long> ids = invocation.getArgument(0);
+            return ids.stream().map(KnowledgeServiceImplTest::topic).toList();
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        stageExecutor.close();
+    }
+
+    @Test
+    void embeddingTimeoutShouldDegradeToBm25Only() {
+        when(embeddingService.embed("主定理")).thenAnswer(invocation -> {
+            Thread.sleep(5_000);
+            return List.of(1.0, 0.0);
+        });
+
+        long start = System.nanoTime();
+        List<ReferenceChunk> references = service(Duration.ofMillis(100)).search("主定理", List.of(), 3);
+
+        assertThat(Duration.ofNanos(System.nanoTime() - start)).isLessThan(Duration.ofSeconds(3));
+        assertThat(references).extracting(ReferenceChunk::topicId).containsExactly(20L);
+        assertThat(references.get(0).topicTitle()).isEqualTo("主题20");
+        verify(qaMetrics).recordRetrievalDegraded("embedding");
+        verify(queryEmbeddingCache, never()).put(any(), any());
+        verify(vectorIndex, never()).searchVector(any(), any(), anyInt());
+    }
+
+    @Test
+    void lexicalRankingAndPrefetchedTopicsShouldBeReusedAfterVectorArrives() {
+        when(embeddingService.embed("主定理")).thenReturn(List.of(1.0, 0.0));
+
+        List<ReferenceChunk> references = service(Duration.ofSeconds(3)).search("主定理", List.of(), 3);
+
+        assertThat(references).extracting(ReferenceChunk::topicId).containsExactlyInAnyOrder(10L, 20L, 30L);
+        assertThat(references).extracting(ReferenceChunk::topicTitle).doesNotContain("未知主题");
+        // BM25 只算一次，融合复用预取阶段的词法排名
+        verify(vectorIndex, times(1)).searchLexical(eq("主定理"), any(), eq(3));
+        verify(vectorIndex, never()).search(any(), any(), any(), anyInt());
+        // 预取的主题不再重复查询，只补查向量一路新带来的主题
+        verify(topicMapper).selectBatchIds(Set.of(20L));
+        verify(topicMapper).selectBatchIds(Set.of(10L, 30L));
+        verify(qaMetrics, never()).recordRetrievalDegraded(any());
+    }
+
+    @Test
+    void replaceShouldKeepAnimationUrlAndDeleteDroppedAlgorithms() {
+        when(detailMapper.selectList(any())).thenReturn(List.of(
+                detail(100L, "归并排序", "/animations/merge.mp4"),
+                detail(101L, "旧算法", null)));
+        when(embeddingService.embedBatch(any())).thenAnswer(invocation -> {
+            List<String> texts = invocation.getArgument(0);
+            return texts.stream().map(text -> List.of(0.0, 1.0)).toList();
+        });
+        AtomicLong chunkIds = new AtomicLong(1000);
+        when(chunkMapper.insertBatch(any())).thenAnswer(invocation -> {
+            List<KnowledgeChunk> chunks = invocation.getArgument(0);
+            chunks.forEach(chunk -> chunk.setId(chunkIds.incrementAndGet()));
+            return chunks.size();
+        });
+        KnowledgeIngestRequest request = new KnowledgeIngestRequest("排序", "基础", "概述", List.of("分治"), 1, List.of(
+                new KnowledgeIngestRequest.AlgorithmSection("归并排序", "先拆分再合并。", "递归", "O(n log n)",
+                        null, null, null),
+                new KnowledgeIngestRequest.AlgorithmSection("新算法", "新的核心思想。", "逐步", "O(n)",
+                        null, null, null)));
+
+        service(Duration.ofSeconds(3)).replace(10L, request);
+
+        ArgumentCaptor<AlgorithmDetail> updated = ArgumentCaptor.forClass(AlgorithmDetail.class);
+        verify(detailMapper).updateById(updated.capture());
+        assertThat(updated.getValue().getId()).isEqualTo(100L);
+        assertThat(updated.getValue().getCoreIdea()).isEqualTo("先拆分再合并。");
+        assertThat(updated.getValue().getAnimationUrl()).isEqualTo("/animations/merge.mp4");
+        verify(detailMapper).insertBatch(argThat(details -> details.size() == 1
+                && details.get(0).getName().equals("新算法") && details.get(0).getTopicId() == 10L));
+        verify(detailMapper).deleteBatchIds(List.of(101L));
+        verify(chunkMapper).delete(any());
+        // 旧片段从索引移除，新片段在（无事务时立即）发布后可检索
+        assertThat(vectorIndex.searchLexical("归并排序", List.of(), 10)).isEmpty();
+        assertThat(vectorIndex.searchLexical("拆分合并", List.of(), 10))
+                .isNotEmpty().allSatisfy(hit -> assertThat(hit.chunkId()).isGreaterThan(1000L));
+        verify(eventPublisher).publishEvent(any(KnowledgeChangedEvent.class));
+    }
+
+    private KnowledgeServiceImpl service(Duration embedTimeout) {
+        RetrievalProperties properties = new RetrievalProperties(4, "exact",
+                new RetrievalProperties.Hnsw(16, 200, 64), "float32", false,
+                new RetrievalProperties.Quantization("none", 4, false, 0, 4096, 8),
+                new RetrievalProperties.QueryCache(DataSize.ofMegabytes(1), Duration.ofHours(1), ""),
+                new RetrievalProperties.Hybrid(true, 60, 1.2, 0.75),
+                new RetrievalProperties.Stages(embedTimeout, Duration.ofSeconds(2)));
+        return new KnowledgeServiceImpl(topicMapper, detailMapper, chunkMapper, embeddingService, vectorIndex,
+                properties, queryEmbeddingCache, eventPublisher, filterVocabulary, stageExecutor, qaMetrics);
+    }
+
+    private static AlgorithmDetail detail(Long id, String name, String animationUrl) {
+        AlgorithmDetail detail = new AlgorithmDetail();
+        detail.setId(id);
+        detail.setTopicId(10L);
+        detail.setName(name);
+        detail.setAnimationUrl(animationUrl);
+        return detail;
+    }
+
+    private static KnowledgeTopic topic(Long id) {
+        KnowledgeTopic topic = new KnowledgeTopic();
+        topic.setId(id);
+        topic.setTitle("主题" + id);
+        return topic;
+    }
+}
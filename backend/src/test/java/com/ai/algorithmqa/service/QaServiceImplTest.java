@@ -5,8 +5,11 @@ import com.ai.algorithmqa.domain.dto.QaResponse;
 import com.ai.algorithmqa.domain.dto.ReferenceChunk;
 import com.ai.algorithmqa.llm.DashScopeClient;
 import com.ai.algorithmqa.llm.LlmAnswer;
-import com.ai.algorithmqa.mapper.QaLogMapper;
+import com.ai.algorithmqa.service.cache.SemanticAnswerCache;
 import com.ai.algorithmqa.service.impl.QaServiceImpl;
+import com.ai.algorithmqa.service.log.QaLogWriter;
+import com.ai.algorithmqa.service.metrics.QaMetrics;
+import com.ai.algorithmqa.service.stats.HeavyHitters;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
@@ -19,6 +22,9 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -30,7 +36,13 @@ class QaServiceImplTest {
     @Mock
     private DashScopeClient dashScopeClient;
     @Mock
-    private QaLogMapper qaLogMapper;
+    private QaLogWriter qaLogWriter;
+    @Mock
+    private HeavyHitters heavyHitters;
+    @Mock
+    private SemanticAnswerCache semanticAnswerCache;
+    @Mock
+    private QaMetrics qaMetrics;
     @InjectMocks
     private QaServiceImpl qaService;
 
@@ -46,11 +58,72 @@ class QaServiceImplTest {
         assertThat(response.answer()).isEqualTo("解析内容");
         assertThat(response.references()).hasSize(1);
         assertThat(response.model()).isEqualTo("mock-model");
-        verify(qaLogMapper).insert(any());
+        verify(qaLogWriter).submit(any());
+        verify(qaMetrics).recordQa(eq("sync"), eq("success"), anyLong());
 
         ArgumentCaptor<String> promptCaptor = ArgumentCaptor.forClass(String.class);
         verify(dashScopeClient).chat(promptCaptor.capture());
         assertThat(promptCaptor.getValue()).contains("解释分治思想");
     }
-}
 
+    @Test
+    void answerCacheDisabledShouldLeaveEmbeddingToSearch() {
+        when(knowledgeService.search(any(), any(), anyInt())).thenReturn(List.of());
+        when(dashScopeClient.chat(any())).thenReturn(new LlmAnswer("解析内容", "mock-model", 120L));
+
+        qaService.answer(new QaRequest("解释分治思想", List.of("分治"), 2, true));
+
+        verify(knowledgeService, never()).embedQuery(any());
+        verify(knowledgeService).search(eq("解释分治思想"), eq(List.of("分治")), eq(2));
+    }
+
+    @Test
+    void similarQuestionShouldBeServedFromSemanticCache() {
+        ReferenceChunk ref = new ReferenceChunk(1L, "分治策略", "分治将问题拆成子问题", 0.9);
+        float[] vector = {0.6f, 0.8f};
+        QaRequest request = new QaRequest("什么是分治", List.of("分治"), 2, true);
+        when(semanticAnswerCache.enabled()).thenReturn(true);
+        when(knowledgeService.embedQuery("什么是分治")).thenReturn(vector);
+        when(semanticAnswerCache.lookup(request, vector)).thenReturn(new SemanticAnswerCache.Hit(
+                new QaResponse("缓存的解析", List.of(ref), "qwen-plus", 900L), 0.97));
+
+        QaResponse response = qaService.answer(request);
+
+        assertThat(response.answer()).isEqualTo("缓存的解析");
+        assertThat(response.references()).containsExactly(ref);
+        verify(dashScopeClient, never()).chat(any());
+        verify(knowledgeService, never()).search(any(), any(), any(), anyInt());
+        verify(semanticAnswerCache, never()).put(any(), any(), any(), anyLong());
+        verify(qaLogWriter).submit(any());
+    }
+
+    @Test
+    void generatedAnswerShouldBeStoredInSemanticCache() {
+        float[] vector = {1f, 0f};
+        QaRequest request = new QaRequest("解释分治思想", List.of(), 4, true);
+        when(semanticAnswerCache.enabled()).thenReturn(true);
+        when(knowledgeService.embedQuery(any())).thenReturn(vector);
+        when(semanticAnswerCache.generation()).thenReturn(3L);
+        when(knowledgeService.search(any(), any(float[].class), any(), anyInt())).thenReturn(List.of());
+        when(dashScopeClient.chat(any())).thenReturn(new LlmAnswer("解析内容", "qwen-plus", 120L));
+
+        QaResponse response = qaService.answer(request);
+
+        verify(semanticAnswerCache).put(eq(request), eq(vector), eq(response), eq(3L));
+    }
+
+    @Test
+    void enabledAnswerCacheShouldReuseItsVectorForSearch() {
+        float[] vector = {1f, 0f};
+        when(semanticAnswerCache.enabled()).thenReturn(true);
+        when(knowledgeService.embedQuery(any())).thenReturn(vector);
+        when(knowledgeService.search(any(), any(float[].class), any(), anyInt())).thenReturn(List.of());
+        when(dashScopeClient.chat(any())).thenReturn(new LlmAnswer("解析内容", "qwen-plus", 120L));
+
+        qaService.answer(new QaRequest("解释分治思想", List.of(), 4, true));
+
+        verify(knowledgeService).embedQuery("解释分治思想");
+        verify(knowledgeService).search(eq("解释分治思想"), eq(vector), eq(List.of()), eq(4));
+        verify(knowledgeService, never()).search(any(), any(), anyInt());
+    }
+}
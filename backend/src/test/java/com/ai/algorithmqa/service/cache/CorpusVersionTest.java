@@ -0,0 +1,57 @@
+package com.ai.algorithmqa.service.cache;
+
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class CorpusVersionTest {
+
+    private final CorpusVersion corpusVersion = new CorpusVersion();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void bumpOutsideTransactionShouldChangeEtagImmediately() {
+        String before = corpusVersion.etag();
+
+        corpusVersion.bump();
+        corpusVersion.onKnowledgeChanged(new KnowledgeChangedEvent(1L));
+
+        assertThat(corpusVersion.current()).isEqualTo(2);
+        assertThat(corpusVersion.etag()).isNotEqualTo(before).startsWith("\"").endsWith("-2\"");
+    }
+
+    @Test
+    void bumpInsideTransactionShouldWaitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        String before = corpusVersion.etag();
+
+        corpusVersion.bump();
+
+        assertThat(corpusVersion.current()).isZero();
+        assertThat(corpusVersion.etag()).isEqualTo(before);
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        assertThat(corpusVersion.current()).isEqualTo(1);
+    }
+
+    @Test
+    void rolledBackBumpShouldNotChangeVersion() {
+        TransactionSynchronizationManager.initSynchronization();
+
+        corpusVersion.bump();
+        TransactionSynchronizationManager.getSynchronizations().forEach(synchronization ->
+                synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+        TransactionSynchronizationManager.clearSynchronization();
+
+        assertThat(corpusVersion.current()).isZero();
+    }
+}
@@ -0,0 +1,59 @@
+package com.ai.algorithmqa.service.cache;
+
+import com.ai.algorithmqa.domain.dto.FilterSuggestion;
+import com.ai.algorithmqa.domain.entity.KnowledgeTopic;
+import com.ai.algorithmqa.mapper.KnowledgeTopicMapper;
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class FilterVocabularyTest {
+
+    @Mock
+    private KnowledgeTopicMapper topicMapper;
+
+    @Test
+    void shouldLoadOnceAndCountTopicsPerKeyword() {
+        when(topicMapper.selectKeywords()).thenReturn(List.of(
+                topic(1L, "分治, 递归,DP"), topic(2L, "dp,贪心"), topic(3L, null)));
+        FilterVocabulary vocabulary = new FilterVocabulary(topicMapper);
+
+        assertThat(vocabulary.all()).containsExactly("DP", "分治", "贪心", "递归");
+        assertThat(vocabulary.suggest("d", 10)).containsExactly(new FilterSuggestion("DP", 2));
+        assertThat(vocabulary.suggest("", 2)).hasSize(2);
+        verify(topicMapper, times(1)).selectKeywords();
+    }
+
+    @Test
+    void knowledgeChangeShouldRefreshOnlyChangedTopics() {
+        when(topicMapper.selectKeywords()).thenReturn(List.of(topic(1L, "分治,递归"), topic(2L, "递归")));
+        FilterVocabulary vocabulary = new FilterVocabulary(topicMapper);
+        vocabulary.all();
+
+        when(topicMapper.selectKeywordsByIds(anyCollection())).thenReturn(List.of(topic(1L, "分治,归并")));
+        vocabulary.onKnowledgeChanged(new KnowledgeChangedEvent(1L));
+        vocabulary.onKnowledgeChanged(new KnowledgeChangedEvent(2L));
+
+        assertThat(vocabulary.all()).containsExactly("分治", "归并");
+        assertThat(vocabulary.suggest("递", 10)).isEmpty();
+        verify(topicMapper, times(1)).selectKeywordsByIds(anyCollection());
+    }
+
+    private static KnowledgeTopic topic(Long id, String keywords) {
+        KnowledgeTopic topic = new KnowledgeTopic();
+        topic.setId(id);
+        topic.setKeywords(keywords);
+        return topic;
+    }
+}
@@ -0,0 +1,63 @@
+package com.ai.algorithmqa.service.cache;
+
+import com.ai.algorithmqa.config.AnswerCacheProperties;
+import com.ai.algorithmqa.domain.dto.QaRequest;
+import com.ai.algorithmqa.domain.dto.QaResponse;
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SemanticAnswerCacheTest {
+
+    private final SemanticAnswerCache cache = new SemanticAnswerCache(
+            new AnswerCacheProperties(true, 0.95, 2, Duration.ofHours(1), 64));
+    private final QaResponse answer = new QaResponse("分治即分而治之", List.of(), "qwen-plus", 800L);
+
+    @Test
+    void paraphraseAboveThresholdShouldHitWithinSameScope() {
+        QaRequest original = new QaRequest("解释分治思想", List.of("分治", "递归"), 4, true);
+        cache.put(original, unit(1f, 0.1f), answer, cache.generation());
+
+        QaRequest paraphrase = new QaRequest("什么是分治", List.of("递归", "分治"), null, true);
+        assertThat(cache.lookup(paraphrase, unit(1f, 0.15f))).isNotNull();
+        assertThat(cache.lookup(paraphrase, unit(0.2f, 1f))).isNull();
+
+        QaRequest withoutKnowledgeBase = new QaRequest("什么是分治", List.of("分治", "递归"), 4, false);
+        assertThat(cache.lookup(withoutKnowledgeBase, unit(1f, 0.1f))).isNull();
+    }
+
+    @Test
+    void knowledgeChangeShouldClearAndRejectInFlightAnswers() {
+        QaRequest request = new QaRequest("解释分治思想", List.of(), 4, true);
+        long generation = cache.generation();
+        cache.put(request, unit(1f, 0f), answer, generation);
+
+        cache.onKnowledgeChanged(new KnowledgeChangedEvent(7L));
+        cache.put(request, unit(1f, 0f), answer, generation);
+
+        assertThat(cache.size()).isZero();
+        assertThat(cache.lookup(request, unit(1f, 0f))).isNull();
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedBeyondMaxEntries() {
+        QaRequest request = new QaRequest("q", List.of(), 4, true);
+        cache.put(request, unit(1f, 0f), answer, cache.generation());
+        cache.put(request, unit(0f, 1f), answer, cache.generation());
+        cache.lookup(request, unit(1f, 0f));
+        cache.put(request, unit(-1f, 0f), answer, cache.generation());
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(cache.lookup(request, unit(1f, 0f))).isNotNull();
+        assertThat(cache.lookup(request, unit(0f, 1f))).isNull();
+    }
+
+    private static float[] unit(float x, float y) {
+        float norm = (float) Math.sqrt(x * x + y * y);
+        return new float[]{x / norm, y / norm};
+    }
+}
@@ -0,0 +1,67 @@
+package com.ai.algorithmqa.service.cache;
+
+import com.ai.algorithmqa.config.VisualizationCacheProperties;
+import com.ai.algorithmqa.domain.dto.AlgorithmVisualizationResponse;
+import com.ai.algorithmqa.service.event.KnowledgeChangedEvent;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class VisualizationCacheTest {
+
+    private final VisualizationCache cache = new VisualizationCache(
+            new VisualizationCacheProperties(true, 2), new ObjectMapper());
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void warmReadShouldNotCallLoaderAndGzipShouldRoundTrip() throws IOException {
+        VisualizationCache.Payload first = cache.get(1L, () -> load(1L, "归并排序"));
+        VisualizationCache.Payload second = cache.get(1L, () -> load(1L, "归并排序"));
+
+        assertThat(loads).hasValue(1);
+        assertThat(second).isSameAs(first);
+        assertThat(first.etag()).startsWith("\"").endsWith("\"");
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(first.gzip()))) {
+            assertThat(in.readAllBytes()).isEqualTo(first.json());
+        }
+    }
+
+    @Test
+    void invalidationShouldReloadAndChangeEtag() {
+        String before = cache.get(1L, () -> load(1L, "归并排序")).etag();
+
+        cache.invalidate(1L);
+        String after = cache.get(1L, () -> load(1L, "快速排序")).etag();
+        cache.onKnowledgeChanged(new KnowledgeChangedEvent(1L));
+        cache.get(1L, () -> load(1L, "快速排序"));
+
+        assertThat(loads).hasValue(3);
+        assertThat(after).isNotEqualTo(before);
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedBeyondMaxEntries() {
+        cache.get(1L, () -> load(1L, "a"));
+        cache.get(2L, () -> load(2L, "b"));
+        cache.get(1L, () -> load(1L, "a"));
+        cache.get(3L, () -> load(3L, "c"));
+        cache.get(1L, () -> load(1L, "a"));
+
+        assertThat(cache.size()).isEqualTo(2);
+        assertThat(loads).hasValue(3);
+    }
+
+    private AlgorithmVisualizationResponse load(Long topicId, String algorithm) {
+        loads.incrementAndGet();
+        return new AlgorithmVisualizationResponse(topicId, "排序", null, "算法", 2,
+                List.of(new AlgorithmVisualizationResponse.AlgorithmBlock(10L, algorithm, "分治", null,
+                        "O(n log n)", "O(n)", "void sort() {}", null, "graph TD", null)));
+    }
+}
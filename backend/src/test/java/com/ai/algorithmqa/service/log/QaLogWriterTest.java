@@ -0,0 +1,83 @@
+package com.ai.algorithmqa.service.log;
+
+import com.ai.algorithmqa.config.QaLogWriterProperties;
+import com.ai.algorithmqa.domain.entity.QaLog;
+import com.ai.algorithmqa.mapper.QaLogMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class QaLogWriterTest {
+
+    @Mock
+    private QaLogMapper qaLogMapper;
+
+    @Test
+    void stopShouldFlushQueuedLogsInBatches() {
+        QaLogWriter writer = new QaLogWriter(qaLogMapper, properties(100, 2, QaLogWriterProperties.Overflow.DROP));
+        for (int i = 0; i < 5; i++) {
+            assertThat(writer.submit(entry("q" + i))).isTrue();
+        }
+
+        writer.stop();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<QaLog>> captor = ArgumentCaptor.forClass(List.class);
+        verify(qaLogMapper, atLeastOnce()).insertBatch(captor.capture());
+        List<String> questions = new ArrayList<>();
+        for (List<QaLog> batch : captor.getAllValues()) {
+            assertThat(batch.size()).isLessThanOrEqualTo(2);
+            batch.forEach(log -> questions.add(log.getQuestion()));
+        }
+        assertThat(questions).containsExactly("q0", "q1", "q2", "q3", "q4");
+        assertThat(writer.queueDepth()).isZero();
+    }
+
+    @Test
+    void fullQueueShouldDropWhenPolicyIsDrop() {
+        QaLogWriter writer = new QaLogWriter(qaLogMapper, properties(2, 10, QaLogWriterProperties.Overflow.DROP));
+
+        assertThat(writer.submit(entry("a"))).isTrue();
+        assertThat(writer.submit(entry("b"))).isTrue();
+        assertThat(writer.submit(entry("c"))).isFalse();
+
+        assertThat(writer.droppedCount()).isEqualTo(1);
+        assertThat(writer.queueDepth()).isEqualTo(2);
+    }
+
+    @Test
+    void failedBatchShouldNotStopLaterWrites() {
+        when(qaLogMapper.insertBatch(anyList())).thenThrow(new RuntimeException("db down")).thenReturn(1);
+        QaLogWriter writer = new QaLogWriter(qaLogMapper, properties(10, 1, QaLogWriterProperties.Overflow.DROP));
+        writer.submit(entry("a"));
+        writer.submit(entry("b"));
+
+        writer.stop();
+
+        verify(qaLogMapper, times(2)).insertBatch(anyList());
+    }
+
+    private static QaLogWriterProperties properties(int capacity, int batchSize, QaLogWriterProperties.Overflow overflow) {
+        return new QaLogWriterProperties(capacity, batchSize, Duration.ofMillis(50), overflow, Duration.ofMillis(10));
+    }
+
+    private static QaLog entry(String question) {
+        QaLog log = new QaLog();
+        log.setQuestion(question);
+        return log;
+    }
+}
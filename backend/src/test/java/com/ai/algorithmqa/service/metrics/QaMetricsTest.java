@@ -0,0 +1,55 @@
+package com.ai.algorithmqa.service.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.offset;
+
+class QaMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final QaMetrics metrics = new QaMetrics(registry);
+
+    @Test
+    void qaRequestsShouldBeTaggedByModeAndOutcome() {
+        metrics.recordQa("sync", "success", TimeUnit.MILLISECONDS.toNanos(120));
+        metrics.recordQa("sync", "success", TimeUnit.MILLISECONDS.toNanos(80));
+        metrics.recordQa("stream", "cache_hit", TimeUnit.MILLISECONDS.toNanos(5));
+
+        assertThat(registry.get("qa.request.duration").tags("mode", "sync", "outcome", "success").timer().count())
+                .isEqualTo(2);
+        assertThat(registry.get("qa.request.duration").tags("mode", "sync", "outcome", "success").timer()
+                .totalTime(TimeUnit.MILLISECONDS)).isEqualTo(200.0, offset(0.001));
+        assertThat(registry.get("qa.request.duration").tags("mode", "stream", "outcome", "cache_hit").timer().count())
+                .isEqualTo(1);
+        assertThat(registry.find("qa.request.duration").tags("mode", "stream", "outcome", "error").timer()).isNull();
+    }
+
+    @Test
+    void embeddingFallbacksShouldCountTextsPerReason() {
+        metrics.recordEmbeddingFallback("missing", 2);
+        metrics.recordEmbeddingFallback("missing", 1);
+        metrics.recordEmbeddingFallback("no_key", 5);
+        metrics.recordEmbeddingRequest(false, TimeUnit.MILLISECONDS.toNanos(30));
+
+        assertThat(registry.get("embedding.fallback").tag("reason", "missing").counter().count()).isEqualTo(3.0);
+        assertThat(registry.get("embedding.fallback").tag("reason", "no_key").counter().count()).isEqualTo(5.0);
+        assertThat(registry.get("embedding.request.duration").tag("outcome", "error").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    void streamShouldRecordTimeToFirstTokenAndOutputRate() {
+        metrics.recordLlmStream(TimeUnit.MILLISECONDS.toNanos(300), TimeUnit.MILLISECONDS.toNanos(2_300), 100);
+        // 没收到任何内容的流不计入首 token 延迟
+        metrics.recordLlmStream(-1, TimeUnit.SECONDS.toNanos(1), 0);
+
+        assertThat(registry.get("llm.stream.time.to.first.token").timer().count()).isEqualTo(1);
+        assertThat(registry.get("llm.stream.time.to.first.token").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(300.0, offset(0.001));
+        assertThat(registry.get("llm.stream.tokens.per.second").summary().count()).isEqualTo(1);
+        assertThat(registry.get("llm.stream.tokens.per.second").summary().totalAmount()).isEqualTo(50.0, offset(1e-9));
+    }
+}
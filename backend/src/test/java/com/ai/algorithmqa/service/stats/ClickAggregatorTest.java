@@ -0,0 +1,124 @@
+package com.ai.algorithmqa.service.stats;
+
+import com.ai.algorithmqa.config.ClickStatsProperties;
+import com.ai.algorithmqa.domain.entity.TopicClickRollup;
+import com.ai.algorithmqa.mapper.SearchClickLogMapper;
+import com.ai.algorithmqa.mapper.TopicClickRollupMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ClickAggregatorTest {
+
+    private static final Instant T0 = Instant.parse("2026-01-01T10:00:10Z");
+
+    @Mock
+    private TopicClickRollupMapper rollupMapper;
+    @Mock
+    private SearchClickLogMapper clickLogMapper;
+
+    @Test
+    void flushShouldUpsertOnlyNewClicksSinceLastFlush() {
+        ClickAggregator aggregator = aggregator(Clock.fixed(T0, ZoneOffset.UTC), false);
+        aggregator.record(1L, "快速排序");
+        aggregator.record(1L, "快速排序");
+        aggregator.record(2L, "归并排序");
+
+        aggregator.flush();
+        aggregator.record(1L, "快速排序");
+        aggregator.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TopicClickRollup>> captor = ArgumentCaptor.forClass(List.class);
+        verify(rollupMapper, times(2)).upsertBatch(captor.capture());
+        List<TopicClickRollup> first = captor.getAllValues().get(0);
+        assertThat(first).hasSize(2);
+        assertThat(first).filteredOn(row -> row.getTopicId() == 1L)
+                .singleElement().extracting(TopicClickRollup::getClickCount).isEqualTo(2L);
+        List<TopicClickRollup> second = captor.getAllValues().get(1);
+        assertThat(second).singleElement().satisfies(row -> {
+            assertThat(row.getTopicId()).isEqualTo(1L);
+            assertThat(row.getClickCount()).isEqualTo(1L);
+        });
+        verify(clickLogMapper, never()).insertBatch(anyList());
+    }
+
+    @Test
+    void failedUpsertShouldBeRetriedOnNextFlush() {
+        when(rollupMapper.upsertBatch(anyList())).thenThrow(new RuntimeException("db down")).thenReturn(1);
+        ClickAggregator aggregator = aggregator(Clock.fixed(T0, ZoneOffset.UTC), false);
+        aggregator.record(1L, "快速排序");
+
+        aggregator.flush();
+        aggregator.flush();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<TopicClickRollup>> captor = ArgumentCaptor.forClass(List.class);
+        verify(rollupMapper, times(2)).upsertBatch(captor.capture());
+        assertThat(captor.getAllValues().get(1)).singleElement()
+                .extracting(TopicClickRollup::getClickCount).isEqualTo(1L);
+    }
+
+    @Test
+    void finishedMinuteBucketsShouldBeDroppedAfterFlush() {
+        MutableClock clock = new MutableClock(T0);
+        ClickAggregator aggregator = aggregator(clock, true);
+        aggregator.record(1L, "快速排序");
+        aggregator.flush();
+
+        clock.advance(Duration.ofMinutes(1));
+        aggregator.flush();
+
+        assertThat(aggregator.bucketCount()).isZero();
+        verify(clickLogMapper).insertBatch(anyList());
+    }
+
+    private ClickAggregator aggregator(Clock clock, boolean rawLog) {
+        return new ClickAggregator(rollupMapper, clickLogMapper,
+                new ClickStatsProperties(Duration.ofSeconds(5), 500, rawLog, 100), clock);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        private MutableClock(Instant now) {
+            this.now = now;
+        }
+
+        void advance(Duration duration) {
+            now = now.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return now;
+        }
+    }
+}
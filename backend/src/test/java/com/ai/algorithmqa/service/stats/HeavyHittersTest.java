@@ -0,0 +1,99 @@
+package com.ai.algorithmqa.service.stats;
+
+import com.ai.algorithmqa.config.TopNProperties;
+import com.ai.algorithmqa.mapper.QaLogMapper;
+import com.ai.algorithmqa.mapper.TopicClickRollupMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class HeavyHittersTest {
+
+    private static final long NOW = 1_700_000_000_000L;
+
+    @Mock
+    private QaLogMapper qaLogMapper;
+    @Mock
+    private TopicClickRollupMapper topicClickRollupMapper;
+
+    @TempDir
+    private Path dir;
+
+    @Test
+    void differentPhrasingsShouldCountTogetherAndShowLatestOriginal() {
+        HeavyHitters heavyHitters = heavyHitters(null, false);
+
+        heavyHitters.recordQuestion("什么是分治？");
+        heavyHitters.recordQuestion(" 什么是分治 ! ");
+        heavyHitters.recordQuestion("什么是分治");
+        heavyHitters.recordQuestion("快速排序");
+
+        assertThat(heavyHitters.top(HeavyHitters.Dimension.QUESTIONS, HeavyHitters.Window.ALL, 10))
+                .containsExactly(new SpaceSaving.Entry("什么是分治", 3, 0), new SpaceSaving.Entry("快速排序", 1, 0));
+        assertThat(heavyHitters.top(HeavyHitters.Dimension.QUESTIONS, HeavyHitters.Window.HOUR, 1))
+                .extracting(SpaceSaving.Entry::key).containsExactly("什么是分治");
+    }
+
+    @Test
+    void seededQuestionsShouldKeepDatabaseOriginalAndMergeWithNewPhrasings() {
+        when(qaLogMapper.selectTopQuestions(100)).thenReturn(List.of(
+                Map.of("question", "什么是分治？", "count", 5L)));
+        HeavyHitters heavyHitters = heavyHitters(null, true);
+        heavyHitters.start();
+
+        assertThat(heavyHitters.top(HeavyHitters.Dimension.QUESTIONS, HeavyHitters.Window.ALL, 1))
+                .containsExactly(new SpaceSaving.Entry("什么是分治？", 5, 0));
+
+        heavyHitters.recordQuestion("什么是分治!");
+
+        assertThat(heavyHitters.top(HeavyHitters.Dimension.QUESTIONS, HeavyHitters.Window.ALL, 1))
+                .containsExactly(new SpaceSaving.Entry("什么是分治!", 6, 0));
+    }
+
+    @Test
+    void checkpointShouldRestoreCountsAndOriginals() {
+        Path file = dir.resolve("top-n.json");
+        HeavyHitters before = heavyHitters(file, false);
+        before.recordQuestion("Dijkstra 为什么不能处理负权边？");
+        before.recordQuestion("ＤＩＪＫＳＴＲＡ 为什么不能处理负权边");
+        before.checkpoint();
+
+        HeavyHitters after = heavyHitters(file, false);
+        after.start();
+        after.stop();
+
+        assertThat(after.top(HeavyHitters.Dimension.QUESTIONS, HeavyHitters.Window.ALL, 1))
+                .containsExactly(new SpaceSaving.Entry("ＤＩＪＫＳＴＲＡ 为什么不能处理负权边", 2, 0));
+        assertThat(after.top(HeavyHitters.Dimension.QUESTIONS, HeavyHitters.Window.DAY, 1))
+                .extracting(SpaceSaving.Entry::count).containsExactly(2L);
+    }
+
+    @Test
+    void evictedQuestionsShouldNotKeepTheirOriginals() {
+        HeavyHitters heavyHitters = heavyHitters(null, false);
+        for (int i = 0; i < 10_000; i++) {
+            heavyHitters.recordQuestion("问题" + i);
+        }
+
+        assertThat(heavyHitters.top(HeavyHitters.Dimension.QUESTIONS, HeavyHitters.Window.ALL, 100)).hasSize(100);
+        // 容量 100，全量 + 三个窗口各自只跟踪 100 个指纹，展示问法不会随问题种类无限增长
+        assertThat(heavyHitters.questionLabelCount()).isLessThanOrEqualTo(2 * 4 * 100);
+    }
+
+    private HeavyHitters heavyHitters(Path checkpoint, boolean seed) {
+        TopNProperties properties = new TopNProperties(100, checkpoint == null ? "" : checkpoint.toString(),
+                Duration.ofHours(1), seed);
+        return new HeavyHitters(properties, qaLogMapper, topicClickRollupMapper, () -> NOW);
+    }
+}
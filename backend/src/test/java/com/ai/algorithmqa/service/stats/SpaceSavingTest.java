@@ -0,0 +1,59 @@
+package com.ai.algorithmqa.service.stats;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Random;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class SpaceSavingTest {
+
+    @Test
+    void heavyHittersShouldSurviveLongTail() {
+        SpaceSaving summary = new SpaceSaving(50);
+        Random random = new Random(7);
+        for (int i = 0; i < 20000; i++) {
+            if (i % 10 == 0) {
+                summary.offer("hot-a");
+            } else if (i % 10 == 1) {
+                summary.offer("hot-b");
+            } else {
+                summary.offer("tail-" + random.nextInt(5000));
+            }
+        }
+
+        List<SpaceSaving.Entry> top = summary.top(2);
+
+        assertThat(top).extracting(SpaceSaving.Entry::key).containsExactlyInAnyOrder("hot-a", "hot-b");
+        assertThat(top).allSatisfy(entry -> {
+            assertThat(entry.count()).isGreaterThanOrEqualTo(2000);
+            assertThat(entry.count() - entry.error()).isLessThanOrEqualTo(2000);
+        });
+        assertThat(summary.size()).isEqualTo(50);
+    }
+
+    @Test
+    void windowShouldForgetExpiredSlots() {
+        WindowedTopN window = new WindowedTopN(1000, 3, 10);
+        window.record("old", 0);
+        window.record("old", 10);
+        window.record("new", 2500);
+
+        assertThat(window.top(5, 2999)).extracting(SpaceSaving.Entry::key).containsExactly("old", "new");
+        assertThat(window.top(5, 3000)).extracting(SpaceSaving.Entry::key).containsExactly("new");
+    }
+
+    @Test
+    void snapshotShouldRoundTrip() {
+        WindowedTopN window = new WindowedTopN(1000, 3, 10);
+        window.record("a", 100);
+        window.record("a", 1100);
+        window.record("b", 1200);
+
+        WindowedTopN restored = new WindowedTopN(1000, 3, 10);
+        restored.restore(window.snapshot(1500), 1500);
+
+        assertThat(restored.top(5, 1500)).containsExactlyElementsOf(window.top(5, 1500));
+    }
+}
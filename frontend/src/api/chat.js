@@ -24,6 +24,15 @@ export const fetchFilters = () => {
   return client.get('/knowledge/filters')
 }
 
+export const suggestFilters = (prefix, limit = 10) => {
+  return client.get('/knowledge/filters/suggest', {
+    params: {
+      prefix,
+      limit
+    }
+  })
+}
+
 export const streamAsk = async (payload, onChunk, onReference, onDone, onError) => {
   try {
     const response = await fetch('/api/qa/stream', {
@@ -11,7 +11,8 @@ export const logClick = (topicId, topicTitle) => {
 
 /**
  * 获取统计仪表板数据
+ * @param {string} [window] - 时间窗口 hour / day / week / all，缺省为 all
  */
-export const fetchDashboardStats = () => {
-    return client.get('/stats/dashboard')
+export const fetchDashboardStats = (window) => {
+    return client.get('/stats/dashboard', { params: window ? { window } : {} })
 }